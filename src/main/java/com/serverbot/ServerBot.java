@@ -19,12 +19,16 @@ import com.serverbot.listeners.BlackjackButtonListener;
 import com.serverbot.listeners.GlobalChatListener;
 import com.serverbot.listeners.GlobalChatButtonListener;
 import com.serverbot.listeners.AutoConfigListener;
+import com.serverbot.listeners.WebhookPoolListener;
 import com.serverbot.services.CommandManager;
 import com.serverbot.services.ConfigManager;
+import com.serverbot.services.MessageExpiryService;
+import com.serverbot.services.ModerationPipeline;
 import com.serverbot.services.SchedulerService;
 import com.serverbot.services.TicketService;
 import com.serverbot.services.ProxyService;
 import com.serverbot.services.GlobalChatService;
+import com.serverbot.services.WebhookPool;
 import com.serverbot.utils.BotConfig;
 import com.serverbot.utils.WarnExpiryManager;
 import net.dv8tion.jda.api.JDA;
@@ -163,8 +167,11 @@ public class ServerBot {
                             new GlobalChatListener(),
                             new GlobalChatButtonListener(),
                             new AutoConfigListener(),
+                            new WebhookPoolListener(),
                             new com.serverbot.commands.games.PokerCommand(),
-                            new com.serverbot.commands.utility.DeleteDataCommand()
+                            new com.serverbot.commands.utility.DeleteDataCommand(),
+                            new com.serverbot.commands.moderation.HistCommand(),
+                            new com.serverbot.commands.moderation.ModSearchCommand()
                     )
                     .build();
             
@@ -179,6 +186,7 @@ public class ServerBot {
             try {
                 logger.info("Starting scheduler service...");
                 SchedulerService.getInstance().setJDA(jda);
+                MessageExpiryService.getInstance().start(jda);
                 logger.info("✓ Scheduler service started");
             } catch (Exception e) {
                 logger.error("Failed to start scheduler service", e);
@@ -323,10 +331,22 @@ public class ServerBot {
         // Stop warning expiry manager
         WarnExpiryManager.stop();
         
+        // Write any queued moderation records before the scheduler stops
+        ModerationPipeline.getInstance().shutdown();
+        
         // Stop scheduler service
         if (SchedulerService.getInstance() != null) {
             SchedulerService.getInstance().shutdown();
         }
+        MessageExpiryService.getInstance().shutdown();
+        
+        if (proxyService != null) {
+            proxyService.shutdown();
+        }
+        if (globalChatService != null) {
+            globalChatService.shutdown();
+        }
+        WebhookPool.getInstance().shutdown();
         
         if (storageManager != null) {
             storageManager.close();
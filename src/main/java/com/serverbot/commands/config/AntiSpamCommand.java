@@ -50,7 +50,21 @@ public class AntiSpamCommand implements SlashCommand {
         switch (setting) {
             case "view" -> handleView(event);
             case "message-limit" -> handleMessageLimit(event);
+            case "time-window" -> handleTimeWindow(event);
             case "duplicate-limit" -> handleDuplicateLimit(event);
+            case "duplicate-window" -> handleRangeSetting(event, "antiSpamDuplicateWindow", 5, 300,
+                "Duplicate Window Updated", "Repeated text is now tracked for **%d seconds** after it was last seen.");
+            case "raid-authors" -> handleRangeSetting(event, "antiSpamRaidAuthorLimit", 2, 8,
+                "Raid Author Limit Updated", "The same text from **%d different users** now triggers anti-spam.");
+            case "raid-channels" -> handleRangeSetting(event, "antiSpamRaidChannelLimit", 2, 8,
+                "Raid Channel Limit Updated", "The same text in **%d different channels** now triggers anti-spam.");
+            case "raid-protection" -> handleRaidProtection(event);
+            case "raid-joins" -> handleRangeSetting(event, "raidJoinThreshold", 3, 1000,
+                "Raid Join Threshold Updated", "**%d joins** within the raid window now trigger raid protection.");
+            case "raid-window" -> handleRangeSetting(event, "raidJoinWindow", 5, 120,
+                "Raid Window Updated", "Joins are now counted over a **%d second** window.");
+            case "raid-cooldown" -> handleRangeSetting(event, "raidCooldown", 1, 1440,
+                "Raid Cooldown Updated", "After a raid is detected, raid mode lasts **%d minutes**.");
             case "mention-limit" -> handleMentionLimit(event);
             case "caps-limit" -> handleCapsLimit(event);
             case "auto-delete" -> handleAutoDelete(event);
@@ -80,8 +94,14 @@ public class AntiSpamCommand implements SlashCommand {
                     "`/antispam setting:punishment type:<warn/mute/timeout/kick/ban>` - Set punishment", false)
                 .addField("**All Settings**",
                     "• `view` - View current configuration\n" +
-                    "• `message-limit` - Messages per 10 seconds (1-50)\n" +
+                    "• `message-limit` - Messages per time window (1-50)\n" +
+                    "• `time-window` - Message limit window in seconds (2-120)\n" +
                     "• `duplicate-limit` - Duplicate message limit (1-20)\n" +
+                    "• `duplicate-window` - Seconds repeated text is tracked (5-300)\n" +
+                    "• `raid-authors` - Users posting the same text (2-8)\n" +
+                    "• `raid-channels` - Channels receiving the same text (2-8)\n" +
+                    "• `raid-protection` - Auto-lockdown on join raids\n" +
+                    "• `raid-joins` / `raid-window` / `raid-cooldown` - Raid thresholds\n" +
                     "• `mention-limit` - Mentions per message (1-30)\n" +
                     "• `caps-limit` - Max CAPS percentage (10-100)\n" +
                     "• `auto-delete` - Auto-delete spam messages\n" +
@@ -97,7 +117,8 @@ public class AntiSpamCommand implements SlashCommand {
                     "• `type` - Punishment type (warn/mute/timeout/kick/ban)\n" +
                     "• `duration` - Duration in minutes for timed punishments", false)
                 .addField("**Examples**",
-                    "`/antispam setting:message-limit amount:8` - Allow 8 messages per 10s\n" +
+                    "`/antispam setting:message-limit amount:8` - Allow 8 messages per window\n" +
+                    "`/antispam setting:time-window amount:15` - Count messages over 15 seconds\n" +
                     "`/antispam setting:punishment type:mute` - Mute spammers\n" +
                     "`/antispam setting:mute-duration duration:60` - 1 hour mute\n" +
                     "`/antispam setting:auto-delete enabled:true` - Auto-delete spam", false)
@@ -117,8 +138,11 @@ public class AntiSpamCommand implements SlashCommand {
 
             // Message limits
             embed.addField("Message Limits", 
-                          "**Messages per 10s:** " + settings.getOrDefault("antiSpamMessageLimit", 5) + "\n" +
+                          "**Messages per " + formatWindow(settings) + ":** " + settings.getOrDefault("antiSpamMessageLimit", 5) + "\n" +
                           "**Duplicate messages:** " + settings.getOrDefault("antiSpamDuplicateLimit", 3) + "\n" +
+                          "**Same text across users/channels:** " + settings.getOrDefault("antiSpamRaidAuthorLimit", 3) +
+                          " / " + settings.getOrDefault("antiSpamRaidChannelLimit", 3) +
+                          " (within " + settings.getOrDefault("antiSpamDuplicateWindow", 30) + "s)\n" +
                           "**Mentions per message:** " + settings.getOrDefault("antiSpamMentionLimit", 5) + "\n" +
                           "**Max CAPS percentage:** " + settings.getOrDefault("antiSpamCapsLimit", 100) + "%", 
                           false);
@@ -139,6 +163,14 @@ public class AntiSpamCommand implements SlashCommand {
             
             embed.addField("Actions", actionsText, false);
 
+            // Raid protection
+            embed.addField("Raid Protection",
+                          "**Enabled:** " + (Boolean.TRUE.equals(settings.get("raidProtectionEnabled")) ? CustomEmojis.ON : CustomEmojis.OFF) + "\n" +
+                          "**Trigger:** " + settings.getOrDefault("raidJoinThreshold", 10) + " joins in " +
+                          settings.getOrDefault("raidJoinWindow", 10) + "s\n" +
+                          "**Cooldown:** " + settings.getOrDefault("raidCooldown", 10) + " min",
+                          false);
+
             // Status
             Boolean automodEnabled = (Boolean) settings.get("enableAutomod");
             embed.addField("Status", 
@@ -161,7 +193,7 @@ public class AntiSpamCommand implements SlashCommand {
         if (amountOption == null) {
             event.replyEmbeds(EmbedUtils.createErrorEmbed(
                 "Missing Parameter [100]", 
-                "Please specify the message limit per 10 seconds.\n" +
+                "Please specify the message limit per time window.\n" +
                 "Error Code: **100** - Missing Setting Parameter\n" +
                 "Use `/error category:1` for full 1XX-series documentation."
             )).setEphemeral(true).queue();
@@ -185,7 +217,9 @@ public class AntiSpamCommand implements SlashCommand {
             
             event.replyEmbeds(EmbedUtils.createSuccessEmbed(
                 "Message Limit Updated", 
-                "Users can now send up to **" + amount + " messages per 10 seconds** before triggering anti-spam."
+                "Users can now send up to **" + amount + " messages per " +
+                formatWindow(ServerBot.getStorageManager().getGuildSettings(event.getGuild().getId())) +
+                "** before triggering anti-spam."
             )).queue();
 
         } catch (Exception e) {
@@ -198,6 +232,133 @@ public class AntiSpamCommand implements SlashCommand {
         }
     }
 
+    private void handleTimeWindow(SlashCommandInteractionEvent event) {
+        OptionMapping amountOption = event.getOption("amount");
+        if (amountOption == null) {
+            event.replyEmbeds(EmbedUtils.createErrorEmbed(
+                "Missing Parameter [100]", 
+                "Please specify the time window in seconds.\n" +
+                "Error Code: **100** - Missing Setting Parameter\n" +
+                "Use `/error category:1` for full 1XX-series documentation."
+            )).setEphemeral(true).queue();
+            return;
+        }
+
+        long amount = amountOption.getAsLong();
+        
+        if (amount < 2 || amount > 120) {
+            event.replyEmbeds(EmbedUtils.createErrorEmbed(
+                "Invalid Amount [103]", 
+                "Time window must be between 2 and 120 seconds.\n" +
+                "Error Code: **103** - Value Out of Range\n" +
+                "Use `/error category:1` for full 1XX-series documentation."
+            )).setEphemeral(true).queue();
+            return;
+        }
+
+        try {
+            ServerBot.getStorageManager().updateGuildSettings(event.getGuild().getId(), "antiSpamTimeWindow", amount);
+            
+            event.replyEmbeds(EmbedUtils.createSuccessEmbed(
+                "Time Window Updated", 
+                "The message limit now applies to any **" + amount + " second** window."
+            )).queue();
+
+        } catch (Exception e) {
+            event.replyEmbeds(EmbedUtils.createErrorEmbed(
+                "Update Failed [400]", 
+                "Failed to update time window: " + e.getMessage() + "\n" +
+                "Error Code: **400** - Configuration Update Failed\n" +
+                "Use `/error category:4` for full 4XX-series documentation."
+            )).setEphemeral(true).queue();
+        }
+    }
+
+    private void handleRaidProtection(SlashCommandInteractionEvent event) {
+        OptionMapping enableOption = event.getOption("enabled");
+        if (enableOption == null) {
+            event.replyEmbeds(EmbedUtils.createErrorEmbed(
+                "Missing Parameter [100]", 
+                "Please specify whether to enable raid protection.\n" +
+                "Error Code: **100** - Missing Setting Parameter\n" +
+                "Use `/error category:1` for full 1XX-series documentation."
+            )).setEphemeral(true).queue();
+            return;
+        }
+
+        boolean enabled = enableOption.getAsBoolean();
+        
+        try {
+            ServerBot.getStorageManager().updateGuildSettings(event.getGuild().getId(), "raidProtectionEnabled", enabled);
+            
+            event.replyEmbeds(EmbedUtils.createSuccessEmbed(
+                "Raid Protection " + (enabled ? "Enabled" : "Disabled"), 
+                enabled
+                    ? "Join raids will **automatically lock channels** and **raise verification**, with a single alert."
+                    : "Join raids will **not** trigger an automatic lockdown."
+            )).queue();
+
+        } catch (Exception e) {
+            event.replyEmbeds(EmbedUtils.createErrorEmbed(
+                "Update Failed [400]", 
+                "Failed to update raid protection: " + e.getMessage() + "\n" +
+                "Error Code: **400** - Configuration Update Failed\n" +
+                "Use `/error category:4` for full 4XX-series documentation."
+            )).setEphemeral(true).queue();
+        }
+    }
+
+    /**
+     * Update a numeric setting taken from the amount option after a range check
+     */
+    private void handleRangeSetting(SlashCommandInteractionEvent event, String key, int min, int max,
+                                    String title, String messageFormat) {
+        OptionMapping amountOption = event.getOption("amount");
+        if (amountOption == null) {
+            event.replyEmbeds(EmbedUtils.createErrorEmbed(
+                "Missing Parameter [100]", 
+                "Please specify an `amount` between " + min + " and " + max + ".\n" +
+                "Error Code: **100** - Missing Setting Parameter\n" +
+                "Use `/error category:1` for full 1XX-series documentation."
+            )).setEphemeral(true).queue();
+            return;
+        }
+
+        long amount = amountOption.getAsLong();
+        
+        if (amount < min || amount > max) {
+            event.replyEmbeds(EmbedUtils.createErrorEmbed(
+                "Invalid Amount [103]", 
+                "Value must be between " + min + " and " + max + ".\n" +
+                "Error Code: **103** - Value Out of Range\n" +
+                "Use `/error category:1` for full 1XX-series documentation."
+            )).setEphemeral(true).queue();
+            return;
+        }
+
+        try {
+            ServerBot.getStorageManager().updateGuildSettings(event.getGuild().getId(), key, amount);
+            
+            event.replyEmbeds(EmbedUtils.createSuccessEmbed(
+                title, String.format(messageFormat, amount)
+            )).queue();
+
+        } catch (Exception e) {
+            event.replyEmbeds(EmbedUtils.createErrorEmbed(
+                "Update Failed [400]", 
+                "Failed to update setting: " + e.getMessage() + "\n" +
+                "Error Code: **400** - Configuration Update Failed\n" +
+                "Use `/error category:4` for full 4XX-series documentation."
+            )).setEphemeral(true).queue();
+        }
+    }
+
+    private String formatWindow(Map<String, Object> settings) {
+        Object window = settings.get("antiSpamTimeWindow");
+        long seconds = window instanceof Number ? ((Number) window).longValue() : 10;
+        return seconds + "s";
+    }
+
     private void handleDuplicateLimit(SlashCommandInteractionEvent event) {
         OptionMapping amountOption = event.getOption("amount");
         if (amountOption == null) {
@@ -493,7 +654,15 @@ public class AntiSpamCommand implements SlashCommand {
         OptionData settingOption = new OptionData(OptionType.STRING, "setting", "Anti-spam setting to configure", true);
         settingOption.addChoice("View Settings", "view");
         settingOption.addChoice("Message Limit", "message-limit");
+        settingOption.addChoice("Time Window", "time-window");
         settingOption.addChoice("Duplicate Limit", "duplicate-limit");
+        settingOption.addChoice("Duplicate Window", "duplicate-window");
+        settingOption.addChoice("Raid Author Limit", "raid-authors");
+        settingOption.addChoice("Raid Channel Limit", "raid-channels");
+        settingOption.addChoice("Raid Protection", "raid-protection");
+        settingOption.addChoice("Raid Join Threshold", "raid-joins");
+        settingOption.addChoice("Raid Window", "raid-window");
+        settingOption.addChoice("Raid Cooldown", "raid-cooldown");
         settingOption.addChoice("Mention Limit", "mention-limit");
         settingOption.addChoice("CAPS Limit", "caps-limit");
         settingOption.addChoice("Auto-Delete", "auto-delete");
@@ -3,6 +3,8 @@ package com.serverbot.commands.config;
 import com.serverbot.ServerBot;
 import com.serverbot.commands.CommandCategory;
 import com.serverbot.commands.SlashCommand;
+import com.serverbot.services.AutomodService;
+import com.serverbot.utils.AutomodScanner;
 import com.serverbot.utils.EmbedUtils;
 import com.serverbot.utils.PermissionManager;
 import net.dv8tion.jda.api.entities.Member;
@@ -12,6 +14,8 @@ import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 import net.dv8tion.jda.api.interactions.commands.build.Commands;
 import net.dv8tion.jda.api.interactions.commands.build.OptionData;
 
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 /**
@@ -78,14 +82,23 @@ public class AutomodCommand implements SlashCommand {
                         description += "\n**Threshold:** " + threshold;
                     }
                     
+                    String listKey = getListKey(feature);
+                    if (listKey != null) {
+                        List<String> entries = AutomodService.getStringList(guildSettings, listKey);
+                        description += "\n**" + getListLabel(feature) + ":** " + 
+                            (entries.isEmpty() ? "None" : entries.size() + " entries");
+                    }
+                    
                     event.replyEmbeds(EmbedUtils.createInfoEmbed(
                         "Automod Configuration",
                         description
                     )).setEphemeral(true).queue();
                 }
+                case "add", "remove" -> handleListEdit(event, guildId, guildSettings, action.toLowerCase(), feature);
+                case "stats" -> handleStats(event, guildId);
                 default -> {
                     event.replyEmbeds(EmbedUtils.createErrorEmbed(
-                        "Invalid Action", "Valid actions are: enable, disable, view"
+                        "Invalid Action", "Valid actions are: enable, disable, view, add, remove, stats"
                     )).setEphemeral(true).queue();
                 }
             }
@@ -98,13 +111,81 @@ public class AutomodCommand implements SlashCommand {
         }
     }
 
+    /**
+     * Add or remove an entry from the bad word list or the link allowlist
+     */
+    private void handleListEdit(SlashCommandInteractionEvent event, String guildId, Map<String, Object> guildSettings,
+                                String action, String feature) {
+        String listKey = getListKey(feature);
+        if (listKey == null) {
+            event.replyEmbeds(EmbedUtils.createErrorEmbed(
+                "Invalid Feature", "Only `bad_words` and `link_filter` have editable lists."
+            )).setEphemeral(true).queue();
+            return;
+        }
+        if (event.getOption("value") == null) {
+            event.replyEmbeds(EmbedUtils.createErrorEmbed(
+                "Missing Parameter", "Please specify a `value` (a word, or a domain such as `youtube.com`)."
+            )).setEphemeral(true).queue();
+            return;
+        }
+        
+        List<String> entries = AutomodService.getStringList(guildSettings, listKey);
+        String value = event.getOption("value").getAsString().trim().toLowerCase(Locale.ROOT);
+        boolean changed = action.equals("add")
+            ? !entries.contains(value) && entries.add(value)
+            : entries.remove(value);
+        
+        if (changed) {
+            ServerBot.getStorageManager().updateGuildSettings(guildId, listKey, entries);
+        }
+        
+        event.replyEmbeds(EmbedUtils.createSuccessEmbed(
+            getListLabel(feature) + " Updated",
+            (changed ? (action.equals("add") ? "Added" : "Removed") : "No change for") + " `" + value + "`\n" +
+            "**Entries:** " + entries.size()
+        )).setEphemeral(true).queue();
+    }
+    
+    private void handleStats(SlashCommandInteractionEvent event, String guildId) {
+        AutomodService service = AutomodService.getInstance();
+        long[] hits = service.getRuleHits(guildId);
+        
+        StringBuilder description = new StringBuilder("**Messages removed since startup:**\n");
+        for (AutomodScanner.Rule rule : AutomodScanner.Rule.values()) {
+            description.append("• ").append(rule.getDisplayName()).append(": ").append(hits[rule.ordinal()]).append("\n");
+        }
+        description.append("\n**Scanner throughput:** ")
+            .append(String.format("%,.0f", service.getMessagesPerSecond())).append(" messages/sec")
+            .append(" (").append(service.getScannedMessages()).append(" scanned)");
+        
+        event.replyEmbeds(EmbedUtils.createInfoEmbed(
+            "Automod Statistics", description.toString()
+        )).setEphemeral(true).queue();
+    }
+    
+    private static String getListKey(String feature) {
+        return switch (feature) {
+            case "bad_words" -> AutomodService.BAD_WORDS_LIST_KEY;
+            case "link_filter" -> AutomodService.LINK_ALLOWLIST_KEY;
+            default -> null;
+        };
+    }
+    
+    private static String getListLabel(String feature) {
+        return feature.equals("bad_words") ? "Word List" : "Allowed Domains";
+    }
+
     public static CommandData getCommandData() {
         return Commands.slash("automod", "Configure auto-moderation features")
                 .addOptions(
                     new OptionData(OptionType.STRING, "action", "Action to perform", true)
                         .addChoice("Enable", "enable")
                         .addChoice("Disable", "disable")
-                        .addChoice("View", "view"),
+                        .addChoice("View", "view")
+                        .addChoice("Add to List", "add")
+                        .addChoice("Remove from List", "remove")
+                        .addChoice("Statistics", "stats"),
                     new OptionData(OptionType.STRING, "feature", "Automod feature to configure", true)
                         .addChoice("Anti-Spam", "anti_spam")
                         .addChoice("Bad Words", "bad_words")
@@ -114,7 +195,8 @@ public class AutomodCommand implements SlashCommand {
                         .addChoice("Link Filter", "link_filter"),
                     new OptionData(OptionType.INTEGER, "threshold", "Threshold value for the feature (optional)", false)
                         .setMinValue(1)
-                        .setMaxValue(100)
+                        .setMaxValue(100),
+                    new OptionData(OptionType.STRING, "value", "Word or domain to add/remove (bad_words, link_filter)", false)
                 );
     }
 
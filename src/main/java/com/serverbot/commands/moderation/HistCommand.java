@@ -3,15 +3,22 @@ package com.serverbot.commands.moderation;
 import com.serverbot.ServerBot;
 import com.serverbot.commands.CommandCategory;
 import com.serverbot.commands.SlashCommand;
+import com.serverbot.storage.ModerationLogStore;
 import com.serverbot.utils.EmbedUtils;
 import com.serverbot.utils.PermissionManager;
 import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 import net.dv8tion.jda.api.interactions.commands.build.Commands;
+import net.dv8tion.jda.api.interactions.components.ActionRow;
+import net.dv8tion.jda.api.interactions.components.buttons.Button;
 
 import java.time.Instant;
 import java.time.ZoneId;
@@ -20,9 +27,13 @@ import java.util.List;
 import java.util.Map;
 
 /**
- * History command to view user moderation history
+ * History command to view user moderation history, one page at a time
  */
-public class HistCommand implements SlashCommand {
+public class HistCommand extends ListenerAdapter implements SlashCommand {
+
+    private static final int PAGE_SIZE = 10;
+    private static final String BUTTON_PAGE = "hist_page";
+    private static final String NEWEST_CURSOR = "newest";
 
     @Override
     public void execute(SlashCommandInteractionEvent event) {
@@ -44,21 +55,10 @@ public class HistCommand implements SlashCommand {
         User targetUser = event.getOption("user").getAsUser();
 
         try {
-            List<Map<String, Object>> moderationLogs = ServerBot.getStorageManager().getModerationLogs(event.getGuild().getId());
-            
-            // Filter logs for this user
-            List<Map<String, Object>> userHistory = moderationLogs.stream()
-                .filter(log -> targetUser.getId().equals(log.get("userId")))
-                .sorted((a, b) -> {
-                    // Handle both Long and Double timestamp types
-                    long timestampA = getLongValue(a.get("timestamp"));
-                    long timestampB = getLongValue(b.get("timestamp"));
-                    return Long.compare(timestampB, timestampA);
-                })
-                .limit(20) // Show last 20 entries
-                .toList();
-
-            if (userHistory.isEmpty()) {
+            ModerationLogStore.HistoryPage page = ServerBot.getStorageManager()
+                .getUserModerationHistory(event.getGuild().getId(), targetUser.getId(), null, PAGE_SIZE);
+
+            if (page.getEntries().isEmpty()) {
                 event.replyEmbeds(EmbedUtils.createInfoEmbed(
                     "No Moderation History", 
                     targetUser.getAsMention() + " has no recorded moderation actions."
@@ -66,48 +66,9 @@ public class HistCommand implements SlashCommand {
                 return;
             }
 
-            EmbedBuilder embed = EmbedUtils.createEmbedBuilder(EmbedUtils.WARNING_COLOR)
-                    .setTitle("📋 Moderation History")
-                    .setDescription("Recent moderation actions for " + targetUser.getAsMention())
-                    .setThumbnail(targetUser.getAvatarUrl());
-
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")
-                    .withZone(ZoneId.systemDefault());
-
-            int displayCount = Math.min(userHistory.size(), 10);
-            
-            for (int i = 0; i < displayCount; i++) {
-                Map<String, Object> log = userHistory.get(i);
-                long timestamp = getLongValue(log.get("timestamp"));
-                String type = (String) log.get("type");
-                String reason = (String) log.get("reason");
-                String moderatorId = (String) log.get("moderatorId");
-                
-                String moderatorName = "Unknown";
-                try {
-                    User mod = event.getJDA().getUserById(moderatorId);
-                    if (mod != null) moderatorName = mod.getName();
-                } catch (Exception ignored) {}
-
-                String dateStr = formatter.format(Instant.ofEpochMilli(timestamp));
-                
-                String fieldTitle = getActionEmoji(type) + " " + type + " (#" + (i + 1) + ")";
-                String fieldValue = "**Reason:** " + reason + "\n" +
-                                   "**Moderator:** " + moderatorName + "\n" +
-                                   "**Date:** " + dateStr;
-                
-                embed.addField(fieldTitle, fieldValue, false);
-            }
-
-            embed.addField("📊 Statistics", 
-                          "**Total Records:** " + userHistory.size() + "\n" +
-                          "**User:** " + targetUser.getName(), true);
-            
-            if (userHistory.size() > displayCount) {
-                embed.setFooter("Showing " + displayCount + " most recent entries out of " + userHistory.size());
-            }
-
-            event.replyEmbeds(embed.build()).queue();
+            event.replyEmbeds(buildHistoryEmbed(event.getJDA(), targetUser, page))
+                .setComponents(buildPageButtons(moderator.getId(), targetUser.getId(), null, page))
+                .queue();
 
         } catch (Exception e) {
             event.replyEmbeds(EmbedUtils.createErrorEmbed(
@@ -117,6 +78,95 @@ public class HistCommand implements SlashCommand {
         }
     }
 
+    /**
+     * Page through history. Button ids are hist_page:&lt;requesterId&gt;:&lt;userId&gt;:&lt;cursor&gt;,
+     * where the cursor is the id to read older entries from, or "newest".
+     */
+    @Override
+    public void onButtonInteraction(ButtonInteractionEvent event) {
+        if (!event.getComponentId().startsWith(BUTTON_PAGE + ":") || !event.isFromGuild()) {
+            return;
+        }
+
+        String[] parts = event.getComponentId().split(":");
+        if (parts.length != 4) {
+            return;
+        }
+        if (!event.getUser().getId().equals(parts[1])) {
+            event.reply("Only the person who ran this command can change pages.").setEphemeral(true).queue();
+            return;
+        }
+
+        Long cursor = NEWEST_CURSOR.equals(parts[3]) ? null : Long.parseLong(parts[3]);
+        String userId = parts[2];
+        event.deferEdit().queue();
+        event.getJDA().retrieveUserById(userId).queue(targetUser -> {
+            ModerationLogStore.HistoryPage page = ServerBot.getStorageManager()
+                .getUserModerationHistory(event.getGuild().getId(), userId, cursor, PAGE_SIZE);
+            event.getHook().editOriginalEmbeds(buildHistoryEmbed(event.getJDA(), targetUser, page))
+                .setComponents(buildPageButtons(parts[1], userId, cursor, page))
+                .queue();
+        }, error -> event.getHook().sendMessage("Failed to load this user's history.").setEphemeral(true).queue());
+    }
+
+    private MessageEmbed buildHistoryEmbed(JDA jda, User targetUser, ModerationLogStore.HistoryPage page) {
+        EmbedBuilder embed = EmbedUtils.createEmbedBuilder(EmbedUtils.WARNING_COLOR)
+                .setTitle("📋 Moderation History")
+                .setDescription("Recent moderation actions for " + targetUser.getAsMention())
+                .setThumbnail(targetUser.getAvatarUrl());
+
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")
+                .withZone(ZoneId.systemDefault());
+
+        List<Map<String, Object>> entries = page.getEntries();
+        for (int i = 0; i < entries.size(); i++) {
+            Map<String, Object> log = entries.get(i);
+            long timestamp = getLongValue(log.get("timestamp"));
+            String type = log.get("type") != null ? (String) log.get("type") : String.valueOf(log.get("action"));
+            String reason = (String) log.get("reason");
+            String moderatorId = (String) log.get("moderatorId");
+
+            String moderatorName = "Unknown";
+            try {
+                User mod = jda.getUserById(moderatorId);
+                if (mod != null) moderatorName = mod.getName();
+            } catch (Exception ignored) {}
+
+            String dateStr = formatter.format(Instant.ofEpochMilli(timestamp));
+
+            String fieldTitle = getActionEmoji(type) + " " + type + " (#" + (page.getSkipped() + i + 1) + ")";
+            String fieldValue = "**Reason:** " + reason + "\n" +
+                               "**Moderator:** " + moderatorName + "\n" +
+                               "**Date:** " + dateStr;
+
+            embed.addField(fieldTitle, fieldValue, false);
+        }
+
+        embed.addField("📊 Statistics", 
+                      "**Total Records:** " + page.getTotal() + "\n" +
+                      "**User:** " + targetUser.getName(), true);
+
+        if (page.getTotal() > entries.size()) {
+            embed.setFooter("Showing entries " + (page.getSkipped() + 1) + "-" + (page.getSkipped() + entries.size()) +
+                            " of " + page.getTotal() + ", newest first");
+        }
+        return embed.build();
+    }
+
+    private List<ActionRow> buildPageButtons(String requesterId, String userId, Long currentCursor,
+                                             ModerationLogStore.HistoryPage page) {
+        if (page.getTotal() <= PAGE_SIZE) {
+            return List.of();
+        }
+        String prefix = BUTTON_PAGE + ":" + requesterId + ":" + userId + ":";
+        Button newest = Button.secondary(prefix + NEWEST_CURSOR, "⏮ Newest")
+            .withDisabled(currentCursor == null);
+        Button older = page.getNextCursor() != null
+            ? Button.primary(prefix + page.getNextCursor(), "Older ▶")
+            : Button.primary(prefix + "end", "Older ▶").asDisabled();
+        return List.of(ActionRow.of(newest, older));
+    }
+
     private long getLongValue(Object value) {
         if (value instanceof Long) {
             return (Long) value;
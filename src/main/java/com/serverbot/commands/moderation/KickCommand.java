@@ -1,12 +1,11 @@
 package com.serverbot.commands.moderation;
 
-import com.serverbot.ServerBot;
 import com.serverbot.commands.CommandCategory;
 import com.serverbot.commands.SlashCommand;
-import com.serverbot.services.PunishmentNotificationService;
+import com.serverbot.models.ModerationAction;
+import com.serverbot.services.ModerationPipeline;
 import com.serverbot.utils.EmbedUtils;
 import com.serverbot.utils.PermissionManager;
-import com.serverbot.utils.AutoLogUtils;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
@@ -14,9 +13,6 @@ import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 import net.dv8tion.jda.api.interactions.commands.build.Commands;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * Kick command for removing users from the server
  */
@@ -48,29 +44,13 @@ public class KickCommand implements SlashCommand {
         String reason = event.getOption("reason") != null ? 
                 event.getOption("reason").getAsString() : "No reason provided";
 
-        Member targetMember = event.getGuild().getMember(target);
-        
-        if (targetMember == null) {
+        ModerationAction action = ModerationAction.builder(ModerationAction.Type.KICK, event.getGuild(), target, moderator)
+                .reason(reason)
+                .build();
+        String validationError = ModerationPipeline.getInstance().validate(action);
+        if (validationError != null) {
             event.replyEmbeds(EmbedUtils.createErrorEmbedWithUsage(
-                "User Not Found", "This user is not in the server.", USAGE, EXAMPLE
-            )).setEphemeral(true).queue();
-            return;
-        }
-
-        if (!moderator.canInteract(targetMember)) {
-            event.replyEmbeds(EmbedUtils.createErrorEmbed(
-                "Cannot Kick User", 
-                "You cannot kick this user due to role hierarchy.\n\n" +
-                "Your highest role must be above the target user's highest role."
-            )).setEphemeral(true).queue();
-            return;
-        }
-
-        if (!event.getGuild().getSelfMember().canInteract(targetMember)) {
-            event.replyEmbeds(EmbedUtils.createErrorEmbed(
-                "Cannot Kick User", 
-                "I cannot kick this user due to role hierarchy.\n\n" +
-                "Move my role higher than the target user's highest role."
+                "Cannot Kick User", validationError, USAGE, EXAMPLE
             )).setEphemeral(true).queue();
             return;
         }
@@ -78,49 +58,18 @@ public class KickCommand implements SlashCommand {
         // Defer reply since kick operation is async and may take longer than 3 seconds
         event.deferReply().queue();
 
-        // Execute kick
-        event.getGuild().kick(targetMember).reason(reason)
-                .queue(success -> {
-                    event.getHook().sendMessageEmbeds(EmbedUtils.createModerationEmbed(
-                        "User Kicked", target, moderator.getUser(), reason
-                    )).queue();
-
-                    // Send DM notification if configured
-                    PunishmentNotificationService.getInstance().sendPunishmentNotification(
-                        event.getGuild().getId(), 
-                        target.getId(), 
-                        PunishmentNotificationService.PunishmentType.KICK, 
-                        reason, 
-                        null, // No duration for kicks
-                        moderator.getEffectiveName()
-                    );
-
-                    // Log to database and AutoLog channel
-                    logKick(event.getGuild().getId(), target.getId(), moderator.getId(), reason);
-                    AutoLogUtils.logKick(event.getGuild(), target, moderator.getUser(), reason);
-
-                }, error -> {
-                    event.getHook().sendMessageEmbeds(EmbedUtils.createErrorEmbed(
-                        "Kick Failed", "Failed to kick user: " + error.getMessage()
-                    )).setEphemeral(true).queue();
-                });
-    }
-
-    private void logKick(String guildId, String userId, String moderatorId, String reason) {
-        try {
-            // Create moderation log entry
-            Map<String, Object> logEntry = new HashMap<>();
-            logEntry.put("type", "KICK");
-            logEntry.put("userId", userId);
-            logEntry.put("moderatorId", moderatorId);
-            logEntry.put("reason", reason);
-            logEntry.put("timestamp", System.currentTimeMillis());
-
-            // Store moderation log
-            ServerBot.getStorageManager().addModerationLog(guildId, logEntry);
-        } catch (Exception e) {
-            System.err.println("Failed to log kick: " + e.getMessage());
-        }
+        // DM and logging are handled by the pipeline once the kick succeeds
+        ModerationPipeline.getInstance().execute(action).whenComplete((result, error) -> {
+            if (error != null) {
+                event.getHook().sendMessageEmbeds(EmbedUtils.createErrorEmbed(
+                    "Kick Failed", "Failed to kick user: " + ModerationPipeline.unwrap(error).getMessage()
+                )).setEphemeral(true).queue();
+                return;
+            }
+            event.getHook().sendMessageEmbeds(EmbedUtils.createModerationEmbed(
+                "User Kicked", target, moderator.getUser(), action.getReason()
+            )).queue();
+        });
     }
 
     public static CommandData getCommandData() {
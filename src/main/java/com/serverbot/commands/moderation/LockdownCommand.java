@@ -2,26 +2,35 @@ package com.serverbot.commands.moderation;
 
 import com.serverbot.commands.CommandCategory;
 import com.serverbot.commands.SlashCommand;
+import com.serverbot.services.LockdownService;
 import com.serverbot.utils.EmbedUtils;
 import com.serverbot.utils.PermissionManager;
 import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.PermissionOverride;
 import net.dv8tion.jda.api.entities.Role;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.InteractionHook;
 import net.dv8tion.jda.api.interactions.commands.OptionMapping;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 import net.dv8tion.jda.api.interactions.commands.build.Commands;
+import net.dv8tion.jda.api.requests.restaction.AuditableRestAction;
 
 import java.util.EnumSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Lockdown command for locking/unlocking channels
  */
 public class LockdownCommand implements SlashCommand {
 
+    // Minimum time between progress edits of the deferred reply
+    private static final long PROGRESS_INTERVAL_MS = 2000;
+
     @Override
     public void execute(SlashCommandInteractionEvent event) {
         if (!event.isFromGuild()) {
@@ -39,6 +48,12 @@ public class LockdownCommand implements SlashCommand {
             return;
         }
 
+        OptionMapping serverOption = event.getOption("server");
+        if (serverOption != null && serverOption.getAsBoolean()) {
+            handleServerLockdown(event);
+            return;
+        }
+
         OptionMapping channelOption = event.getOption("channel");
         TextChannel targetChannel;
         
@@ -57,12 +72,9 @@ public class LockdownCommand implements SlashCommand {
         }
 
         Role everyoneRole = event.getGuild().getPublicRole();
-        PermissionOverride everyoneOverride = targetChannel.getPermissionOverride(everyoneRole);
-        
+
         // Check current state - if SEND_MESSAGES is already denied, unlock. Otherwise, lock.
-        boolean isLocked = everyoneOverride != null && everyoneOverride.getDenied().contains(Permission.MESSAGE_SEND);
-        
-        if (isLocked) {
+        if (isLocked(targetChannel, everyoneRole)) {
             // Unlock the channel
             unlockChannel(event, targetChannel, everyoneRole);
         } else {
@@ -74,10 +86,7 @@ public class LockdownCommand implements SlashCommand {
     private void lockChannel(SlashCommandInteractionEvent event, TextChannel channel, Role everyoneRole) {
         try {
             // Deny SEND_MESSAGES and ADD_REACTIONS for @everyone
-            channel.getManager()
-                    .putRolePermissionOverride(everyoneRole.getIdLong(), 
-                                             EnumSet.noneOf(Permission.class),
-                                             EnumSet.of(Permission.MESSAGE_SEND, Permission.MESSAGE_ADD_REACTION))
+            createLockAction(channel, everyoneRole)
                     .queue(
                         success -> {
                             // Send lockdown message to the channel
@@ -109,6 +118,98 @@ public class LockdownCommand implements SlashCommand {
         }
     }
 
+    /**
+     * Lock every channel in the server, or restore the saved snapshot if the server is already locked
+     */
+    private void handleServerLockdown(SlashCommandInteractionEvent event) {
+        Guild guild = event.getGuild();
+        LockdownService lockdownService = LockdownService.getInstance();
+        if (lockdownService.isBusy(guild.getId())) {
+            event.replyEmbeds(EmbedUtils.createErrorEmbed(
+                "Lockdown In Progress", "A server lockdown or unlock is already running. Please wait for it to finish."
+            )).setEphemeral(true).queue();
+            return;
+        }
+        if (!guild.getSelfMember().hasPermission(Permission.MANAGE_CHANNEL, Permission.MANAGE_ROLES)) {
+            event.replyEmbeds(EmbedUtils.createErrorEmbed(
+                "Missing Permissions", "I need the Manage Channels and Manage Roles permissions to lock down the server."
+            )).setEphemeral(true).queue();
+            return;
+        }
+
+        boolean unlocking = lockdownService.isGuildLocked(guild.getId());
+        OptionMapping reasonOption = event.getOption("reason");
+        String reason = reasonOption != null ? reasonOption.getAsString() : null;
+        String action = unlocking ? "Unlocking" : "Locking";
+
+        event.deferReply(true).queue(hook -> {
+            AtomicLong lastUpdate = new AtomicLong();
+            LockdownService.ProgressListener progress = (completed, failed, total) -> {
+                long now = System.currentTimeMillis();
+                long last = lastUpdate.get();
+                if (completed < total && now - last >= PROGRESS_INTERVAL_MS && lastUpdate.compareAndSet(last, now)) {
+                    hook.editOriginalEmbeds(EmbedUtils.createInfoEmbed(
+                        "⏳ " + action + " Server",
+                        action + " channels... **" + completed + "/" + total + "**" +
+                        (failed > 0 ? " (" + failed + " failed)" : "")
+                    )).queue();
+                }
+            };
+
+            CompletableFuture<LockdownService.Result> future = unlocking
+                ? lockdownService.unlockGuild(guild, progress)
+                : lockdownService.lockGuild(guild, event.getUser().getId(), reason, progress);
+            if (future == null) {
+                hook.editOriginalEmbeds(EmbedUtils.createErrorEmbed(
+                    "Lockdown In Progress", "A server lockdown or unlock is already running. Please wait for it to finish."
+                )).queue();
+                return;
+            }
+            future.whenComplete((result, error) -> handleServerLockdownResult(hook, unlocking, result, error));
+        });
+    }
+
+    private void handleServerLockdownResult(InteractionHook hook, boolean unlocked,
+                                            LockdownService.Result result, Throwable error) {
+        if (error != null) {
+            hook.editOriginalEmbeds(EmbedUtils.createErrorEmbed(
+                unlocked ? "Unlock Failed" : "Lockdown Failed", "An error occurred: " + error.getMessage()
+            )).queue();
+            return;
+        }
+
+        String summary = (unlocked ? "Restored " : "Locked ") + "**" + result.succeeded + "/" + result.total + "** channel(s)." +
+            (result.failed > 0 ? "\n" + result.failed + " channel(s) could not be updated, check my permissions." : "");
+        hook.editOriginalEmbeds(EmbedUtils.createSuccessEmbed(
+            unlocked ? "🔓 Server Unlocked" : "🔒 Server Locked",
+            summary + (!unlocked ? "\nRun `/lockdown server:True` again to restore every channel exactly as it was."
+                : result.failed > 0 ? "\nRun `/lockdown server:True` again to retry the channels that are still locked." : "")
+        )).queue();
+    }
+
+    /**
+     * Build the action that denies SEND_MESSAGES and ADD_REACTIONS for @everyone in a channel.
+     * Used by the command and by automatic raid lockdowns.
+     */
+    public static AuditableRestAction<Void> createLockAction(TextChannel channel, Role everyoneRole) {
+        PermissionOverride existing = channel.getPermissionOverride(everyoneRole);
+        EnumSet<Permission> allowed = existing != null ? EnumSet.copyOf(existing.getAllowed()) : EnumSet.noneOf(Permission.class);
+        EnumSet<Permission> denied = existing != null ? EnumSet.copyOf(existing.getDenied()) : EnumSet.noneOf(Permission.class);
+        allowed.remove(Permission.MESSAGE_SEND);
+        allowed.remove(Permission.MESSAGE_ADD_REACTION);
+        denied.add(Permission.MESSAGE_SEND);
+        denied.add(Permission.MESSAGE_ADD_REACTION);
+        return channel.getManager().putRolePermissionOverride(everyoneRole.getIdLong(), allowed, denied);
+    }
+
+    /**
+     * Check whether @everyone is already denied SEND_MESSAGES in a channel
+     */
+    public static boolean isLocked(TextChannel channel, Role everyoneRole) {
+        PermissionOverride override = channel.getPermissionOverride(everyoneRole);
+        return override != null && override.getDenied().contains(Permission.MESSAGE_SEND);
+    }
+
     private void unlockChannel(SlashCommandInteractionEvent event, TextChannel channel, Role everyoneRole) {
         try {
             // Remove the permission overrides for @everyone (or reset to neutral)
@@ -170,7 +271,9 @@ public class LockdownCommand implements SlashCommand {
 
     public static CommandData getCommandData() {
         return Commands.slash("lockdown", "Lock or unlock a channel to prevent regular users from sending messages")
-                .addOption(OptionType.CHANNEL, "channel", "Channel to lock/unlock (defaults to current channel)", false);
+                .addOption(OptionType.CHANNEL, "channel", "Channel to lock/unlock (defaults to current channel)", false)
+                .addOption(OptionType.BOOLEAN, "server", "Lock or unlock every channel in the server", false)
+                .addOption(OptionType.STRING, "reason", "Reason for a server lockdown", false);
     }
 
     @Override
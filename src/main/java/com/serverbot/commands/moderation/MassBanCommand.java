@@ -0,0 +1,253 @@
+package com.serverbot.commands.moderation;
+
+import com.serverbot.commands.CommandCategory;
+import com.serverbot.commands.SlashCommand;
+import com.serverbot.services.BulkBanService;
+import com.serverbot.utils.AutoLogUtils;
+import com.serverbot.utils.EmbedUtils;
+import com.serverbot.utils.PermissionManager;
+import com.serverbot.utils.TimeUtils;
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.InteractionHook;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.build.CommandData;
+import net.dv8tion.jda.api.interactions.commands.build.Commands;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Mass ban command for banning many users at once, e.g. raid accounts
+ */
+public class MassBanCommand implements SlashCommand {
+
+    private static final String USAGE = "/massban [users] [file] [joined-within] [duration] [reason]";
+    private static final String EXAMPLE = "/massban joined-within:15 reason:Raid";
+
+    private static final Pattern SNOWFLAKE_PATTERN = Pattern.compile("\\d{17,20}");
+    private static final int MAX_FILE_BYTES = 256 * 1024;
+    private static final int MAX_JOINED_WITHIN_MINUTES = 1440;
+    // Minimum time between progress edits of the deferred reply
+    private static final long PROGRESS_INTERVAL_MS = 2000;
+
+    @Override
+    public void execute(SlashCommandInteractionEvent event) {
+        if (!event.isFromGuild()) {
+            event.replyEmbeds(EmbedUtils.createErrorEmbedWithUsage(
+                "Guild Only", "This command can only be used in servers.", USAGE
+            )).setEphemeral(true).queue();
+            return;
+        }
+
+        Member moderator = event.getMember();
+        if (!PermissionManager.hasPermission(moderator, "mod.massban")) {
+            event.replyEmbeds(EmbedUtils.createErrorEmbed(
+                "Insufficient Permissions",
+                "You need the `mod.massban` permission to use this command.\n\n" +
+                "Ask a server admin to grant you the `mod.massban` permission."
+            )).setEphemeral(true).queue();
+            return;
+        }
+
+        Guild guild = event.getGuild();
+        if (!guild.getSelfMember().hasPermission(Permission.BAN_MEMBERS)) {
+            event.replyEmbeds(EmbedUtils.createErrorEmbed(
+                "Missing Permissions", "I need the **Ban Members** permission to ban users."
+            )).setEphemeral(true).queue();
+            return;
+        }
+
+        OptionMapping usersOption = event.getOption("users");
+        OptionMapping fileOption = event.getOption("file");
+        OptionMapping joinedOption = event.getOption("joined-within");
+        if (usersOption == null && fileOption == null && joinedOption == null) {
+            event.replyEmbeds(EmbedUtils.createErrorEmbedWithUsage(
+                "No Users", "Provide user IDs, a file of IDs, or a join window.", USAGE, EXAMPLE
+            )).setEphemeral(true).queue();
+            return;
+        }
+
+        Duration duration = null;
+        OptionMapping durationOption = event.getOption("duration");
+        if (durationOption != null) {
+            duration = TimeUtils.parseDuration(durationOption.getAsString());
+            if (duration == null) {
+                event.replyEmbeds(EmbedUtils.createErrorEmbedWithUsage(
+                    "Invalid Duration",
+                    "Please provide a valid duration format.\n\n" +
+                    "**Valid formats:** `1d`, `2h`, `30m`, `1w`, `12h30m`",
+                    USAGE, EXAMPLE
+                )).setEphemeral(true).queue();
+                return;
+            }
+        }
+
+        Message.Attachment attachment = fileOption != null ? fileOption.getAsAttachment() : null;
+        if (attachment != null && attachment.getSize() > MAX_FILE_BYTES) {
+            event.replyEmbeds(EmbedUtils.createErrorEmbed(
+                "File Too Large", "The ID list must be smaller than " + (MAX_FILE_BYTES / 1024) + " KB."
+            )).setEphemeral(true).queue();
+            return;
+        }
+
+        if (BulkBanService.getInstance().isRunning(guild.getId())) {
+            event.replyEmbeds(EmbedUtils.createErrorEmbed(
+                "Mass Ban In Progress", "A mass ban is already running in this server. Please wait for it to finish."
+            )).setEphemeral(true).queue();
+            return;
+        }
+
+        String reason = event.getOption("reason") != null ? event.getOption("reason").getAsString() : "No reason provided";
+        Set<Long> userIds = new LinkedHashSet<>();
+        if (usersOption != null) {
+            collectIds(usersOption.getAsString(), userIds);
+        }
+        if (joinedOption != null) {
+            OffsetDateTime since = OffsetDateTime.now().minusMinutes(joinedOption.getAsInt());
+            for (Member member : guild.getMembers()) {
+                if (!member.getUser().isBot() && member.getTimeJoined().isAfter(since)) {
+                    userIds.add(member.getIdLong());
+                }
+            }
+        }
+
+        final Duration banDuration = duration;
+        event.deferReply().queue(hook -> {
+            CompletableFuture<Void> loaded = attachment != null
+                ? attachment.getProxy().download().thenAccept(stream -> readIds(stream, userIds))
+                : CompletableFuture.completedFuture(null);
+
+            loaded.whenComplete((v, error) -> {
+                if (error != null) {
+                    hook.editOriginalEmbeds(EmbedUtils.createErrorEmbed(
+                        "File Error", "Failed to read the ID file: " + error.getMessage()
+                    )).queue();
+                    return;
+                }
+                startBan(hook, guild, moderator, userIds, banDuration, reason);
+            });
+        });
+    }
+
+    private void startBan(InteractionHook hook, Guild guild, Member moderator, Set<Long> userIds,
+                          Duration duration, String reason) {
+        if (userIds.isEmpty()) {
+            hook.editOriginalEmbeds(EmbedUtils.createInfoEmbed(
+                "No Users Found", "No user IDs matched the given input."
+            )).queue();
+            return;
+        }
+
+        AtomicLong lastUpdate = new AtomicLong(System.currentTimeMillis());
+        CompletableFuture<BulkBanService.BulkBan> future = BulkBanService.getInstance().banAll(
+            guild, moderator, userIds, duration, reason, progress -> {
+                long now = System.currentTimeMillis();
+                long last = lastUpdate.get();
+                if (now - last >= PROGRESS_INTERVAL_MS && lastUpdate.compareAndSet(last, now)) {
+                    hook.editOriginalEmbeds(EmbedUtils.createInfoEmbed(
+                        "⏳ Banning Users",
+                        "Processed **" + progress.getSettled() + "/" + progress.getTotal() + "** user(s), " +
+                        "**" + progress.getBanned() + "** banned."
+                    )).queue();
+                }
+            });
+
+        if (future == null) {
+            hook.editOriginalEmbeds(EmbedUtils.createErrorEmbed(
+                "Mass Ban In Progress", "A mass ban is already running in this server. Please wait for it to finish."
+            )).queue();
+            return;
+        }
+
+        future.whenComplete((result, error) -> {
+            if (error != null) {
+                hook.editOriginalEmbeds(EmbedUtils.createErrorEmbed(
+                    "Mass Ban Failed", "An error occurred: " + error.getMessage()
+                )).queue();
+                return;
+            }
+
+            String durationText = duration != null ? TimeUtils.formatDuration(duration) : "Permanent";
+            StringBuilder summary = new StringBuilder()
+                .append("Banned **").append(result.getBanned()).append("** user(s).\n")
+                .append("**Duration:** ").append(durationText).append("\n")
+                .append("**Reason:** ").append(reason);
+            if (result.getFailed() > 0) {
+                summary.append("\n").append(result.getFailed()).append(" ban(s) failed.");
+            }
+            if (result.getSkipped() > 0) {
+                summary.append("\n").append(result.getSkipped())
+                       .append(" user(s) skipped (yourself, the owner, higher roles or over the ")
+                       .append(BulkBanService.MAX_USERS).append(" user limit).");
+            }
+            hook.editOriginalEmbeds(EmbedUtils.createSuccessEmbed("Mass Ban Complete", summary.toString())).queue();
+
+            if (result.getBanned() > 0) {
+                AutoLogUtils.logBulkBan(guild, moderator.getUser(), reason, duration,
+                    result.getBanned(), result.getFailed(), result.getSkipped());
+            }
+        });
+    }
+
+    private void readIds(InputStream stream, Set<Long> userIds) {
+        try (InputStream in = stream) {
+            byte[] data = in.readNBytes(MAX_FILE_BYTES);
+            collectIds(new String(data, StandardCharsets.UTF_8), userIds);
+        } catch (Exception e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    private void collectIds(String text, Set<Long> userIds) {
+        Matcher matcher = SNOWFLAKE_PATTERN.matcher(text);
+        while (matcher.find()) {
+            userIds.add(Long.parseLong(matcher.group()));
+        }
+    }
+
+    public static CommandData getCommandData() {
+        return Commands.slash("massban", "Ban many users at once")
+                .addOptions(
+                    new OptionData(OptionType.STRING, "users", "User IDs or mentions separated by spaces or commas", false),
+                    new OptionData(OptionType.ATTACHMENT, "file", "Text file containing user IDs", false),
+                    new OptionData(OptionType.INTEGER, "joined-within", "Ban everyone who joined in the last N minutes", false)
+                        .setRequiredRange(1, MAX_JOINED_WITHIN_MINUTES),
+                    new OptionData(OptionType.STRING, "duration", "Duration of the bans (e.g., 7d, 2h, 30m)", false),
+                    new OptionData(OptionType.STRING, "reason", "Reason for the bans", false)
+                );
+    }
+
+    @Override
+    public String getName() {
+        return "massban";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Ban many users at once";
+    }
+
+    @Override
+    public CommandCategory getCategory() {
+        return CommandCategory.MODERATION;
+    }
+
+    @Override
+    public boolean requiresPermissions() {
+        return true;
+    }
+}
@@ -0,0 +1,324 @@
+package com.serverbot.commands.moderation;
+
+import com.serverbot.ServerBot;
+import com.serverbot.commands.CommandCategory;
+import com.serverbot.commands.SlashCommand;
+import com.serverbot.storage.ModerationSearchIndex;
+import com.serverbot.utils.EmbedUtils;
+import com.serverbot.utils.PermissionManager;
+import com.serverbot.utils.TimeUtils;
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.build.CommandData;
+import net.dv8tion.jda.api.interactions.commands.build.Commands;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+import net.dv8tion.jda.api.interactions.components.ActionRow;
+import net.dv8tion.jda.api.interactions.components.buttons.Button;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search moderation history and warnings across the server by reason text, moderator, action type and time
+ */
+public class ModSearchCommand extends ListenerAdapter implements SlashCommand {
+
+    private static final String USAGE = "/modsearch [query] [moderator] [type] [within] [before]";
+    private static final String EXAMPLE = "/modsearch query:scam link within:90d type:BAN";
+
+    private static final int PAGE_SIZE = 10;
+    private static final int MAX_REASON_LENGTH = 200;
+    private static final String BUTTON_PAGE = "modsearch_page";
+    // Searches are kept so their result pages can be browsed with buttons
+    private static final long SESSION_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(15);
+    private static final Map<String, SearchSession> sessions = new ConcurrentHashMap<>();
+
+    @Override
+    public void execute(SlashCommandInteractionEvent event) {
+        if (!event.isFromGuild()) {
+            event.replyEmbeds(EmbedUtils.createErrorEmbed(
+                "Guild Only", "This command can only be used in servers."
+            )).setEphemeral(true).queue();
+            return;
+        }
+
+        if (!PermissionManager.hasPermission(event.getMember(), "mod.history")) {
+            event.replyEmbeds(EmbedUtils.createErrorEmbed(
+                "Insufficient Permissions", "You need the `mod.history` permission to search moderation history."
+            )).setEphemeral(true).queue();
+            return;
+        }
+
+        OptionMapping queryOption = event.getOption("query");
+        OptionMapping moderatorOption = event.getOption("moderator");
+        OptionMapping typeOption = event.getOption("type");
+        OptionMapping withinOption = event.getOption("within");
+        OptionMapping beforeOption = event.getOption("before");
+
+        String queryText = queryOption != null ? queryOption.getAsString() : null;
+        ModerationSearchIndex.Query query = ModerationSearchIndex.Query.parse(queryText);
+        if (queryText != null && !query.hasTerms()) {
+            event.replyEmbeds(EmbedUtils.createErrorEmbedWithUsage(
+                "Invalid Query", "The query has no searchable words. Very short and common words are ignored.",
+                USAGE, EXAMPLE
+            )).setEphemeral(true).queue();
+            return;
+        }
+        if (!query.hasTerms() && moderatorOption == null && typeOption == null && withinOption == null && beforeOption == null) {
+            event.replyEmbeds(EmbedUtils.createErrorEmbedWithUsage(
+                "No Search Criteria", "Provide a query or at least one filter.", USAGE, EXAMPLE
+            )).setEphemeral(true).queue();
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        List<String> criteria = new ArrayList<>();
+        if (queryText != null) {
+            criteria.add("**Query:** " + queryText);
+        }
+        if (moderatorOption != null) {
+            query.moderator(moderatorOption.getAsUser().getId());
+            criteria.add("**Moderator:** " + moderatorOption.getAsUser().getAsMention());
+        }
+        if (typeOption != null) {
+            query.type(typeOption.getAsString());
+            criteria.add("**Type:** " + typeOption.getAsString());
+        }
+        if (withinOption != null) {
+            Duration within = TimeUtils.parseDuration(withinOption.getAsString());
+            if (within == null) {
+                replyInvalidDuration(event, "within");
+                return;
+            }
+            query.after(now - within.toMillis());
+            criteria.add("**Within:** " + TimeUtils.formatDuration(within));
+        }
+        if (beforeOption != null) {
+            Duration before = TimeUtils.parseDuration(beforeOption.getAsString());
+            if (before == null) {
+                replyInvalidDuration(event, "before");
+                return;
+            }
+            query.before(now - before.toMillis());
+            criteria.add("**Older than:** " + TimeUtils.formatDuration(before));
+        }
+
+        String guildId = event.getGuild().getId();
+        ModerationSearchIndex.SearchResult result = ServerBot.getStorageManager()
+            .searchModerationHistory(guildId, query, 0, PAGE_SIZE);
+        if (result.getTotal() == 0) {
+            event.replyEmbeds(EmbedUtils.createInfoEmbed(
+                "No Results", "No moderation entries matched.\n\n" + String.join("\n", criteria)
+            )).setEphemeral(true).queue();
+            return;
+        }
+
+        expireSessions(now);
+        String sessionId = event.getId();
+        SearchSession session = new SearchSession(event.getUser().getId(), guildId, query, String.join("\n", criteria), now);
+        sessions.put(sessionId, session);
+
+        event.replyEmbeds(buildResultEmbed(session, result, 0))
+            .setComponents(buildPageButtons(sessionId, result, 0))
+            .queue();
+    }
+
+    /**
+     * Page through results. Button ids are modsearch_page:&lt;sessionId&gt;:&lt;page&gt;.
+     */
+    @Override
+    public void onButtonInteraction(ButtonInteractionEvent event) {
+        if (!event.getComponentId().startsWith(BUTTON_PAGE + ":")) {
+            return;
+        }
+
+        String[] parts = event.getComponentId().split(":");
+        if (parts.length != 3) {
+            return;
+        }
+        SearchSession session = sessions.get(parts[1]);
+        if (session == null || System.currentTimeMillis() - session.createdAt > SESSION_TIMEOUT_MS) {
+            sessions.remove(parts[1]);
+            event.reply("This search has expired. Please run `/modsearch` again.").setEphemeral(true).queue();
+            return;
+        }
+        if (!event.getUser().getId().equals(session.requesterId)) {
+            event.reply("Only the person who ran this search can change pages.").setEphemeral(true).queue();
+            return;
+        }
+
+        int page = Integer.parseInt(parts[2]);
+        ModerationSearchIndex.SearchResult result = ServerBot.getStorageManager()
+            .searchModerationHistory(session.guildId, session.query, page * PAGE_SIZE, PAGE_SIZE);
+        event.editMessageEmbeds(buildResultEmbed(session, result, page))
+            .setComponents(buildPageButtons(parts[1], result, page))
+            .queue();
+    }
+
+    private MessageEmbed buildResultEmbed(SearchSession session, ModerationSearchIndex.SearchResult result, int page) {
+        EmbedBuilder embed = EmbedUtils.createEmbedBuilder(EmbedUtils.INFO_COLOR)
+                .setTitle("🔎 Moderation Search")
+                .setDescription(session.criteria);
+
+        Map<Long, Map<String, Object>> logRecords = loadLogRecords(session.guildId, result.getHits());
+        for (ModerationSearchIndex.Hit hit : result.getHits()) {
+            Map<String, Object> entry = hit.getSource() == ModerationSearchIndex.Source.LOG
+                ? logRecords.get(hit.getKey())
+                : findWarning(session.guildId, hit);
+            String reason = entry != null && entry.get("reason") != null ? entry.get("reason").toString() : "Unknown";
+            if (reason.length() > MAX_REASON_LENGTH) {
+                reason = reason.substring(0, MAX_REASON_LENGTH - 3) + "...";
+            }
+
+            String type = hit.getType() != null ? hit.getType() : "UNKNOWN";
+            String fieldTitle = getActionEmoji(type) + " " + type;
+            String fieldValue = "**User:** " + mention(hit.getUserId()) + "\n" +
+                               "**Moderator:** " + mention(hit.getModeratorId()) + "\n" +
+                               "**Reason:** " + reason + "\n" +
+                               "**Date:** <t:" + TimeUnit.MILLISECONDS.toSeconds(hit.getTimestamp()) + ":f>";
+            embed.addField(fieldTitle, fieldValue, false);
+        }
+
+        int pages = (result.getTotal() + PAGE_SIZE - 1) / PAGE_SIZE;
+        embed.setFooter("Page " + (page + 1) + " of " + Math.max(1, pages) + " • " + result.getTotal() + " result(s), newest first");
+        return embed.build();
+    }
+
+    /**
+     * Read the moderation log entries for a page of hits in one batch
+     */
+    private Map<Long, Map<String, Object>> loadLogRecords(String guildId, List<ModerationSearchIndex.Hit> hits) {
+        List<Long> ids = new ArrayList<>();
+        for (ModerationSearchIndex.Hit hit : hits) {
+            if (hit.getSource() == ModerationSearchIndex.Source.LOG) {
+                ids.add(hit.getKey());
+            }
+        }
+        Map<Long, Map<String, Object>> records = new HashMap<>();
+        for (Map<String, Object> record : ServerBot.getStorageManager().getModerationLogStore().getRecords(guildId, ids)) {
+            records.put(getLongValue(record.get("id")), record);
+        }
+        return records;
+    }
+
+    private Map<String, Object> findWarning(String guildId, ModerationSearchIndex.Hit hit) {
+        for (Map<String, Object> warning : ServerBot.getStorageManager().getWarnings(guildId, hit.getUserId())) {
+            if (getLongValue(warning.get("id")) == hit.getKey()) {
+                return warning;
+            }
+        }
+        return null;
+    }
+
+    private List<ActionRow> buildPageButtons(String sessionId, ModerationSearchIndex.SearchResult result, int page) {
+        if (result.getTotal() <= PAGE_SIZE) {
+            return List.of();
+        }
+        String prefix = BUTTON_PAGE + ":" + sessionId + ":";
+        boolean hasNext = (page + 1) * PAGE_SIZE < result.getTotal();
+        return List.of(ActionRow.of(
+            Button.secondary(prefix + (page - 1), "◀ Newer").withDisabled(page == 0),
+            Button.primary(prefix + (page + 1), "Older ▶").withDisabled(!hasNext)
+        ));
+    }
+
+    private void replyInvalidDuration(SlashCommandInteractionEvent event, String option) {
+        event.replyEmbeds(EmbedUtils.createErrorEmbedWithUsage(
+            "Invalid Duration",
+            "Please provide a valid duration for `" + option + "`.\n\n" +
+            "**Valid formats:** `1d`, `2h`, `30m`, `1w`, `12h30m`",
+            USAGE, EXAMPLE
+        )).setEphemeral(true).queue();
+    }
+
+    private static void expireSessions(long now) {
+        sessions.values().removeIf(session -> now - session.createdAt > SESSION_TIMEOUT_MS);
+    }
+
+    private String mention(String userId) {
+        return userId != null ? User.fromId(userId).getAsMention() : "Unknown";
+    }
+
+    private long getLongValue(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+
+    private String getActionEmoji(String actionType) {
+        return switch (actionType.toUpperCase()) {
+            case "WARN", "WARNING" -> "⚠️";
+            case "MUTE", "TIMEOUT" -> "🔇";
+            case "KICK" -> "👢";
+            case "BAN" -> "🔨";
+            case "UNBAN" -> "🔓";
+            case "UNMUTE" -> "🔊";
+            default -> "📋";
+        };
+    }
+
+    public static CommandData getCommandData() {
+        return Commands.slash("modsearch", "Search moderation history and warnings")
+                .addOptions(
+                    new OptionData(OptionType.STRING, "query", "Words in the reason; use OR between alternatives", false),
+                    new OptionData(OptionType.USER, "moderator", "Only actions by this moderator", false),
+                    new OptionData(OptionType.STRING, "type", "Only this action type", false)
+                        .addChoice("Ban", "BAN")
+                        .addChoice("Kick", "KICK")
+                        .addChoice("Mute", "MUTE")
+                        .addChoice("Timeout", "TIMEOUT")
+                        .addChoice("Warning", "WARN")
+                        .addChoice("Softban", "SOFTBAN")
+                        .addChoice("Unban", "UNBAN")
+                        .addChoice("Unmute", "UNMUTE")
+                        .addChoice("Unwarn", "UNWARN"),
+                    new OptionData(OptionType.STRING, "within", "Only entries from this recent period (e.g., 90d, 2w)", false),
+                    new OptionData(OptionType.STRING, "before", "Only entries older than this (e.g., 30d)", false)
+                );
+    }
+
+    @Override
+    public String getName() {
+        return "modsearch";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Search moderation history and warnings";
+    }
+
+    @Override
+    public CommandCategory getCategory() {
+        return CommandCategory.MODERATION;
+    }
+
+    @Override
+    public boolean requiresPermissions() {
+        return true;
+    }
+
+    private static final class SearchSession {
+        final String requesterId;
+        final String guildId;
+        final ModerationSearchIndex.Query query;
+        final String criteria;
+        final long createdAt;
+
+        SearchSession(String requesterId, String guildId, ModerationSearchIndex.Query query, String criteria, long createdAt) {
+            this.requesterId = requesterId;
+            this.guildId = guildId;
+            this.query = query;
+            this.criteria = criteria;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -1,14 +1,12 @@
 package com.serverbot.commands.moderation;
 
-import com.serverbot.ServerBot;
 import com.serverbot.commands.CommandCategory;
 import com.serverbot.commands.SlashCommand;
 import com.serverbot.utils.EmbedUtils;
 import com.serverbot.utils.PermissionManager;
-import com.serverbot.utils.PermissionUtils;
 import com.serverbot.utils.TimeUtils;
-import com.serverbot.utils.AutoLogUtils;
-import com.serverbot.services.PunishmentNotificationService;
+import com.serverbot.models.ModerationAction;
+import com.serverbot.services.ModerationPipeline;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.Role;
@@ -20,8 +18,6 @@ import net.dv8tion.jda.api.interactions.commands.build.Commands;
 
 import java.time.Duration;
 import java.util.EnumSet;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * Mute command for muting users temporarily
@@ -56,33 +52,6 @@ public class MuteCommand implements SlashCommand {
         String reason = event.getOption("reason") != null ? 
                 event.getOption("reason").getAsString() : "No reason provided";
 
-        Member targetMember = event.getGuild().getMember(target);
-        
-        if (targetMember == null) {
-            event.replyEmbeds(EmbedUtils.createErrorEmbedWithUsage(
-                "User Not Found", "This user is not in the server.", USAGE, EXAMPLE
-            )).setEphemeral(true).queue();
-            return;
-        }
-
-        if (!PermissionUtils.canInteractWith(moderator, targetMember)) {
-            event.replyEmbeds(EmbedUtils.createErrorEmbed(
-                "Cannot Mute User", 
-                "You cannot mute this user due to role hierarchy.\n\n" +
-                "Your highest role must be above the target user's highest role."
-            )).setEphemeral(true).queue();
-            return;
-        }
-
-        if (!PermissionUtils.botCanInteractWith(event.getGuild(), targetMember)) {
-            event.replyEmbeds(EmbedUtils.createErrorEmbed(
-                "Cannot Mute User", 
-                "I cannot mute this user due to role hierarchy.\n\n" +
-                "Move my role higher than the target user's highest role."
-            )).setEphemeral(true).queue();
-            return;
-        }
-
         // Parse duration
         final Duration muteDuration = TimeUtils.parseDuration(durationStr);
         if (muteDuration == null) {
@@ -96,6 +65,18 @@ public class MuteCommand implements SlashCommand {
             return;
         }
 
+        // Validate before looking up the mute role, which may create it
+        ModerationAction.Builder builder = ModerationAction.builder(ModerationAction.Type.MUTE, event.getGuild(), target, moderator)
+                .reason(reason)
+                .duration(muteDuration);
+        String validationError = ModerationPipeline.getInstance().validate(builder.build());
+        if (validationError != null) {
+            event.replyEmbeds(EmbedUtils.createErrorEmbedWithUsage(
+                "Cannot Mute User", validationError, USAGE, EXAMPLE
+            )).setEphemeral(true).queue();
+            return;
+        }
+
         // Find or create mute role
         Role muteRole = findMuteRole(event.getGuild());
         if (muteRole == null) {
@@ -104,42 +85,24 @@ public class MuteCommand implements SlashCommand {
             )).setEphemeral(true).queue();
             return;
         }
+        ModerationAction action = builder.muteRole(muteRole).build();
 
         // Defer reply since mute operation is async and may take longer than 3 seconds
         event.deferReply().queue();
 
-        // Apply mute
-        event.getGuild().addRoleToMember(targetMember, muteRole).reason(reason)
-                .queue(success -> {
-                    // Send confirmation
-                    String durationText = TimeUtils.formatDuration(muteDuration);
-                    event.getHook().sendMessageEmbeds(EmbedUtils.createModerationEmbed(
-                        "User Muted", target, moderator.getUser(), 
-                        reason + "\n**Duration:** " + durationText
-                    )).queue();
-
-                    // Schedule unmute and log action
-                    scheduleMute(event.getGuild().getId(), target.getId(), muteDuration, moderator.getId(), reason);
-                    logMute(event.getGuild().getId(), target.getId(), moderator.getId(), reason, muteDuration);
-                    
-                    // Log to AutoLog channel
-                    AutoLogUtils.logMute(event.getGuild(), target, moderator.getUser(), reason, muteDuration);
-                    
-                    // Send DM notification if enabled
-                    PunishmentNotificationService.getInstance().sendPunishmentNotification(
-                        event.getGuild().getId(),
-                        target.getId(),
-                        PunishmentNotificationService.PunishmentType.MUTE,
-                        reason,
-                        muteDuration,
-                        durationText
-                    );
-
-                }, error -> {
-                    event.getHook().sendMessageEmbeds(EmbedUtils.createErrorEmbed(
-                        "Mute Failed", "Failed to mute user: " + error.getMessage()
-                    )).setEphemeral(true).queue();
-                });
+        // Unmute scheduling, DM and logging are handled by the pipeline once the mute succeeds
+        ModerationPipeline.getInstance().execute(action).whenComplete((result, error) -> {
+            if (error != null) {
+                event.getHook().sendMessageEmbeds(EmbedUtils.createErrorEmbed(
+                    "Mute Failed", "Failed to mute user: " + ModerationPipeline.unwrap(error).getMessage()
+                )).setEphemeral(true).queue();
+                return;
+            }
+            event.getHook().sendMessageEmbeds(EmbedUtils.createModerationEmbed(
+                "User Muted", target, moderator.getUser(),
+                action.getReason() + "\n**Duration:** " + TimeUtils.formatDuration(muteDuration)
+            )).queue();
+        });
     }
 
     private Role findMuteRole(net.dv8tion.jda.api.entities.Guild guild) {
@@ -182,49 +145,6 @@ public class MuteCommand implements SlashCommand {
         }
     }
 
-    private void scheduleMute(String guildId, String userId, Duration duration, String moderatorId, String reason) {
-        try {
-            // Create a unique key for this temporary punishment
-            String uniqueKey = guildId + ":" + userId + ":MUTE:" + System.currentTimeMillis();
-            
-            // Create temp punishment data
-            Map<String, Object> tempPunishment = new HashMap<>();
-            tempPunishment.put("guildId", guildId);
-            tempPunishment.put("userId", userId);
-            tempPunishment.put("punishmentType", "MUTE");
-            tempPunishment.put("expiresAt", System.currentTimeMillis() + duration.toMillis());
-            tempPunishment.put("moderatorId", moderatorId);
-            tempPunishment.put("reason", reason);
-            tempPunishment.put("createdAt", System.currentTimeMillis());
-
-            // Store the temporary punishment
-            ServerBot.getStorageManager().storeTempPunishment(uniqueKey, tempPunishment);
-            
-            System.out.println("Scheduled mute removal for user " + userId + " in " + duration.toMinutes() + " minutes");
-        } catch (Exception e) {
-            System.err.println("Failed to schedule unmute: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
-
-    private void logMute(String guildId, String userId, String moderatorId, String reason, Duration duration) {
-        try {
-            // Create moderation log entry
-            Map<String, Object> logEntry = new HashMap<>();
-            logEntry.put("type", "MUTE");
-            logEntry.put("userId", userId);
-            logEntry.put("moderatorId", moderatorId);
-            logEntry.put("reason", reason);
-            logEntry.put("duration", duration.toString());
-            logEntry.put("timestamp", System.currentTimeMillis());
-
-            // Store moderation log
-            ServerBot.getStorageManager().addModerationLog(guildId, logEntry);
-        } catch (Exception e) {
-            System.err.println("Failed to log mute: " + e.getMessage());
-        }
-    }
-
     public static CommandData getCommandData() {
         return Commands.slash("mute", "Mute a user temporarily")
                 .addOption(OptionType.USER, "user", "User to mute", true)
@@ -2,28 +2,43 @@ package com.serverbot.commands.moderation;
 
 import com.serverbot.commands.CommandCategory;
 import com.serverbot.commands.SlashCommand;
+import com.serverbot.services.PurgeService;
+import com.serverbot.utils.AutoLogUtils;
 import com.serverbot.utils.EmbedUtils;
 import com.serverbot.utils.PermissionManager;
+import com.serverbot.utils.PurgeFilter;
+import com.serverbot.utils.TimeUtils;
 import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Member;
-import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 import net.dv8tion.jda.api.interactions.commands.build.Commands;
 import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+import net.dv8tion.jda.api.utils.MiscUtil;
 
-import java.time.OffsetDateTime;
-import java.util.List;
-import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 /**
  * Purge command for bulk message operations
  */
 public class PurgeCommand implements SlashCommand {
 
+    private static final int DEFAULT_AMOUNT = 100;
+    // Minimum time between progress edits of the deferred reply
+    private static final long PROGRESS_INTERVAL_MS = 2000;
+    private static final Duration DEFAULT_GUILD_WINDOW = Duration.ofHours(1);
+    private static final Pattern SNOWFLAKE_PATTERN = Pattern.compile("\\d{17,20}");
+
     @Override
     public void execute(SlashCommandInteractionEvent event) {
         if (!event.isFromGuild()) {
@@ -42,6 +57,10 @@ public class PurgeCommand implements SlashCommand {
         }
 
         String purgeType = event.getOption("type").getAsString();
+        if ("server".equalsIgnoreCase(purgeType)) {
+            runGuildPurge(event);
+            return;
+        }
         TextChannel channel = event.getChannel().asTextChannel();
         
         // Check bot permissions
@@ -56,10 +75,9 @@ public class PurgeCommand implements SlashCommand {
         event.deferReply(true).queue();
 
         switch (purgeType.toLowerCase()) {
-            case "reactions" -> purgeReactions(event, channel);
-            case "replies" -> purgeReplies(event, channel);
+            case "reactions", "replies", "messages" -> runStreamingPurge(event, channel, purgeType.toLowerCase());
             case "threads" -> purgeThreads(event, channel);
-            case "messages" -> purgeMessages(event, channel);
+            case "cancel" -> cancelPurge(event, channel);
             default -> {
                 event.getHook().editOriginalEmbeds(EmbedUtils.createErrorEmbed(
                     "Invalid Type", "Invalid purge type: " + purgeType
@@ -68,97 +86,6 @@ public class PurgeCommand implements SlashCommand {
         }
     }
 
-    private void purgeReactions(SlashCommandInteractionEvent event, TextChannel channel) {
-        try {
-            channel.getHistory().retrievePast(100).queue(messages -> {
-                CompletableFuture<Void> futures = CompletableFuture.completedFuture(null);
-                int reactionCount = 0;
-                
-                for (Message message : messages) {
-                    if (!message.getReactions().isEmpty()) {
-                        reactionCount++;
-                        futures = futures.thenCompose(v -> message.clearReactions().submit());
-                    }
-                }
-                
-                final int finalCount = reactionCount;
-                futures.thenRun(() -> {
-                    event.getHook().editOriginalEmbeds(EmbedUtils.createSuccessEmbed(
-                        "Reactions Purged", 
-                        "Cleared reactions from **" + finalCount + "** messages in the last 100 messages."
-                    )).queue();
-                }).exceptionally(throwable -> {
-                    event.getHook().editOriginalEmbeds(EmbedUtils.createErrorEmbed(
-                        "Purge Failed", "Failed to clear reactions: " + throwable.getMessage()
-                    )).queue();
-                    return null;
-                });
-            }, error -> {
-                event.getHook().editOriginalEmbeds(EmbedUtils.createErrorEmbed(
-                    "History Error", "Failed to retrieve message history: " + error.getMessage()
-                )).queue();
-            });
-        } catch (Exception e) {
-            event.getHook().editOriginalEmbeds(EmbedUtils.createErrorEmbed(
-                "Purge Error", "An error occurred: " + e.getMessage()
-            )).queue();
-        }
-    }
-
-    private void purgeReplies(SlashCommandInteractionEvent event, TextChannel channel) {
-        try {
-            channel.getHistory().retrievePast(100).queue(messages -> {
-                List<Message> repliesToDelete = messages.stream()
-                        .filter(message -> message.getMessageReference() != null)
-                        .filter(message -> message.getTimeCreated().isAfter(OffsetDateTime.now().minusWeeks(2)))
-                        .collect(Collectors.toList());
-
-                if (repliesToDelete.isEmpty()) {
-                    event.getHook().editOriginalEmbeds(EmbedUtils.createInfoEmbed(
-                        "No Replies Found", "No reply messages found in the last 100 messages."
-                    )).queue();
-                    return;
-                }
-
-                if (repliesToDelete.size() == 1) {
-                    repliesToDelete.get(0).delete().queue(
-                        success -> {
-                            event.getHook().editOriginalEmbeds(EmbedUtils.createSuccessEmbed(
-                                "Replies Purged", "Deleted **1** reply message."
-                            )).queue();
-                        },
-                        error -> {
-                            event.getHook().editOriginalEmbeds(EmbedUtils.createErrorEmbed(
-                                "Delete Failed", "Failed to delete reply: " + error.getMessage()
-                            )).queue();
-                        }
-                    );
-                } else {
-                    channel.deleteMessages(repliesToDelete).queue(
-                        success -> {
-                            event.getHook().editOriginalEmbeds(EmbedUtils.createSuccessEmbed(
-                                "Replies Purged", "Deleted **" + repliesToDelete.size() + "** reply messages."
-                            )).queue();
-                        },
-                        error -> {
-                            event.getHook().editOriginalEmbeds(EmbedUtils.createErrorEmbed(
-                                "Bulk Delete Failed", "Failed to delete replies: " + error.getMessage()
-                            )).queue();
-                        }
-                    );
-                }
-            }, error -> {
-                event.getHook().editOriginalEmbeds(EmbedUtils.createErrorEmbed(
-                    "History Error", "Failed to retrieve message history: " + error.getMessage()
-                )).queue();
-            });
-        } catch (Exception e) {
-            event.getHook().editOriginalEmbeds(EmbedUtils.createErrorEmbed(
-                "Purge Error", "An error occurred: " + e.getMessage()
-            )).queue();
-        }
-    }
-
     private void purgeThreads(SlashCommandInteractionEvent event, TextChannel channel) {
         try {
             // Get active threads
@@ -197,55 +124,216 @@ public class PurgeCommand implements SlashCommand {
         }
     }
 
-    private void purgeMessages(SlashCommandInteractionEvent event, TextChannel channel) {
+    /**
+     * Stream through the channel history applying the requested filters, editing the reply with progress
+     */
+    private void runStreamingPurge(SlashCommandInteractionEvent event, TextChannel channel, String purgeType) {
+        PurgeFilter filter;
         try {
-            channel.getHistory().retrievePast(100).queue(messages -> {
-                List<Message> messagesToDelete = messages.stream()
-                        .filter(message -> message.getTimeCreated().isAfter(OffsetDateTime.now().minusWeeks(2)))
-                        .collect(Collectors.toList());
+            filter = buildFilter(event, purgeType);
+        } catch (IllegalArgumentException e) {
+            event.getHook().editOriginalEmbeds(EmbedUtils.createErrorEmbed(
+                "Invalid Filter", e.getMessage()
+            )).queue();
+            return;
+        }
 
-                if (messagesToDelete.isEmpty()) {
-                    event.getHook().editOriginalEmbeds(EmbedUtils.createInfoEmbed(
-                        "No Messages", "No messages found that can be deleted (messages must be less than 2 weeks old)."
-                    )).queue();
-                    return;
-                }
+        OptionMapping amountOption = event.getOption("amount");
+        int amount = amountOption != null ? amountOption.getAsInt() : DEFAULT_AMOUNT;
+        PurgeService.Mode mode = "reactions".equals(purgeType) ? PurgeService.Mode.CLEAR_REACTIONS : PurgeService.Mode.DELETE;
+        String verb = mode == PurgeService.Mode.CLEAR_REACTIONS ? "Cleared reactions from" : "Deleted";
 
-                if (messagesToDelete.size() == 1) {
-                    messagesToDelete.get(0).delete().queue(
-                        success -> {
-                            event.getHook().editOriginalEmbeds(EmbedUtils.createSuccessEmbed(
-                                "Messages Purged", "Deleted **1** message."
-                            )).queue();
-                        },
-                        error -> {
-                            event.getHook().editOriginalEmbeds(EmbedUtils.createErrorEmbed(
-                                "Delete Failed", "Failed to delete message: " + error.getMessage()
-                            )).queue();
-                        }
-                    );
-                } else {
-                    channel.deleteMessages(messagesToDelete).queue(
-                        success -> {
-                            event.getHook().editOriginalEmbeds(EmbedUtils.createSuccessEmbed(
-                                "Messages Purged", "Deleted **" + messagesToDelete.size() + "** messages."
-                            )).queue();
-                        },
-                        error -> {
-                            event.getHook().editOriginalEmbeds(EmbedUtils.createErrorEmbed(
-                                "Bulk Delete Failed", "Failed to delete messages: " + error.getMessage()
-                            )).queue();
-                        }
-                    );
-                }
-            }, error -> {
+        AtomicLong lastUpdate = new AtomicLong(System.currentTimeMillis());
+        PurgeService.PurgeJob job = PurgeService.getInstance().start(channel, filter, mode, amount, progress -> {
+            long now = System.currentTimeMillis();
+            long last = lastUpdate.get();
+            if (now - last >= PROGRESS_INTERVAL_MS && lastUpdate.compareAndSet(last, now)) {
+                event.getHook().editOriginalEmbeds(EmbedUtils.createInfoEmbed(
+                    "⏳ Purging",
+                    verb + " **" + progress.getProcessed() + "** message(s) so far, scanned **" + progress.getScanned() + "**.\n" +
+                    "Use `/purge type:Cancel` to stop."
+                )).queue();
+            }
+        });
+
+        if (job == null) {
+            event.getHook().editOriginalEmbeds(EmbedUtils.createErrorEmbed(
+                "Purge In Progress", "A purge is already running in this channel. Use `/purge type:Cancel` to stop it."
+            )).queue();
+            return;
+        }
+
+        job.getFuture().whenComplete((result, error) -> {
+            if (error instanceof PurgeFilter.PatternTimeoutException) {
+                event.getHook().editOriginalEmbeds(EmbedUtils.createErrorEmbed(
+                    "Pattern Too Slow", "The pattern took too long to check against a message, so the purge was stopped.\n" +
+                    "Try a simpler pattern without nested repetition such as `(.*a){20}`."
+                )).queue();
+                return;
+            }
+            if (error != null) {
                 event.getHook().editOriginalEmbeds(EmbedUtils.createErrorEmbed(
                     "History Error", "Failed to retrieve message history: " + error.getMessage()
                 )).queue();
+                return;
+            }
+            if (result.getMatched() == 0) {
+                event.getHook().editOriginalEmbeds(EmbedUtils.createInfoEmbed(
+                    "Nothing To Purge", "No messages matched after scanning **" + result.getScanned() + "** message(s).\n" +
+                    "**Filters:** " + filter.describe()
+                )).queue();
+                return;
+            }
+
+            StringBuilder summary = new StringBuilder();
+            summary.append(verb).append(" **").append(result.getProcessed()).append("** message(s) after scanning **")
+                   .append(result.getScanned()).append("**.\n**Filters:** ").append(filter.describe());
+            if (result.getFailed() > 0) {
+                summary.append("\n").append(result.getFailed()).append(" message(s) could not be processed.");
+            }
+            event.getHook().editOriginalEmbeds(result.isCancelled()
+                ? EmbedUtils.createWarningEmbed("Purge Cancelled", summary.toString())
+                : EmbedUtils.createSuccessEmbed("Purge Complete", summary.toString())
+            ).queue();
+        });
+    }
+
+    /**
+     * Remove recent messages from a list of users across every channel, for cleaning up after a raid
+     */
+    private void runGuildPurge(SlashCommandInteractionEvent event) {
+        Guild guild = event.getGuild();
+        OptionMapping usersOption = event.getOption("users");
+        OptionMapping userOption = event.getOption("user");
+        Set<Long> userIds = new LinkedHashSet<>();
+        if (usersOption != null) {
+            Matcher matcher = SNOWFLAKE_PATTERN.matcher(usersOption.getAsString());
+            while (matcher.find()) {
+                userIds.add(Long.parseLong(matcher.group()));
+            }
+        }
+        if (userOption != null) {
+            userIds.add(userOption.getAsUser().getIdLong());
+        }
+        if (userIds.isEmpty()) {
+            event.replyEmbeds(EmbedUtils.createErrorEmbed(
+                "No Users", "Provide the users to purge with the `users` option (IDs or mentions) or the `user` option."
+            )).setEphemeral(true).queue();
+            return;
+        }
+
+        OptionMapping windowOption = event.getOption("window");
+        Duration window = windowOption != null ? TimeUtils.parseDuration(windowOption.getAsString()) : DEFAULT_GUILD_WINDOW;
+        if (window == null) {
+            event.replyEmbeds(EmbedUtils.createErrorEmbed(
+                "Invalid Window", "Use a duration like `30m`, `6h` or `2d`."
+            )).setEphemeral(true).queue();
+            return;
+        }
+
+        event.deferReply(true).queue(hook -> {
+            AtomicLong lastUpdate = new AtomicLong(System.currentTimeMillis());
+            PurgeService.GuildPurge purge = PurgeService.getInstance().startGuildPurge(guild, userIds, window, progress -> {
+                long now = System.currentTimeMillis();
+                long last = lastUpdate.get();
+                if (now - last >= PROGRESS_INTERVAL_MS && lastUpdate.compareAndSet(last, now)) {
+                    hook.editOriginalEmbeds(EmbedUtils.createInfoEmbed(
+                        "⏳ Purging Server",
+                        "Channels scanned: **" + progress.getChannelsDone() + "/" + progress.getChannelCount() + "**\n" +
+                        "Messages deleted: **" + progress.getDeleted() + "**\n" +
+                        "Use `/purge type:Cancel` to stop."
+                    )).queue();
+                }
             });
-        } catch (Exception e) {
-            event.getHook().editOriginalEmbeds(EmbedUtils.createErrorEmbed(
-                "Purge Error", "An error occurred: " + e.getMessage()
+
+            if (purge == null) {
+                hook.editOriginalEmbeds(EmbedUtils.createErrorEmbed(
+                    "Purge In Progress", "A server-wide purge is already running. Use `/purge type:Cancel` to stop it."
+                )).queue();
+                return;
+            }
+
+            purge.getFuture().whenComplete((result, error) -> {
+                StringBuilder summary = new StringBuilder();
+                summary.append("Deleted **").append(result.getDeleted()).append("** message(s) from **").append(userIds.size())
+                       .append("** user(s) across **").append(result.getChannelsWithMatches()).append("** channel(s).\n")
+                       .append("Scanned **").append(result.getScanned()).append("** message(s) in **")
+                       .append(result.getChannelCount()).append("** channel(s) from the last ")
+                       .append(TimeUtils.formatDuration(window)).append(".");
+                if (result.getFailed() > 0 || result.getChannelsFailed() > 0) {
+                    summary.append("\n").append(result.getFailed()).append(" message(s) and ")
+                           .append(result.getChannelsFailed()).append(" channel(s) could not be processed.");
+                }
+                hook.editOriginalEmbeds(result.isCancelled()
+                    ? EmbedUtils.createWarningEmbed("Server Purge Cancelled", summary.toString())
+                    : EmbedUtils.createSuccessEmbed("Server Purge Complete", summary.toString())
+                ).queue();
+
+                AutoLogUtils.logGuildPurge(guild, event.getUser(), userIds.size(), window,
+                    result.getDeleted(), result.getChannelsWithMatches(), result.isCancelled());
+            });
+        });
+    }
+
+    private PurgeFilter buildFilter(SlashCommandInteractionEvent event, String purgeType) {
+        PurgeFilter.Builder builder = PurgeFilter.builder();
+        if ("replies".equals(purgeType)) {
+            builder.repliesOnly();
+        } else if ("reactions".equals(purgeType)) {
+            builder.withReactions();
+        }
+
+        OptionMapping userOption = event.getOption("user");
+        if (userOption != null) {
+            builder.user(userOption.getAsUser().getIdLong());
+        }
+        OptionMapping patternOption = event.getOption("pattern");
+        if (patternOption != null) {
+            try {
+                builder.pattern(Pattern.compile(patternOption.getAsString(), Pattern.CASE_INSENSITIVE));
+            } catch (PatternSyntaxException e) {
+                throw new IllegalArgumentException("Invalid pattern: " + e.getDescription());
+            }
+        }
+        OptionMapping attachmentsOption = event.getOption("attachments");
+        if (attachmentsOption != null && attachmentsOption.getAsBoolean()) {
+            builder.hasAttachment();
+        }
+        OptionMapping botsOption = event.getOption("bots");
+        if (botsOption != null && botsOption.getAsBoolean()) {
+            builder.botsOnly();
+        }
+        OptionMapping beforeOption = event.getOption("before");
+        if (beforeOption != null) {
+            builder.before(parseMessageId(beforeOption.getAsString(), "before"));
+        }
+        OptionMapping afterOption = event.getOption("after");
+        if (afterOption != null) {
+            builder.after(parseMessageId(afterOption.getAsString(), "after"));
+        }
+        return builder.build();
+    }
+
+    private long parseMessageId(String value, String optionName) {
+        try {
+            return MiscUtil.parseSnowflake(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("`" + optionName + "` must be a message ID.");
+        }
+    }
+
+    private void cancelPurge(SlashCommandInteractionEvent event, TextChannel channel) {
+        if (PurgeService.getInstance().cancelGuildPurge(event.getGuild().getId())) {
+            event.getHook().editOriginalEmbeds(EmbedUtils.createSuccessEmbed(
+                "Cancelling Server Purge", "The server-wide purge will stop once its running channels finish their current batch."
+            )).queue();
+        } else if (PurgeService.getInstance().cancel(channel.getId())) {
+            event.getHook().editOriginalEmbeds(EmbedUtils.createSuccessEmbed(
+                "Cancelling Purge", "The running purge will stop after its current batch."
+            )).queue();
+        } else {
+            event.getHook().editOriginalEmbeds(EmbedUtils.createInfoEmbed(
+                "No Purge Running", "There is no purge running in this channel."
             )).queue();
         }
     }
@@ -258,6 +346,18 @@ public class PurgeCommand implements SlashCommand {
                         .addChoice("Replies", "replies")
                         .addChoice("Threads", "threads")
                         .addChoice("Messages", "messages")
+                        .addChoice("Users (server-wide)", "server")
+                        .addChoice("Cancel", "cancel"),
+                    new OptionData(OptionType.INTEGER, "amount", "Maximum number of messages to purge (default " + DEFAULT_AMOUNT + ")", false)
+                        .setRequiredRange(1, PurgeService.MAX_PURGE),
+                    new OptionData(OptionType.USER, "user", "Only purge messages from this user", false),
+                    new OptionData(OptionType.STRING, "pattern", "Only purge messages matching this regex", false),
+                    new OptionData(OptionType.BOOLEAN, "attachments", "Only purge messages with attachments", false),
+                    new OptionData(OptionType.BOOLEAN, "bots", "Only purge messages from bots and webhooks", false),
+                    new OptionData(OptionType.STRING, "before", "Only purge messages before this message ID", false),
+                    new OptionData(OptionType.STRING, "after", "Only purge messages after this message ID", false),
+                    new OptionData(OptionType.STRING, "users", "Server-wide: user IDs or mentions to purge", false),
+                    new OptionData(OptionType.STRING, "window", "Server-wide: how far back to purge, e.g. 30m or 6h (default 1h)", false)
                 );
     }
 
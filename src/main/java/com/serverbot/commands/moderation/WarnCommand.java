@@ -3,13 +3,10 @@ package com.serverbot.commands.moderation;
 import com.serverbot.ServerBot;
 import com.serverbot.commands.CommandCategory;
 import com.serverbot.commands.SlashCommand;
-import com.serverbot.storage.FileStorageManager;
-import com.serverbot.services.PunishmentNotificationService;
+import com.serverbot.models.ModerationAction;
+import com.serverbot.services.ModerationPipeline;
 import com.serverbot.utils.EmbedUtils;
 import com.serverbot.utils.PermissionManager;
-import com.serverbot.utils.PermissionUtils;
-import com.serverbot.utils.AutoLogUtils;
-import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
@@ -45,59 +42,38 @@ public class WarnCommand implements SlashCommand {
         String reason = event.getOption("reason") != null ? 
                 event.getOption("reason").getAsString() : "No reason provided";
 
-        Member targetMember = event.getGuild().getMember(targetUser);
-        if (targetMember == null) {
-            event.replyEmbeds(EmbedUtils.createErrorEmbedWithUsage("User Not Found", 
-                "This user is not in the server!", USAGE, EXAMPLE)).setEphemeral(true).queue();
+        ModerationAction action = ModerationAction.builder(ModerationAction.Type.WARN, event.getGuild(), targetUser, event.getMember())
+                .reason(reason)
+                .build();
+        String validationError = ModerationPipeline.getInstance().validate(action);
+        if (validationError != null) {
+            event.replyEmbeds(EmbedUtils.createErrorEmbedWithUsage("Cannot Warn", 
+                validationError, USAGE, EXAMPLE)).setEphemeral(true).queue();
             return;
         }
 
-        if (targetUser.isBot()) {
-            event.replyEmbeds(EmbedUtils.createErrorEmbedWithUsage("Invalid Target", 
-                "You cannot warn bots!", USAGE, EXAMPLE)).setEphemeral(true).queue();
-            return;
-        }
-
-        // Check if the moderator can interact with the target
-        if (!PermissionUtils.canInteractWith(event.getMember(), targetMember)) {
-            event.replyEmbeds(EmbedUtils.createErrorEmbed("Cannot Warn", 
-                "You cannot warn this user due to role hierarchy!\n\n" +
-                "Your highest role must be above the target user's highest role.")).setEphemeral(true).queue();
-            return;
-        }
-
-        FileStorageManager storage = ServerBot.getStorageManager();
-        String guildId = event.getGuild().getId();
-        String userId = targetUser.getId();
-        String moderatorId = event.getUser().getId();
-
-        // Add the warning
-        storage.addWarning(guildId, userId, reason, moderatorId);
-        int warningCount = storage.getWarningCount(guildId, userId);
-
-        String description = String.format(
-            "**User:** %s (%s)\n" +
-            "**Reason:** %s\n" +
-            "**Warning Count:** %d\n" +
-            "**Moderator:** %s",
-            targetUser.getName(), targetUser.getId(),
-            reason, warningCount, event.getUser().getName()
-        );
-
-        event.replyEmbeds(EmbedUtils.createWarningEmbed("User Warned", description)).queue();
-        
-        // Send DM notification if configured
-        PunishmentNotificationService.getInstance().sendPunishmentNotification(
-            event.getGuild().getId(), 
-            targetUser.getId(), 
-            PunishmentNotificationService.PunishmentType.WARN, 
-            reason, 
-            null, // No duration for warnings
-            event.getMember().getEffectiveName()
-        );
-        
-        // Log to AutoLog channel
-        AutoLogUtils.logWarn(event.getGuild(), targetUser, event.getUser(), reason);
+        event.deferReply().queue();
+
+        // DM and logging are handled by the pipeline once the warning is stored
+        ModerationPipeline.getInstance().execute(action).whenComplete((result, error) -> {
+            if (error != null) {
+                event.getHook().sendMessageEmbeds(EmbedUtils.createErrorEmbed(
+                    "Warn Failed", "Failed to warn user: " + ModerationPipeline.unwrap(error).getMessage()
+                )).setEphemeral(true).queue();
+                return;
+            }
+
+            int warningCount = ServerBot.getStorageManager().getWarningCount(event.getGuild().getId(), targetUser.getId());
+            String description = String.format(
+                "**User:** %s (%s)\n" +
+                "**Reason:** %s\n" +
+                "**Warning Count:** %d\n" +
+                "**Moderator:** %s",
+                targetUser.getName(), targetUser.getId(),
+                action.getReason(), warningCount, event.getUser().getName()
+            );
+            event.getHook().sendMessageEmbeds(EmbedUtils.createWarningEmbed("User Warned", description)).queue();
+        });
     }
 
     @Override
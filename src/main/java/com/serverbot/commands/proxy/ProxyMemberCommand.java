@@ -4,11 +4,13 @@ import com.serverbot.ServerBot;
 import com.serverbot.commands.CommandCategory;
 import com.serverbot.commands.SlashCommand;
 import com.serverbot.models.ProxyMember;
+import com.serverbot.services.ProxyImporter;
 import com.serverbot.services.ProxyService;
 import com.serverbot.utils.CustomEmojis;
 import com.serverbot.utils.EmbedUtils;
 import com.serverbot.utils.PermissionManager;
 import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
@@ -17,6 +19,7 @@ import net.dv8tion.jda.api.interactions.commands.build.SubcommandData;
 
 import java.awt.*;
 import java.util.List;
+import java.util.concurrent.CompletionException;
 
 /**
  * Main proxy command for managing proxy members
@@ -24,6 +27,8 @@ import java.util.List;
  */
 public class ProxyMemberCommand implements SlashCommand {
     
+    private static final long MAX_IMPORT_BYTES = 50L * 1024 * 1024;
+    
     private final ProxyService proxyService;
     
     public ProxyMemberCommand() {
@@ -63,6 +68,9 @@ public class ProxyMemberCommand implements SlashCommand {
             case "removetag":
                 handleRemoveTag(event);
                 break;
+            case "import":
+                handleImport(event);
+                break;
             default:
                 event.replyEmbeds(EmbedUtils.createErrorEmbed(
                     "Error",
@@ -228,9 +236,11 @@ public class ProxyMemberCommand implements SlashCommand {
             return;
         }
         
+        // Colours imported before they were validated may not be "#rrggbb"
+        String color = ProxyImporter.normalizeColor(member.getColor());
         EmbedBuilder embed = new EmbedBuilder()
             .setTitle(CustomEmojis.INFO + " " + member.getName())
-            .setColor(member.getColor() != null ? Color.decode(member.getColor()) : Color.BLUE)
+            .setColor(color != null ? Color.decode(color) : Color.BLUE)
             .addField("Display Name", member.getDisplayName(), true)
             .addField("ID", member.getMemberId(), true)
             .addField("Scope", CustomEmojis.INFO + " Global (works in all servers and DMs)", true);
@@ -383,6 +393,52 @@ public class ProxyMemberCommand implements SlashCommand {
         });
     }
     
+    private void handleImport(SlashCommandInteractionEvent event) {
+        Message.Attachment file = event.getOption("file").getAsAttachment();
+        if (file.getSize() > MAX_IMPORT_BYTES) {
+            event.replyEmbeds(EmbedUtils.createErrorEmbed(
+                "Error",
+                "Export files can be at most " + (MAX_IMPORT_BYTES / (1024 * 1024)) + " MB."
+            )).setEphemeral(true).queue();
+            return;
+        }
+        
+        event.deferReply().queue();
+        
+        // The export is parsed as it downloads, never held whole in memory
+        file.getProxy().download()
+            .thenCompose(stream -> proxyService.importSystem(event.getUser().getId(), stream))
+            .whenComplete((result, error) -> {
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    String reason = cause instanceof IllegalArgumentException
+                        ? cause.getMessage()
+                        : "The file couldn't be read. Please try again.";
+                    event.getHook().editOriginalEmbeds(EmbedUtils.createErrorEmbed(
+                        "Import Failed",
+                        reason
+                    )).queue();
+                    return;
+                }
+                
+                EmbedBuilder embed = new EmbedBuilder()
+                    .setTitle(CustomEmojis.SUCCESS + " System Imported")
+                    .setDescription("Imported your " + result.getFormat().getDisplayName() + " export.")
+                    .addField("Members Created", String.valueOf(result.getMembersCreated()), true)
+                    .addField("Skipped", String.valueOf(result.getSkipped()), true)
+                    .addField("Groups Created", String.valueOf(result.getGroupsCreated()), true)
+                    .addField("Scope", CustomEmojis.INFO + " Global (works in all servers and DMs)", false)
+                    .setColor(Color.GREEN);
+                if (result.getSkipped() > 0) {
+                    embed.setFooter("Members whose names you already use were skipped.");
+                }
+                if (result.getAvatarsQueued() > 0) {
+                    embed.addField("Avatars", result.getAvatarsQueued() + " being cached in the background", false);
+                }
+                event.getHook().editOriginalEmbeds(embed.build()).queue();
+            });
+    }
+    
     public static CommandData getCommandData() {
         return Commands.slash("proxy", "Manage proxy members (PluralKit-style)")
             .addSubcommands(
@@ -413,7 +469,10 @@ public class ProxyMemberCommand implements SlashCommand {
                     
                 new SubcommandData("removetag", "Remove a proxy tag from a member")
                     .addOption(OptionType.STRING, "member", "Name of the member", true)
-                    .addOption(OptionType.INTEGER, "index", "Index of the tag to remove (use /proxy info to see)", true)
+                    .addOption(OptionType.INTEGER, "index", "Index of the tag to remove (use /proxy info to see)", true),
+                    
+                new SubcommandData("import", "Import members from a PluralKit or Tupperbox export")
+                    .addOption(OptionType.ATTACHMENT, "file", "Export file (pk;export or tul!export)", true)
             );
     }
     
@@ -3,27 +3,42 @@ package com.serverbot.commands.utility;
 import com.serverbot.ServerBot;
 import com.serverbot.commands.CommandCategory;
 import com.serverbot.commands.SlashCommand;
-import com.serverbot.services.ProxyService;
-import com.serverbot.storage.FileStorageManager;
+import com.serverbot.storage.UserDataIndex;
 import com.serverbot.utils.CustomEmojis;
 import com.serverbot.utils.EmbedUtils;
 import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.interactions.InteractionHook;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 import net.dv8tion.jda.api.interactions.commands.build.Commands;
 import net.dv8tion.jda.api.interactions.components.buttons.Button;
+import net.dv8tion.jda.api.utils.FileUpload;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
 
 /**
- * Allows users to request deletion of all their personal data stored by the bot.
+ * Allows users to request deletion of all their personal data stored by the bot, or a copy of it.
  * Uses a confirmation button to prevent accidental data loss.
+ * Records are found through {@link UserDataIndex}, and both deletion and export run as a
+ * background job that reports progress on the original reply.
  * Required for compliance with the Discord Developer Terms of Service.
  */
 public class DeleteDataCommand extends ListenerAdapter implements SlashCommand {
@@ -37,6 +52,9 @@ public class DeleteDataCommand extends ListenerAdapter implements SlashCommand {
     private static final String BUTTON_CONFIRM = "deletedata_confirm";
     private static final String BUTTON_CANCEL = "deletedata_cancel";
 
+    // Interaction edits are rate limited, so progress is shown at most this often
+    private static final long PROGRESS_INTERVAL_MS = 1500;
+
     @Override
     public String getName() {
         return "deletedata";
@@ -66,9 +84,23 @@ public class DeleteDataCommand extends ListenerAdapter implements SlashCommand {
     public void execute(SlashCommandInteractionEvent event) {
         String userId = event.getUser().getId();
 
+        OptionMapping exportOption = event.getOption("export");
+        if (exportOption != null && exportOption.getAsBoolean()) {
+            handleExport(event, userId);
+            return;
+        }
+
+        if (UserDataIndex.getInstance().isRunning(userId)) {
+            event.replyEmbeds(EmbedUtils.createErrorEmbed("Already Running",
+                    "A data request for your account is already in progress. Please wait for it to finish."))
+                    .setEphemeral(true).queue();
+            return;
+        }
+
         EmbedBuilder embed = EmbedUtils.createEmbedBuilder(EmbedUtils.WARNING_COLOR)
                 .setTitle(CustomEmojis.WARN + " Data Deletion Request")
-                .setDescription("You are about to **permanently delete** all of your personal data stored by this bot.")
+                .setDescription("You are about to **permanently delete** all of your personal data stored by this bot.\n" +
+                        "Use `/deletedata export:True` first if you want a copy.")
                 .addField("⚠️ This will delete:",
                         "• Economy balances and transaction history\n" +
                         "• Leveling XP and progress\n" +
@@ -76,7 +108,10 @@ public class DeleteDataCommand extends ListenerAdapter implements SlashCommand {
                         "• Moderation log entries (where you are the target)\n" +
                         "• Suspicious account records\n" +
                         "• Pending report messages\n" +
-                        "• Proxy members and groups you own", false)
+                        "• Proxy members, groups, settings and proxied message records\n" +
+                        "• Saved roles from servers you left\n" +
+                        "• Closed support tickets you opened\n" +
+                        "• Global chat channel roles (owned channels pass to a co-owner)", false)
                 .addField(CustomEmojis.ERROR + " Warning",
                         "**This action is irreversible.** Your economy balance, levels, and all other " +
                         "data will be permanently erased across all servers.", false)
@@ -126,47 +161,50 @@ public class DeleteDataCommand extends ListenerAdapter implements SlashCommand {
         }
         pendingConfirmations.remove(clickerId);
 
-        // Disable buttons
-        event.editComponents().queue();
+        CompletableFuture<UserDataIndex.JobResult> job = UserDataIndex.getInstance()
+                .deleteUser(clickerId, progressReporter(event.getHook(), "Deleting Your Data"));
+        if (job == null) {
+            event.reply(CustomEmojis.ERROR + " A data request for your account is already in progress.")
+                    .setEphemeral(true).queue();
+            return;
+        }
 
-        // Perform deletion
-        int categoriesCleared = 0;
-        int proxyMembersDeleted = 0;
+        // Replace the confirmation with a progress view
+        event.editMessageEmbeds(progressEmbed("Deleting Your Data", null, null).build())
+                .setComponents().queue();
 
-        try {
-            // Delete from FileStorageManager
-            FileStorageManager storage = ServerBot.getStorageManager();
-            if (storage != null) {
-                categoriesCleared = storage.deleteAllUserData(clickerId);
+        InteractionHook hook = event.getHook();
+        job.whenComplete((result, error) -> {
+            if (error != null) {
+                logger.error("Error during data deletion for user {}: {}", clickerId, error.getMessage(), error);
+                hook.editOriginalEmbeds(
+                        EmbedUtils.createErrorEmbed("Data Deletion Error",
+                                "An error occurred while deleting your data. Please contact the bot owner.")
+                ).queue();
+                return;
             }
 
-            // Delete proxy members owned by this user
-            ProxyService proxyService = ServerBot.getProxyService();
-            if (proxyService != null) {
-                proxyMembersDeleted = deleteProxyDataForUser(proxyService, clickerId);
+            EmbedBuilder embed = EmbedUtils.createEmbedBuilder(
+                            result.getFailedStores() > 0 ? EmbedUtils.WARNING_COLOR : EmbedUtils.SUCCESS_COLOR)
+                    .setTitle(CustomEmojis.SUCCESS + " Data Deleted")
+                    .setDescription("Your personal data has been permanently deleted.")
+                    .addField("Summary",
+                            "• **" + result.getRecords() + "** records removed\n" +
+                            "• **" + result.getCategories().size() + "** data categories cleared" +
+                            formatCategories(result), false)
+                    .addField("Note",
+                            "Server-level configuration data (e.g. guild settings, permissions) is managed by " +
+                            "server administrators and is not affected by this command.", false);
+            if (result.getFailedStores() > 0) {
+                embed.addField(CustomEmojis.WARN + " Incomplete",
+                        result.getFailedStores() + " categories could not be cleared. Please run `/deletedata` again " +
+                        "or contact the bot owner.", false);
             }
-        } catch (Exception e) {
-            logger.error("Error during data deletion for user {}: {}", clickerId, e.getMessage(), e);
-            event.getHook().sendMessageEmbeds(
-                    EmbedUtils.createErrorEmbed("Data Deletion Error",
-                            "An error occurred while deleting your data. Please contact the bot owner.")
-            ).setEphemeral(true).queue();
-            return;
-        }
 
-        EmbedBuilder result = EmbedUtils.createEmbedBuilder(EmbedUtils.SUCCESS_COLOR)
-                .setTitle(CustomEmojis.SUCCESS + " Data Deleted")
-                .setDescription("Your personal data has been permanently deleted.")
-                .addField("Summary",
-                        "• **" + categoriesCleared + "** data categories cleared\n" +
-                        "• **" + proxyMembersDeleted + "** proxy members removed", false)
-                .addField("Note",
-                        "Server-level configuration data (e.g. guild settings, permissions) is managed by " +
-                        "server administrators and is not affected by this command.", false);
-
-        event.getHook().sendMessageEmbeds(result.build()).setEphemeral(true).queue();
-        logger.info("User {} deleted all their personal data ({} categories, {} proxy members)",
-                clickerId, categoriesCleared, proxyMembersDeleted);
+            hook.editOriginalEmbeds(embed.build()).queue();
+            logger.info("User {} deleted all their personal data ({} records in {} categories)",
+                    clickerId, result.getRecords(), result.getCategories().size());
+        });
     }
 
     private void handleCancel(ButtonInteractionEvent event, String targetUserId) {
@@ -186,29 +224,109 @@ public class DeleteDataCommand extends ListenerAdapter implements SlashCommand {
     }
 
     /**
-     * Deletes all proxy members and groups owned by a specific user.
-     * @return the number of proxy members deleted
+     * Write the user's data to a JSON file and send it back as an ephemeral attachment
      */
-    private int deleteProxyDataForUser(ProxyService proxyService, String userId) {
-        int count = 0;
-        try {
-            // Get all members owned by this user across all guilds
-            java.util.List<com.serverbot.models.ProxyMember> allMembers = proxyService.getAllMembersForOwner(userId);
-            if (allMembers != null) {
-                for (com.serverbot.models.ProxyMember member : allMembers) {
-                    String result = proxyService.deleteMember(member.getMemberId()).join();
-                    if ("SUCCESS".equals(result)) {
-                        count++;
-                    }
+    private void handleExport(SlashCommandInteractionEvent event, String userId) {
+        event.deferReply(true).queue();
+        InteractionHook hook = event.getHook();
+
+        CompletableFuture<UserDataIndex.JobResult> job = UserDataIndex.getInstance()
+                .exportUser(userId, progressReporter(hook, "Exporting Your Data"));
+        if (job == null) {
+            hook.editOriginalEmbeds(EmbedUtils.createErrorEmbed("Already Running",
+                    "A data request for your account is already in progress. Please wait for it to finish.")).queue();
+            return;
+        }
+
+        job.whenComplete((result, error) -> {
+            if (error != null) {
+                logger.error("Error during data export for user {}: {}", userId, error.getMessage(), error);
+                hook.editOriginalEmbeds(EmbedUtils.createErrorEmbed("Data Export Error",
+                        "An error occurred while exporting your data. Please contact the bot owner.")).queue();
+                return;
+            }
+
+            File file = result.getFile();
+            try {
+                if (file.length() > Message.MAX_FILE_SIZE) {
+                    file = compress(file);
                 }
+            } catch (IOException e) {
+                logger.error("Failed to compress data export for user {}", userId, e);
+            }
+            File upload = file;
+            if (upload.length() > Message.MAX_FILE_SIZE) {
+                upload.delete();
+                hook.editOriginalEmbeds(EmbedUtils.createErrorEmbed("Data Export Too Large",
+                        "Your data export is too large to send through Discord. Please contact the bot owner.")).queue();
+                return;
+            }
+
+            EmbedBuilder embed = EmbedUtils.createEmbedBuilder(EmbedUtils.SUCCESS_COLOR)
+                    .setTitle(CustomEmojis.SUCCESS + " Data Export Ready")
+                    .setDescription("The attached file contains the personal data this bot stores about you.")
+                    .addField("Summary",
+                            "• **" + result.getRecords() + "** records in **" + result.getCategories().size() +
+                            "** categories" + formatCategories(result), false);
+
+            hook.editOriginalEmbeds(embed.build())
+                    .setFiles(FileUpload.fromData(upload, "serverbot-data-" + userId + upload.getName().substring(upload.getName().indexOf('.'))))
+                    .queue(success -> upload.delete(), failure -> {
+                        upload.delete();
+                        logger.warn("Failed to send data export to user {}: {}", userId, failure.getMessage());
+                    });
+        });
+    }
+
+    /**
+     * Edits the original reply as stores finish, skipping updates that come too close together
+     */
+    private UserDataIndex.ProgressListener progressReporter(InteractionHook hook, String title) {
+        AtomicLong lastUpdate = new AtomicLong(System.currentTimeMillis());
+        return (progress, lastStore) -> {
+            long now = System.currentTimeMillis();
+            long last = lastUpdate.get();
+            if (progress.getStoresDone() < progress.getStoresTotal()
+                    && now - last >= PROGRESS_INTERVAL_MS && lastUpdate.compareAndSet(last, now)) {
+                hook.editOriginalEmbeds(progressEmbed(title, progress, lastStore).build()).queue(null, error -> { });
             }
-        } catch (Exception e) {
-            logger.warn("Error deleting proxy data for user {}: {}", userId, e.getMessage());
+        };
+    }
+
+    private EmbedBuilder progressEmbed(String title, UserDataIndex.JobResult progress, String lastStore) {
+        EmbedBuilder embed = EmbedUtils.createEmbedBuilder(EmbedUtils.INFO_COLOR)
+                .setTitle(CustomEmojis.LOADING + " " + title);
+        if (progress == null) {
+            return embed.setDescription("Starting...");
+        }
+        return embed.setDescription("Processed **" + progress.getStoresDone() + "/" + progress.getStoresTotal() +
+                "** categories (" + progress.getRecords() + " records)" +
+                (lastStore != null ? "\nLast: " + lastStore : ""));
+    }
+
+    private String formatCategories(UserDataIndex.JobResult result) {
+        if (result.getCategories().isEmpty()) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (String category : result.getCategories()) {
+            sb.append("\n  ◦ ").append(category);
+        }
+        return sb.toString();
+    }
+
+    private File compress(File file) throws IOException {
+        File gz = new File(file.getParentFile(), file.getName() + ".gz");
+        try (InputStream in = new FileInputStream(file);
+             OutputStream out = new GZIPOutputStream(new FileOutputStream(gz))) {
+            in.transferTo(out);
         }
-        return count;
+        file.delete();
+        return gz;
     }
 
     public static CommandData getCommandData() {
-        return Commands.slash("deletedata", "Delete all your personal data stored by the bot");
+        return Commands.slash("deletedata", "Delete all your personal data stored by the bot")
+                .addOption(OptionType.BOOLEAN, "export", "Download a copy of your data instead of deleting it", false);
     }
 }
@@ -450,6 +450,10 @@ public class GlobalChatCommand implements SlashCommand {
             eb.addField("Rules", service.formatRules(gc), false);
         }
 
+        if (gc.hasModerateAccess(event.getUser().getId())) {
+            eb.addField("Relay Queue", service.describeRelayQueue(gc.getChannelId()), false);
+        }
+
         event.replyEmbeds(eb.build()).setEphemeral(true).queue();
     }
 
@@ -3,7 +3,10 @@ package com.serverbot.commands.utility;
 import com.serverbot.ServerBot;
 import com.serverbot.commands.CommandCategory;
 import com.serverbot.commands.SlashCommand;
+import com.serverbot.services.MessageExpiryService;
+import com.serverbot.services.WebhookPool;
 import com.serverbot.utils.EmbedUtils;
+import com.serverbot.utils.AvatarCacheManager;
 import com.serverbot.utils.CustomEmojis;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.JDA;
@@ -40,14 +43,23 @@ public class InfoCommand implements SlashCommand {
         embed.addField("📊 Bot Statistics",
                 "**Servers:** " + jda.getGuilds().size() + "\n" +
                 "**Users:** " + jda.getUsers().size() + "\n" +
-                "**Commands:** " + ServerBot.getCommandManager().getAllCommands().size(),
+                "**Commands:** " + ServerBot.getCommandManager().getAllCommands().size() + "\n" +
+                "**Pending Auto-Deletes:** " + MessageExpiryService.getInstance().getPendingCount() + "\n" +
+                "**Proxy Filter:** " + (ServerBot.getProxyService() != null
+                        ? ServerBot.getProxyService().getEligibility().describeStats() : "Disabled") + "\n" +
+                "**Proxy Latency:** " + (ServerBot.getProxyService() != null
+                        ? ServerBot.getProxyService().describeProxyStats() : "Disabled"),
                 true);
 
         // Technical Info
         embed.addField(CustomEmojis.SETTING + " Technical Info",
                 "**Uptime:** " + uptime + "\n" +
                 "**Memory:** " + memoryUsed + "/" + memoryTotal + " MB\n" +
-                "**Java:** " + System.getProperty("java.version"),
+                "**Java:** " + System.getProperty("java.version") + "\n" +
+                "**Avatar Cache:** " + AvatarCacheManager.describeStats() + "\n" +
+                "**Webhooks:** " + WebhookPool.getInstance().describeStats() + "\n" +
+                "**Relay Map:** " + (ServerBot.getGlobalChatService() != null
+                        ? ServerBot.getGlobalChatService().describeRelayStats() : "Disabled"),
                 true);
 
         // Version Info
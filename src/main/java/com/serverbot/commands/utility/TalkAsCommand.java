@@ -2,11 +2,11 @@ package com.serverbot.commands.utility;
 
 import com.serverbot.commands.CommandCategory;
 import com.serverbot.commands.SlashCommand;
+import com.serverbot.services.WebhookPool;
 import com.serverbot.utils.EmbedUtils;
 import com.serverbot.utils.PermissionManager;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.Message;
-import net.dv8tion.jda.api.entities.Webhook;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.interactions.commands.OptionMapping;
@@ -106,73 +106,57 @@ public class TalkAsCommand implements SlashCommand {
         // Send initial response
         event.reply("🔄 Preparing webhook message...").setEphemeral(true).queue();
 
-        // Find or create webhook
-        findOrCreateWebhook(channel, name, avatarUrl, message, event);
+        // Send through the channel's shared webhook
+        sendWebhookMessage(channel, name, avatarUrl, message, event);
     }
 
-    private void findOrCreateWebhook(TextChannel channel, String name, String avatarUrl, String message, SlashCommandInteractionEvent event) {
-        channel.retrieveWebhooks().queue(
-            webhooks -> {
-                // Look for existing webhook for this bot
-                Webhook webhook = webhooks.stream()
-                    .filter(w -> w.getName().equals("ServerBot TalkAs"))
-                    .findFirst()
-                    .orElse(null);
-
-                if (webhook != null) {
-                    sendWebhookMessage(webhook, name, avatarUrl, message, event);
-                } else {
-                    // Create new webhook
-                    channel.createWebhook("ServerBot TalkAs")
-                        .queue(
-                            newWebhook -> sendWebhookMessage(newWebhook, name, avatarUrl, message, event),
-                            throwable -> {
-                                logger.warn("Failed to create webhook: {}", throwable.getMessage());
-                                event.getHook().editOriginalEmbeds(EmbedUtils.createErrorEmbed(
-                                    "Webhook Creation Failed [T05]", 
-                                    "Failed to create webhook. Make sure I have 'Manage Webhooks' permission.\n" +
-                                    "Error Code: **T05** - Webhook Creation Failed\n" +
-                                    "Use `/error category:T` for full T-series documentation."
-                                )).queue();
-                            }
-                        );
-                }
-            },
-            throwable -> {
-                logger.warn("Failed to retrieve webhooks: {}", throwable.getMessage());
+    private void sendWebhookMessage(TextChannel channel, String name, String avatarUrl, String message, SlashCommandInteractionEvent event) {
+        MessageCreateData messageData;
+        try {
+            // Create message using MessageCreateBuilder
+            messageData = new MessageCreateBuilder()
+                .setContent(message)
+                .build();
+        } catch (Exception e) {
+            logger.warn("Error preparing webhook message: {}", e.getMessage());
+            event.getHook().editOriginalEmbeds(EmbedUtils.createErrorEmbed(
+                "Message Preparation Failed [T08]", 
+                "Failed to prepare webhook message: " + e.getMessage() + "\n" +
+                "Error Code: **T08** - Message Preparation Failed\n" +
+                "Use `/error category:T` for full T-series documentation."
+            )).queue();
+            return;
+        }
+
+        WebhookPool pool = WebhookPool.getInstance();
+        // Look the webhook up first so access problems get their own error code
+        pool.get(channel).whenComplete((webhook, lookupError) -> {
+            if (lookupError != null) {
+                logger.warn("Failed to get webhook: {}", lookupError.getMessage());
                 event.getHook().editOriginalEmbeds(EmbedUtils.createErrorEmbed(
                     "Webhook Access Failed [T06]", 
-                    "Failed to access webhooks. Make sure I have 'Manage Webhooks' permission.\n" +
+                    "Failed to access or create a webhook. Make sure I have 'Manage Webhooks' permission.\n" +
                     "Error Code: **T06** - Webhook Access Failed\n" +
                     "Use `/error category:T` for full T-series documentation."
                 )).queue();
+                return;
             }
-        );
-    }
-
-    private void sendWebhookMessage(Webhook webhook, String name, String avatarUrl, String message, SlashCommandInteractionEvent event) {
-        try {
-            // Create message using MessageCreateBuilder
-            MessageCreateData messageData = new MessageCreateBuilder()
-                .setContent(message)
-                .build();
 
             // Send webhook message with custom name and avatar
-            var messageAction = webhook.sendMessage(messageData)
-                .setUsername(name);
-
-            if (avatarUrl != null) {
-                messageAction = messageAction.setAvatarUrl(avatarUrl);
-            }
-
-            messageAction.queue(
-                success -> {
+            pool.submit(channel, wh -> {
+                var messageAction = wh.sendMessage(messageData)
+                    .setUsername(name);
+                if (avatarUrl != null) {
+                    messageAction = messageAction.setAvatarUrl(avatarUrl);
+                }
+                return messageAction;
+            }).whenComplete((success, throwable) -> {
+                if (throwable == null) {
                     event.getHook().editOriginalEmbeds(EmbedUtils.createSuccessEmbed(
                         "Message Sent", 
                         "✅ Webhook message sent successfully as **" + name + "**!"
                     )).queue();
-                },
-                throwable -> {
+                } else {
                     logger.warn("Failed to send webhook message: {}", throwable.getMessage());
                     event.getHook().editOriginalEmbeds(EmbedUtils.createErrorEmbed(
                         "Message Send Failed [T07]", 
@@ -181,17 +165,8 @@ public class TalkAsCommand implements SlashCommand {
                         "Use `/error category:T` for full T-series documentation."
                     )).queue();
                 }
-            );
-
-        } catch (Exception e) {
-            logger.warn("Error preparing webhook message: {}", e.getMessage());
-            event.getHook().editOriginalEmbeds(EmbedUtils.createErrorEmbed(
-                "Message Preparation Failed [T08]", 
-                "Failed to prepare webhook message: " + e.getMessage() + "\n" +
-                "Error Code: **T08** - Message Preparation Failed\n" +
-                "Use `/error category:T` for full T-series documentation."
-            )).queue();
-        }
+            });
+        });
     }
 
     private boolean isValidImageUrl(String url) {
@@ -1,5 +1,6 @@
 package com.serverbot.listeners;
 
+import com.serverbot.services.MessageExpiryService;
 import com.serverbot.utils.DismissibleMessage;
 import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
@@ -23,7 +24,8 @@ public class DismissButtonListener extends ListenerAdapter {
         
         // Only allow the original command sender to dismiss
         if (allowedUserId != null && allowedUserId.equals(clickerId)) {
-            // Delete the message
+            // Delete the message, and drop any pending auto-delete for it
+            MessageExpiryService.getInstance().cancel(event.getMessageId());
             event.getMessage().delete().queue(
                 success -> {},
                 failure -> {
@@ -1,14 +1,20 @@
 package com.serverbot.listeners;
 
 import com.serverbot.ServerBot;
+import com.serverbot.services.AutomodService;
 import com.serverbot.services.PunishmentNotificationService;
 import com.serverbot.services.PunishmentNotificationService.PunishmentType;
 import com.serverbot.services.SchedulerService;
+import com.serverbot.utils.AutomodScanner;
 import com.serverbot.utils.DmUtils;
+import com.serverbot.utils.DuplicateMessageDetector;
 import com.serverbot.utils.EmbedUtils;
+import com.serverbot.utils.MessageRateTracker;
 import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.*;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildMessageChannel;
 import net.dv8tion.jda.api.events.guild.GuildJoinEvent;
 import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
 import net.dv8tion.jda.api.events.guild.member.GuildMemberJoinEvent;
@@ -22,6 +28,8 @@ import org.slf4j.LoggerFactory;
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -36,13 +44,49 @@ public class EventListener extends ListenerAdapter {
     private static final long MESSAGE_COOLDOWN = TimeUnit.MINUTES.toMillis(1); // 1 minute cooldown
     
     // Anti-spam tracking
-    private final Map<String, List<Long>> messageTimes = new ConcurrentHashMap<>();
-    private final Map<String, Integer> warningCounts = new ConcurrentHashMap<>();
+    private final MessageRateTracker messageRates = new MessageRateTracker();
+    private static final long DEFAULT_SPAM_WINDOW = TimeUnit.SECONDS.toMillis(10);
+    private static final long MAX_SPAM_WINDOW = TimeUnit.MINUTES.toMillis(2);
+    
+    // Cross-channel duplicate tracking, one bounded table per guild
+    private final Map<String, DuplicateMessageDetector> duplicateDetectors = new ConcurrentHashMap<>();
+    private static final long DEFAULT_DUPLICATE_WINDOW = TimeUnit.SECONDS.toMillis(30);
+    
+    // Periodically drops idle users so tracking maps don't grow with every user ever seen; started on ready
+    private ScheduledExecutorService sweeper;
+    
+    private synchronized void startSweeper() {
+        if (sweeper != null) {
+            return;
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "EventListener-Sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::evictIdleEntries, 1, 1, TimeUnit.MINUTES);
+    }
+    
+    private void evictIdleEntries() {
+        try {
+            long now = System.currentTimeMillis();
+            int spamEvicted = messageRates.evictIdle(now, MAX_SPAM_WINDOW);
+            int before = lastMessageTime.size();
+            lastMessageTime.values().removeIf(time -> now - time > MESSAGE_COOLDOWN);
+            int xpEvicted = before - lastMessageTime.size();
+            if (spamEvicted > 0 || xpEvicted > 0) {
+                logger.debug("Evicted {} idle anti-spam entries and {} expired XP cooldowns", spamEvicted, xpEvicted);
+            }
+        } catch (Exception e) {
+            logger.warn("Error evicting idle message tracking entries: {}", e.getMessage());
+        }
+    }
     
     @Override
     public void onReady(ReadyEvent event) {
         logger.info("Bot is ready! Logged in as: {}", event.getJDA().getSelfUser().getName());
         logger.info("Serving {} guilds", event.getJDA().getGuilds().size());
+        startSweeper();
     }
     
     @Override
@@ -56,6 +100,7 @@ public class EventListener extends ListenerAdapter {
     
     @Override
     public void onGuildLeave(GuildLeaveEvent event) {
+        duplicateDetectors.remove(event.getGuild().getId());
         logger.info("Left guild: {} (ID: {})",
                 event.getGuild().getName(),
                 event.getGuild().getId()
@@ -98,6 +143,11 @@ public class EventListener extends ListenerAdapter {
             return; // Message was spam and handled
         }
         
+        // Handle automod content rules
+        if (handleAutomod(event)) {
+            return; // Message violated an automod rule and was removed
+        }
+        
         // Handle XP and points gain
         handleXpAndPointsGain(event);
     }
@@ -122,18 +172,21 @@ public class EventListener extends ListenerAdapter {
             
             // Get anti-spam settings - handle both Long and Integer types
             Object maxMessagesObj = settings.getOrDefault("antiSpamMessageLimit", 5);
-            int maxMessages = maxMessagesObj instanceof Long ? ((Long) maxMessagesObj).intValue() : (Integer) maxMessagesObj;
-            long timeWindow = 10000L; // 10 seconds as per the UI
+            int maxMessages = maxMessagesObj instanceof Number ? ((Number) maxMessagesObj).intValue() : 5;
+            Object windowObj = settings.get("antiSpamTimeWindow");
+            long timeWindow = windowObj instanceof Number
+                ? Math.min(TimeUnit.SECONDS.toMillis(((Number) windowObj).longValue()), MAX_SPAM_WINDOW)
+                : DEFAULT_SPAM_WINDOW;
             
-            // Track message times
-            messageTimes.computeIfAbsent(userKey, k -> new ArrayList<>()).add(currentTime);
-            List<Long> times = messageTimes.get(userKey);
-            
-            // Remove old messages outside the time window
-            times.removeIf(time -> (currentTime - time) > timeWindow);
+            // Check if user is spamming, then whether this text is being posted across channels/accounts
+            String reason = null;
+            if (messageRates.recordAndCheck(userKey, currentTime, Math.max(1, maxMessages), timeWindow)) {
+                reason = "Anti-spam violation";
+            } else if (checkDuplicateSpam(event, settings, currentTime, autoDelete != null && autoDelete)) {
+                reason = "Anti-spam violation (duplicate messages)";
+            }
             
-            // Check if user is spamming
-            if (times.size() > maxMessages) {
+            if (reason != null) {
                 String action = (String) settings.getOrDefault("antiSpamPunishment", "warn");
                 
                 // Delete the message if auto-delete is enabled
@@ -144,7 +197,7 @@ public class EventListener extends ListenerAdapter {
                 // Apply punishment
                 Member member = event.getMember();
                 if (member != null) {
-                    applyAntiSpamPunishment(event, member, action, settings);
+                    applyAntiSpamPunishment(event, member, action, settings, reason);
                 }
                 
                 return true; // Spam detected and handled
@@ -157,11 +210,82 @@ public class EventListener extends ListenerAdapter {
         }
     }
     
-    private void applyAntiSpamPunishment(MessageReceivedEvent event, Member member, String action, Map<String, Object> settings) {
+    /**
+     * Fingerprint the message and check if the same text is spreading across channels or accounts.
+     * When a fingerprint first crosses the threshold and auto-delete is on, earlier copies are removed as well.
+     */
+    private boolean checkDuplicateSpam(MessageReceivedEvent event, Map<String, Object> settings, long currentTime,
+                                       boolean autoDelete) {
+        Guild guild = event.getGuild();
+        DuplicateMessageDetector.Limits limits = new DuplicateMessageDetector.Limits(
+            getIntSetting(settings, "antiSpamRaidAuthorLimit", 3),
+            getIntSetting(settings, "antiSpamRaidChannelLimit", 3),
+            getIntSetting(settings, "antiSpamDuplicateLimit", 3),
+            TimeUnit.SECONDS.toMillis(getIntSetting(settings, "antiSpamDuplicateWindow",
+                (int) TimeUnit.MILLISECONDS.toSeconds(DEFAULT_DUPLICATE_WINDOW)))
+        );
+        
+        DuplicateMessageDetector.Result result = duplicateDetectors
+            .computeIfAbsent(guild.getId(), k -> new DuplicateMessageDetector())
+            .record(event.getMessage().getContentRaw(), event.getAuthor().getIdLong(),
+                event.getChannel().getIdLong(), event.getMessageIdLong(), currentTime, limits);
+        
+        if (!result.isTriggered()) {
+            return false;
+        }
+        
+        if (autoDelete && !result.getEarlierMessages().isEmpty()) {
+            logger.info("Duplicate message spam in guild {}: {} authors across {} channels, removing {} earlier copies",
+                guild.getId(), result.getAuthorCount(), result.getChannelCount(), result.getEarlierMessages().size());
+            for (long[] earlier : result.getEarlierMessages()) {
+                GuildMessageChannel channel = guild.getChannelById(GuildMessageChannel.class, earlier[0]);
+                if (channel != null) {
+                    channel.deleteMessageById(earlier[1]).queue(null, throwable -> {});
+                }
+            }
+        }
+        return true;
+    }
+    
+    private int getIntSetting(Map<String, Object> settings, String key, int defaultValue) {
+        Object value = settings.get(key);
+        return value instanceof Number ? ((Number) value).intValue() : defaultValue;
+    }
+    
+    private boolean handleAutomod(MessageReceivedEvent event) {
+        try {
+            Member member = event.getMember();
+            if (member == null || member.hasPermission(Permission.MESSAGE_MANAGE)) {
+                return false; // Moderators are exempt from content filters
+            }
+            
+            String guildId = event.getGuild().getId();
+            AutomodScanner.Rule rule = AutomodService.getInstance().scan(guildId, event.getMessage().getContentRaw());
+            if (rule == null) {
+                return false;
+            }
+            
+            String reason = "Automod: " + rule.getDisplayName();
+            event.getMessage().delete().reason(reason).queue(
+                success -> {
+                    logAntiSpamAction(guildId, member.getId(), "AUTOMOD", reason, null);
+                    PunishmentNotificationService.getInstance().sendPunishmentNotification(
+                        guildId, member.getId(), PunishmentType.AUTOMOD, rule.getDisplayName(), null, "Automod"
+                    );
+                },
+                throwable -> logger.debug("Failed to delete automod message: {}", throwable.getMessage())
+            );
+            return true;
+        } catch (Exception e) {
+            logger.warn("Error in automod check: {}", e.getMessage());
+            return false;
+        }
+    }
+    
+    private void applyAntiSpamPunishment(MessageReceivedEvent event, Member member, String action, Map<String, Object> settings, String reason) {
         try {
             String guildId = event.getGuild().getId();
             String userId = member.getId();
-            String reason = "Anti-spam violation";
             
             switch (action.toLowerCase()) {
                 case "warn" -> {
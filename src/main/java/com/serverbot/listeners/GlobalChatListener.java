@@ -131,7 +131,7 @@ public class GlobalChatListener extends ListenerAdapter {
             pronouns = pronounBuilder.toString();
         }
 
-        service.relayMessage(textChannelId, authorName, avatarUrl, sb.toString(), event.getJDA(),
+        service.relayMessage(textChannelId, event.getAuthor().getId(), authorName, avatarUrl, sb.toString(), event.getJDA(),
                 replyContent, replyAuthor, message.getId(), username, globalDisplayName, pronouns, referencedMessageId);
     }
 
@@ -149,7 +149,7 @@ public class GlobalChatListener extends ListenerAdapter {
         if (gc == null) return; // not a linked channel
 
         // Check if this message is tracked (either source or relayed)
-        if (!service.isGlobalChatMessage(event.getMessageId())) return;
+        if (!service.isGlobalChatMessage(textChannelId, event.getMessageId())) return;
 
         try {
             service.relayReaction(event.getMessageId(), textChannelId, event.getEmoji(), event.getJDA());
@@ -175,7 +175,7 @@ public class GlobalChatListener extends ListenerAdapter {
         if (service.isDeletePending(messageId)) return;
 
         // Check if this message is tracked (either source or relayed)
-        if (!service.isGlobalChatMessage(messageId)) return;
+        if (!service.isGlobalChatMessage(textChannelId, messageId)) return;
 
         try {
             service.deleteRelayedMessages(messageId, textChannelId, event.getJDA());
@@ -34,6 +34,12 @@ public class ProxyListener extends ListenerAdapter {
             return;
         }
         
+        // Most authors have no proxies; skip them before reading content or scheduling anything
+        long guildId = event.isFromGuild() ? event.getGuild().getIdLong() : 0;
+        if (!proxyService.mightProxy(event.getAuthor().getIdLong(), guildId)) {
+            return;
+        }
+        
         // Ignore commands
         String content = event.getMessage().getContentRaw();
         if (content.startsWith("/") || content.startsWith("!")) {
@@ -63,8 +69,8 @@ public class ProxyListener extends ListenerAdapter {
             return;
         }
         
-        // Check if this was a proxied message
-        ProxyService.ProxiedMessageData proxyData = proxyService.getProxiedMessageData(event.getMessageId());
+        // Check if this was a recently proxied message
+        ProxyService.ProxiedMessageData proxyData = proxyService.getRecentProxiedMessageData(event.getMessageId());
         
         if (proxyData != null) {
             // The proxied message was deleted - we could optionally log this or notify the user
@@ -78,15 +84,18 @@ public class ProxyListener extends ListenerAdapter {
             return;
         }
         
+        // Only delete reactions need the lookup, which may read older records from disk
+        String emoji = event.getEmoji().getAsReactionCode();
+        if (!emoji.equals("❌") && !emoji.equals("🗑️")) {
+            return;
+        }
+        
         // Check if this reaction is on a proxied message
         ProxyService.ProxiedMessageData proxyData = proxyService.getProxiedMessageData(event.getMessageId());
         
         if (proxyData != null) {
             // If someone reacts with ❌ or 🗑️ and they're the original author, delete the proxied message
-            String emoji = event.getEmoji().getAsReactionCode();
-            if ((emoji.equals("❌") || emoji.equals("🗑️")) && 
-                event.getUserId().equals(proxyData.getAuthorId())) {
-                
+            if (event.getUserId().equals(proxyData.getAuthorId())) {
                 event.getChannel().deleteMessageById(event.getMessageId()).queue(
                     success -> logger.debug("Deleted proxied message via reaction"),
                     failure -> logger.debug("Failed to delete proxied message: " + failure.getMessage())
@@ -2,6 +2,7 @@ package com.serverbot.listeners;
 
 import com.serverbot.ServerBot;
 import com.serverbot.models.SuspicionLevel;
+import com.serverbot.services.RaidProtectionService;
 import com.serverbot.utils.BotConfig;
 import com.serverbot.utils.CustomEmojis;
 import com.serverbot.utils.DmUtils;
@@ -47,6 +48,11 @@ public class SuspiciousAccountListener extends ListenerAdapter {
             return;
         }
         
+        // Track join velocity; during a raid one aggregated alert replaces per-account alerts
+        if (RaidProtectionService.getInstance().recordJoin(member)) {
+            return;
+        }
+        
         // Check if account detection is enabled for this guild
         if (!isDetectionEnabled(guild.getId())) {
             return;
@@ -0,0 +1,22 @@
+package com.serverbot.listeners;
+
+import com.serverbot.services.WebhookPool;
+import net.dv8tion.jda.api.events.channel.ChannelDeleteEvent;
+import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+
+/**
+ * Drops pooled webhooks as soon as their channel or guild goes away, instead of waiting for a failed send
+ */
+public class WebhookPoolListener extends ListenerAdapter {
+
+    @Override
+    public void onChannelDelete(ChannelDeleteEvent event) {
+        WebhookPool.getInstance().invalidate(event.getChannel().getId());
+    }
+
+    @Override
+    public void onGuildLeave(GuildLeaveEvent event) {
+        WebhookPool.getInstance().invalidateGuild(event.getGuild().getId());
+    }
+}
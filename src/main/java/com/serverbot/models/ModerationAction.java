@@ -0,0 +1,175 @@
+package com.serverbot.models;
+
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.entities.User;
+
+import java.time.Duration;
+
+/**
+ * A single moderation action against one user, as run by the moderation pipeline.
+ * Built once by a command after parsing its arguments, then validated and executed.
+ */
+public class ModerationAction {
+
+    public enum Type {
+        BAN("Ban", "banned", Permission.BAN_MEMBERS, false, true),
+        KICK("Kick", "kicked", Permission.KICK_MEMBERS, true, true),
+        MUTE("Mute", "muted", Permission.MANAGE_ROLES, true, false),
+        TIMEOUT("Timeout", "timed out", Permission.MODERATE_MEMBERS, true, false),
+        WARN("Warn", "warned", null, true, false);
+
+        private final String displayName;
+        private final String pastTense;
+        private final Permission requiredPermission;
+        private final boolean requiresMember;
+        private final boolean removesMember;
+
+        Type(String displayName, String pastTense, Permission requiredPermission,
+             boolean requiresMember, boolean removesMember) {
+            this.displayName = displayName;
+            this.pastTense = pastTense;
+            this.requiredPermission = requiredPermission;
+            this.requiresMember = requiresMember;
+            this.removesMember = removesMember;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        public String getPastTense() {
+            return pastTense;
+        }
+
+        /**
+         * Permission the bot needs to apply the action, or null if it only touches bot storage
+         */
+        public Permission getRequiredPermission() {
+            return requiredPermission;
+        }
+
+        public boolean requiresMember() {
+            return requiresMember;
+        }
+
+        /**
+         * Whether the target leaves the server, so any DM has to be sent before the action is applied
+         */
+        public boolean removesMember() {
+            return removesMember;
+        }
+    }
+
+    private final Type type;
+    private final Guild guild;
+    private final User target;
+    private final Member targetMember;
+    private final Member moderator;
+    private final String reason;
+    private final Duration duration;
+    private final Role muteRole;
+    private final int deleteMessageDays;
+
+    private ModerationAction(Builder builder) {
+        this.type = builder.type;
+        this.guild = builder.guild;
+        this.target = builder.target;
+        this.targetMember = builder.guild.getMember(builder.target);
+        this.moderator = builder.moderator;
+        this.reason = builder.reason != null && !builder.reason.isBlank() ? builder.reason : "No reason provided";
+        this.duration = builder.duration;
+        this.muteRole = builder.muteRole;
+        this.deleteMessageDays = builder.deleteMessageDays;
+    }
+
+    public static Builder builder(Type type, Guild guild, User target, Member moderator) {
+        return new Builder(type, guild, target, moderator);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Guild getGuild() {
+        return guild;
+    }
+
+    public User getTarget() {
+        return target;
+    }
+
+    /**
+     * The target as a member of the guild, or null if they are not in it
+     */
+    public Member getTargetMember() {
+        return targetMember;
+    }
+
+    public Member getModerator() {
+        return moderator;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * Duration of the action, or null if permanent / not applicable
+     */
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public Role getMuteRole() {
+        return muteRole;
+    }
+
+    public int getDeleteMessageDays() {
+        return deleteMessageDays;
+    }
+
+    public static class Builder {
+        private final Type type;
+        private final Guild guild;
+        private final User target;
+        private final Member moderator;
+        private String reason;
+        private Duration duration;
+        private Role muteRole;
+        private int deleteMessageDays = 7;
+
+        private Builder(Type type, Guild guild, User target, Member moderator) {
+            this.type = type;
+            this.guild = guild;
+            this.target = target;
+            this.moderator = moderator;
+        }
+
+        public Builder reason(String reason) {
+            this.reason = reason;
+            return this;
+        }
+
+        public Builder duration(Duration duration) {
+            this.duration = duration;
+            return this;
+        }
+
+        public Builder muteRole(Role muteRole) {
+            this.muteRole = muteRole;
+            return this;
+        }
+
+        public Builder deleteMessageDays(int deleteMessageDays) {
+            this.deleteMessageDays = deleteMessageDays;
+            return this;
+        }
+
+        public ModerationAction build() {
+            return new ModerationAction(this);
+        }
+    }
+}
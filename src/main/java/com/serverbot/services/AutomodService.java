@@ -0,0 +1,153 @@
+package com.serverbot.services;
+
+import com.serverbot.ServerBot;
+import com.serverbot.utils.AutomodScanner;
+import com.serverbot.utils.AutomodScanner.Rule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Enforces the content rules configured with /automod.
+ * Each guild's settings are compiled into an {@link AutomodScanner} that is reused
+ * until the guild's settings version changes.
+ */
+public class AutomodService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AutomodService.class);
+    private static AutomodService instance;
+
+    public static final String BAD_WORDS_LIST_KEY = "automod_bad_words_list";
+    public static final String LINK_ALLOWLIST_KEY = "automod_link_filter_allowlist";
+
+    private final Map<String, CompiledConfig> compiled = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLongArray> ruleHits = new ConcurrentHashMap<>();
+
+    // Throughput metrics across all guilds
+    private final LongAdder scannedMessages = new LongAdder();
+    private final LongAdder scanNanos = new LongAdder();
+
+    private AutomodService() {
+    }
+
+    public static synchronized AutomodService getInstance() {
+        if (instance == null) {
+            instance = new AutomodService();
+        }
+        return instance;
+    }
+
+    /**
+     * Scan a message against the guild's automod rules
+     * @return The first violated rule, or null if the message is allowed
+     */
+    public Rule scan(String guildId, String content) {
+        AutomodScanner scanner = getScanner(guildId);
+        if (!scanner.isActive()) {
+            return null;
+        }
+
+        long start = System.nanoTime();
+        Rule rule = scanner.scan(content);
+        scanNanos.add(System.nanoTime() - start);
+        scannedMessages.increment();
+
+        if (rule != null) {
+            ruleHits.computeIfAbsent(guildId, k -> new AtomicLongArray(Rule.values().length))
+                    .incrementAndGet(rule.ordinal());
+        }
+        return rule;
+    }
+
+    /**
+     * Get the compiled scanner for a guild, rebuilding it only if settings changed
+     */
+    private AutomodScanner getScanner(String guildId) {
+        long version = ServerBot.getStorageManager().getGuildSettingsVersion(guildId);
+        CompiledConfig current = compiled.get(guildId);
+        if (current != null && current.version == version) {
+            return current.scanner;
+        }
+
+        AutomodScanner scanner = compile(ServerBot.getStorageManager().getGuildSettings(guildId));
+        compiled.put(guildId, new CompiledConfig(version, scanner));
+        logger.debug("Compiled automod rules for guild {} (settings version {})", guildId, version);
+        return scanner;
+    }
+
+    private AutomodScanner compile(Map<String, Object> settings) {
+        return AutomodScanner.builder()
+                .badWords(isEnabled(settings, Rule.BAD_WORDS), getStringList(settings, BAD_WORDS_LIST_KEY))
+                .capsLock(isEnabled(settings, Rule.CAPS_LOCK), getThreshold(settings, Rule.CAPS_LOCK, 70))
+                .repeatedText(isEnabled(settings, Rule.REPEATED_TEXT), getThreshold(settings, Rule.REPEATED_TEXT, 10))
+                .massMentions(isEnabled(settings, Rule.MASS_MENTIONS), getThreshold(settings, Rule.MASS_MENTIONS, 5))
+                .linkFilter(isEnabled(settings, Rule.LINK_FILTER), getStringList(settings, LINK_ALLOWLIST_KEY))
+                .build();
+    }
+
+    private boolean isEnabled(Map<String, Object> settings, Rule rule) {
+        return Boolean.TRUE.equals(settings.get("automod_" + rule.getKey() + "_enabled"));
+    }
+
+    private int getThreshold(Map<String, Object> settings, Rule rule, int defaultValue) {
+        Object value = settings.get("automod_" + rule.getKey() + "_threshold");
+        return value instanceof Number ? ((Number) value).intValue() : defaultValue;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static List<String> getStringList(Map<String, Object> settings, String key) {
+        Object value = settings.get(key);
+        List<String> list = new ArrayList<>();
+        if (value instanceof Collection) {
+            for (Object item : (Collection<Object>) value) {
+                if (item != null) {
+                    list.add(item.toString());
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Get how many messages each rule has removed in a guild since startup
+     */
+    public long[] getRuleHits(String guildId) {
+        AtomicLongArray hits = ruleHits.get(guildId);
+        long[] result = new long[Rule.values().length];
+        if (hits != null) {
+            for (int i = 0; i < result.length; i++) {
+                result[i] = hits.get(i);
+            }
+        }
+        return result;
+    }
+
+    public long getScannedMessages() {
+        return scannedMessages.sum();
+    }
+
+    /**
+     * Average scanning throughput across all guilds, in messages per second of scanner time
+     */
+    public double getMessagesPerSecond() {
+        long nanos = scanNanos.sum();
+        return nanos == 0 ? 0 : scannedMessages.sum() * 1_000_000_000.0 / nanos;
+    }
+
+    private static final class CompiledConfig {
+        final long version;
+        final AutomodScanner scanner;
+
+        CompiledConfig(long version, AutomodScanner scanner) {
+            this.version = version;
+            this.scanner = scanner;
+        }
+    }
+}
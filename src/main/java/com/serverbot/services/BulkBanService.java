@@ -0,0 +1,246 @@
+package com.serverbot.services;
+
+import com.serverbot.ServerBot;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.UserSnowflake;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Bans many users in one operation.
+ * Bans run with a small fixed number of requests in flight, and once every ban has settled the
+ * moderation log entries, temp punishments and scheduled unbans are persisted with one write each
+ * instead of one per user.
+ */
+public class BulkBanService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkBanService.class);
+    private static BulkBanService instance;
+
+    public static final int MAX_USERS = 1000;
+    // Bans share the guild's ban route, so only a few are sent at once
+    private static final int MAX_IN_FLIGHT = 3;
+    private static final int DELETE_MESSAGE_DAYS = 1;
+
+    private final Set<String> activeGuilds = ConcurrentHashMap.newKeySet();
+
+    private BulkBanService() {
+    }
+
+    public static synchronized BulkBanService getInstance() {
+        if (instance == null) {
+            instance = new BulkBanService();
+        }
+        return instance;
+    }
+
+    public boolean isRunning(String guildId) {
+        return activeGuilds.contains(guildId);
+    }
+
+    /**
+     * Ban a set of users
+     * @param userIds Users to ban; duplicates are removed and anyone the moderator or bot can't act on is skipped
+     * @param duration Ban duration, or null for permanent
+     * @param progress Called after each ban settles, may be null
+     * @return Future completed with the outcome once every ban has settled, or null if a bulk ban is already running in the guild
+     */
+    public CompletableFuture<BulkBan> banAll(Guild guild, Member moderator, Collection<Long> userIds,
+                                             Duration duration, String reason, Consumer<BulkBan> progress) {
+        if (!activeGuilds.add(guild.getId())) {
+            return null;
+        }
+
+        BulkBan bulkBan = new BulkBan(duration, reason);
+        for (long userId : new LinkedHashSet<>(userIds)) {
+            if (bulkBan.targets.size() >= MAX_USERS) {
+                bulkBan.skipped.incrementAndGet();
+                continue;
+            }
+            if (canBan(guild, moderator, userId)) {
+                bulkBan.targets.add(userId);
+            } else {
+                bulkBan.skipped.incrementAndGet();
+            }
+        }
+
+        logger.info("Bulk banning {} users in guild {} for {} ({} skipped)",
+            bulkBan.targets.size(), guild.getId(), moderator.getId(), bulkBan.skipped.get());
+
+        String auditReason = "Bulk ban by " + moderator.getUser().getName() + ": " + reason;
+        CompletableFuture<BulkBan> future = new CompletableFuture<>();
+        if (bulkBan.targets.isEmpty()) {
+            future.complete(bulkBan);
+        } else {
+            AtomicInteger next = new AtomicInteger();
+            for (int i = 0; i < Math.min(MAX_IN_FLIGHT, bulkBan.targets.size()); i++) {
+                banNext(guild, bulkBan, next, auditReason, progress, future);
+            }
+        }
+
+        return future.whenComplete((result, error) -> {
+            activeGuilds.remove(guild.getId());
+            if (result != null) {
+                persist(guild.getId(), moderator.getId(), result);
+            }
+        });
+    }
+
+    private boolean canBan(Guild guild, Member moderator, long userId) {
+        if (userId == guild.getSelfMember().getIdLong() || userId == moderator.getIdLong() || userId == guild.getOwnerIdLong()) {
+            return false;
+        }
+        Member target = guild.getMemberById(userId);
+        return target == null || (moderator.canInteract(target) && guild.getSelfMember().canInteract(target));
+    }
+
+    private void banNext(Guild guild, BulkBan bulkBan, AtomicInteger next, String reason,
+                         Consumer<BulkBan> progress, CompletableFuture<BulkBan> future) {
+        int index = next.getAndIncrement();
+        if (index >= bulkBan.targets.size()) {
+            return;
+        }
+
+        long userId = bulkBan.targets.get(index);
+        guild.ban(UserSnowflake.fromId(userId), DELETE_MESSAGE_DAYS, TimeUnit.DAYS).reason(reason).queue(
+            success -> {
+                bulkBan.banned.add(Long.toUnsignedString(userId));
+                settle(guild, bulkBan, next, reason, progress, future);
+            },
+            error -> {
+                bulkBan.failed.incrementAndGet();
+                logger.debug("Bulk ban of {} in {} failed: {}", userId, guild.getId(), error.getMessage());
+                settle(guild, bulkBan, next, reason, progress, future);
+            }
+        );
+    }
+
+    private void settle(Guild guild, BulkBan bulkBan, AtomicInteger next, String reason,
+                        Consumer<BulkBan> progress, CompletableFuture<BulkBan> future) {
+        int settled = bulkBan.settled.incrementAndGet();
+        if (progress != null) {
+            try {
+                progress.accept(bulkBan);
+            } catch (Exception e) {
+                logger.debug("Bulk ban progress listener failed: {}", e.getMessage());
+            }
+        }
+        if (settled == bulkBan.targets.size()) {
+            future.complete(bulkBan);
+        } else {
+            banNext(guild, bulkBan, next, reason, progress, future);
+        }
+    }
+
+    /**
+     * Write the moderation logs, temp punishments and scheduled unbans for every successful ban at once
+     */
+    private void persist(String guildId, String moderatorId, BulkBan bulkBan) {
+        List<String> banned = new ArrayList<>(bulkBan.banned);
+        if (banned.isEmpty()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        String durationText = bulkBan.duration != null ? bulkBan.duration.toString() : "PERMANENT";
+        List<Map<String, Object>> logEntries = new ArrayList<>(banned.size());
+        Map<String, Map<String, Object>> tempPunishments = new HashMap<>();
+        long unbanTimestamp = bulkBan.duration != null ? now + bulkBan.duration.toMillis() : 0;
+
+        for (String userId : banned) {
+            Map<String, Object> logEntry = new HashMap<>();
+            logEntry.put("type", "BAN");
+            logEntry.put("userId", userId);
+            logEntry.put("moderatorId", moderatorId);
+            logEntry.put("reason", bulkBan.reason);
+            logEntry.put("duration", durationText);
+            logEntry.put("timestamp", now);
+            logEntry.put("bulk", true);
+            logEntries.add(logEntry);
+
+            if (bulkBan.duration != null) {
+                Map<String, Object> tempPunishment = new HashMap<>();
+                tempPunishment.put("guildId", guildId);
+                tempPunishment.put("userId", userId);
+                tempPunishment.put("punishmentType", "BAN");
+                tempPunishment.put("expiresAt", unbanTimestamp);
+                tempPunishment.put("moderatorId", moderatorId);
+                tempPunishment.put("reason", bulkBan.reason);
+                tempPunishment.put("createdAt", now);
+                tempPunishments.put(guildId + ":" + userId + ":" + now, tempPunishment);
+            }
+        }
+
+        try {
+            ServerBot.getStorageManager().addModerationLogs(guildId, logEntries);
+            if (bulkBan.duration != null) {
+                SchedulerService.getInstance().scheduleUnbans(guildId, banned, bulkBan.reason, unbanTimestamp);
+                ServerBot.getStorageManager().storeTempPunishments(tempPunishments);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to persist bulk ban records for guild {}", guildId, e);
+        }
+    }
+
+    /**
+     * Progress and outcome of a bulk ban
+     */
+    public static class BulkBan {
+        private final Duration duration;
+        private final String reason;
+        private final List<Long> targets = new ArrayList<>();
+        private final Collection<String> banned = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger settled = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+
+        private BulkBan(Duration duration, String reason) {
+            this.duration = duration;
+            this.reason = reason;
+        }
+
+        public Duration getDuration() {
+            return duration;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        public int getTotal() {
+            return targets.size();
+        }
+
+        public int getSettled() {
+            return settled.get();
+        }
+
+        public int getBanned() {
+            return banned.size();
+        }
+
+        public int getFailed() {
+            return failed.get();
+        }
+
+        public int getSkipped() {
+            return skipped.get();
+        }
+    }
+}
@@ -1,16 +1,35 @@
 package com.serverbot.services;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import com.serverbot.ServerBot;
 import com.serverbot.commands.SlashCommand;
+import com.serverbot.utils.BotConfig;
 import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
+import net.dv8tion.jda.api.requests.restaction.CommandListUpdateAction;
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Manages all slash commands for the bot
@@ -18,11 +37,13 @@ import java.util.concurrent.TimeUnit;
 public class CommandManager {
     
     private static final Logger logger = LoggerFactory.getLogger(CommandManager.class);
+    private static final String REGISTRY_FILE = "data/command_registry.json";
     private final Map<String, SlashCommand> commands = new HashMap<>();
     
-    // Rate limiting for command updates
-    private long lastCommandUpdate = 0;
-    private static final long COMMAND_UPDATE_COOLDOWN = TimeUnit.HOURS.toMillis(1); // 1 hour cooldown
+    private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    // Hashes of the last successfully registered definitions, keyed by "<applicationId>:global" or
+    // "<applicationId>:guild:<id>"; updated from JDA REST callbacks
+    private final Map<String, RegisteredSnapshot> registrySnapshots = new ConcurrentHashMap<>();
     
     public CommandManager() {
         registerCommands();
@@ -81,8 +102,10 @@ public class CommandManager {
         registerCommand(new com.serverbot.commands.moderation.UnbanCommand());
         registerCommand(new com.serverbot.commands.moderation.UnmuteCommand());
         registerCommand(new com.serverbot.commands.moderation.SoftbanCommand());
+        registerCommand(new com.serverbot.commands.moderation.MassBanCommand());
         registerCommand(new com.serverbot.commands.moderation.UnwarnCommand());
         registerCommand(new com.serverbot.commands.moderation.HistCommand());
+        registerCommand(new com.serverbot.commands.moderation.ModSearchCommand());
         registerCommand(new com.serverbot.commands.moderation.WarnsCommand());
         registerCommand(new com.serverbot.commands.moderation.LockdownCommand());
         registerCommand(new com.serverbot.commands.moderation.PurgeCommand());
@@ -153,18 +176,6 @@ public class CommandManager {
     }
     
     public void updateGlobalCommands(JDA jda) {
-        // Rate limit command updates to prevent Discord API abuse
-        long currentTime = System.currentTimeMillis();
-        if (lastCommandUpdate > 0 && (currentTime - lastCommandUpdate) < COMMAND_UPDATE_COOLDOWN) {
-            logger.info("Skipping command update due to rate limiting. Last update was {} minutes ago.", 
-                (currentTime - lastCommandUpdate) / TimeUnit.MINUTES.toMillis(1));
-            return;
-        }
-        
-        // Only update commands if not already updated recently to avoid rate limits
-        logger.info("Updating global slash commands...");
-        lastCommandUpdate = currentTime;
-        
         List<CommandData> commandDataList = new ArrayList<>();
         
         // Utility commands
@@ -217,8 +228,10 @@ public class CommandManager {
         commandDataList.add(com.serverbot.commands.moderation.UnbanCommand.getCommandData());
         commandDataList.add(com.serverbot.commands.moderation.UnmuteCommand.getCommandData());
         commandDataList.add(com.serverbot.commands.moderation.SoftbanCommand.getCommandData());
+        commandDataList.add(com.serverbot.commands.moderation.MassBanCommand.getCommandData());
         commandDataList.add(com.serverbot.commands.moderation.UnwarnCommand.getCommandData());
         commandDataList.add(com.serverbot.commands.moderation.HistCommand.getCommandData());
+        commandDataList.add(com.serverbot.commands.moderation.ModSearchCommand.getCommandData());
         commandDataList.add(com.serverbot.commands.moderation.WarnsCommand.getCommandData());
         commandDataList.add(com.serverbot.commands.moderation.LockdownCommand.getCommandData());
         commandDataList.add(com.serverbot.commands.moderation.PurgeCommand.getCommandData());
@@ -267,17 +280,212 @@ public class CommandManager {
         commandDataList.add(com.serverbot.commands.utility.PrivacyCommand.getCommandData());
         commandDataList.add(com.serverbot.commands.utility.DeleteDataCommand.getCommandData());
         
-        jda.updateCommands().addCommands(commandDataList).queue(
+        syncCommands(jda, commandDataList);
+    }
+    
+    /**
+     * Push command definitions to Discord only when they differ from the last successful registration.
+     * In developer mode (dev_guild_id set) commands go to that guild only, which propagates instantly.
+     * Snapshots are keyed by application, so a different bot token always registers.
+     */
+    private void syncCommands(JDA jda, List<CommandData> commandDataList) {
+        BotConfig config = ServerBot.getConfigManager() != null ? ServerBot.getConfigManager().getConfig() : null;
+        boolean devMode = config != null && config.isDevMode();
+        String devGuildId = devMode ? config.getDevGuildId() : null;
+        String applicationId = jda.getSelfUser().getApplicationId();
+        
+        Guild devGuild = null;
+        if (devMode) {
+            devGuild = jda.getGuildById(devGuildId);
+            if (devGuild == null) {
+                logger.error("Developer mode is enabled but the bot is not in guild {}; skipping command registration", devGuildId);
+                return;
+            }
+        }
+        String scope = applicationId + ":" + (devMode ? "guild:" + devGuildId : "global");
+        
+        // Hash each command's canonical JSON, then hash the sorted per-command hashes for the whole set
+        Map<String, String> commandHashes = new TreeMap<>();
+        for (CommandData data : commandDataList) {
+            commandHashes.put(data.getName(), sha256(canonicalJson(data.toData())));
+        }
+        String setHash = sha256(gson.toJson(commandHashes));
+        
+        loadRegistry();
+        if (!devMode) {
+            clearDevGuildCommands(jda, applicationId);
+        }
+        RegisteredSnapshot previous = registrySnapshots.get(scope);
+        if (previous != null && setHash.equals(previous.hash)) {
+            logger.info("Slash command definitions unchanged ({} commands, hash {}), skipping {} registration",
+                commandHashes.size(), setHash.substring(0, 12), scope);
+            return;
+        }
+        
+        logCommandDiff(previous != null ? previous.commands : new TreeMap<>(), commandHashes);
+        
+        CommandListUpdateAction action = devMode ? devGuild.updateCommands() : jda.updateCommands();
+        logger.info("Updating {} slash commands...", devMode ? "dev guild (" + devGuild.getName() + ")" : "global");
+        
+        action.addCommands(commandDataList).queue(
             success -> {
-                logger.info("Successfully updated {} global commands", success.size());
-                logger.info("Commands may take up to 1 hour to appear globally");
+                logger.info("Successfully updated {} {} commands", success.size(), devMode ? "guild" : "global");
+                if (!devMode) {
+                    logger.info("Commands may take up to 1 hour to appear globally");
+                }
+                RegisteredSnapshot snapshot = new RegisteredSnapshot();
+                snapshot.hash = setHash;
+                snapshot.commands = commandHashes;
+                snapshot.registeredAt = System.currentTimeMillis();
+                registrySnapshots.put(scope, snapshot);
+                saveRegistry();
             },
             error -> {
-                logger.error("Failed to update global commands: {}", error.getMessage());
-                if (error.getMessage().contains("rate limit")) {
+                logger.error("Failed to update {} commands: {}", scope, error.getMessage());
+                if (error.getMessage() != null && error.getMessage().contains("rate limit")) {
                     logger.warn("Hit Discord rate limit. Commands will be registered later.");
                 }
             }
         );
     }
+    
+    /**
+     * Remove commands left in dev guilds from earlier developer-mode runs, now that commands are global
+     */
+    private void clearDevGuildCommands(JDA jda, String applicationId) {
+        String prefix = applicationId + ":guild:";
+        for (String scope : new ArrayList<>(registrySnapshots.keySet())) {
+            // Snapshots saved before keys included the application id start with "guild:"
+            String guildId = scope.startsWith(prefix) ? scope.substring(prefix.length())
+                    : scope.startsWith("guild:") ? scope.substring("guild:".length()) : null;
+            if (guildId == null) {
+                continue;
+            }
+            Guild guild = jda.getGuildById(guildId);
+            if (guild == null) {
+                logger.warn("Cannot clear dev commands from guild {}: the bot is no longer in it", guildId);
+                registrySnapshots.remove(scope);
+                saveRegistry();
+                continue;
+            }
+            guild.updateCommands().queue(
+                success -> {
+                    logger.info("Cleared developer-mode commands from guild {}", guild.getName());
+                    registrySnapshots.remove(scope);
+                    saveRegistry();
+                },
+                error -> logger.error("Failed to clear developer-mode commands from guild {}: {}", guildId, error.getMessage())
+            );
+        }
+    }
+    
+    /**
+     * Log which commands were added, changed or removed since the last registration
+     */
+    private void logCommandDiff(Map<String, String> previous, Map<String, String> current) {
+        List<String> added = new ArrayList<>();
+        List<String> changed = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        
+        for (Map.Entry<String, String> entry : current.entrySet()) {
+            String oldHash = previous.get(entry.getKey());
+            if (oldHash == null) {
+                added.add(entry.getKey());
+            } else if (!oldHash.equals(entry.getValue())) {
+                changed.add(entry.getKey());
+            }
+        }
+        for (String name : previous.keySet()) {
+            if (!current.containsKey(name)) {
+                removed.add(name);
+            }
+        }
+        
+        if (previous.isEmpty()) {
+            logger.info("No previous command registration recorded, registering all {} commands", current.size());
+            return;
+        }
+        logger.info("Command changes: {} added {}, {} changed {}, {} removed {}",
+            added.size(), added, changed.size(), changed, removed.size(), removed);
+    }
+    
+    /**
+     * Serialize command data with sorted keys so equal definitions always produce identical JSON
+     */
+    private String canonicalJson(DataObject data) {
+        return gson.toJson(canonicalize(data));
+    }
+    
+    private Object canonicalize(Object value) {
+        if (value instanceof DataObject) {
+            return canonicalize(((DataObject) value).toMap());
+        }
+        if (value instanceof DataArray) {
+            return canonicalize(((DataArray) value).toList());
+        }
+        if (value instanceof Map) {
+            Map<String, Object> sorted = new TreeMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                sorted.put(String.valueOf(entry.getKey()), canonicalize(entry.getValue()));
+            }
+            return sorted;
+        }
+        if (value instanceof List) {
+            List<Object> list = new ArrayList<>();
+            for (Object item : (List<?>) value) {
+                list.add(canonicalize(item));
+            }
+            return list;
+        }
+        if (value instanceof Enum) {
+            return ((Enum<?>) value).name();
+        }
+        return value;
+    }
+    
+    private static String sha256(String input) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(input.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    private void loadRegistry() {
+        registrySnapshots.clear();
+        File file = new File(REGISTRY_FILE);
+        if (!file.exists()) {
+            return;
+        }
+        
+        try (FileReader reader = new FileReader(file)) {
+            Type type = new TypeToken<Map<String, RegisteredSnapshot>>(){}.getType();
+            Map<String, RegisteredSnapshot> data = gson.fromJson(reader, type);
+            if (data != null) {
+                registrySnapshots.putAll(data);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to load command registry, commands will be re-registered: {}", e.getMessage());
+        }
+    }
+    
+    private synchronized void saveRegistry() {
+        File file = new File(REGISTRY_FILE);
+        file.getParentFile().mkdirs();
+        try (FileWriter writer = new FileWriter(file)) {
+            gson.toJson(registrySnapshots, writer);
+        } catch (IOException e) {
+            logger.error("Failed to save command registry", e);
+        }
+    }
+    
+    /**
+     * Last successfully registered command set for one scope
+     */
+    private static class RegisteredSnapshot {
+        String hash;
+        Map<String, String> commands = new TreeMap<>();
+        long registeredAt;
+    }
 }
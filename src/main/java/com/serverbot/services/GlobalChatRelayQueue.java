@@ -0,0 +1,225 @@
+package com.serverbot.services;
+
+import com.serverbot.utils.LatencyRecorder;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Per-channel send queues for global chat relays.
+ * Each linked channel has at most one webhook post in flight, and {@link WebhookPool} spaces posts to
+ * the webhook's rate limit, so a busy network backs up here instead of in 429 retries. When a queue
+ * has backed up, consecutive messages from the same author go out as one post, which is reported as a
+ * copy of every tracked message merged into it.
+ * Under sustained overload the oldest messages are dropped and the next post notes how many were skipped.
+ */
+public class GlobalChatRelayQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(GlobalChatRelayQueue.class);
+
+    private static final int MAX_PENDING = 50;
+    // Messages still queued after this long are skipped rather than posted late
+    private static final long MAX_LAG_MS = TimeUnit.SECONDS.toMillis(60);
+    private static final int MAX_CONTENT_LENGTH = 2000;
+
+    private final Map<String, Target> targets = new ConcurrentHashMap<>();   // textChannelId -> queue
+    private final Map<String, NetworkStats> stats = new ConcurrentHashMap<>(); // globalId -> stats
+    private final SentListener onSent;
+
+    /**
+     * Called once for each tracked message in a webhook post, so a coalesced post is reported once per
+     * message merged into it
+     */
+    @FunctionalInterface
+    public interface SentListener {
+        void onSent(String globalId, String textChannelId, String sourceMessageId, String messageId);
+    }
+
+    public GlobalChatRelayQueue(SentListener onSent) {
+        this.onSent = onSent;
+    }
+
+    /**
+     * Queue a relay to one linked channel
+     * @param sourceMessageId Message being relayed, or null if it shouldn't be tracked
+     * @param authorId        User who wrote the message; only their messages are merged together
+     */
+    public void enqueue(String globalId, TextChannel channel, String sourceMessageId, String authorId,
+                        String username, String avatarUrl, String content) {
+        Post post = new Post(sourceMessageId, authorId, username, avatarUrl, content, System.currentTimeMillis());
+        Target target = targets.computeIfAbsent(channel.getId(), k -> new Target(globalId, k));
+        boolean start;
+        synchronized (target) {
+            target.channel = channel;
+            if (target.pending.size() >= MAX_PENDING) {
+                target.pending.pollFirst();
+                target.skipped++;
+                statsFor(globalId).dropped.increment();
+            }
+            target.pending.addLast(post);
+            start = !target.sending;
+            target.sending = true;
+        }
+        if (start) {
+            drain(target);
+        }
+    }
+
+    /**
+     * Forget queues for channels that are no longer linked, or now belong to another network
+     * @param globalIdOf Text channel ID -> its global channel ID, or null if unlinked
+     */
+    public void retainChannels(Function<String, String> globalIdOf) {
+        targets.entrySet().removeIf(entry -> !entry.getValue().globalId.equals(globalIdOf.apply(entry.getKey())));
+    }
+
+    /**
+     * Forget a deleted network's queues and stats
+     */
+    public void dropNetwork(String globalId) {
+        targets.values().removeIf(target -> target.globalId.equals(globalId));
+        stats.remove(globalId);
+    }
+
+    /**
+     * e.g. "3 queued • lag p50 ≤64 ms, p95 ≤256 ms, max 300 ms (1,204) • 12 coalesced, 0 dropped"
+     */
+    public String describeNetwork(String globalId) {
+        int depth = 0;
+        for (Target target : targets.values()) {
+            if (target.globalId.equals(globalId)) {
+                synchronized (target) {
+                    depth += target.pending.size();
+                }
+            }
+        }
+        NetworkStats network = stats.get(globalId);
+        if (network == null) {
+            return depth + " queued • No relays yet";
+        }
+        return String.format("%,d queued • lag %s • %,d coalesced, %,d dropped",
+            depth, network.lag.describe(), network.coalesced.sum(), network.dropped.sum());
+    }
+
+    private void drain(Target target) {
+        TextChannel channel;
+        Post first;
+        StringBuilder content;
+        List<String> sourceMessageIds = new ArrayList<>();
+        int skipped;
+        synchronized (target) {
+            long now = System.currentTimeMillis();
+            while (!target.pending.isEmpty() && now - target.pending.peekFirst().queuedAt > MAX_LAG_MS) {
+                target.pending.pollFirst();
+                target.skipped++;
+                statsFor(target.globalId).dropped.increment();
+            }
+            first = target.pending.pollFirst();
+            if (first == null) {
+                target.sending = false;
+                return;
+            }
+            channel = target.channel;
+            skipped = target.skipped;
+            target.skipped = 0;
+
+            content = new StringBuilder();
+            if (skipped > 0) {
+                content.append("-# ").append(skipped).append(skipped == 1 ? " earlier message was" : " earlier messages were")
+                    .append(" skipped to catch up\n");
+            }
+            content.append(first.content);
+            if (first.sourceMessageId != null) {
+                sourceMessageIds.add(first.sourceMessageId);
+            }
+            // Only merges when the queue has backed up, since otherwise nothing else is pending
+            Post next;
+            while ((next = target.pending.peekFirst()) != null && first.canMerge(next)
+                    && content.length() + 1 + next.content.length() <= MAX_CONTENT_LENGTH) {
+                target.pending.pollFirst();
+                content.append('\n').append(next.content);
+                if (next.sourceMessageId != null) {
+                    sourceMessageIds.add(next.sourceMessageId);
+                }
+                statsFor(target.globalId).coalesced.increment();
+            }
+        }
+
+        String text = content.length() > MAX_CONTENT_LENGTH ? content.substring(0, MAX_CONTENT_LENGTH) : content.toString();
+        try {
+            WebhookPool.getInstance().submit(channel, webhook -> webhook.sendMessage(text)
+                            .setUsername(first.username)
+                            .setAvatarUrl(first.avatarUrl))
+                    .whenComplete((sent, err) -> {
+                        if (err != null) {
+                            logger.warn("Failed to relay message to {}: {}", target.channelId, err.getMessage());
+                        } else {
+                            statsFor(target.globalId).lag.record(System.currentTimeMillis() - first.queuedAt);
+                            for (String sourceMessageId : sourceMessageIds) {
+                                onSent.onSent(target.globalId, target.channelId, sourceMessageId, sent.getId());
+                            }
+                        }
+                        drain(target);
+                    });
+        } catch (Exception e) {
+            logger.warn("Failed to relay message to {}: {}", target.channelId, e.getMessage());
+            drain(target);
+        }
+    }
+
+    private NetworkStats statsFor(String globalId) {
+        return stats.computeIfAbsent(globalId, k -> new NetworkStats());
+    }
+
+    private static final class Target {
+        private final String globalId;
+        private final String channelId;
+        private final ArrayDeque<Post> pending = new ArrayDeque<>();
+        // Latest handle, refreshed on every enqueue
+        private TextChannel channel;
+        private boolean sending;
+        private int skipped;
+
+        private Target(String globalId, String channelId) {
+            this.globalId = globalId;
+            this.channelId = channelId;
+        }
+    }
+
+    private static final class Post {
+        private final String sourceMessageId;
+        private final String authorId;
+        private final String username;
+        private final String avatarUrl;
+        private final String content;
+        private final long queuedAt;
+
+        private Post(String sourceMessageId, String authorId, String username, String avatarUrl, String content, long queuedAt) {
+            this.sourceMessageId = sourceMessageId;
+            this.authorId = authorId;
+            this.username = username;
+            this.avatarUrl = avatarUrl;
+            this.content = content;
+            this.queuedAt = queuedAt;
+        }
+
+        private boolean canMerge(Post other) {
+            return authorId != null && authorId.equals(other.authorId);
+        }
+    }
+
+    private static final class NetworkStats {
+        private final LatencyRecorder lag = new LatencyRecorder();
+        private final LongAdder coalesced = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+    }
+}
@@ -4,12 +4,15 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
 import com.serverbot.models.GlobalChatChannel;
+import com.serverbot.storage.RelayMappingStore;
+import com.serverbot.storage.RelayMappingStore.Relay;
+import com.serverbot.storage.UserDataIndex;
+import com.serverbot.storage.UserDataStore;
 import com.serverbot.utils.CustomEmojis;
 import com.serverbot.utils.EmbedUtils;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.Guild;
-import net.dv8tion.jda.api.entities.Webhook;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,7 +21,6 @@ import java.io.*;
 import java.lang.reflect.Type;
 import java.security.SecureRandom;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
@@ -34,26 +36,22 @@ public class GlobalChatService {
     private static final Logger logger = LoggerFactory.getLogger(GlobalChatService.class);
     private static final String DATA_DIR = "data/globalchat/";
     private static final String CHANNELS_FILE = "global_channels.json";
-    private static final String WEBHOOK_NAME = "ServerBot GlobalChat";
+    private static final String STORE_NAME = "global_chat";
     private static final String ID_CHARS = "abcdefghijklmnopqrstuvwxyz0123456789";
     private static final String KEY_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
 
     private final Gson gson;
     private final Map<String, GlobalChatChannel> channels;                  // channelId -> channel
-    private final Map<String, String> textChannelToGlobal;                  // textChannelId -> globalChannelId (reverse index)
-    private final Map<String, Webhook> webhookCache;                        // textChannelId -> Webhook
+    private volatile Map<String, Route> routes = Collections.emptyMap();    // textChannelId -> route, rebuilt on link changes
     private final SecureRandom random;
 
     // Manage-panel conversation state: userId -> pending action context
     private final Map<String, ManagePanelState> managePanelStates;
 
-    // Message mapping for reaction/reply relay: sourceMessageId -> (targetTextChannelId -> relayedMessageId)
-    // Also stores reverse: relayedMessageId -> sourceMessageId
-    private final Map<String, Map<String, String>> messageMapping;
-    private final Map<String, String> reverseMessageMapping;
-    // Track which source text channel a source message came from
-    private final Map<String, String> sourceMessageChannel;
-    private static final int MAX_MESSAGE_MAP_SIZE = 5000;
+    // Relayed message -> copies in each linked channel, for reply, delete and reaction relay
+    private final RelayMappingStore relays;
+    // Per-channel webhook send queues for relays
+    private final GlobalChatRelayQueue relayQueue;
 
     // Track message IDs that the bot is currently deleting (prevents cascading delete loops)
     private final Set<String> pendingDeletes;
@@ -68,18 +66,18 @@ public class GlobalChatService {
                 .registerTypeAdapter(java.time.Instant.class, new com.serverbot.utils.InstantTypeAdapter())
                 .create();
         this.channels = new ConcurrentHashMap<>();
-        this.textChannelToGlobal = new ConcurrentHashMap<>();
-        this.webhookCache = new ConcurrentHashMap<>();
         this.managePanelStates = new ConcurrentHashMap<>();
-        this.messageMapping = new ConcurrentHashMap<>();
-        this.reverseMessageMapping = new ConcurrentHashMap<>();
-        this.sourceMessageChannel = new ConcurrentHashMap<>();
+        this.relays = new RelayMappingStore(new File(DATA_DIR));
+        this.relayQueue = new GlobalChatRelayQueue(
+                (globalId, textChannelId, sourceMessageId, messageId) -> relays.addCopy(globalId, sourceMessageId, textChannelId, messageId));
         this.pendingDeletes = ConcurrentHashMap.newKeySet();
         this.permissionWarningsSent = new ConcurrentHashMap<>();
         this.random = new SecureRandom();
 
         new File(DATA_DIR).mkdirs();
         loadChannels();
+        relays.load(channels.keySet());
+        registerUserData();
     }
 
     // ── Persistence ──────────────────────────────────────────────────
@@ -92,7 +90,7 @@ public class GlobalChatService {
             Map<String, GlobalChatChannel> data = gson.fromJson(reader, type);
             if (data != null) {
                 channels.putAll(data);
-                rebuildReverseIndex();
+                rebuildRoutes();
             }
             logger.info("Loaded {} global chat channels", channels.size());
         } catch (IOException e) {
@@ -108,13 +106,90 @@ public class GlobalChatService {
         }
     }
 
-    private void rebuildReverseIndex() {
-        textChannelToGlobal.clear();
+    /**
+     * Recompute the routing table from the channels' links. Runs on every link, unlink, kick, ban and
+     * delete, which are rare next to relays; relays, deletes and reactions then find their source and
+     * targets without scanning any channel's links.
+     */
+    private synchronized void rebuildRoutes() {
+        Map<String, Route> table = new HashMap<>();
         for (GlobalChatChannel ch : channels.values()) {
+            List<Route> linked = new ArrayList<>(ch.getLinkedChannels().size());
             for (Map.Entry<String, String> entry : ch.getLinkedChannels().entrySet()) {
-                textChannelToGlobal.put(entry.getValue(), ch.getChannelId());
+                linked.add(new Route(ch.getChannelId(), entry.getKey(), entry.getValue(), linked));
+            }
+            for (Route route : linked) {
+                table.put(route.textChannelId, route);
             }
         }
+        routes = table;
+        relayQueue.retainChannels(textChannelId -> {
+            Route route = table.get(textChannelId);
+            return route == null ? null : route.globalId;
+        });
+    }
+
+    // ── User data ────────────────────────────────────────────────────
+
+    /**
+     * Register channel roles with the user data index, keyed by global channel id.
+     * Deleting a user drops their co-owner and moderator roles; a channel they own passes to a
+     * co-owner, or is deleted if it has none.
+     */
+    private void registerUserData() {
+        UserDataIndex index = UserDataIndex.getInstance();
+        index.register(UserDataStore.of(STORE_NAME, "Global chat channel roles",
+            (userId, keys, sink) -> {
+                for (String channelId : keys) {
+                    GlobalChatChannel gc = channels.get(channelId);
+                    String role = gc != null ? roleOf(gc, userId) : null;
+                    if (role != null) {
+                        // Only the user's own relationship, not the channel key or other members
+                        Map<String, String> record = new LinkedHashMap<>();
+                        record.put("channelId", gc.getChannelId());
+                        record.put("name", gc.getName());
+                        record.put("role", role);
+                        sink.accept(channelId, record);
+                    }
+                }
+            },
+            (userId, keys) -> {
+                int removed = 0;
+                for (String channelId : keys) {
+                    GlobalChatChannel gc = channels.get(channelId);
+                    if (gc == null || roleOf(gc, userId) == null) continue;
+                    removed++;
+                    gc.getCoOwnerIds().remove(userId);
+                    gc.getModeratorIds().remove(userId);
+                    if (gc.isOwner(userId)) {
+                        Iterator<String> coOwners = gc.getCoOwnerIds().iterator();
+                        if (coOwners.hasNext()) {
+                            String newOwner = coOwners.next();
+                            coOwners.remove();
+                            gc.setOwnerId(newOwner);
+                            logger.info("Transferred global chat channel {} to co-owner {}", channelId, newOwner);
+                        } else {
+                            deleteChannel(channelId);
+                            logger.info("Deleted global chat channel {} with its owner's data", channelId);
+                        }
+                    }
+                }
+                if (removed > 0) saveChannels();
+                return removed;
+            }));
+
+        for (GlobalChatChannel gc : channels.values()) {
+            index.add(gc.getOwnerId(), STORE_NAME, gc.getChannelId());
+            gc.getCoOwnerIds().forEach(userId -> index.add(userId, STORE_NAME, gc.getChannelId()));
+            gc.getModeratorIds().forEach(userId -> index.add(userId, STORE_NAME, gc.getChannelId()));
+        }
+    }
+
+    private static String roleOf(GlobalChatChannel gc, String userId) {
+        if (gc.isOwner(userId)) return "owner";
+        if (gc.isCoOwner(userId)) return "co-owner";
+        if (gc.isModerator(userId)) return "moderator";
+        return null;
     }
 
     // ── ID / Key generation ──────────────────────────────────────────
@@ -154,6 +229,7 @@ public class GlobalChatService {
         if (messageSuffix != null) channel.setMessageSuffix(messageSuffix);
         channels.put(id, channel);
         saveChannels();
+        UserDataIndex.getInstance().add(ownerId, STORE_NAME, id);
         return channel;
     }
 
@@ -164,11 +240,9 @@ public class GlobalChatService {
     public boolean deleteChannel(String channelId) {
         GlobalChatChannel ch = channels.remove(channelId);
         if (ch != null) {
-            // Clean up reverse index
-            for (String textChId : ch.getLinkedChannels().values()) {
-                textChannelToGlobal.remove(textChId);
-                webhookCache.remove(textChId);
-            }
+            rebuildRoutes();
+            relays.dropNetwork(channelId);
+            relayQueue.dropNetwork(channelId);
             saveChannels();
             return true;
         }
@@ -207,29 +281,28 @@ public class GlobalChatService {
         }
 
         // Check if the text channel is already linked elsewhere
-        if (textChannelToGlobal.containsKey(textChannelId)) {
+        if (routes.containsKey(textChannelId)) {
             return "This text channel is already linked to another global chat channel.";
         }
 
         gc.linkChannel(guildId, textChannelId);
-        textChannelToGlobal.put(textChannelId, globalChannelId);
+        rebuildRoutes();
         saveChannels();
         return null; // success
     }
 
     public String unlinkChannel(String guildId, String textChannelId) {
-        String globalId = textChannelToGlobal.get(textChannelId);
-        if (globalId == null) return "This channel is not linked to any global chat channel.";
+        Route route = routes.get(textChannelId);
+        if (route == null) return "This channel is not linked to any global chat channel.";
 
-        GlobalChatChannel gc = channels.get(globalId);
+        GlobalChatChannel gc = channels.get(route.globalId);
         if (gc == null) {
-            textChannelToGlobal.remove(textChannelId);
+            rebuildRoutes();
             return "Global chat channel data not found. Link removed.";
         }
 
         gc.unlinkChannel(guildId);
-        textChannelToGlobal.remove(textChannelId);
-        webhookCache.remove(textChannelId);
+        rebuildRoutes();
         saveChannels();
         return null;
     }
@@ -244,10 +317,7 @@ public class GlobalChatService {
 
         String textChId = gc.getLinkedTextChannel(guildId);
         gc.unlinkChannel(guildId);
-        if (textChId != null) {
-            textChannelToGlobal.remove(textChId);
-            webhookCache.remove(textChId);
-        }
+        rebuildRoutes();
         saveChannels();
         return null;
     }
@@ -255,21 +325,21 @@ public class GlobalChatService {
     // ── Reverse lookup ───────────────────────────────────────────────
 
     public String getGlobalChannelIdByTextChannel(String textChannelId) {
-        return textChannelToGlobal.get(textChannelId);
+        Route route = routes.get(textChannelId);
+        return route == null ? null : route.globalId;
     }
 
     public GlobalChatChannel getGlobalChannelByTextChannel(String textChannelId) {
-        String id = textChannelToGlobal.get(textChannelId);
-        return id == null ? null : channels.get(id);
+        Route route = routes.get(textChannelId);
+        return route == null ? null : channels.get(route.globalId);
     }
 
     // ── Webhook management ───────────────────────────────────────────
 
-    public CompletableFuture<Webhook> getOrCreateWebhook(TextChannel channel) {
-        if (webhookCache.containsKey(channel.getId())) {
-            return CompletableFuture.completedFuture(webhookCache.get(channel.getId()));
-        }
-
+    /**
+     * Check the bot can use webhooks in a channel, warning the channel or guild owner if not
+     */
+    private boolean canUseWebhooks(TextChannel channel) {
         // Check required permissions before attempting — JDA throws synchronously if missing
         net.dv8tion.jda.api.entities.Member self = channel.getGuild().getSelfMember();
         List<Permission> missing = new ArrayList<>();
@@ -304,29 +374,9 @@ public class GlobalChatService {
                     }, err -> {});
                 }
             }
-            return CompletableFuture.completedFuture(null);
-        }
-
-        try {
-            return channel.retrieveWebhooks().submit().thenCompose(webhooks -> {
-                for (Webhook wh : webhooks) {
-                    if (WEBHOOK_NAME.equals(wh.getName())) {
-                        webhookCache.put(channel.getId(), wh);
-                        return CompletableFuture.completedFuture(wh);
-                    }
-                }
-                return channel.createWebhook(WEBHOOK_NAME).submit().thenApply(wh -> {
-                    webhookCache.put(channel.getId(), wh);
-                    return wh;
-                });
-            }).exceptionally(ex -> {
-                logger.error("Failed to get/create webhook for channel {}: {}", channel.getId(), ex.getMessage());
-                return null;
-            });
-        } catch (Exception ex) {
-            logger.error("Failed to get/create webhook for channel {}: {}", channel.getId(), ex.getMessage());
-            return CompletableFuture.completedFuture(null);
+            return false;
         }
+        return true;
     }
 
     // ── Message relay ────────────────────────────────────────────────
@@ -334,13 +384,14 @@ public class GlobalChatService {
     /**
      * Relay a message from one linked channel to all other linked channels of the same global chat.
      */
-    public void relayMessage(String sourceTextChannelId, String authorName, String authorAvatarUrl,
+    public void relayMessage(String sourceTextChannelId, String authorId, String authorName, String authorAvatarUrl,
                              String content, JDA jda) {
-        relayMessage(sourceTextChannelId, authorName, authorAvatarUrl, content, jda, null, null, null, null, null, null, null);
+        relayMessage(sourceTextChannelId, authorId, authorName, authorAvatarUrl, content, jda, null, null, null, null, null, null, null);
     }
 
     /**
      * Relay a message with optional reply context.
+     * @param authorId            The ID of the user who wrote the message
      * @param replyContent        Short quoted text from the message being replied to (null if not a reply)
      * @param replyAuthor         Display name of the user being replied to (null if not a reply)
      * @param sourceMessageId     The ID of the original message being relayed, for mapping reactions/replies
@@ -349,28 +400,20 @@ public class GlobalChatService {
      * @param pronouns            The user's pronoun string (e.g. "they/them"), null or empty if none
      * @param referencedMessageId The ID of the message being replied to (for actual Discord reply), null if not a reply
      */
-    public void relayMessage(String sourceTextChannelId, String authorName, String authorAvatarUrl,
+    public void relayMessage(String sourceTextChannelId, String authorId, String authorName, String authorAvatarUrl,
                              String content, JDA jda,
                              String replyContent, String replyAuthor, String sourceMessageId,
                              String username, String displayName, String pronouns,
                              String referencedMessageId) {
-        String globalId = textChannelToGlobal.get(sourceTextChannelId);
-        if (globalId == null) return;
+        Route source = routes.get(sourceTextChannelId);
+        if (source == null) return;
 
-        GlobalChatChannel gc = channels.get(globalId);
+        GlobalChatChannel gc = channels.get(source.globalId);
         if (gc == null) return;
-
-        // Find source guild
-        String sourceGuildId = null;
-        for (Map.Entry<String, String> entry : gc.getLinkedChannels().entrySet()) {
-            if (entry.getValue().equals(sourceTextChannelId)) {
-                sourceGuildId = entry.getKey();
-                break;
-            }
-        }
+        String sourceGuildId = source.guildId;
 
         // Check if source server is muted
-        if (sourceGuildId != null && gc.isServerMuted(sourceGuildId)) {
+        if (gc.isServerMuted(sourceGuildId)) {
             return; // silently drop
         }
 
@@ -381,10 +424,8 @@ public class GlobalChatService {
 
         // Resolve placeholders in both prefix and suffix
         String sourceGuildName = null;
-        if (sourceGuildId != null) {
-            Guild sourceGuild = jda.getGuildById(sourceGuildId);
-            if (sourceGuild != null) sourceGuildName = sourceGuild.getName();
-        }
+        Guild sourceGuild = jda.getGuildById(sourceGuildId);
+        if (sourceGuild != null) sourceGuildName = sourceGuild.getName();
         String safeServer = sourceGuildName != null ? sourceGuildName : "Unknown";
         String safeUsername = username != null ? username : authorName;
         String safeDisplayName = displayName != null ? displayName : safeUsername;
@@ -411,45 +452,28 @@ public class GlobalChatService {
         // Resolve the referenced message to its source ID for cross-channel reply mapping
         // If the user replied to a relayed webhook message, find the original source message ID
         // If they replied to a source message, use it directly
-        String resolvedReplySourceId = null;
-        if (referencedMessageId != null) {
-            if (messageMapping.containsKey(referencedMessageId)) {
-                resolvedReplySourceId = referencedMessageId;
-            } else if (reverseMessageMapping.containsKey(referencedMessageId)) {
-                resolvedReplySourceId = reverseMessageMapping.get(referencedMessageId);
-            }
-        }
-        final String replySourceId = resolvedReplySourceId;
+        final Relay replyRelay = referencedMessageId != null ? relays.find(source.globalId, referencedMessageId) : null;
 
-        // Prepare message mapping for this source message
-        Map<String, String> targetMap = null;
+        // Start tracking this source message; copies are added as each send completes
         if (sourceMessageId != null) {
-            targetMap = new ConcurrentHashMap<>();
-            messageMapping.put(sourceMessageId, targetMap);
-            sourceMessageChannel.put(sourceMessageId, sourceTextChannelId);
-            // Evict old entries if cache is too large
-            if (messageMapping.size() > MAX_MESSAGE_MAP_SIZE) {
-                evictOldestMappings();
-            }
+            relays.record(source.globalId, sourceMessageId, sourceTextChannelId);
         }
-        final Map<String, String> finalTargetMap = targetMap;
         final String finalDisplayName = webhookDisplayName;
         final String baseContent = content; // original content without reply prefix
 
-        for (Map.Entry<String, String> entry : gc.getLinkedChannels().entrySet()) {
-            String guildId = entry.getKey();
-            String textChId = entry.getValue();
+        for (Route route : source.targets) {
+            String guildId = route.guildId;
+            String textChId = route.textChannelId;
 
             // Don't relay back to source
-            if (textChId.equals(sourceTextChannelId)) continue;
+            if (route == source) continue;
 
-            // Skip muted servers (they can't receive either per spec)
+            // Skip muted servers (they can't receive either per spec); checked live since mutes expire
             if (gc.isServerMuted(guildId)) continue;
 
-            Guild guild = jda.getGuildById(guildId);
-            if (guild == null) continue;
-            TextChannel target = guild.getTextChannelById(textChId);
+            TextChannel target = route.resolve(jda);
             if (target == null) continue;
+            if (!canUseWebhooks(target)) continue;
 
             // Build per-channel reply content with a jump link to the relayed copy in this channel
             String perChannelContent;
@@ -457,15 +481,11 @@ public class GlobalChatService {
                 String preview = replyContent.length() > 100 ? replyContent.substring(0, 100) + "…" : replyContent;
                 // Try to find the relayed copy of the replied-to message in this target channel
                 String replyMsgId = null;
-                if (replySourceId != null) {
-                    Map<String, String> replyTargets = messageMapping.get(replySourceId);
-                    if (replyTargets != null) {
-                        replyMsgId = replyTargets.get(textChId);
-                    }
+                if (replyRelay != null) {
+                    replyMsgId = replyRelay.getCopyIn(textChId);
                     // If the reply source itself was sent in this target channel, reference it directly
-                    String replySrcChannel = sourceMessageChannel.get(replySourceId);
-                    if (replyMsgId == null && textChId.equals(replySrcChannel)) {
-                        replyMsgId = replySourceId;
+                    if (replyMsgId == null && textChId.equals(replyRelay.getSourceChannelId())) {
+                        replyMsgId = replyRelay.getSourceMessageId();
                     }
                 }
                 if (replyMsgId != null) {
@@ -478,29 +498,9 @@ public class GlobalChatService {
             } else {
                 perChannelContent = baseContent;
             }
-            final String messageContent = perChannelContent;
-
-            final String targetTextChId = textChId;
-            getOrCreateWebhook(target).thenAccept(webhook -> {
-                if (webhook == null) return;
-                webhook.sendMessage(messageContent)
-                        .setUsername(finalDisplayName)
-                        .setAvatarUrl(authorAvatarUrl)
-                        .queue(
-                                sentMsg -> {
-                                    // Store the mapping: source message -> relayed message in this channel
-                                    if (finalTargetMap != null && sourceMessageId != null) {
-                                        finalTargetMap.put(targetTextChId, sentMsg.getId());
-                                        reverseMessageMapping.put(sentMsg.getId(), sourceMessageId);
-                                    }
-                                },
-                                err -> {
-                                    logger.warn("Failed to relay message to {}: {}", targetTextChId, err.getMessage());
-                                    // Evict stale webhook so the next message triggers re-creation
-                                    webhookCache.remove(targetTextChId);
-                                }
-                        );
-            });
+
+            // The queue stores the mapping (source message -> relayed message in this channel) once sent
+            relayQueue.enqueue(source.globalId, target, sourceMessageId, authorId, finalDisplayName, authorAvatarUrl, perChannelContent);
         }
     }
 
@@ -512,28 +512,16 @@ public class GlobalChatService {
      * tracks pending deletes to prevent cascading delete event loops.
      */
     public void deleteRelayedMessages(String deletedMessageId, String deletedInChannelId, JDA jda) {
-        String sourceMessageId;
-        boolean deletedWasSource;
-
-        if (messageMapping.containsKey(deletedMessageId)) {
-            // The deleted message is the source
-            sourceMessageId = deletedMessageId;
-            deletedWasSource = true;
-        } else if (reverseMessageMapping.containsKey(deletedMessageId)) {
-            // The deleted message is a relayed copy
-            sourceMessageId = reverseMessageMapping.get(deletedMessageId);
-            deletedWasSource = false;
-        } else {
-            return; // not a tracked global chat message
-        }
+        Route deletedIn = routes.get(deletedInChannelId);
+        if (deletedIn == null) return;
 
-        Map<String, String> targets = messageMapping.get(sourceMessageId);
-        if (targets == null) return;
+        Relay relay = relays.find(deletedIn.globalId, deletedMessageId);
+        if (relay == null) return; // not a tracked global chat message
 
-        String globalId = textChannelToGlobal.get(deletedInChannelId);
-        if (globalId == null) return;
-        GlobalChatChannel gc = channels.get(globalId);
-        if (gc == null) return;
+        // The deleted message is either the source or one of its relayed copies
+        String sourceMessageId = relay.getSourceMessageId();
+        boolean deletedWasSource = sourceMessageId.equals(deletedMessageId);
+        Map<String, String> targets = relay.getCopies();
 
         // Register all message IDs we're about to delete as pending, to prevent
         // the resulting MessageDeleteEvents from triggering another cascade
@@ -549,65 +537,44 @@ public class GlobalChatService {
 
             if (targetChId.equals(deletedInChannelId)) continue;
 
-            Guild guild = null;
-            for (Map.Entry<String, String> linked : gc.getLinkedChannels().entrySet()) {
-                if (linked.getValue().equals(targetChId)) {
-                    guild = jda.getGuildById(linked.getKey());
-                    break;
-                }
+            TextChannel tc = resolveLinked(deletedIn, targetChId, jda);
+            if (tc == null) {
+                pendingDeletes.remove(relayedMsgId);
+                continue;
             }
-            if (guild == null) continue;
-            TextChannel tc = guild.getTextChannelById(targetChId);
-            if (tc == null) continue;
 
             // Use the webhook to delete its own message (no MANAGE_MESSAGES permission needed)
-            getOrCreateWebhook(tc).thenAccept(webhook -> {
-                if (webhook != null) {
-                    webhook.deleteMessageById(relayedMsgId).queue(
-                        s -> {
-                            logger.debug("Deleted relayed message {} in channel {}", relayedMsgId, targetChId);
-                            pendingDeletes.remove(relayedMsgId);
-                        },
-                        err -> {
-                            logger.warn("Failed to delete relayed message {} in {}: {}", relayedMsgId, targetChId, err.getMessage());
-                            pendingDeletes.remove(relayedMsgId);
-                        }
-                    );
-                } else {
+            if (!canUseWebhooks(tc)) {
+                pendingDeletes.remove(relayedMsgId);
+                continue;
+            }
+            WebhookPool.getInstance().submit(tc, webhook -> webhook.deleteMessageById(relayedMsgId))
+                .whenComplete((s, err) -> {
+                    if (err != null) {
+                        logger.warn("Failed to delete relayed message {} in {}: {}", relayedMsgId, targetChId, err.getMessage());
+                    } else {
+                        logger.debug("Deleted relayed message {} in channel {}", relayedMsgId, targetChId);
+                    }
                     pendingDeletes.remove(relayedMsgId);
-                }
-            });
+                });
         }
 
         // If a relayed copy was deleted, also delete the source message in the original channel
         if (!deletedWasSource) {
-            String srcChannelId = sourceMessageChannel.get(sourceMessageId);
-            if (srcChannelId != null && !srcChannelId.equals(deletedInChannelId)) {
-                for (Map.Entry<String, String> linked : gc.getLinkedChannels().entrySet()) {
-                    if (linked.getValue().equals(srcChannelId)) {
-                        Guild guild = jda.getGuildById(linked.getKey());
-                        if (guild != null) {
-                            TextChannel tc = guild.getTextChannelById(srcChannelId);
-                            if (tc != null) {
-                                tc.deleteMessageById(sourceMessageId).queue(
-                                    s -> {
-                                        logger.debug("Deleted source message {} in channel {}", sourceMessageId, srcChannelId);
-                                        pendingDeletes.remove(sourceMessageId);
-                                    },
-                                    err -> {
-                                        logger.warn("Failed to delete source message: {}", err.getMessage());
-                                        pendingDeletes.remove(sourceMessageId);
-                                    }
-                                );
-                            } else {
-                                pendingDeletes.remove(sourceMessageId);
-                            }
-                        } else {
-                            pendingDeletes.remove(sourceMessageId);
-                        }
-                        break;
+            String srcChannelId = relay.getSourceChannelId();
+            TextChannel tc = srcChannelId != null && !srcChannelId.equals(deletedInChannelId)
+                ? resolveLinked(deletedIn, srcChannelId, jda) : null;
+            if (tc != null) {
+                tc.deleteMessageById(sourceMessageId).queue(
+                    s -> {
+                        logger.debug("Deleted source message {} in channel {}", sourceMessageId, srcChannelId);
+                        pendingDeletes.remove(sourceMessageId);
+                    },
+                    err -> {
+                        logger.warn("Failed to delete source message: {}", err.getMessage());
+                        pendingDeletes.remove(sourceMessageId);
                     }
-                }
+                );
             } else {
                 pendingDeletes.remove(sourceMessageId);
             }
@@ -616,51 +583,28 @@ public class GlobalChatService {
         }
 
         // Clean up mappings
-        for (String relayedId : targets.values()) {
-            reverseMessageMapping.remove(relayedId);
-        }
-        messageMapping.remove(sourceMessageId);
-        sourceMessageChannel.remove(sourceMessageId);
+        relays.remove(deletedIn.globalId, sourceMessageId);
     }
 
     /**
      * Relay a reaction from one linked channel to all other linked channels of the same global chat.
      */
     public void relayReaction(String messageId, String textChannelId, EmojiUnion emoji, JDA jda) {
-        // Check if the message is a source message
-        Map<String, String> targets = messageMapping.get(messageId);
-        String sourceChannel = textChannelId;
-
-        if (targets == null) {
-            // Check if it's a relayed message — find the source message
-            String sourceMsgId = reverseMessageMapping.get(messageId);
-            if (sourceMsgId == null) return; // unknown message
-            targets = messageMapping.get(sourceMsgId);
-            if (targets == null) return;
-            sourceChannel = sourceMessageChannel.get(sourceMsgId);
-            messageId = sourceMsgId; // work with the source from now on
-        }
+        Route reactedIn = routes.get(textChannelId);
+        if (reactedIn == null) return;
 
-        String globalId = textChannelToGlobal.get(textChannelId);
-        if (globalId == null) return;
-        GlobalChatChannel gc = channels.get(globalId);
-        if (gc == null) return;
+        // The message is either a source message or a relayed copy; work with the source from now on
+        Relay relay = relays.find(reactedIn.globalId, messageId);
+        if (relay == null) return; // unknown message
+        Map<String, String> targets = relay.getCopies();
+        messageId = relay.getSourceMessageId();
 
         // React on the source message in the source channel (if reaction came from a relay target)
-        final String srcChannel = sourceMessageChannel.get(messageId);
-        if (srcChannel != null && !srcChannel.equals(textChannelId)) {
-            // Find the source guild/channel and add reaction to the source message
-            for (Map.Entry<String, String> entry : gc.getLinkedChannels().entrySet()) {
-                if (entry.getValue().equals(srcChannel)) {
-                    Guild guild = jda.getGuildById(entry.getKey());
-                    if (guild != null) {
-                        TextChannel tc = guild.getTextChannelById(srcChannel);
-                        if (tc != null) {
-                            tc.addReactionById(messageId, emoji).queue(s -> {}, err -> {});
-                        }
-                    }
-                    break;
-                }
+        final String srcChannel = relay.getSourceChannelId();
+        if (!srcChannel.equals(textChannelId)) {
+            TextChannel tc = resolveLinked(reactedIn, srcChannel, jda);
+            if (tc != null) {
+                tc.addReactionById(messageId, emoji).queue(s -> {}, err -> {});
             }
         }
 
@@ -672,36 +616,61 @@ public class GlobalChatService {
             // Don't react on the channel where the reaction came from
             if (targetChId.equals(textChannelId)) continue;
 
-            // Find the guild for this channel
-            for (Map.Entry<String, String> linked : gc.getLinkedChannels().entrySet()) {
-                if (linked.getValue().equals(targetChId)) {
-                    Guild guild = jda.getGuildById(linked.getKey());
-                    if (guild != null) {
-                        TextChannel tc = guild.getTextChannelById(targetChId);
-                        if (tc != null) {
-                            tc.addReactionById(relayedMsgId, emoji).queue(s -> {}, err -> {});
-                        }
-                    }
-                    break;
-                }
+            TextChannel tc = resolveLinked(reactedIn, targetChId, jda);
+            if (tc != null) {
+                tc.addReactionById(relayedMsgId, emoji).queue(s -> {}, err -> {});
             }
         }
     }
 
+    /**
+     * Resolve a channel that is still linked to the same global chat as {@code from}.
+     * Channels unlinked since the message was relayed resolve to null and are skipped.
+     */
+    private TextChannel resolveLinked(Route from, String textChannelId, JDA jda) {
+        Route route = routes.get(textChannelId);
+        if (route == null || !route.globalId.equals(from.globalId)) return null;
+        return route.resolve(jda);
+    }
+
     /**
      * Look up the relayed message ID in a target channel for a given source message.
      */
     public String getRelayedMessageId(String sourceMessageId, String targetTextChannelId) {
-        Map<String, String> targets = messageMapping.get(sourceMessageId);
-        if (targets == null) return null;
-        return targets.get(targetTextChannelId);
+        Route route = routes.get(targetTextChannelId);
+        if (route == null) return null;
+        Relay relay = relays.find(route.globalId, sourceMessageId);
+        if (relay == null || !relay.getSourceMessageId().equals(sourceMessageId)) return null;
+        return relay.getCopyIn(targetTextChannelId);
+    }
+
+    /**
+     * Check if a message in a linked channel belongs to a global chat relay (source or relayed copy).
+     */
+    public boolean isGlobalChatMessage(String textChannelId, String messageId) {
+        Route route = routes.get(textChannelId);
+        return route != null && relays.find(route.globalId, messageId) != null;
+    }
+
+    /**
+     * e.g. "1,204 relays in 3 networks"
+     */
+    public String describeRelayStats() {
+        return relays.describeStats();
+    }
+
+    /**
+     * Queue depth and relay lag for one network, e.g. "3 queued • lag p50 ≤64 ms, ..."
+     */
+    public String describeRelayQueue(String globalChannelId) {
+        return relayQueue.describeNetwork(globalChannelId);
     }
 
     /**
-     * Check if a message ID belongs to a global chat relay (source or relayed copy).
+     * Write out pending relay journal entries
      */
-    public boolean isGlobalChatMessage(String messageId) {
-        return messageMapping.containsKey(messageId) || reverseMessageMapping.containsKey(messageId);
+    public void shutdown() {
+        relays.close();
     }
 
     /**
@@ -711,23 +680,6 @@ public class GlobalChatService {
         return pendingDeletes.contains(messageId);
     }
 
-    private void evictOldestMappings() {
-        // Simple eviction: remove oldest 20% of entries
-        int toRemove = MAX_MESSAGE_MAP_SIZE / 5;
-        Iterator<Map.Entry<String, Map<String, String>>> it = messageMapping.entrySet().iterator();
-        int removed = 0;
-        while (it.hasNext() && removed < toRemove) {
-            Map.Entry<String, Map<String, String>> entry = it.next();
-            // Clean up reverse mappings
-            for (String relayedId : entry.getValue().values()) {
-                reverseMessageMapping.remove(relayedId);
-            }
-            sourceMessageChannel.remove(entry.getKey());
-            it.remove();
-            removed++;
-        }
-    }
-
     // ── Moderation actions (with notifications) ──────────────────────
 
     public String kickServer(String globalChannelId, String guildId, String reason, JDA jda) {
@@ -739,8 +691,7 @@ public class GlobalChatService {
         notifyLinkedChannel(jda, guildId, textChId, CustomEmojis.MOD_BAN + " This server has been **kicked** from the global chat channel **" + gc.getName() + "**.\nReason: " + (reason != null ? reason : "No reason provided."));
 
         gc.kickServer(guildId);
-        textChannelToGlobal.remove(textChId);
-        webhookCache.remove(textChId);
+        rebuildRoutes();
         saveChannels();
         return null;
     }
@@ -752,11 +703,10 @@ public class GlobalChatService {
         String textChId = gc.getLinkedTextChannel(guildId);
         if (textChId != null) {
             notifyLinkedChannel(jda, guildId, textChId, CustomEmojis.ERROR + " This server has been **banned** from the global chat channel **" + gc.getName() + "**.\nReason: " + (reason != null ? reason : "No reason provided."));
-            textChannelToGlobal.remove(textChId);
-            webhookCache.remove(textChId);
         }
 
         gc.banServer(guildId);
+        rebuildRoutes();
         saveChannels();
         return null;
     }
@@ -821,6 +771,7 @@ public class GlobalChatService {
         if (gc == null) return "Global chat channel not found.";
         gc.getModeratorIds().add(userId);
         saveChannels();
+        UserDataIndex.getInstance().add(userId, STORE_NAME, globalChannelId);
         return null;
     }
 
@@ -837,6 +788,7 @@ public class GlobalChatService {
         if (gc == null) return "Global chat channel not found.";
         gc.getCoOwnerIds().add(userId);
         saveChannels();
+        UserDataIndex.getInstance().add(userId, STORE_NAME, globalChannelId);
         return null;
     }
 
@@ -954,4 +906,38 @@ public class GlobalChatService {
         public String getPendingData() { return pendingData; }
         public void setPendingData(String pendingData) { this.pendingData = pendingData; }
     }
+
+    /**
+     * One linked text channel and every channel in the same global chat (itself included).
+     * Immutable; link changes replace the whole table.
+     */
+    private static final class Route {
+        private final String globalId;
+        private final String guildId;
+        private final String textChannelId;
+        private final long textChannelIdLong;
+        private final List<Route> targets;
+
+        private Route(String globalId, String guildId, String textChannelId, List<Route> targets) {
+            this.globalId = globalId;
+            this.guildId = guildId;
+            this.textChannelId = textChannelId;
+            long id = 0;
+            try {
+                id = Long.parseLong(textChannelId);
+            } catch (NumberFormatException ignored) {
+                // Resolves to null and is skipped like a deleted channel
+            }
+            this.textChannelIdLong = id;
+            // rebuildRoutes fills the list after creating each route; the view sees the final contents
+            this.targets = Collections.unmodifiableList(targets);
+        }
+
+        /**
+         * The live channel, or null if it is gone or not cached
+         */
+        private TextChannel resolve(JDA jda) {
+            return jda.getTextChannelById(textChannelIdLong);
+        }
+    }
 }
@@ -0,0 +1,367 @@
+package com.serverbot.services;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.serverbot.ServerBot;
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.PermissionOverride;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.entities.channel.attribute.IPermissionContainer;
+import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
+import net.dv8tion.jda.api.requests.RestAction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Guild-wide lockdown engine.
+ * Before locking, the current @everyone override of every text, news and forum channel (and the
+ * locked flag of every active thread) is snapshotted to disk; unlocking restores that exact state.
+ * Channel updates run with a small fixed number of requests in flight so a lockdown of hundreds
+ * of channels finishes quickly without flooding the per-route rate limits.
+ */
+public class LockdownService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LockdownService.class);
+    private static final String LOCKDOWN_DIR = "data/lockdowns";
+    private static final int MAX_IN_FLIGHT = 4;
+
+    private static final long LOCK_DENY = Permission.getRaw(
+        Permission.MESSAGE_SEND, Permission.MESSAGE_ADD_REACTION,
+        Permission.MESSAGE_SEND_IN_THREADS, Permission.CREATE_PUBLIC_THREADS, Permission.CREATE_PRIVATE_THREADS);
+
+    private static LockdownService instance;
+
+    private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    private final Set<String> operationsInProgress = ConcurrentHashMap.newKeySet();
+
+    private LockdownService() {
+        new File(LOCKDOWN_DIR).mkdirs();
+    }
+
+    public static synchronized LockdownService getInstance() {
+        if (instance == null) {
+            instance = new LockdownService();
+        }
+        return instance;
+    }
+
+    /**
+     * Receives progress updates while a lockdown or unlock is running
+     */
+    public interface ProgressListener {
+        void onProgress(int completed, int failed, int total);
+    }
+
+    /**
+     * Outcome of a lockdown or unlock
+     */
+    public static class Result {
+        public final int total;
+        public final int succeeded;
+        public final int failed;
+
+        Result(int total, int succeeded, int failed) {
+            this.total = total;
+            this.succeeded = succeeded;
+            this.failed = failed;
+        }
+    }
+
+    public boolean isGuildLocked(String guildId) {
+        return snapshotFile(guildId).exists();
+    }
+
+    public boolean isBusy(String guildId) {
+        return operationsInProgress.contains(guildId);
+    }
+
+    /**
+     * Snapshot and lock every text, news, forum and active thread channel in the guild
+     * @return Future completed once every channel update has finished, or null if the guild is
+     *         already locked or another lockdown operation is running
+     */
+    public CompletableFuture<Result> lockGuild(Guild guild, String moderatorId, String reason, ProgressListener progress) {
+        String guildId = guild.getId();
+        if (isGuildLocked(guildId) || !operationsInProgress.add(guildId)) {
+            return null;
+        }
+
+        Role everyone = guild.getPublicRole();
+        GuildSnapshot snapshot = new GuildSnapshot();
+        snapshot.guildId = guildId;
+        snapshot.lockedBy = moderatorId;
+        snapshot.reason = reason;
+        snapshot.lockedAt = System.currentTimeMillis();
+
+        for (IPermissionContainer channel : getLockableChannels(guild)) {
+            if (!guild.getSelfMember().hasPermission(channel, Permission.MANAGE_CHANNEL, Permission.MANAGE_ROLES)) {
+                continue;
+            }
+            PermissionOverride override = channel.getPermissionOverride(everyone);
+            ChannelSnapshot entry = new ChannelSnapshot();
+            entry.channelId = channel.getId();
+            entry.thread = false;
+            entry.hadOverride = override != null;
+            entry.allow = override != null ? override.getAllowedRaw() : 0;
+            entry.deny = override != null ? override.getDeniedRaw() : 0;
+            snapshot.channels.add(entry);
+        }
+        for (ThreadChannel thread : guild.getThreadChannels()) {
+            if (thread.isArchived() || thread.isLocked()
+                    || !guild.getSelfMember().hasPermission(thread.getParentChannel(), Permission.MANAGE_THREADS)) {
+                continue;
+            }
+            ChannelSnapshot entry = new ChannelSnapshot();
+            entry.channelId = thread.getId();
+            entry.thread = true;
+            entry.wasLocked = false;
+            snapshot.channels.add(entry);
+        }
+
+        // Persist before touching anything so a crash mid-lockdown can still be undone
+        if (!saveSnapshot(snapshot)) {
+            operationsInProgress.remove(guildId);
+            return CompletableFuture.failedFuture(new IOException("Failed to save lockdown snapshot"));
+        }
+
+        logger.info("Locking down guild {} ({} channels) for {}", guildId, snapshot.channels.size(), moderatorId);
+        String auditReason = "Server lockdown" + (reason != null ? ": " + reason : "");
+        return runPaced(snapshot.channels, entry -> buildLockAction(guild, everyone, entry, auditReason), progress, null)
+            .whenComplete((result, error) -> operationsInProgress.remove(guildId));
+    }
+
+    /**
+     * Restore every channel to the state recorded when the guild was locked.
+     * Channels that fail to restore stay in the snapshot, so the guild remains locked until they succeed.
+     * @return Future completed once every channel has been restored, or null if the guild is not
+     *         locked or another lockdown operation is running
+     */
+    public CompletableFuture<Result> unlockGuild(Guild guild, ProgressListener progress) {
+        String guildId = guild.getId();
+        GuildSnapshot snapshot = loadSnapshot(guildId);
+        if (snapshot == null || !operationsInProgress.add(guildId)) {
+            return null;
+        }
+
+        Role everyone = guild.getPublicRole();
+        logger.info("Restoring lockdown snapshot for guild {} ({} channels)", guildId, snapshot.channels.size());
+        List<ChannelSnapshot> failures = Collections.synchronizedList(new ArrayList<>());
+        return runPaced(snapshot.channels, entry -> buildRestoreAction(guild, everyone, entry), progress, failures)
+            .whenComplete((result, error) -> {
+                try {
+                    if (error != null) {
+                        return;
+                    }
+                    if (failures.isEmpty()) {
+                        snapshotFile(guildId).delete();
+                        restoreVerification(guild);
+                    } else {
+                        // Keep only what still needs restoring so running unlock again retries those channels
+                        synchronized (failures) {
+                            snapshot.channels = new ArrayList<>(failures);
+                        }
+                        logger.warn("Lockdown of guild {} only partly lifted, {} channels still locked", guildId, snapshot.channels.size());
+                        saveSnapshot(snapshot);
+                    }
+                } finally {
+                    operationsInProgress.remove(guildId);
+                }
+            });
+    }
+
+    private List<IPermissionContainer> getLockableChannels(Guild guild) {
+        List<IPermissionContainer> channels = new ArrayList<>();
+        channels.addAll(guild.getTextChannels());
+        channels.addAll(guild.getNewsChannels());
+        channels.addAll(guild.getForumChannels());
+        return channels;
+    }
+
+    private RestAction<?> buildLockAction(Guild guild, Role everyone, ChannelSnapshot entry, String reason) {
+        if (entry.thread) {
+            ThreadChannel thread = guild.getThreadChannelById(entry.channelId);
+            return thread != null ? thread.getManager().setLocked(true).reason(reason) : null;
+        }
+        IPermissionContainer channel = guild.getChannelById(IPermissionContainer.class, entry.channelId);
+        if (channel == null) {
+            return null;
+        }
+        long deny = entry.deny | LOCK_DENY;
+        long allow = entry.allow & ~deny;
+        return channel.getManager().putRolePermissionOverride(everyone.getIdLong(), allow, deny).reason(reason);
+    }
+
+    private RestAction<?> buildRestoreAction(Guild guild, Role everyone, ChannelSnapshot entry) {
+        String reason = "Server lockdown lifted";
+        if (entry.thread) {
+            ThreadChannel thread = guild.getThreadChannelById(entry.channelId);
+            return thread != null ? thread.getManager().setLocked(entry.wasLocked).reason(reason) : null;
+        }
+        IPermissionContainer channel = guild.getChannelById(IPermissionContainer.class, entry.channelId);
+        if (channel == null) {
+            return null;
+        }
+        if (entry.hadOverride) {
+            return channel.getManager().putRolePermissionOverride(everyone.getIdLong(), entry.allow, entry.deny).reason(reason);
+        }
+        return channel.getPermissionOverride(everyone) != null
+            ? channel.getManager().removePermissionOverride(everyone).reason(reason)
+            : null;
+    }
+
+    /**
+     * Run one REST action per entry with at most MAX_IN_FLIGHT outstanding at a time.
+     * Entries whose action factory returns null (e.g. deleted channels) count as done.
+     * @param failures Receives every entry whose action failed, or null if not needed
+     */
+    private CompletableFuture<Result> runPaced(List<ChannelSnapshot> entries,
+                                               Function<ChannelSnapshot, RestAction<?>> actionFactory,
+                                               ProgressListener progress, List<ChannelSnapshot> failures) {
+        CompletableFuture<Result> future = new CompletableFuture<>();
+        int total = entries.size();
+        if (total == 0) {
+            future.complete(new Result(0, 0, 0));
+            return future;
+        }
+
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+
+        Runnable[] worker = new Runnable[1];
+        worker[0] = () -> {
+            int index = next.getAndIncrement();
+            if (index >= total) {
+                return;
+            }
+            Runnable finish = () -> {
+                int done = completed.incrementAndGet();
+                if (progress != null) {
+                    try {
+                        progress.onProgress(done, failed.get(), total);
+                    } catch (Exception e) {
+                        logger.debug("Lockdown progress listener failed: {}", e.getMessage());
+                    }
+                }
+                if (done == total) {
+                    future.complete(new Result(total, total - failed.get(), failed.get()));
+                } else {
+                    worker[0].run();
+                }
+            };
+
+            RestAction<?> action;
+            try {
+                action = actionFactory.apply(entries.get(index));
+            } catch (Exception e) {
+                logger.warn("Failed to build lockdown action for channel {}: {}", entries.get(index).channelId, e.getMessage());
+                if (failures != null) {
+                    failures.add(entries.get(index));
+                }
+                failed.incrementAndGet();
+                finish.run();
+                return;
+            }
+            if (action == null) {
+                finish.run();
+                return;
+            }
+            action.queue(
+                success -> finish.run(),
+                error -> {
+                    logger.warn("Lockdown update failed for channel {}: {}", entries.get(index).channelId, error.getMessage());
+                    if (failures != null) {
+                        failures.add(entries.get(index));
+                    }
+                    failed.incrementAndGet();
+                    finish.run();
+                }
+            );
+        };
+
+        for (int i = 0; i < Math.min(MAX_IN_FLIGHT, total); i++) {
+            worker[0].run();
+        }
+        return future;
+    }
+
+    /**
+     * Put the verification level back if raid protection raised it
+     */
+    private void restoreVerification(Guild guild) {
+        Object previous = ServerBot.getStorageManager().getGuildSettings(guild.getId()).get("raidPreviousVerificationLevel");
+        if (!(previous instanceof String)) {
+            return;
+        }
+        try {
+            Guild.VerificationLevel level = Guild.VerificationLevel.valueOf((String) previous);
+            guild.getManager().setVerificationLevel(level).reason("Server lockdown lifted").queue(
+                success -> ServerBot.getStorageManager().removeGuildSetting(guild.getId(), "raidPreviousVerificationLevel"),
+                error -> logger.warn("Failed to restore verification level in {}: {}", guild.getId(), error.getMessage())
+            );
+        } catch (IllegalArgumentException e) {
+            ServerBot.getStorageManager().removeGuildSetting(guild.getId(), "raidPreviousVerificationLevel");
+        }
+    }
+
+    private File snapshotFile(String guildId) {
+        return new File(LOCKDOWN_DIR, guildId + ".json");
+    }
+
+    private boolean saveSnapshot(GuildSnapshot snapshot) {
+        try (FileWriter writer = new FileWriter(snapshotFile(snapshot.guildId))) {
+            gson.toJson(snapshot, writer);
+            return true;
+        } catch (IOException e) {
+            logger.error("Failed to save lockdown snapshot for guild {}", snapshot.guildId, e);
+            return false;
+        }
+    }
+
+    private GuildSnapshot loadSnapshot(String guildId) {
+        File file = snapshotFile(guildId);
+        if (!file.exists()) {
+            return null;
+        }
+        try (FileReader reader = new FileReader(file)) {
+            return gson.fromJson(reader, GuildSnapshot.class);
+        } catch (Exception e) {
+            logger.error("Failed to load lockdown snapshot for guild {}", guildId, e);
+            return null;
+        }
+    }
+
+    /**
+     * On-disk record of a guild's pre-lockdown channel state
+     */
+    private static class GuildSnapshot {
+        String guildId;
+        String lockedBy;
+        String reason;
+        long lockedAt;
+        List<ChannelSnapshot> channels = new ArrayList<>();
+    }
+
+    private static class ChannelSnapshot {
+        String channelId;
+        boolean thread;
+        boolean hadOverride;
+        long allow;
+        long deny;
+        boolean wasLocked;
+    }
+}
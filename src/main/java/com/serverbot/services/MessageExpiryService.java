@@ -0,0 +1,282 @@
+package com.serverbot.services;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes bot messages after a delay, replacing per-message {@code queueAfter} timers.
+ * Pending deletions sit in a single hashed timing wheel and are journaled to disk so they survive
+ * restarts. Messages expiring together in the same channel are deleted in one bulk request.
+ */
+public class MessageExpiryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageExpiryService.class);
+    private static MessageExpiryService instance;
+
+    private static final String DATA_DIR = "data";
+    private static final String JOURNAL_FILE = "message_expiry.journal";
+
+    private static final long TICK_MS = 1000;
+    private static final int WHEEL_SIZE = 512;
+    // Rewrite the journal once it holds this many lines beyond the pending entries
+    private static final int COMPACT_THRESHOLD = 1000;
+
+    private final File journalFile = new File(DATA_DIR, JOURNAL_FILE);
+    private final Object lock = new Object();
+
+    // messageId -> entry, also the source for the pending count
+    private final Map<String, Entry> pending = new ConcurrentHashMap<>();
+    @SuppressWarnings("unchecked")
+    private final List<Entry>[] wheel = new List[WHEEL_SIZE];
+    private final long startTime = System.currentTimeMillis();
+    private long currentTick;
+
+    private BufferedWriter journal;
+    private int journalLines;
+
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "message-expiry");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile JDA jda;
+
+    private MessageExpiryService() {
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new ArrayList<>();
+        }
+        new File(DATA_DIR).mkdirs();
+        replayJournal();
+    }
+
+    public static synchronized MessageExpiryService getInstance() {
+        if (instance == null) {
+            instance = new MessageExpiryService();
+        }
+        return instance;
+    }
+
+    /**
+     * Start deleting expired messages. Deletions that came due while the bot was offline run on the first tick.
+     */
+    public void start(JDA jda) {
+        this.jda = jda;
+        ticker.scheduleAtFixedRate(this::tick, TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+        logger.info("Message expiry started with {} pending deletions", pending.size());
+    }
+
+    /**
+     * Schedule a message for deletion
+     */
+    public void schedule(String channelId, String messageId, long delay, TimeUnit unit) {
+        long deadline = System.currentTimeMillis() + unit.toMillis(delay);
+        synchronized (lock) {
+            if (pending.containsKey(messageId)) {
+                return;
+            }
+            insert(new Entry(channelId, messageId, deadline));
+            writeJournal("A " + channelId + " " + messageId + " " + deadline);
+        }
+    }
+
+    /**
+     * Forget a pending deletion, e.g. because the message was dismissed early
+     */
+    public void cancel(String messageId) {
+        synchronized (lock) {
+            Entry entry = pending.remove(messageId);
+            if (entry != null) {
+                entry.cancelled = true;
+                writeJournal("D " + messageId);
+            }
+        }
+    }
+
+    /**
+     * Number of messages waiting to be deleted
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public void shutdown() {
+        ticker.shutdown();
+        synchronized (lock) {
+            closeJournal();
+        }
+    }
+
+    // Must hold lock
+    private void insert(Entry entry) {
+        long ticks = Math.max(currentTick + 1, (entry.deadline - startTime + TICK_MS - 1) / TICK_MS);
+        entry.rounds = (ticks - currentTick - 1) / WHEEL_SIZE;
+        wheel[(int) (ticks % WHEEL_SIZE)].add(entry);
+        pending.put(entry.messageId, entry);
+    }
+
+    private void tick() {
+        Map<String, List<String>> expired = new LinkedHashMap<>();
+        synchronized (lock) {
+            long target = (System.currentTimeMillis() - startTime) / TICK_MS;
+            // Catch up on ticks missed while the thread was delayed
+            while (currentTick < target) {
+                currentTick++;
+                List<Entry> slot = wheel[(int) (currentTick % WHEEL_SIZE)];
+                List<Entry> remaining = new ArrayList<>();
+                for (Entry entry : slot) {
+                    if (entry.cancelled) {
+                        continue;
+                    }
+                    if (entry.rounds > 0) {
+                        entry.rounds--;
+                        remaining.add(entry);
+                    } else {
+                        pending.remove(entry.messageId);
+                        expired.computeIfAbsent(entry.channelId, k -> new ArrayList<>()).add(entry.messageId);
+                        writeJournal("D " + entry.messageId);
+                    }
+                }
+                wheel[(int) (currentTick % WHEEL_SIZE)] = remaining;
+            }
+            if (journalLines > pending.size() + COMPACT_THRESHOLD) {
+                compactJournal();
+            }
+        }
+
+        for (Map.Entry<String, List<String>> channel : expired.entrySet()) {
+            deleteMessages(channel.getKey(), channel.getValue());
+        }
+    }
+
+    private void deleteMessages(String channelId, List<String> messageIds) {
+        JDA jda = this.jda;
+        MessageChannel channel = jda != null ? jda.getChannelById(MessageChannel.class, channelId) : null;
+        if (channel == null) {
+            logger.debug("Dropping {} expired messages for unknown channel {}", messageIds.size(), channelId);
+            return;
+        }
+        try {
+            // Bulk deletes where the channel and permissions allow it, single deletes otherwise
+            channel.purgeMessagesById(messageIds).forEach(future ->
+                future.exceptionally(error -> null)); // Silently ignore if message already deleted
+        } catch (Exception e) {
+            logger.debug("Failed to delete expired messages in {}: {}", channelId, e.getMessage());
+        }
+    }
+
+    // ========== Journal ==========
+
+    private void replayJournal() {
+        if (!journalFile.exists()) {
+            return;
+        }
+        Map<String, Entry> entries = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(journalFile))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(" ");
+                if (parts.length == 4 && parts[0].equals("A")) {
+                    entries.put(parts[2], new Entry(parts[1], parts[2], Long.parseLong(parts[3])));
+                } else if (parts.length == 2 && parts[0].equals("D")) {
+                    entries.remove(parts[1]);
+                }
+                // Anything else is a torn last line from a crash
+            }
+        } catch (IOException | NumberFormatException e) {
+            logger.error("Failed to read message expiry journal, continuing with {} entries", entries.size(), e);
+        }
+
+        synchronized (lock) {
+            for (Entry entry : entries.values()) {
+                insert(entry);
+            }
+            compactJournal();
+        }
+        logger.info("Loaded {} pending message deletions", entries.size());
+    }
+
+    // Must hold lock
+    private void writeJournal(String line) {
+        try {
+            if (journal == null) {
+                journal = new BufferedWriter(new FileWriter(journalFile, true));
+            }
+            journal.write(line);
+            journal.newLine();
+            journal.flush();
+            journalLines++;
+        } catch (IOException e) {
+            logger.error("Failed to write message expiry journal", e);
+        }
+    }
+
+    // Must hold lock
+    private void compactJournal() {
+        closeJournal();
+        File temp = new File(DATA_DIR, JOURNAL_FILE + ".tmp");
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(temp))) {
+            for (Entry entry : pending.values()) {
+                writer.write("A " + entry.channelId + " " + entry.messageId + " " + entry.deadline);
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            logger.error("Failed to compact message expiry journal", e);
+            temp.delete();
+            return;
+        }
+        try {
+            Files.move(temp.toPath(), journalFile.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            journalLines = pending.size();
+        } catch (IOException e) {
+            logger.error("Failed to replace message expiry journal", e);
+            temp.delete();
+        }
+    }
+
+    // Must hold lock
+    private void closeJournal() {
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                logger.debug("Failed to close message expiry journal: {}", e.getMessage());
+            }
+            journal = null;
+        }
+    }
+
+    private static class Entry {
+        final String channelId;
+        final String messageId;
+        final long deadline;
+        long rounds;
+        boolean cancelled;
+
+        Entry(String channelId, String messageId, long deadline) {
+            this.channelId = channelId;
+            this.messageId = messageId;
+            this.deadline = deadline;
+        }
+    }
+}
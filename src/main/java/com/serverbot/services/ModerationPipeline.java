@@ -0,0 +1,310 @@
+package com.serverbot.services;
+
+import com.serverbot.ServerBot;
+import com.serverbot.models.ModerationAction;
+import com.serverbot.services.PunishmentNotificationService.PunishmentType;
+import com.serverbot.utils.AutoLogUtils;
+import com.serverbot.utils.PermissionUtils;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs moderation actions: validate once, apply the Discord action, then run the side effects
+ * (DM, AutoLog embed, moderation log, temp punishment and scheduled unban) off the caller's thread.
+ * The returned future completes as soon as the Discord action succeeds. DMs for bans and kicks are
+ * sent first, since the user can no longer be messaged once they share no server with the bot.
+ * Storage writes are queued and flushed together shortly afterwards, one write per file.
+ */
+public class ModerationPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModerationPipeline.class);
+    private static ModerationPipeline instance;
+
+    private static final long MAX_TIMEOUT_DAYS = 28;
+    // How long a ban/kick waits for its DM before going ahead anyway
+    private static final long PRE_ACTION_DM_TIMEOUT_MS = 3000;
+    private static final long FLUSH_DELAY_MS = 500;
+
+    private final ScheduledExecutorService executor = Executors.newScheduledThreadPool(2, r -> {
+        Thread thread = new Thread(r, "moderation-pipeline");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Queue<PendingLog> pendingLogs = new ConcurrentLinkedQueue<>();
+    private final Queue<Map.Entry<String, Map<String, Object>>> pendingTempPunishments = new ConcurrentLinkedQueue<>();
+    private final Queue<SchedulerService.ScheduledTask> pendingUnbans = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private ModerationPipeline() {
+    }
+
+    public static synchronized ModerationPipeline getInstance() {
+        if (instance == null) {
+            instance = new ModerationPipeline();
+        }
+        return instance;
+    }
+
+    /**
+     * Check that the action can be applied
+     * @return A user-facing reason it can't, or null if it is valid
+     */
+    public String validate(ModerationAction action) {
+        ModerationAction.Type type = action.getType();
+        String verb = type.getDisplayName().toLowerCase();
+        Member moderator = action.getModerator();
+        Member targetMember = action.getTargetMember();
+        Member self = action.getGuild().getSelfMember();
+
+        if (action.getTarget().getIdLong() == moderator.getIdLong()) {
+            return "You cannot " + verb + " yourself.";
+        }
+        if (action.getTarget().getIdLong() == self.getIdLong()) {
+            return "I cannot " + verb + " myself.";
+        }
+        if (type.requiresMember() && targetMember == null) {
+            return "This user is not in the server.";
+        }
+        if (type == ModerationAction.Type.WARN && action.getTarget().isBot()) {
+            return "You cannot warn bots.";
+        }
+        if (targetMember != null && !PermissionUtils.canInteractWith(moderator, targetMember)) {
+            return "You cannot " + verb + " this user due to role hierarchy.\n\n" +
+                   "Your highest role must be above the target user's highest role.";
+        }
+        if (type.getRequiredPermission() != null) {
+            if (!self.hasPermission(type.getRequiredPermission())) {
+                return "I need the **" + type.getRequiredPermission().getName() + "** permission to " + verb + " users.";
+            }
+            if (targetMember != null && !PermissionUtils.botCanInteractWith(action.getGuild(), targetMember)) {
+                return "I cannot " + verb + " this user due to role hierarchy.\n\n" +
+                       "Move my role higher than the target user's highest role.";
+            }
+        }
+        if ((type == ModerationAction.Type.MUTE || type == ModerationAction.Type.TIMEOUT) && action.getDuration() == null) {
+            return "A duration is required to " + verb + " a user.";
+        }
+        if (type == ModerationAction.Type.TIMEOUT && action.getDuration().toDays() > MAX_TIMEOUT_DAYS) {
+            return "Timeout duration cannot exceed " + MAX_TIMEOUT_DAYS + " days.";
+        }
+        return null;
+    }
+
+    /**
+     * Apply an already validated action
+     * @return Future completed once the Discord action has succeeded; side effects continue in the background
+     */
+    public CompletableFuture<ModerationAction> execute(ModerationAction action) {
+        boolean notifyFirst = action.getType().removesMember();
+        CompletableFuture<Boolean> preAction = notifyFirst
+            ? notifyTarget(action).completeOnTimeout(false, PRE_ACTION_DM_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+            : CompletableFuture.completedFuture(false);
+
+        CompletableFuture<ModerationAction> applied = preAction
+            .thenCompose(dmSent -> applyAction(action))
+            .thenApply(v -> action);
+
+        // Primary action failures are reported to the user by the caller, so nothing to do on error here
+        applied.thenAcceptAsync(a -> runSideEffects(a, !notifyFirst), executor)
+            .exceptionally(error -> null);
+        return applied;
+    }
+
+    private CompletableFuture<?> applyAction(ModerationAction action) {
+        String reason = action.getReason();
+        return switch (action.getType()) {
+            case BAN -> action.getGuild().ban(action.getTarget(), action.getDeleteMessageDays(), TimeUnit.DAYS)
+                    .reason(reason).submit();
+            case KICK -> action.getGuild().kick(action.getTargetMember()).reason(reason).submit();
+            case MUTE -> action.getMuteRole() == null
+                    ? CompletableFuture.failedFuture(new IllegalStateException("No mute role configured"))
+                    : action.getGuild().addRoleToMember(action.getTargetMember(), action.getMuteRole()).reason(reason).submit();
+            case TIMEOUT -> action.getTargetMember().timeoutFor(action.getDuration()).reason(reason).submit();
+            // Warnings only exist in bot storage, so recording one is the primary action
+            case WARN -> CompletableFuture.runAsync(() -> ServerBot.getStorageManager().addWarning(
+                    action.getGuild().getId(), action.getTarget().getId(), reason, action.getModerator().getId()), executor);
+        };
+    }
+
+    private CompletableFuture<Boolean> notifyTarget(ModerationAction action) {
+        PunishmentType type = PunishmentType.valueOf(action.getType().name());
+        return PunishmentNotificationService.getInstance().sendPunishmentNotification(
+                action.getGuild().getId(),
+                action.getTarget().getId(),
+                type,
+                action.getReason(),
+                action.getDuration(),
+                action.getModerator().getEffectiveName()
+            ).exceptionally(error -> false);
+    }
+
+    private void runSideEffects(ModerationAction action, boolean notify) {
+        if (notify) {
+            notifyTarget(action);
+        }
+
+        try {
+            logToAutoLog(action);
+        } catch (Exception e) {
+            logger.warn("Failed to send AutoLog entry for {}: {}", action.getType(), e.getMessage());
+        }
+
+        queueStorage(action);
+    }
+
+    private void logToAutoLog(ModerationAction action) {
+        Guild guild = action.getGuild();
+        User target = action.getTarget();
+        User moderator = action.getModerator().getUser();
+        String reason = action.getReason();
+        Duration duration = action.getDuration();
+        switch (action.getType()) {
+            case BAN -> AutoLogUtils.logBan(guild, target, moderator, reason, duration);
+            case KICK -> AutoLogUtils.logKick(guild, target, moderator, reason);
+            case MUTE -> AutoLogUtils.logMute(guild, target, moderator, reason, duration);
+            case TIMEOUT -> AutoLogUtils.logTimeout(guild, target, moderator, reason, duration);
+            case WARN -> AutoLogUtils.logWarn(guild, target, moderator, reason);
+        }
+    }
+
+    /**
+     * Queue the storage records for an action and make sure a flush is scheduled
+     */
+    private void queueStorage(ModerationAction action) {
+        String guildId = action.getGuild().getId();
+        String userId = action.getTarget().getId();
+        String moderatorId = action.getModerator().getId();
+        long now = System.currentTimeMillis();
+        Duration duration = action.getDuration();
+
+        // Warnings are already stored by the primary action
+        if (action.getType() != ModerationAction.Type.WARN) {
+            Map<String, Object> logEntry = new HashMap<>();
+            logEntry.put("type", action.getType().name());
+            logEntry.put("userId", userId);
+            logEntry.put("moderatorId", moderatorId);
+            logEntry.put("reason", action.getReason());
+            if (action.getType() != ModerationAction.Type.KICK) {
+                logEntry.put("duration", duration != null ? duration.toString() : "PERMANENT");
+            }
+            logEntry.put("timestamp", now);
+            pendingLogs.add(new PendingLog(guildId, logEntry));
+        }
+
+        boolean temporary = duration != null
+            && (action.getType() == ModerationAction.Type.BAN || action.getType() == ModerationAction.Type.MUTE);
+        if (temporary) {
+            long expiresAt = now + duration.toMillis();
+            Map<String, Object> tempPunishment = new HashMap<>();
+            tempPunishment.put("guildId", guildId);
+            tempPunishment.put("userId", userId);
+            tempPunishment.put("punishmentType", action.getType().name());
+            tempPunishment.put("expiresAt", expiresAt);
+            tempPunishment.put("moderatorId", moderatorId);
+            tempPunishment.put("reason", action.getReason());
+            tempPunishment.put("createdAt", now);
+            String key = guildId + ":" + userId + ":" + action.getType().name() + ":" + now;
+            pendingTempPunishments.add(Map.entry(key, tempPunishment));
+
+            if (action.getType() == ModerationAction.Type.BAN) {
+                pendingUnbans.add(SchedulerService.ScheduledTask.unban(guildId, userId, action.getReason(), expiresAt));
+            }
+        }
+
+        if (flushScheduled.compareAndSet(false, true)) {
+            try {
+                executor.schedule(this::flush, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // Shutting down; the final flush in shutdown() writes these records
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Write everything queued so far, one write per storage file
+     */
+    public synchronized void flush() {
+        flushScheduled.set(false);
+        try {
+            Map<String, List<Map<String, Object>>> logsByGuild = new LinkedHashMap<>();
+            PendingLog log;
+            while ((log = pendingLogs.poll()) != null) {
+                logsByGuild.computeIfAbsent(log.guildId, k -> new ArrayList<>()).add(log.entry);
+            }
+            for (Map.Entry<String, List<Map<String, Object>>> entry : logsByGuild.entrySet()) {
+                ServerBot.getStorageManager().addModerationLogs(entry.getKey(), entry.getValue());
+            }
+
+            Map<String, Map<String, Object>> tempPunishments = new LinkedHashMap<>();
+            Map.Entry<String, Map<String, Object>> punishment;
+            while ((punishment = pendingTempPunishments.poll()) != null) {
+                tempPunishments.put(punishment.getKey(), punishment.getValue());
+            }
+            ServerBot.getStorageManager().storeTempPunishments(tempPunishments);
+
+            List<SchedulerService.ScheduledTask> unbans = new ArrayList<>();
+            SchedulerService.ScheduledTask task;
+            while ((task = pendingUnbans.poll()) != null) {
+                unbans.add(task);
+            }
+            SchedulerService.getInstance().addScheduledTasks(unbans);
+        } catch (Exception e) {
+            logger.error("Failed to flush moderation records", e);
+        }
+    }
+
+    /**
+     * Get the underlying failure from a future's completion exception
+     */
+    public static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * Flush queued records, let running side effects finish, then flush whatever they queued
+     */
+    public void shutdown() {
+        flush();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private static final class PendingLog {
+        final String guildId;
+        final Map<String, Object> entry;
+
+        PendingLog(String guildId, Map<String, Object> entry) {
+            this.guildId = guildId;
+            this.entry = entry;
+        }
+    }
+}
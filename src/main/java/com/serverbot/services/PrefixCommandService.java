@@ -8,6 +8,7 @@ import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.interactions.components.buttons.Button;
 import com.serverbot.utils.EmbedUtils;
+import com.serverbot.utils.AvatarCacheManager;
 import com.serverbot.utils.CustomEmojis;
 import com.serverbot.utils.PermissionManager;
 import com.serverbot.utils.AutoLogUtils;
@@ -17,8 +18,7 @@ import com.serverbot.commands.SlashCommand;
 import com.serverbot.ServerBot;
 import com.serverbot.models.ProxySettings;
 import com.serverbot.models.ProxyMember;
-import com.serverbot.services.PunishmentNotificationService;
-import com.serverbot.services.PunishmentNotificationService.PunishmentType;
+import com.serverbot.models.ModerationAction;
 
 import java.time.Duration;
 import java.time.LocalDate;
@@ -1178,68 +1178,38 @@ public class PrefixCommandService {
             return;
         }
 
-        Member targetMember = event.getGuild().getMember(targetUser);
-        if (targetMember == null) {
-            DismissibleMessage.sendError(event.getChannel(),
-                "User Not Found", "This user is not in the server!",
-                event.getAuthor().getId()
-            );
+        String reason = options.get("reason");
+        ModerationAction action = ModerationAction.builder(ModerationAction.Type.WARN, event.getGuild(), targetUser, moderator)
+                .reason(reason)
+                .build();
+        String validationError = ModerationPipeline.getInstance().validate(action);
+        if (validationError != null) {
+            DismissibleMessage.sendError(event.getChannel(), "Cannot Warn", validationError, event.getAuthor().getId());
             return;
         }
 
-        if (targetUser.isBot()) {
-            DismissibleMessage.sendError(event.getChannel(),
-                "Invalid Target", "You cannot warn bots!",
-                event.getAuthor().getId()
-            );
-            return;
-        }
+        // DM and logging are handled by the pipeline once the warning is stored
+        User warnedUser = targetUser;
+        ModerationPipeline.getInstance().execute(action).whenComplete((result, error) -> {
+            if (error != null) {
+                DismissibleMessage.sendError(event.getChannel(),
+                    "Warn Failed", "Failed to warn user: " + ModerationPipeline.unwrap(error).getMessage(),
+                    event.getAuthor().getId()
+                );
+                return;
+            }
 
-        // Check if the moderator can interact with the target
-        if (!canInteractWith(moderator, targetMember)) {
-            DismissibleMessage.sendError(event.getChannel(),
-                "Cannot Warn", "You cannot warn this user due to role hierarchy!",
-                event.getAuthor().getId()
+            int warningCount = ServerBot.getStorageManager().getWarningCount(event.getGuild().getId(), warnedUser.getId());
+            String description = String.format(
+                "**User:** %s (%s)\n" +
+                "**Reason:** %s\n" +
+                "**Warning Count:** %d\n" +
+                "**Moderator:** %s",
+                warnedUser.getName(), warnedUser.getId(),
+                action.getReason(), warningCount, event.getAuthor().getName()
             );
-            return;
-        }
-
-        String reason = options.get("reason");
-        if (reason == null || reason.trim().isEmpty()) {
-            reason = "No reason provided";
-        }
-
-        // Add the warning
-        String guildId = event.getGuild().getId();
-        String userId = targetUser.getId();
-        String moderatorId = event.getAuthor().getId();
-
-        ServerBot.getStorageManager().addWarning(guildId, userId, reason, moderatorId);
-        int warningCount = ServerBot.getStorageManager().getWarningCount(guildId, userId);
-
-        String description = String.format(
-            "**User:** %s (%s)\n" +
-            "**Reason:** %s\n" +
-            "**Warning Count:** %d\n" +
-            "**Moderator:** %s",
-            targetUser.getName(), targetUser.getId(),
-            reason, warningCount, event.getAuthor().getName()
-        );
-
-        DismissibleMessage.sendSuccess(event.getChannel(), "User Warned", description, event.getAuthor().getId());
-
-        // Send DM notification if configured
-        PunishmentNotificationService.getInstance().sendPunishmentNotification(
-            event.getGuild().getId(),
-            targetUser.getId(),
-            PunishmentType.WARN,
-            reason,
-            null, // No duration for warnings
-            event.getMember().getEffectiveName()
-        );
-
-        // Log to AutoLog channel
-        AutoLogUtils.logWarn(event.getGuild(), targetUser, event.getAuthor(), reason);
+            DismissibleMessage.sendSuccess(event.getChannel(), "User Warned", description, event.getAuthor().getId());
+        });
     }
 
     /**
@@ -1276,27 +1246,6 @@ public class PrefixCommandService {
         User targetUser = parseUserMention(event, userArg);
         if (targetUser == null) return;
 
-        Member targetMember = event.getGuild().getMember(targetUser);
-
-        // Check permissions if member exists
-        if (targetMember != null) {
-            if (!canInteractWith(moderator, targetMember)) {
-                DismissibleMessage.sendError(event.getChannel(),
-                    "Cannot Ban User", "You cannot ban this user due to role hierarchy.",
-                    event.getAuthor().getId()
-                );
-                return;
-            }
-
-            if (!event.getGuild().getSelfMember().canInteract(targetMember)) {
-                DismissibleMessage.sendError(event.getChannel(),
-                    "Cannot Ban User", "I cannot ban this user due to role hierarchy.",
-                    event.getAuthor().getId()
-                );
-                return;
-            }
-        }
-
         String durationStr = options.get("duration");
         final String finalReason;
         String tempReason = options.get("reason");
@@ -1320,27 +1269,33 @@ public class PrefixCommandService {
             banDuration = null;
         }
 
-        // Execute ban
-        event.getGuild().ban(targetUser, 7, TimeUnit.DAYS).reason(finalReason)
-                .queue(success -> {
-                    String durationText = banDuration != null ? TimeUtils.formatDuration(banDuration) : "Permanent";
-                    DismissibleMessage.send(event.getChannel(),
-                        EmbedUtils.createModerationEmbed(
-                            "User Banned", targetUser, moderator.getUser(), finalReason + "\n**Duration:** " + durationText
-                        ),
-                        moderator.getId()
-                    );
+        ModerationAction action = ModerationAction.builder(ModerationAction.Type.BAN, event.getGuild(), targetUser, moderator)
+                .reason(finalReason)
+                .duration(banDuration)
+                .build();
+        String validationError = ModerationPipeline.getInstance().validate(action);
+        if (validationError != null) {
+            DismissibleMessage.sendError(event.getChannel(), "Cannot Ban User", validationError, event.getAuthor().getId());
+            return;
+        }
 
-                    // Send DM notification if configured
-                    PunishmentNotificationService.getInstance().sendPunishmentNotification(
-                        event.getGuild().getId(),
-                        targetUser.getId(),
-                        PunishmentType.BAN,
-                        finalReason,
-                        banDuration,
-                        moderator.getEffectiveName()
-                    );
-                });
+        // DM, logging and unban scheduling are handled by the pipeline once the ban succeeds
+        ModerationPipeline.getInstance().execute(action).whenComplete((result, error) -> {
+            if (error != null) {
+                DismissibleMessage.sendError(event.getChannel(),
+                    "Ban Failed", "Failed to ban user: " + ModerationPipeline.unwrap(error).getMessage(),
+                    event.getAuthor().getId()
+                );
+                return;
+            }
+            String durationText = banDuration != null ? TimeUtils.formatDuration(banDuration) : "Permanent";
+            DismissibleMessage.send(event.getChannel(),
+                EmbedUtils.createModerationEmbed(
+                    "User Banned", targetUser, moderator.getUser(), finalReason + "\n**Duration:** " + durationText
+                ),
+                moderator.getId()
+            );
+        });
     }
 
     /**
@@ -1376,59 +1331,31 @@ public class PrefixCommandService {
         User targetUser = parseUserMention(event, userArg);
         if (targetUser == null) return;
 
-        Member targetMember = event.getGuild().getMember(targetUser);
-        if (targetMember == null) {
-            DismissibleMessage.sendError(event.getChannel(),
-                "User Not Found", "This user is not in the server!",
-                event.getAuthor().getId()
-            );
+        ModerationAction action = ModerationAction.builder(ModerationAction.Type.KICK, event.getGuild(), targetUser, moderator)
+                .reason(options.get("reason"))
+                .build();
+        String validationError = ModerationPipeline.getInstance().validate(action);
+        if (validationError != null) {
+            DismissibleMessage.sendError(event.getChannel(), "Cannot Kick User", validationError, event.getAuthor().getId());
             return;
         }
 
-        if (!canInteractWith(moderator, targetMember)) {
-            DismissibleMessage.sendError(event.getChannel(),
-                "Cannot Kick User", "You cannot kick this user due to role hierarchy.",
-                event.getAuthor().getId()
-            );
-            return;
-        }
-
-        if (!event.getGuild().getSelfMember().canInteract(targetMember)) {
-            DismissibleMessage.sendError(event.getChannel(),
-                "Cannot Kick User", "I cannot kick this user due to role hierarchy.",
-                event.getAuthor().getId()
+        // DM and logging are handled by the pipeline once the kick succeeds
+        ModerationPipeline.getInstance().execute(action).whenComplete((result, error) -> {
+            if (error != null) {
+                DismissibleMessage.sendError(event.getChannel(),
+                    "Kick Failed", "Failed to kick user: " + ModerationPipeline.unwrap(error).getMessage(),
+                    event.getAuthor().getId()
+                );
+                return;
+            }
+            DismissibleMessage.send(event.getChannel(),
+                EmbedUtils.createModerationEmbed(
+                    "User Kicked", targetUser, moderator.getUser(), action.getReason()
+                ),
+                moderator.getId()
             );
-            return;
-        }
-
-        final String finalReason;
-        String tempReason = options.get("reason");
-        if (tempReason == null || tempReason.trim().isEmpty()) {
-            finalReason = "No reason provided";
-        } else {
-            finalReason = tempReason;
-        }
-
-        // Execute kick
-        event.getGuild().kick(targetMember).reason(finalReason)
-                .queue(success -> {
-                    DismissibleMessage.send(event.getChannel(),
-                        EmbedUtils.createModerationEmbed(
-                            "User Kicked", targetUser, moderator.getUser(), finalReason
-                        ),
-                        moderator.getId()
-                    );
-
-                    // Send DM notification if configured
-                    PunishmentNotificationService.getInstance().sendPunishmentNotification(
-                        event.getGuild().getId(),
-                        targetUser.getId(),
-                        PunishmentType.KICK,
-                        finalReason,
-                        null,
-                        moderator.getEffectiveName()
-                    );
-                });
+        });
     }
 
     /**
@@ -1475,14 +1402,23 @@ public class PrefixCommandService {
         embed.addField("📊 Bot Statistics",
                 "**Servers:** " + jda.getGuilds().size() + "\n" +
                 "**Users:** " + jda.getUsers().size() + "\n" +
-                "**Commands:** " + commandManager.getAllCommands().size(),
+                "**Commands:** " + commandManager.getAllCommands().size() + "\n" +
+                "**Pending Auto-Deletes:** " + MessageExpiryService.getInstance().getPendingCount() + "\n" +
+                "**Proxy Filter:** " + (ServerBot.getProxyService() != null
+                        ? ServerBot.getProxyService().getEligibility().describeStats() : "Disabled") + "\n" +
+                "**Proxy Latency:** " + (ServerBot.getProxyService() != null
+                        ? ServerBot.getProxyService().describeProxyStats() : "Disabled"),
                 true);
 
         // Technical Info
         embed.addField(CustomEmojis.SETTING + " Technical Info",
                 "**Uptime:** " + uptime + "\n" +
                 "**Memory:** " + memoryUsed + "/" + memoryTotal + " MB\n" +
-                "**Java:** " + System.getProperty("java.version"),
+                "**Java:** " + System.getProperty("java.version") + "\n" +
+                "**Avatar Cache:** " + AvatarCacheManager.describeStats() + "\n" +
+                "**Webhooks:** " + WebhookPool.getInstance().describeStats() + "\n" +
+                "**Relay Map:** " + (ServerBot.getGlobalChatService() != null
+                        ? ServerBot.getGlobalChatService().describeRelayStats() : "Disabled"),
                 true);
 
         // Additional Info
@@ -1684,13 +1620,6 @@ public class PrefixCommandService {
         }
     }
 
-    /**
-     * Check if moderator can interact with target member
-     */
-    private boolean canInteractWith(Member moderator, Member target) {
-        return moderator.canInteract(target);
-    }
-
     /**
      * Handle daily command with prefix syntax
      */
@@ -2542,7 +2471,8 @@ public class PrefixCommandService {
                 if (messages.isEmpty()) {
                     event.getChannel().sendMessageEmbeds(EmbedUtils.createErrorEmbed(
                         "No Messages", "No messages found to delete."
-                    )).queue(msg -> msg.delete().queueAfter(5, TimeUnit.SECONDS));
+                    )).queue(msg -> MessageExpiryService.getInstance()
+                        .schedule(msg.getChannel().getId(), msg.getId(), 5, TimeUnit.SECONDS));
                     return;
                 }
 
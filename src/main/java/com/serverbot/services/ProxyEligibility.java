@@ -0,0 +1,158 @@
+package com.serverbot.services;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resident set of (user, scope) pairs that could be proxied, checked on the gateway thread before any
+ * proxy work is scheduled. A scope is a guild ID, or 0 for global members and DM settings.
+ * Pairs are stored as mixed 64-bit keys in an open-addressing table, so a lookup is a hash and a few
+ * array reads with no boxing. Collisions only let an extra message through to the full check; a user
+ * who can proxy is never filtered out.
+ * Writers are serialized; readers never lock.
+ */
+public final class ProxyEligibility {
+
+    private static final long EMPTY = 0L;
+    private static final int MIN_CAPACITY = 64;
+
+    private volatile AtomicLongArray table = new AtomicLongArray(MIN_CAPACITY);
+    private int size;
+
+    private final LongAdder checked = new LongAdder();
+    private final LongAdder filtered = new LongAdder();
+
+    /**
+     * Whether a message from this user in this guild needs the full proxy check
+     * @param guildId Guild ID, or 0 for DMs
+     */
+    public boolean mightProxy(long userId, long guildId) {
+        checked.increment();
+        AtomicLongArray t = table;
+        if (contains(t, key(userId, 0)) || (guildId != 0 && contains(t, key(userId, guildId)))) {
+            return true;
+        }
+        filtered.increment();
+        return false;
+    }
+
+    /**
+     * @param guildId Guild ID, or 0 for global
+     */
+    public synchronized void add(long userId, long guildId) {
+        if ((size + 1) * 2 > table.length()) {
+            table = copy(table, table.length() * 2);
+        }
+        if (insert(table, key(userId, guildId))) {
+            size++;
+        }
+    }
+
+    /**
+     * Swap in a freshly built set, used when pairs are removed
+     */
+    public synchronized void replace(Builder builder) {
+        table = builder.table;
+        size = builder.size;
+    }
+
+    public long getChecked() {
+        return checked.sum();
+    }
+
+    public long getFiltered() {
+        return filtered.sum();
+    }
+
+    /**
+     * Share of checked messages that skipped the proxy path, e.g. "98.2% of 10,421 skipped"
+     */
+    public String describeStats() {
+        long total = getChecked();
+        if (total == 0) {
+            return "No messages checked";
+        }
+        return String.format("%.1f%% of %,d skipped", getFiltered() * 100.0 / total, total);
+    }
+
+    /**
+     * Collects pairs off to the side for {@link #replace}
+     */
+    public static final class Builder {
+        private AtomicLongArray table = new AtomicLongArray(MIN_CAPACITY);
+        private int size;
+
+        public Builder add(long userId, long guildId) {
+            if ((size + 1) * 2 > table.length()) {
+                table = copy(table, table.length() * 2);
+            }
+            if (insert(table, key(userId, guildId))) {
+                size++;
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Numeric form of a stored user or guild ID; null and placeholders such as "DM" or "global" map to 0, the global scope
+     */
+    public static long parseId(String id) {
+        if (id == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static long key(long userId, long guildId) {
+        // Murmur3 finalizer over both IDs; EMPTY marks free slots so it is never a key
+        long h = userId * 0x9E3779B97F4A7C15L + guildId;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h == EMPTY ? 1 : h;
+    }
+
+    private static boolean contains(AtomicLongArray t, long key) {
+        int mask = t.length() - 1;
+        for (int i = (int) key & mask; ; i = (i + 1) & mask) {
+            long slot = t.get(i);
+            if (slot == key) {
+                return true;
+            }
+            if (slot == EMPTY) {
+                return false;
+            }
+        }
+    }
+
+    private static boolean insert(AtomicLongArray t, long key) {
+        int mask = t.length() - 1;
+        for (int i = (int) key & mask; ; i = (i + 1) & mask) {
+            long slot = t.get(i);
+            if (slot == key) {
+                return false;
+            }
+            if (slot == EMPTY) {
+                t.set(i, key);
+                return true;
+            }
+        }
+    }
+
+    private static AtomicLongArray copy(AtomicLongArray from, int capacity) {
+        AtomicLongArray to = new AtomicLongArray(capacity);
+        for (int i = 0; i < from.length(); i++) {
+            long key = from.get(i);
+            if (key != EMPTY) {
+                insert(to, key);
+            }
+        }
+        return to;
+    }
+}
@@ -0,0 +1,336 @@
+package com.serverbot.services;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+import com.serverbot.models.ProxyMember.ProxyTag;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads PluralKit and Tupperbox system exports.
+ * The top level is streamed and anything besides members and groups (switch history, message logs)
+ * is skipped without being parsed, so export size is dominated by the skipped parts rather than memory.
+ * Only one member or group is held as a JSON tree at a time.
+ */
+public final class ProxyImporter {
+
+    public static final int MAX_MEMBERS = 5000;
+    public static final int MAX_GROUPS = 500;
+    private static final Pattern HEX_COLOR = Pattern.compile("#?([0-9a-fA-F]{6})");
+
+    public enum Format {
+        PLURALKIT("PluralKit"),
+        TUPPERBOX("Tupperbox");
+
+        private final String displayName;
+
+        Format(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    private ProxyImporter() {
+    }
+
+    /**
+     * Parse an export, closing the stream when done
+     * @throws IllegalArgumentException If the file isn't a PluralKit or Tupperbox export, or is too large
+     */
+    public static ImportedSystem parse(InputStream input) throws IOException {
+        try (JsonReader reader = new JsonReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                throw new IllegalArgumentException("The file is not a JSON object.");
+            }
+            ImportedSystem system = new ImportedSystem();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                switch (name) {
+                    case "members":
+                        system.format = Format.PLURALKIT;
+                        readArray(reader, MAX_MEMBERS, "members", json -> system.members.add(pluralKitMember(json)));
+                        break;
+                    case "tuppers":
+                        system.format = Format.TUPPERBOX;
+                        readArray(reader, MAX_MEMBERS, "members", json -> system.members.add(tupperboxMember(json)));
+                        break;
+                    case "groups":
+                        // Both formats use "groups"; the shapes differ only in how membership is stored
+                        readArray(reader, MAX_GROUPS, "groups", json -> system.groups.add(group(json)));
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+            if (system.format == null) {
+                throw new IllegalArgumentException("This doesn't look like a PluralKit or Tupperbox export.");
+            }
+            return system;
+        } catch (JsonParseException | IllegalStateException | MalformedJsonException | EOFException e) {
+            throw new IllegalArgumentException("The export file is not valid JSON: " + e.getMessage(), e);
+        }
+    }
+
+    private static void readArray(JsonReader reader, int limit, String what, ElementHandler handler) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.skipValue();
+            return;
+        }
+        reader.beginArray();
+        int count = 0;
+        while (reader.hasNext()) {
+            if (++count > limit) {
+                throw new IllegalArgumentException("The export has more than " + limit + " " + what + ".");
+            }
+            JsonElement element = JsonParser.parseReader(reader);
+            if (element.isJsonObject()) {
+                handler.accept(element.getAsJsonObject());
+            }
+        }
+        reader.endArray();
+    }
+
+    private static ImportedMember pluralKitMember(JsonObject json) {
+        ImportedMember member = new ImportedMember();
+        member.sourceId = string(json, "id");
+        member.sourceUuid = string(json, "uuid");
+        member.name = string(json, "name");
+        member.displayName = string(json, "display_name");
+        member.pronouns = string(json, "pronouns");
+        // The webhook avatar is the one PluralKit shows on proxied messages
+        member.avatarUrl = string(json, "webhook_avatar_url") != null ? string(json, "webhook_avatar_url") : string(json, "avatar_url");
+        member.description = string(json, "description");
+        member.color = normalizeColor(string(json, "color"));
+        member.keepProxy = json.has("keep_proxy") && json.get("keep_proxy").isJsonPrimitive() && json.get("keep_proxy").getAsBoolean();
+        if (json.has("proxy_tags") && json.get("proxy_tags").isJsonArray()) {
+            for (JsonElement tag : json.getAsJsonArray("proxy_tags")) {
+                if (tag.isJsonObject()) {
+                    addTag(member, string(tag.getAsJsonObject(), "prefix"), string(tag.getAsJsonObject(), "suffix"));
+                }
+            }
+        }
+        return member;
+    }
+
+    private static ImportedMember tupperboxMember(JsonObject json) {
+        ImportedMember member = new ImportedMember();
+        member.sourceId = string(json, "id");
+        member.name = string(json, "name");
+        member.displayName = string(json, "nick");
+        member.avatarUrl = string(json, "avatar_url");
+        member.description = string(json, "description");
+        member.keepProxy = json.has("show_brackets") && json.get("show_brackets").isJsonPrimitive() && json.get("show_brackets").getAsBoolean();
+        String groupId = string(json, "group_id");
+        if (groupId != null) {
+            member.sourceGroupIds.add(groupId);
+        }
+        // Brackets are a flat list of prefix, suffix pairs
+        if (json.has("brackets") && json.get("brackets").isJsonArray()) {
+            JsonArray brackets = json.getAsJsonArray("brackets");
+            for (int i = 0; i + 1 < brackets.size(); i += 2) {
+                addTag(member, primitive(brackets.get(i)), primitive(brackets.get(i + 1)));
+            }
+        }
+        return member;
+    }
+
+    private static ImportedGroup group(JsonObject json) {
+        ImportedGroup group = new ImportedGroup();
+        group.sourceId = string(json, "id");
+        group.sourceUuid = string(json, "uuid");
+        group.name = string(json, "name");
+        group.displayName = string(json, "display_name");
+        group.description = string(json, "description");
+        group.iconUrl = string(json, "icon");
+        group.color = normalizeColor(string(json, "color"));
+        // PluralKit lists members on the group; Tupperbox puts the group on the member instead
+        if (json.has("members") && json.get("members").isJsonArray()) {
+            for (JsonElement id : json.getAsJsonArray("members")) {
+                String memberId = primitive(id);
+                if (memberId != null) {
+                    group.sourceMemberIds.add(memberId);
+                }
+            }
+        }
+        return group;
+    }
+
+    private static void addTag(ImportedMember member, String prefix, String suffix) {
+        prefix = prefix != null ? prefix : "";
+        suffix = suffix != null ? suffix : "";
+        if (!prefix.isEmpty() || !suffix.isEmpty()) {
+            member.tags.add(new ProxyTag(prefix, suffix));
+        }
+    }
+
+    /**
+     * Normalize a hex colour such as PluralKit's "ff00ff" or "#FF00FF" to "#ff00ff"
+     * @return The colour, or null if the value isn't six hex digits
+     */
+    public static String normalizeColor(String value) {
+        if (value == null) {
+            return null;
+        }
+        Matcher matcher = HEX_COLOR.matcher(value.trim());
+        return matcher.matches() ? "#" + matcher.group(1).toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static String string(JsonObject json, String key) {
+        return json.has(key) ? primitive(json.get(key)) : null;
+    }
+
+    private static String primitive(JsonElement element) {
+        if (element == null || !element.isJsonPrimitive()) {
+            return null;
+        }
+        String value = element.getAsString();
+        return value.isEmpty() ? null : value;
+    }
+
+    @FunctionalInterface
+    private interface ElementHandler {
+        void accept(JsonObject json);
+    }
+
+    /**
+     * Members and groups read from an export, still keyed by the source system's IDs
+     */
+    public static final class ImportedSystem {
+        private Format format;
+        private final List<ImportedMember> members = new ArrayList<>();
+        private final List<ImportedGroup> groups = new ArrayList<>();
+
+        public Format getFormat() {
+            return format;
+        }
+
+        public List<ImportedMember> getMembers() {
+            return members;
+        }
+
+        public List<ImportedGroup> getGroups() {
+            return groups;
+        }
+    }
+
+    public static final class ImportedMember {
+        private String sourceId;
+        private String sourceUuid;
+        private String name;
+        private String displayName;
+        private String pronouns;
+        private String avatarUrl;
+        private String description;
+        private String color;
+        private boolean keepProxy;
+        private final List<ProxyTag> tags = new ArrayList<>();
+        private final List<String> sourceGroupIds = new ArrayList<>();
+
+        public String getSourceId() {
+            return sourceId;
+        }
+
+        public String getSourceUuid() {
+            return sourceUuid;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        public String getPronouns() {
+            return pronouns;
+        }
+
+        public String getAvatarUrl() {
+            return avatarUrl;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public String getColor() {
+            return color;
+        }
+
+        public boolean isKeepProxy() {
+            return keepProxy;
+        }
+
+        public List<ProxyTag> getTags() {
+            return tags;
+        }
+
+        public List<String> getSourceGroupIds() {
+            return sourceGroupIds;
+        }
+    }
+
+    public static final class ImportedGroup {
+        private String sourceId;
+        private String sourceUuid;
+        private String name;
+        private String displayName;
+        private String description;
+        private String iconUrl;
+        private String color;
+        private final List<String> sourceMemberIds = new ArrayList<>();
+
+        public String getSourceId() {
+            return sourceId;
+        }
+
+        public String getSourceUuid() {
+            return sourceUuid;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public String getIconUrl() {
+            return iconUrl;
+        }
+
+        public String getColor() {
+            return color;
+        }
+
+        public List<String> getSourceMemberIds() {
+            return sourceMemberIds;
+        }
+    }
+}
@@ -6,12 +6,22 @@ import com.serverbot.ServerBot;
 import com.serverbot.models.ProxyGroup;
 import com.serverbot.models.ProxyMember;
 import com.serverbot.models.ProxySettings;
+import com.serverbot.storage.ProxiedMessageStore;
+import com.serverbot.storage.UserDataIndex;
+import com.serverbot.storage.UserDataStore;
+import com.serverbot.storage.WriteBehindQueue;
 import com.serverbot.utils.AvatarCacheManager;
+import com.serverbot.utils.BotConfig;
 import com.serverbot.utils.CustomEmojis;
+import com.serverbot.utils.DismissibleMessage;
+import com.serverbot.utils.EmbedUtils;
+import com.serverbot.utils.LatencyRecorder;
 import net.dv8tion.jda.api.entities.*;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
-import net.dv8tion.jda.api.entities.Webhook;
+import net.dv8tion.jda.api.requests.RestAction;
 import net.dv8tion.jda.api.utils.FileUpload;
+import net.dv8tion.jda.api.utils.messages.MessageCreateBuilder;
+import net.dv8tion.jda.api.utils.messages.MessageCreateData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,11 +29,24 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Type;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -38,14 +61,33 @@ public class ProxyService {
     private static final String GROUPS_FILE = "groups.json";
     private static final String SETTINGS_FILE = "settings.json";
     private static final String PROXIED_MESSAGES_FILE = "proxied_messages.json";
+    private static final String PROXIED_MESSAGES_DIR = "proxied_messages";
+    private static final int DEFAULT_RETENTION_DAYS = 30;
+    private static final String GLOBAL_SCOPE = "*";
+    private static final int PROXY_QUEUE_SIZE = 1000;
+    private static final long SAVE_DELAY_MS = 2000;
+    // Seconds before the "not proxied" notice about attachments removes itself
+    private static final int ATTACHMENT_NOTICE_SECONDS = 30;
+    
+    // Store names in the user data index
+    private static final String STORE_MEMBERS = "proxy_members";
+    private static final String STORE_GROUPS = "proxy_groups";
+    private static final String STORE_SETTINGS = "proxy_settings";
+    private static final String STORE_PROXIED_MESSAGES = "proxied_messages";
     
     private final Gson gson;
     private final Map<String, ProxyMember> members; // memberId -> ProxyMember
+    private final Map<String, Set<String>> membersByOwner; // ownerId -> memberIds
+    private final Map<String, Map<String, OwnerScope>> ownerScopes; // ownerId -> guildId or GLOBAL_SCOPE -> compiled members
+    private final ProxyEligibility eligibility; // (userId, guild) pairs with tagged members or autoproxy
     private final Map<String, ProxyGroup> groups; // groupId -> ProxyGroup
     private final Map<String, ProxySettings> userSettings; // userId:guildId -> ProxySettings
-    private final Map<String, ProxiedMessageData> proxiedMessages; // proxyMessageId -> original message data
-    private final Map<String, Webhook> channelWebhooks; // channelId -> Webhook
+    private final ProxiedMessageStore proxiedMessages; // proxyMessageId -> original message data, by day
     private final Set<String> originalMessagesBeingProxied; // Track original messages being deleted during proxy
+    private final ExecutorService proxyExecutor; // Tag matching; bounded so a flood drops messages instead of piling up
+    private final WriteBehindQueue writeBehind; // All file writes, off the proxy and JDA threads
+    private final LatencyRecorder proxyLatency = new LatencyRecorder();
+    private final LongAdder droppedProxies = new LongAdder();
     
     public ProxyService() {
         // Create Gson with custom Instant adapter for Java 17+ module compatibility
@@ -66,11 +108,26 @@ public class ProxyService {
                 })
                 .create();
         this.members = new ConcurrentHashMap<>();
+        this.membersByOwner = new ConcurrentHashMap<>();
+        this.ownerScopes = new ConcurrentHashMap<>();
+        this.eligibility = new ProxyEligibility();
         this.groups = new ConcurrentHashMap<>();
         this.userSettings = new ConcurrentHashMap<>();
-        this.proxiedMessages = new ConcurrentHashMap<>();
-        this.channelWebhooks = new ConcurrentHashMap<>();
+        BotConfig config = ServerBot.getConfigManager() != null ? ServerBot.getConfigManager().getConfig() : null;
+        this.proxiedMessages = new ProxiedMessageStore(new File(PROXY_DATA_DIR, PROXIED_MESSAGES_DIR),
+                config != null ? config.getProxyMessageRetentionDays() : DEFAULT_RETENTION_DAYS);
         this.originalMessagesBeingProxied = ConcurrentHashMap.newKeySet();
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(PROXY_QUEUE_SIZE), r -> {
+                    Thread thread = new Thread(r, "proxy-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        this.proxyExecutor = executor;
+        this.writeBehind = new WriteBehindQueue("proxy-writer", SAVE_DELAY_MS);
         
         // Create data directory
         new File(PROXY_DATA_DIR).mkdirs();
@@ -79,7 +136,9 @@ public class ProxyService {
         loadMembers();
         loadGroups();
         loadSettings();
+        rebuildEligibility();
         loadProxiedMessages();
+        registerUserData();
     }
     
     // ========== Member Management ==========
@@ -107,10 +166,9 @@ public class ProxyService {
                     member.setDisplayName(displayName);
                 }
                 if (avatarUrl != null) {
-                    // Cache the avatar to prevent CDN link expiration
-                    String cachedUrl = AvatarCacheManager.cacheAvatar(avatarUrl);
-                    member.setAvatarUrl(cachedUrl);
+                    member.setAvatarUrl(avatarUrl);
                     member.setOriginalAvatarUrl(avatarUrl); // Keep original for webhooks
+                    cacheMemberAvatar(member, avatarUrl);
                 }
                 
                 // Add proxy tag if provided
@@ -119,8 +177,9 @@ public class ProxyService {
                 }
                 
                 // Save member
-                members.put(memberId, member);
+                putMember(member);
                 saveMembers();
+                UserDataIndex.getInstance().add(ownerId, STORE_MEMBERS, memberId);
                 
                 return memberId;
                 
@@ -131,6 +190,131 @@ public class ProxyService {
         });
     }
     
+    /**
+     * Import a PluralKit or Tupperbox export as global members and groups.
+     * Members whose name the owner already uses are skipped but still join their imported groups.
+     * Everything is saved in one write at the end, and avatars are cached in the background.
+     * @param export The export file, closed once read
+     * @return Future failing with IllegalArgumentException if the file can't be imported
+     */
+    public CompletableFuture<ImportResult> importSystem(String ownerId, InputStream export) {
+        return CompletableFuture.supplyAsync(() -> {
+            ProxyImporter.ImportedSystem system;
+            try {
+                system = ProxyImporter.parse(export);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return applyImport(ownerId, system);
+        }, proxyExecutor);
+    }
+    
+    private ImportResult applyImport(String ownerId, ProxyImporter.ImportedSystem system) {
+        ImportResult result = new ImportResult(system.getFormat());
+        
+        // Existing global members by name, extended as members are imported to catch duplicates within the file
+        Map<String, ProxyMember> byName = new HashMap<>();
+        for (ProxyMember member : getOwnerScope(ownerId, null).members) {
+            byName.put(member.getName().toLowerCase(), member);
+        }
+        // Source ID or UUID -> member, for group membership
+        Map<String, ProxyMember> bySource = new HashMap<>();
+        
+        for (ProxyImporter.ImportedMember imported : system.getMembers()) {
+            if (imported.getName() == null) {
+                result.skipped++;
+                continue;
+            }
+            ProxyMember member = byName.get(imported.getName().toLowerCase());
+            if (member != null) {
+                result.skipped++;
+            } else {
+                member = new ProxyMember(generateMemberId(ownerId, null), ownerId, null, imported.getName());
+                if (imported.getDisplayName() != null) {
+                    member.setDisplayName(imported.getDisplayName());
+                }
+                member.setPronouns(imported.getPronouns());
+                member.setDescription(imported.getDescription());
+                member.setColor(imported.getColor());
+                member.setKeepProxy(imported.isKeepProxy());
+                member.setProxyTags(new ArrayList<>(imported.getTags()));
+                if (imported.getAvatarUrl() != null) {
+                    member.setAvatarUrl(imported.getAvatarUrl());
+                    member.setOriginalAvatarUrl(imported.getAvatarUrl()); // Keep original for webhooks
+                    cacheMemberAvatar(member, imported.getAvatarUrl());
+                    result.avatarsQueued++;
+                }
+                putMember(member);
+                UserDataIndex.getInstance().add(ownerId, STORE_MEMBERS, member.getMemberId());
+                byName.put(member.getName().toLowerCase(), member);
+                result.membersCreated++;
+            }
+            if (imported.getSourceId() != null) {
+                bySource.put(imported.getSourceId(), member);
+            }
+            if (imported.getSourceUuid() != null) {
+                bySource.put(imported.getSourceUuid(), member);
+            }
+        }
+        
+        Map<String, ProxyGroup> groupsByName = new HashMap<>();
+        for (ProxyGroup group : getUserGroups(ownerId, null)) {
+            groupsByName.put(group.getName().toLowerCase(), group);
+        }
+        Map<String, ProxyGroup> groupsBySource = new HashMap<>();
+        for (ProxyImporter.ImportedGroup imported : system.getGroups()) {
+            if (imported.getName() == null) {
+                continue;
+            }
+            ProxyGroup group = groupsByName.get(imported.getName().toLowerCase());
+            if (group == null) {
+                group = new ProxyGroup(generateGroupId(ownerId, null), ownerId, null, imported.getName());
+                if (imported.getDisplayName() != null) {
+                    group.setDisplayName(imported.getDisplayName());
+                }
+                group.setDescription(imported.getDescription());
+                group.setIconUrl(imported.getIconUrl());
+                group.setColor(imported.getColor());
+                groups.put(group.getGroupId(), group);
+                UserDataIndex.getInstance().add(ownerId, STORE_GROUPS, group.getGroupId());
+                groupsByName.put(group.getName().toLowerCase(), group);
+                result.groupsCreated++;
+            }
+            if (imported.getSourceId() != null) {
+                groupsBySource.put(imported.getSourceId(), group);
+            }
+            if (imported.getSourceUuid() != null) {
+                groupsBySource.put(imported.getSourceUuid(), group);
+            }
+            for (String sourceMemberId : imported.getSourceMemberIds()) {
+                joinGroup(group, bySource.get(sourceMemberId));
+            }
+        }
+        // Tupperbox records membership on the member
+        for (ProxyImporter.ImportedMember imported : system.getMembers()) {
+            for (String sourceGroupId : imported.getSourceGroupIds()) {
+                joinGroup(groupsBySource.get(sourceGroupId), bySource.get(imported.getSourceId()));
+            }
+        }
+        
+        saveMembers();
+        saveGroups();
+        logger.info("Imported {} system for {}: {} members created, {} skipped, {} groups created",
+            result.format.getDisplayName(), ownerId, result.membersCreated, result.skipped, result.groupsCreated);
+        return result;
+    }
+    
+    private void joinGroup(ProxyGroup group, ProxyMember member) {
+        if (group == null || member == null) {
+            return;
+        }
+        group.addMember(member.getMemberId());
+        // Members hold a single group; keep the first one
+        if (member.getGroupId() == null) {
+            member.setGroupId(group.getGroupId());
+        }
+    }
+    
     /**
      * Edit an existing proxy member
      */
@@ -145,6 +329,7 @@ public class ProxyService {
                 switch (field.toLowerCase()) {
                     case "name":
                         member.setName(value);
+                        invalidateScopes(member.getOwnerId());
                         break;
                     case "displayname":
                     case "display":
@@ -152,10 +337,9 @@ public class ProxyService {
                         break;
                     case "avatar":
                     case "avatarurl":
-                        // Cache the avatar to prevent CDN link expiration
-                        String cachedUrl = AvatarCacheManager.cacheAvatar(value);
-                        member.setAvatarUrl(cachedUrl);
+                        member.setAvatarUrl(value);
                         member.setOriginalAvatarUrl(value); // Keep original for webhooks
+                        cacheMemberAvatar(member, value);
                         break;
                     case "pronouns":
                         member.setPronouns(value);
@@ -166,7 +350,11 @@ public class ProxyService {
                         break;
                     case "color":
                     case "colour":
-                        member.setColor(value);
+                        String color = ProxyImporter.normalizeColor(value);
+                        if (color == null) {
+                            return "731"; // Invalid value
+                        }
+                        member.setColor(color);
                         break;
                     case "keepproxy":
                         member.setKeepProxy(Boolean.parseBoolean(value));
@@ -191,18 +379,10 @@ public class ProxyService {
     public CompletableFuture<String> deleteMember(String memberId) {
         return CompletableFuture.supplyAsync(() -> {
             try {
-                ProxyMember member = members.remove(memberId);
-                if (member == null) {
+                if (!removeMember(memberId)) {
                     return "710"; // Member not found
                 }
-                
-                // Remove from any groups
-                for (ProxyGroup group : groups.values()) {
-                    if (group.getGuildId().equals(member.getGuildId()) && 
-                        group.getOwnerId().equals(member.getOwnerId())) {
-                        group.removeMember(memberId);
-                    }
-                }
+                rebuildEligibility();
                 
                 saveMembers();
                 saveGroups();
@@ -216,6 +396,121 @@ public class ProxyService {
         });
     }
     
+    private void putMember(ProxyMember member) {
+        members.put(member.getMemberId(), member);
+        membersByOwner.computeIfAbsent(member.getOwnerId(), k -> ConcurrentHashMap.newKeySet()).add(member.getMemberId());
+        invalidateScopes(member.getOwnerId());
+        markEligible(member);
+    }
+    
+    /**
+     * Cheap synchronous check, run before any proxy work is scheduled
+     * @param guildId Guild ID, or 0 for DMs
+     * @return False if the user has no tagged members or autoproxy that could apply here
+     */
+    public boolean mightProxy(long userId, long guildId) {
+        return eligibility.mightProxy(userId, guildId);
+    }
+    
+    /**
+     * Messages checked by {@link #mightProxy} and the share it filtered out
+     */
+    public ProxyEligibility getEligibility() {
+        return eligibility;
+    }
+    
+    private void markEligible(ProxyMember member) {
+        if (member.getProxyTags() != null && !member.getProxyTags().isEmpty()) {
+            eligibility.add(ProxyEligibility.parseId(member.getOwnerId()), ProxyEligibility.parseId(member.getGuildId()));
+        }
+    }
+    
+    /**
+     * Recompute the eligibility set from scratch; additions are applied in place, so this only runs after removals
+     */
+    private void rebuildEligibility() {
+        // Holding the set's lock keeps additions made during the rebuild from being overwritten
+        synchronized (eligibility) {
+            ProxyEligibility.Builder builder = new ProxyEligibility.Builder();
+            for (ProxyMember member : members.values()) {
+                if (member.getProxyTags() != null && !member.getProxyTags().isEmpty()) {
+                    builder.add(ProxyEligibility.parseId(member.getOwnerId()), ProxyEligibility.parseId(member.getGuildId()));
+                }
+            }
+            for (ProxySettings settings : userSettings.values()) {
+                if (settings.getAutoproxyMode() != ProxySettings.AutoproxyMode.OFF) {
+                    builder.add(ProxyEligibility.parseId(settings.getUserId()), ProxyEligibility.parseId(settings.getGuildId()));
+                }
+            }
+            eligibility.replace(builder);
+        }
+    }
+    
+    /**
+     * Drop an owner's compiled members after a member, name or tag change; they are rebuilt on next use
+     */
+    private void invalidateScopes(String ownerId) {
+        ownerScopes.remove(ownerId);
+    }
+    
+    /**
+     * The owner's members usable in a guild (global and guild-specific), sorted by name, with their tags compiled
+     */
+    private OwnerScope getOwnerScope(String ownerId, String guildId) {
+        return ownerScopes.computeIfAbsent(ownerId, k -> new ConcurrentHashMap<>())
+            .computeIfAbsent(guildId != null ? guildId : GLOBAL_SCOPE, k -> {
+                List<ProxyMember> scoped = new ArrayList<>();
+                for (String memberId : membersByOwner.getOrDefault(ownerId, Collections.emptySet())) {
+                    ProxyMember m = members.get(memberId);
+                    if (m != null && (m.getGuildId() == null || // Global proxies work everywhere
+                            (guildId != null && guildId.equals(m.getGuildId())))) { // Guild-specific
+                        scoped.add(m);
+                    }
+                }
+                scoped.sort(Comparator.comparing(ProxyMember::getName));
+                return new OwnerScope(Collections.unmodifiableList(scoped), new ProxyTagMatcher(scoped));
+            });
+    }
+    
+    /**
+     * Cache the avatar in the background to prevent CDN link expiration, then point the member at the cached copy
+     */
+    private void cacheMemberAvatar(ProxyMember member, String avatarUrl) {
+        AvatarCacheManager.cacheAvatarAsync(avatarUrl).thenAccept(cachedUrl -> {
+            // Skip if the avatar was changed again or the member deleted while downloading
+            if (cachedUrl != null && avatarUrl.equals(member.getOriginalAvatarUrl())
+                    && members.get(member.getMemberId()) == member) {
+                member.setAvatarUrl(cachedUrl);
+                saveMembers();
+            }
+        });
+    }
+    
+    /**
+     * Remove a member and take it out of its owner's groups, without saving or rebuilding eligibility
+     * @return Whether the member existed
+     */
+    private boolean removeMember(String memberId) {
+        ProxyMember member = members.remove(memberId);
+        if (member == null) {
+            return false;
+        }
+        Set<String> owned = membersByOwner.get(member.getOwnerId());
+        if (owned != null) {
+            owned.remove(memberId);
+        }
+        invalidateScopes(member.getOwnerId());
+        
+        for (ProxyGroup group : groups.values()) {
+            if (Objects.equals(group.getGuildId(), member.getGuildId()) && 
+                group.getOwnerId().equals(member.getOwnerId())) {
+                group.removeMember(memberId);
+            }
+        }
+        UserDataIndex.getInstance().remove(member.getOwnerId(), STORE_MEMBERS, memberId);
+        return true;
+    }
+    
     /**
      * Add a proxy tag to a member
      */
@@ -232,6 +527,8 @@ public class ProxyService {
                 }
                 
                 member.addProxyTag(prefix != null ? prefix : "", suffix != null ? suffix : "");
+                invalidateScopes(member.getOwnerId());
+                markEligible(member);
                 saveMembers();
                 
                 return "SUCCESS";
@@ -259,6 +556,8 @@ public class ProxyService {
                 }
                 
                 member.removeProxyTag(tagIndex);
+                invalidateScopes(member.getOwnerId());
+                rebuildEligibility();
                 saveMembers();
                 
                 return "SUCCESS";
@@ -287,6 +586,7 @@ public class ProxyService {
                 
                 groups.put(groupId, group);
                 saveGroups();
+                UserDataIndex.getInstance().add(ownerId, STORE_GROUPS, groupId);
                 
                 return groupId;
                 
@@ -366,7 +666,10 @@ public class ProxyService {
      */
     public ProxySettings getSettings(String userId, String guildId) {
         String key = userId + ":" + (guildId != null ? guildId : "DM");
-        return userSettings.computeIfAbsent(key, k -> new ProxySettings(userId, guildId));
+        return userSettings.computeIfAbsent(key, k -> {
+            UserDataIndex.getInstance().add(userId, STORE_SETTINGS, k);
+            return new ProxySettings(userId, guildId);
+        });
     }
     
     /**
@@ -378,7 +681,13 @@ public class ProxyService {
             try {
                 String key = userId + ":" + (guildId != null ? guildId : "DM");
                 userSettings.put(key, settings);
+                if (settings.getAutoproxyMode() != ProxySettings.AutoproxyMode.OFF) {
+                    eligibility.add(ProxyEligibility.parseId(userId), ProxyEligibility.parseId(guildId));
+                } else {
+                    rebuildEligibility();
+                }
                 saveSettings();
+                UserDataIndex.getInstance().add(userId, STORE_SETTINGS, key);
                 return "SUCCESS";
                 
             } catch (Exception e) {
@@ -416,210 +725,293 @@ public class ProxyService {
     // ========== Message Proxying ==========
     
     /**
-     * Attempt to proxy a message
-     * @return ProxyResult containing success status and proxy message ID if successful
+     * Attempt to proxy a message. Matching runs on the proxy executor and the webhook calls are chained
+     * on JDA's futures, so no thread waits on Discord.
+     * @return ProxyResult containing success status and proxy message ID if successful, completed once the webhook message is sent
      */
     public CompletableFuture<ProxyResult> proxyMessage(Message originalMessage) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                User author = originalMessage.getAuthor();
-                if (author.isBot()) {
-                    return new ProxyResult(false, null, null);
-                }
-                
-                // Get guild ID (null for DMs)
-                String guildId = originalMessage.isFromGuild() ? originalMessage.getGuild().getId() : null;
-                ProxySettings settings = getSettings(author.getId(), guildId);
-                
-                if (!settings.isProxyEnabled()) {
-                    return new ProxyResult(false, null, null);
-                }
-                
-                String content = originalMessage.getContentRaw();
-                if (content.isEmpty()) {
-                    return new ProxyResult(false, null, null);
-                }
-                
-                // Try to match proxy tags
-                ProxyMember matchedMember = null;
-                String proxiedContent = null;
-                
-                // Get all members for this user (includes global and guild-specific)
-                List<ProxyMember> userMembers = getUserMembers(author.getId(), guildId);
-                
-                for (ProxyMember member : userMembers) {
-                    ProxyMember.ProxyMatch match = member.matchesProxyTags(content);
-                    if (match != null) {
-                        matchedMember = member;
-                        proxiedContent = member.isKeepProxy() ? content : match.getContent();
-                        break;
-                    }
-                }
-                
-                // If no match, check autoproxy
-                if (matchedMember == null && settings.getAutoproxyMode() != ProxySettings.AutoproxyMode.OFF) {
-                    matchedMember = getAutoproxyMember(settings, userMembers);
-                    proxiedContent = content;
-                }
-                
-                if (matchedMember == null) {
-                    return new ProxyResult(false, null, null);
-                }
-                
-                // DM proxy support: Only allow global proxies in DMs
-                if (!originalMessage.isFromGuild()) {
-                    if (matchedMember.getGuildId() != null) {
-                        logger.debug("Cannot use guild-specific proxy in DMs");
-                        return new ProxyResult(false, null, null);
-                    }
-                    // Note: DMs don't support webhooks, so we'd need to use embeds or just edit
-                    // For now, skip DM proxying (webhooks are guild-only)
-                    logger.debug("DM proxying not yet fully implemented");
-                    return new ProxyResult(false, null, null);
-                }
-                
-                // Make final references for lambda
-                final ProxyMember finalMatchedMember = matchedMember;
-                final String finalProxiedContent = proxiedContent;
-                final ProxySettings finalSettings = settings;
-                
-                // Get or create webhook for this channel
-                TextChannel channel = originalMessage.getChannel().asTextChannel();
-                Webhook webhook = getOrCreateWebhook(channel).join();
-                
-                if (webhook == null) {
-                    logger.warn("Failed to get webhook for channel: " + channel.getId());
-                    return new ProxyResult(false, null, null);
-                }
-                
-                // Send proxied message
-                // For webhooks, prefer original URL (works with Discord), fallback to no avatar if only cached
-                String avatarUrl = null;
-                if (finalMatchedMember.getOriginalAvatarUrl() != null && !finalMatchedMember.getOriginalAvatarUrl().isEmpty()) {
-                    // Use original CDN URL for webhooks (while it's still valid)
-                    avatarUrl = finalMatchedMember.getOriginalAvatarUrl();
-                } else if (finalMatchedMember.getAvatarUrl() != null && !AvatarCacheManager.isCachedAvatar(finalMatchedMember.getAvatarUrl())) {
-                    // If avatarUrl is not a cached file, use it directly
-                    avatarUrl = finalMatchedMember.getAvatarUrl();
-                }
-                // If avatarUrl is still null or a file:// URL, webhook will use default
-                
-                // Handle attachments
-                String messageContent = finalProxiedContent;
-                
-                // If this is a reply, add a reference link at the start
-                Message referencedMessage = originalMessage.getReferencedMessage();
-                if (referencedMessage != null) {
-                    String replyRef = String.format("%s [Replying to %s](%s)\n", 
-                        CustomEmojis.LEFT,
-                        referencedMessage.getAuthor().getName(),
-                        referencedMessage.getJumpUrl()
-                    );
-                    messageContent = replyRef + messageContent;
-                }
-                
-                if (finalSettings.isShowProxyIndicator()) {
-                    messageContent = messageContent + " `[proxied]`";
-                }
-                
-                // Track this message as being proxied (for AutoLogListener)
-                originalMessagesBeingProxied.add(originalMessage.getId());
-                
-                // Note: Webhooks cannot preserve reply references due to Discord API limitations
-                // The reply context will be lost when proxying
-                
-                // Send webhook message with error handling
-                webhook.sendMessage(messageContent)
-                    .setUsername(finalMatchedMember.getDisplayName())
-                    .setAvatarUrl(avatarUrl)
-                    .queue(webhookMessage -> {
-                        // Store proxy data
-                        ProxiedMessageData proxyData = new ProxiedMessageData(
-                            webhookMessage.getId(),
-                            originalMessage.getId(),
-                            author.getId(),
-                            finalMatchedMember.getMemberId(),
-                            channel.getId(),
-                            guildId,
-                            Instant.now()
-                        );
-                        
-                        proxiedMessages.put(webhookMessage.getId(), proxyData);
-                        saveProxiedMessages();
-                        
-                        // Delete original message with error handling
-                        originalMessage.delete().queue(
-                            success -> {
-                                logger.debug("Proxied message for member: " + finalMatchedMember.getName());
-                                // Remove from tracking set after successful deletion
-                                originalMessagesBeingProxied.remove(originalMessage.getId());
-                            },
-                            failure -> {
-                                logger.warn("Failed to delete original message: " + failure.getMessage());
-                                // Still remove from tracking set even if deletion failed
-                                originalMessagesBeingProxied.remove(originalMessage.getId());
-                            }
-                        );
-                        
-                        // Update last proxied member
-                        finalSettings.setLastProxiedMemberId(finalMatchedMember.getMemberId());
-                        saveSettings();
-                    }, failure -> {
-                        // Handle webhook send failure
-                        logger.error("Failed to send proxied message: " + failure.getMessage());
-                        // Remove from tracking set if webhook send failed
-                        originalMessagesBeingProxied.remove(originalMessage.getId());
-                    });
-                
-                return new ProxyResult(true, finalMatchedMember.getMemberId(), null);
-                
-            } catch (Exception e) {
+        CompletableFuture<ProxyPlan> planned;
+        try {
+            planned = CompletableFuture.supplyAsync(() -> planProxy(originalMessage), proxyExecutor);
+        } catch (RejectedExecutionException e) {
+            droppedProxies.increment();
+            logger.warn("Proxy queue full, skipping message " + originalMessage.getId());
+            return CompletableFuture.completedFuture(new ProxyResult(false, null, "P17"));
+        }
+        
+        return planned
+            .thenCompose(plan -> plan != null ? sendProxy(plan) : CompletableFuture.completedFuture(new ProxyResult(false, null, null)))
+            .exceptionally(e -> {
                 logger.error("Error proxying message: " + e.getMessage(), e);
+                originalMessagesBeingProxied.remove(originalMessage.getId());
                 return new ProxyResult(false, null, "P17"); // Proxy failed
+            });
+    }
+    
+    /**
+     * Decide whether and as whom to proxy a message, without any network calls
+     * @return The plan, or null if the message should not be proxied
+     */
+    private ProxyPlan planProxy(Message originalMessage) {
+        User author = originalMessage.getAuthor();
+        if (author.isBot()) {
+            return null;
+        }
+        
+        // Get guild ID (null for DMs)
+        String guildId = originalMessage.isFromGuild() ? originalMessage.getGuild().getId() : null;
+        ProxySettings settings = getSettings(author.getId(), guildId);
+        
+        if (!settings.isProxyEnabled()) {
+            return null;
+        }
+        
+        String content = originalMessage.getContentRaw();
+        // Attachment-only messages can still be autoproxied
+        if (content.isEmpty() && originalMessage.getAttachments().isEmpty()) {
+            return null;
+        }
+        
+        // Try to match proxy tags
+        ProxyMember matchedMember = null;
+        String proxiedContent = null;
+        
+        // Members for this user (includes global and guild-specific), longest tag match wins
+        OwnerScope scope = getOwnerScope(author.getId(), guildId);
+        ProxyMember.ProxyMatch match = scope.matcher.match(content);
+        if (match != null) {
+            matchedMember = match.getMember();
+            proxiedContent = matchedMember.isKeepProxy() ? content : match.getContent();
+        }
+        
+        // If no match, check autoproxy
+        if (matchedMember == null && settings.getAutoproxyMode() != ProxySettings.AutoproxyMode.OFF) {
+            matchedMember = getAutoproxyMember(settings, scope.members);
+            proxiedContent = content;
+        }
+        
+        if (matchedMember == null) {
+            return null;
+        }
+        
+        // DM proxy support: Only allow global proxies in DMs
+        if (!originalMessage.isFromGuild()) {
+            if (matchedMember.getGuildId() != null) {
+                logger.debug("Cannot use guild-specific proxy in DMs");
+                return null;
             }
-        });
+            // Note: DMs don't support webhooks, so we'd need to use embeds or just edit
+            // For now, skip DM proxying (webhooks are guild-only)
+            logger.debug("DM proxying not yet fully implemented");
+            return null;
+        }
+        
+        return new ProxyPlan(originalMessage, matchedMember, proxiedContent, settings, guildId);
     }
     
     /**
-     * Get or create a webhook for a channel
+     * Post a planned proxy through the channel webhook, then record it and delete the original
      */
-    private CompletableFuture<Webhook> getOrCreateWebhook(TextChannel channel) {
-        // Check cache first
-        if (channelWebhooks.containsKey(channel.getId())) {
-            return CompletableFuture.completedFuture(channelWebhooks.get(channel.getId()));
+    private CompletableFuture<ProxyResult> sendProxy(ProxyPlan plan) {
+        Message originalMessage = plan.originalMessage;
+        ProxyMember member = plan.member;
+        TextChannel channel = originalMessage.getChannel().asTextChannel();
+        
+        // Send proxied message
+        // For webhooks, prefer original URL (works with Discord), fallback to no avatar if only cached
+        String avatarUrl = null;
+        if (member.getOriginalAvatarUrl() != null && !member.getOriginalAvatarUrl().isEmpty()) {
+            // Use original CDN URL for webhooks (while it's still valid)
+            avatarUrl = member.getOriginalAvatarUrl();
+        } else if (member.getAvatarUrl() != null && !AvatarCacheManager.isCachedAvatar(member.getAvatarUrl())) {
+            // If avatarUrl is not a cached file, use it directly
+            avatarUrl = member.getAvatarUrl();
+        }
+        // If avatarUrl is still null or a file:// URL, webhook will use default
+        
+        String messageContent = plan.content;
+        
+        // If this is a reply, add a reference link at the start
+        Message referencedMessage = originalMessage.getReferencedMessage();
+        if (referencedMessage != null) {
+            String replyRef = String.format("%s [Replying to %s](%s)\n", 
+                CustomEmojis.LEFT,
+                referencedMessage.getAuthor().getName(),
+                referencedMessage.getJumpUrl()
+            );
+            messageContent = replyRef + messageContent;
         }
         
-        // Use async API calls instead of blocking complete()
-        return channel.retrieveWebhooks().submit().thenCompose(webhooks -> {
+        if (plan.settings.isShowProxyIndicator()) {
+            messageContent = messageContent + " `[proxied]`";
+        }
+        
+        // Track this message as being proxied (for AutoLogListener)
+        originalMessagesBeingProxied.add(originalMessage.getId());
+        
+        // Note: Webhooks cannot preserve reply references due to Discord API limitations
+        // The reply context will be lost when proxying
+        
+        final String textContent = messageContent;
+        final String finalAvatarUrl = avatarUrl;
+        return openAttachments(originalMessage).thenCompose(attachments -> {
+            if (attachments.rejection != null) {
+                // Deleting the original would lose files that can't be re-uploaded, so leave it as it is
+                originalMessagesBeingProxied.remove(originalMessage.getId());
+                DismissibleMessage.send(originalMessage.getChannel(), EmbedUtils.createWarningEmbed(
+                    "Message Not Proxied", attachments.rejection + "\nYour message was left as it is."
+                ), originalMessage.getAuthor().getId(), ATTACHMENT_NOTICE_SECONDS);
+                return CompletableFuture.completedFuture(new ProxyResult(false, null, null));
+            }
+            MessageCreateData data;
             try {
-                Webhook proxyWebhook = null;
-                
-                for (Webhook webhook : webhooks) {
-                    if (webhook.getName().equals("ServerBot Proxy")) {
-                        proxyWebhook = webhook;
-                        break;
+                data = new MessageCreateBuilder()
+                    .setContent(textContent)
+                    .setFiles(attachments.files)
+                    .build();
+            } catch (IllegalStateException | IllegalArgumentException e) {
+                // e.g. the reply reference pushed the content past 2000 characters; the original stays untouched
+                attachments.close();
+                throw e;
+            }
+            // Download streams can only be read once, so a message with files can't be replayed on a fresh webhook
+            WebhookPool pool = WebhookPool.getInstance();
+            Function<Webhook, RestAction<Message>> request = webhook -> webhook.sendMessage(data)
+                .setUsername(member.getDisplayName())
+                .setAvatarUrl(finalAvatarUrl);
+            return (attachments.files.isEmpty() ? pool.submit(channel, request) : pool.submitOnce(channel, request))
+                .handle((webhookMessage, failure) -> {
+                    if (failure != null) {
+                        // Handle webhook lookup or send failure
+                        logger.error("Failed to send proxied message: " + failure.getMessage());
+                        // Remove from tracking set if webhook send failed
+                        originalMessagesBeingProxied.remove(originalMessage.getId());
+                        // Release any download streams the request didn't consume
+                        attachments.close();
+                        return new ProxyResult(false, null, null);
                     }
+                    onProxied(plan, webhookMessage);
+                    return new ProxyResult(true, member.getMemberId(), null);
+                });
+        });
+    }
+    
+    /**
+     * Start downloading a message's attachments in parallel, as streams that the webhook request reads
+     * straight from the CDN, so files never sit whole on the heap
+     * @return Future with the open uploads, or with a rejection if the files are past the guild's upload
+     *         limit together or any of them fails to download
+     */
+    private CompletableFuture<ProxyAttachments> openAttachments(Message message) {
+        List<Message.Attachment> attachments = message.getAttachments();
+        if (attachments.isEmpty()) {
+            return CompletableFuture.completedFuture(new ProxyAttachments());
+        }
+        
+        // Discord checks the whole request against the limit, so count every file before downloading any
+        long maxUploadSize = message.isFromGuild() ? message.getGuild().getMaxFileSize() : Message.MAX_FILE_SIZE;
+        long totalSize = 0;
+        for (Message.Attachment attachment : attachments) {
+            totalSize += attachment.getSize();
+        }
+        if (totalSize > maxUploadSize) {
+            logger.debug("Not proxying message {}: attachments total {} bytes, limit {}", message.getId(), totalSize, maxUploadSize);
+            return CompletableFuture.completedFuture(ProxyAttachments.rejected(String.format(
+                "Your attachments total **%.1f MB**, over this server's **%.1f MB** upload limit.",
+                totalSize / (1024.0 * 1024.0), maxUploadSize / (1024.0 * 1024.0))));
+        }
+        
+        List<CompletableFuture<FileUpload>> downloads = new ArrayList<>();
+        for (Message.Attachment attachment : attachments) {
+            downloads.add(attachment.getProxy().download().handle((stream, error) -> {
+                if (error != null) {
+                    logger.warn("Failed to download attachment {}: {}", attachment.getFileName(), error.getMessage());
+                    return null;
                 }
-                
-                // Create if doesn't exist
-                if (proxyWebhook == null) {
-                    return channel.createWebhook("ServerBot Proxy").submit().thenApply(newWebhook -> {
-                        channelWebhooks.put(channel.getId(), newWebhook);
-                        return newWebhook;
-                    });
+                FileUpload upload = FileUpload.fromData(stream, attachment.getFileName());
+                if (attachment.getDescription() != null) {
+                    upload.setDescription(attachment.getDescription());
+                }
+                return attachment.isSpoiler() ? upload.asSpoiler() : upload;
+            }));
+        }
+        
+        return CompletableFuture.allOf(downloads.toArray(new CompletableFuture[0])).thenApply(v -> {
+            ProxyAttachments result = new ProxyAttachments();
+            boolean complete = true;
+            for (CompletableFuture<FileUpload> download : downloads) {
+                FileUpload upload = download.join(); // Already complete
+                if (upload != null) {
+                    result.files.add(upload);
                 } else {
-                    channelWebhooks.put(channel.getId(), proxyWebhook);
-                    return CompletableFuture.completedFuture(proxyWebhook);
+                    complete = false;
                 }
-                
-            } catch (Exception e) {
-                logger.error("Error getting/creating webhook: " + e.getMessage(), e);
-                return CompletableFuture.completedFuture(null);
             }
-        }).exceptionally(ex -> {
-            logger.error("Failed to retrieve webhooks: " + ex.getMessage(), ex);
-            return null;
+            if (!complete) {
+                result.close();
+                return ProxyAttachments.rejected("One of your attachments could not be downloaded for re-upload.");
+            }
+            return result;
+        });
+    }
+    
+    /**
+     * Record a sent proxy and delete the original; file writes go to the write-behind queue
+     */
+    private void onProxied(ProxyPlan plan, Message webhookMessage) {
+        Message originalMessage = plan.originalMessage;
+        String authorId = originalMessage.getAuthor().getId();
+        
+        // Both timestamps come from Discord's snowflakes, so local clock skew doesn't count
+        proxyLatency.record(Duration.between(originalMessage.getTimeCreated(), webhookMessage.getTimeCreated()).toMillis());
+        
+        // Store proxy data
+        ProxiedMessageData proxyData = new ProxiedMessageData(
+            webhookMessage.getId(),
+            originalMessage.getId(),
+            authorId,
+            plan.member.getMemberId(),
+            originalMessage.getChannel().getId(),
+            plan.guildId,
+            Instant.now()
+        );
+        writeBehind.execute(() -> {
+            LocalDate day = proxiedMessages.append(proxyData);
+            UserDataIndex.getInstance().add(authorId, STORE_PROXIED_MESSAGES, ProxiedMessageStore.segmentKey(day));
         });
+        
+        // Delete original message with error handling
+        originalMessage.delete().queue(
+            success -> {
+                logger.debug("Proxied message for member: " + plan.member.getName());
+                // Remove from tracking set after successful deletion
+                originalMessagesBeingProxied.remove(originalMessage.getId());
+            },
+            failure -> {
+                logger.warn("Failed to delete original message: " + failure.getMessage());
+                // Still remove from tracking set even if deletion failed
+                originalMessagesBeingProxied.remove(originalMessage.getId());
+            }
+        );
+        
+        // Update last proxied member
+        plan.settings.setLastProxiedMemberId(plan.member.getMemberId());
+        saveSettings();
+    }
+    
+    /**
+     * Time from an original message to its webhook post, as seen by Discord
+     */
+    public LatencyRecorder getProxyLatency() {
+        return proxyLatency;
+    }
+    
+    /**
+     * Proxy latency percentiles plus messages dropped because the proxy queue was full
+     */
+    public String describeProxyStats() {
+        long dropped = droppedProxies.sum();
+        return proxyLatency.describe() + (dropped > 0 ? String.format(", %,d dropped", dropped) : "");
     }
     
     /**
@@ -664,9 +1056,11 @@ public class ProxyService {
      * @param guildId Current guild ID, or null for DMs
      */
     public ProxyMember getMemberByName(String ownerId, String guildId, String name) {
+        List<ProxyMember> owned = getAllMembersForOwner(ownerId);
+        
         // First check for guild-specific match
         if (guildId != null) {
-            ProxyMember guildSpecific = members.values().stream()
+            ProxyMember guildSpecific = owned.stream()
                 .filter(m -> m.getOwnerId().equals(ownerId) && 
                             guildId.equals(m.getGuildId()) && 
                             m.getName().equalsIgnoreCase(name))
@@ -678,7 +1072,7 @@ public class ProxyService {
         }
         
         // Then check for global match
-        return members.values().stream()
+        return owned.stream()
             .filter(m -> m.getOwnerId().equals(ownerId) && 
                         m.getGuildId() == null && 
                         m.getName().equalsIgnoreCase(name))
@@ -691,8 +1085,9 @@ public class ProxyService {
      * Used for data deletion requests.
      */
     public List<ProxyMember> getAllMembersForOwner(String ownerId) {
-        return members.values().stream()
-            .filter(m -> m.getOwnerId().equals(ownerId))
+        return membersByOwner.getOrDefault(ownerId, Collections.emptySet()).stream()
+            .map(members::get)
+            .filter(Objects::nonNull)
             .collect(Collectors.toList());
     }
 
@@ -701,12 +1096,7 @@ public class ProxyService {
      * @param guildId Current guild ID, or null for DMs
      */
     public List<ProxyMember> getUserMembers(String ownerId, String guildId) {
-        return members.values().stream()
-            .filter(m -> m.getOwnerId().equals(ownerId) && 
-                        (m.getGuildId() == null || // Global proxies work everywhere
-                         (guildId != null && guildId.equals(m.getGuildId())))) // Guild-specific
-            .sorted(Comparator.comparing(ProxyMember::getName))
-            .collect(Collectors.toList());
+        return getOwnerScope(ownerId, guildId).members;
     }
     
     /**
@@ -721,18 +1111,34 @@ public class ProxyService {
      */
     public List<ProxyGroup> getUserGroups(String ownerId, String guildId) {
         return groups.values().stream()
-            .filter(g -> g.getOwnerId().equals(ownerId) && g.getGuildId().equals(guildId))
+            .filter(g -> g.getOwnerId().equals(ownerId) && Objects.equals(g.getGuildId(), guildId))
             .sorted(Comparator.comparing(ProxyGroup::getName))
             .collect(Collectors.toList());
     }
     
     /**
-     * Get proxied message data
+     * Get proxied message data, reading older records from disk if needed
      */
     public ProxiedMessageData getProxiedMessageData(String messageId) {
         return proxiedMessages.get(messageId);
     }
     
+    /**
+     * Get proxied message data for recent messages only, cheap enough to call for every message event
+     */
+    public ProxiedMessageData getRecentProxiedMessageData(String messageId) {
+        return proxiedMessages.getRecent(messageId);
+    }
+    
+    /**
+     * Stop proxying and write out everything still queued
+     */
+    public void shutdown() {
+        proxyExecutor.shutdown();
+        writeBehind.shutdown();
+        proxiedMessages.close();
+    }
+    
     /**
      * Check if an original message is currently being proxied (and will be deleted)
      * This is used to prevent logging the deletion as a user action
@@ -741,6 +1147,82 @@ public class ProxyService {
         return originalMessagesBeingProxied.contains(originalMessageId);
     }
     
+    // ========== User Data ==========
+    
+    /**
+     * Register proxy data with the user data index and index what was loaded from disk
+     */
+    private void registerUserData() {
+        UserDataIndex index = UserDataIndex.getInstance();
+        
+        index.register(UserDataStore.of(STORE_MEMBERS, "Proxy members",
+            (userId, keys, sink) -> exportOwned(members, keys, userId, ProxyMember::getOwnerId, sink),
+            (userId, keys) -> {
+                int removed = 0;
+                for (String memberId : keys) {
+                    ProxyMember member = members.get(memberId);
+                    if (member != null && member.getOwnerId().equals(userId) && removeMember(memberId)) {
+                        removed++;
+                    }
+                }
+                if (removed > 0) {
+                    rebuildEligibility();
+                    saveMembers();
+                    saveGroups();
+                }
+                return removed;
+            }));
+        index.register(UserDataStore.of(STORE_GROUPS, "Proxy groups",
+            (userId, keys, sink) -> exportOwned(groups, keys, userId, ProxyGroup::getOwnerId, sink),
+            (userId, keys) -> {
+                int removed = removeOwned(groups, keys, userId, ProxyGroup::getOwnerId);
+                if (removed > 0) saveGroups();
+                return removed;
+            }));
+        index.register(UserDataStore.of(STORE_SETTINGS, "Proxy settings",
+            (userId, keys, sink) -> exportOwned(userSettings, keys, userId, settings -> userId, sink),
+            (userId, keys) -> {
+                int removed = removeOwned(userSettings, keys, userId, settings -> userId);
+                if (removed > 0) {
+                    rebuildEligibility();
+                    saveSettings();
+                }
+                return removed;
+            }));
+        // Proxied messages are referenced by segment day rather than message id
+        index.register(UserDataStore.of(STORE_PROXIED_MESSAGES, "Proxied message records",
+            proxiedMessages::exportUser,
+            proxiedMessages::removeUser));
+        
+        members.forEach((memberId, member) -> index.add(member.getOwnerId(), STORE_MEMBERS, memberId));
+        groups.forEach((groupId, group) -> index.add(group.getOwnerId(), STORE_GROUPS, groupId));
+        userSettings.keySet().forEach(key -> index.add(key.substring(0, key.indexOf(':')), STORE_SETTINGS, key));
+        proxiedMessages.load((authorId, day) -> index.add(authorId, STORE_PROXIED_MESSAGES, ProxiedMessageStore.segmentKey(day)));
+    }
+    
+    private <V> void exportOwned(Map<String, V> map, Set<String> keys, String userId,
+                                 Function<V, String> owner,
+                                 BiConsumer<String, Object> sink) {
+        for (String key : keys) {
+            V value = map.get(key);
+            if (value != null && userId.equals(owner.apply(value))) {
+                sink.accept(key, value);
+            }
+        }
+    }
+    
+    private <V> int removeOwned(Map<String, V> map, Set<String> keys, String userId,
+                                Function<V, String> owner) {
+        int removed = 0;
+        for (String key : keys) {
+            V value = map.get(key);
+            if (value != null && userId.equals(owner.apply(value)) && map.remove(key, value)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+    
     // ========== Helper Methods ==========
     
     private String generateMemberId(String ownerId, String guildId) {
@@ -767,7 +1249,7 @@ public class ProxyService {
                     Type type = new TypeToken<Map<String, ProxyMember>>(){}.getType();
                     Map<String, ProxyMember> loaded = gson.fromJson(reader, type);
                     if (loaded != null) {
-                        members.putAll(loaded);
+                        loaded.values().forEach(this::putMember);
                         logger.info("Loaded {} proxy members", loaded.size());
                     }
                 }
@@ -780,6 +1262,10 @@ public class ProxyService {
     }
     
     private void saveMembers() {
+        writeBehind.save("members", this::writeMembers);
+    }
+    
+    private void writeMembers() {
         try {
             File file = new File(PROXY_DATA_DIR + MEMBERS_FILE);
             try (FileWriter writer = new FileWriter(file)) {
@@ -817,6 +1303,10 @@ public class ProxyService {
     }
     
     private void saveGroups() {
+        writeBehind.save("groups", this::writeGroups);
+    }
+    
+    private void writeGroups() {
         try {
             File file = new File(PROXY_DATA_DIR + GROUPS_FILE);
             try (FileWriter writer = new FileWriter(file)) {
@@ -854,6 +1344,10 @@ public class ProxyService {
     }
     
     private void saveSettings() {
+        writeBehind.save("settings", this::writeSettings);
+    }
+    
+    private void writeSettings() {
         try {
             File file = new File(PROXY_DATA_DIR + SETTINGS_FILE);
             try (FileWriter writer = new FileWriter(file)) {
@@ -864,44 +1358,131 @@ public class ProxyService {
         }
     }
     
+    /**
+     * Move records from the old single proxied_messages.json into the segmented store, once
+     */
     private void loadProxiedMessages() {
+        File file = new File(PROXY_DATA_DIR + PROXIED_MESSAGES_FILE);
+        if (!file.exists()) {
+            return;
+        }
         try {
-            File file = new File(PROXY_DATA_DIR + PROXIED_MESSAGES_FILE);
-            if (file.exists()) {
-                // Check if file is empty or only contains whitespace
-                if (file.length() <= 2) {
-                    logger.warn("Proxied messages file is empty or corrupted, skipping load");
-                    return;
-                }
-                
+            // Check if file is empty or only contains whitespace
+            if (file.length() > 2) {
                 try (FileReader reader = new FileReader(file)) {
                     Type type = new TypeToken<Map<String, ProxiedMessageData>>(){}.getType();
                     Map<String, ProxiedMessageData> loaded = gson.fromJson(reader, type);
                     if (loaded != null) {
-                        proxiedMessages.putAll(loaded);
-                        logger.info("Loaded {} proxied messages", loaded.size());
+                        proxiedMessages.importLegacy(loaded.values());
                     }
                 }
             }
+            if (!file.renameTo(new File(PROXY_DATA_DIR + PROXIED_MESSAGES_FILE + ".migrated"))) {
+                logger.warn("Failed to rename migrated proxied messages file");
+            }
         } catch (com.google.gson.JsonSyntaxException e) {
-            logger.error("Corrupted JSON in proxied messages file, starting with empty data: " + e.getMessage());
+            logger.error("Corrupted JSON in proxied messages file, skipping migration: " + e.getMessage());
         } catch (IOException e) {
-            logger.error("Failed to load proxied messages: " + e.getMessage(), e);
+            logger.error("Failed to migrate proxied messages: " + e.getMessage(), e);
         }
     }
     
-    private void saveProxiedMessages() {
-        try {
-            File file = new File(PROXY_DATA_DIR + PROXIED_MESSAGES_FILE);
-            try (FileWriter writer = new FileWriter(file)) {
-                gson.toJson(proxiedMessages, writer);
+    // ========== Data Classes ==========
+    
+    /**
+     * Counts from a system import
+     */
+    public static class ImportResult {
+        private final ProxyImporter.Format format;
+        private int membersCreated;
+        private int skipped;
+        private int groupsCreated;
+        private int avatarsQueued;
+        
+        private ImportResult(ProxyImporter.Format format) {
+            this.format = format;
+        }
+        
+        public ProxyImporter.Format getFormat() {
+            return format;
+        }
+        
+        public int getMembersCreated() {
+            return membersCreated;
+        }
+        
+        /**
+         * Members left out because the name was already taken or missing
+         */
+        public int getSkipped() {
+            return skipped;
+        }
+        
+        public int getGroupsCreated() {
+            return groupsCreated;
+        }
+        
+        public int getAvatarsQueued() {
+            return avatarsQueued;
+        }
+    }
+    
+    /**
+     * A proxied message's attachments as open download streams to upload, or why they can't be carried over
+     */
+    private static final class ProxyAttachments {
+        private final List<FileUpload> files = new ArrayList<>();
+        private String rejection;
+        
+        private static ProxyAttachments rejected(String reason) {
+            ProxyAttachments attachments = new ProxyAttachments();
+            attachments.rejection = reason;
+            return attachments;
+        }
+        
+        private void close() {
+            for (FileUpload file : files) {
+                try {
+                    file.close();
+                } catch (IOException e) {
+                    logger.debug("Failed to close attachment stream: " + e.getMessage());
+                }
             }
-        } catch (IOException e) {
-            logger.error("Failed to save proxied messages: " + e.getMessage(), e);
         }
     }
     
-    // ========== Data Classes ==========
+    /**
+     * A message matched to a member, waiting to be sent
+     */
+    private static final class ProxyPlan {
+        private final Message originalMessage;
+        private final ProxyMember member;
+        private final String content;
+        private final ProxySettings settings;
+        private final String guildId;
+        
+        private ProxyPlan(Message originalMessage, ProxyMember member, String content,
+                          ProxySettings settings, String guildId) {
+            this.originalMessage = originalMessage;
+            this.member = member;
+            this.content = content;
+            this.settings = settings;
+            this.guildId = guildId;
+        }
+    }
+    
+    /**
+     * An owner's members in one guild scope, with their proxy tags compiled
+     */
+    private static final class OwnerScope {
+        private final List<ProxyMember> members;
+        private final ProxyTagMatcher matcher;
+        
+        private OwnerScope(List<ProxyMember> members, ProxyTagMatcher matcher) {
+            this.members = members;
+            this.matcher = matcher;
+        }
+    }
     
     /**
      * Result of a proxy attempt
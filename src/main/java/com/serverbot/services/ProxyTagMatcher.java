@@ -0,0 +1,183 @@
+package com.serverbot.services;
+
+import com.serverbot.models.ProxyMember;
+import com.serverbot.models.ProxyMember.ProxyMatch;
+import com.serverbot.models.ProxyMember.ProxyTag;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Proxy tags of one user's members, compiled into a prefix trie and a reversed-suffix trie.
+ * Matching walks each trie once from its end of the message, so the cost depends on the length of
+ * the tags found rather than the number of members. When several tags match, the one covering the most
+ * characters wins; ties go to the earlier member in list order, then the earlier tag.
+ * Instances are immutable; rebuild when members or tags change.
+ */
+public final class ProxyTagMatcher {
+
+    private static final int[] NO_TAGS = new int[0];
+
+    private final Node prefixRoot = new Node();
+    private final Node suffixRoot = new Node();
+
+    // Indexed by tag id, which is also the tie-break priority
+    private final ProxyMember[] tagMembers;
+    private final ProxyTag[] tags;
+    private final int[] prefixLengths;
+    private final int[] suffixLengths;
+
+    /**
+     * @param members Members in priority order, usually sorted by name
+     */
+    public ProxyTagMatcher(List<ProxyMember> members) {
+        int count = 0;
+        for (ProxyMember member : members) {
+            count += member.getProxyTags() != null ? member.getProxyTags().size() : 0;
+        }
+        tagMembers = new ProxyMember[count];
+        tags = new ProxyTag[count];
+        prefixLengths = new int[count];
+        suffixLengths = new int[count];
+
+        int id = 0;
+        for (ProxyMember member : members) {
+            if (member.getProxyTags() == null) {
+                continue;
+            }
+            for (ProxyTag tag : member.getProxyTags()) {
+                String prefix = tag.getPrefix() != null ? tag.getPrefix() : "";
+                String suffix = tag.getSuffix() != null ? tag.getSuffix() : "";
+                // A tag with neither part never matches
+                if (prefix.isEmpty() && suffix.isEmpty()) {
+                    continue;
+                }
+                tagMembers[id] = member;
+                tags[id] = tag;
+                prefixLengths[id] = prefix.length();
+                suffixLengths[id] = suffix.length();
+
+                Node node = prefixRoot;
+                for (int i = 0; i < prefix.length(); i++) {
+                    node = node.child(prefix.charAt(i));
+                }
+                node.add(id);
+
+                node = suffixRoot;
+                for (int i = suffix.length() - 1; i >= 0; i--) {
+                    node = node.child(suffix.charAt(i));
+                }
+                node.add(id);
+                id++;
+            }
+        }
+    }
+
+    /**
+     * Find the best matching tag for a message
+     * @return The match with the tags stripped from the content, or null if no tag matches
+     */
+    public ProxyMatch match(String message) {
+        if (message == null || message.isEmpty() || tags.length == 0) {
+            return null;
+        }
+        int length = message.length();
+        int best = -1;
+
+        // Tags with both a prefix and a suffix whose prefix matched, waiting on their suffix
+        int[] pending = NO_TAGS;
+        int pendingCount = 0;
+
+        Node node = prefixRoot;
+        for (int i = 0; i < length; i++) {
+            node = node.get(message.charAt(i));
+            if (node == null) {
+                break;
+            }
+            for (int t = 0; t < node.count; t++) {
+                int tag = node.tags[t];
+                if (suffixLengths[tag] == 0) {
+                    best = better(tag, best, length);
+                } else {
+                    if (pendingCount == pending.length) {
+                        pending = Arrays.copyOf(pending, Math.max(4, pendingCount * 2));
+                    }
+                    pending[pendingCount++] = tag;
+                }
+            }
+        }
+
+        node = suffixRoot;
+        for (int i = length - 1; i >= 0; i--) {
+            node = node.get(message.charAt(i));
+            if (node == null) {
+                break;
+            }
+            for (int t = 0; t < node.count; t++) {
+                int tag = node.tags[t];
+                if (prefixLengths[tag] == 0 || contains(pending, pendingCount, tag)) {
+                    best = better(tag, best, length);
+                }
+            }
+        }
+
+        if (best < 0) {
+            return null;
+        }
+        String content = message.substring(prefixLengths[best], length - suffixLengths[best]).trim();
+        return new ProxyMatch(tagMembers[best], tags[best], content);
+    }
+
+    /**
+     * Pick between a candidate and the current best, ignoring tags that leave no content
+     */
+    private int better(int tag, int best, int length) {
+        int covered = prefixLengths[tag] + suffixLengths[tag];
+        if (covered >= length) {
+            return best;
+        }
+        if (best < 0) {
+            return tag;
+        }
+        int bestCovered = prefixLengths[best] + suffixLengths[best];
+        if (covered > bestCovered || (covered == bestCovered && tag < best)) {
+            return tag;
+        }
+        return best;
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Node {
+        private Map<Character, Node> children;
+        private int[] tags = NO_TAGS;
+        private int count;
+
+        Node child(char c) {
+            if (children == null) {
+                children = new HashMap<>(4);
+            }
+            return children.computeIfAbsent(c, k -> new Node());
+        }
+
+        Node get(char c) {
+            return children != null ? children.get(c) : null;
+        }
+
+        void add(int tag) {
+            if (count == tags.length) {
+                tags = Arrays.copyOf(tags, Math.max(2, count * 2));
+            }
+            tags[count++] = tag;
+        }
+    }
+}
@@ -70,34 +70,35 @@ public class PunishmentNotificationService {
             try {
                 PunishmentDMSettings settings = getDMSettings(guildId);
                 if (!settings.isEnabled()) {
-                    return false; // DM notifications disabled
+                    return CompletableFuture.completedFuture(false); // DM notifications disabled
                 }
                 
                 Guild guild = ServerBot.getJda().getGuildById(guildId);
                 if (guild == null) {
                     ServerBot.getLogger().error("Guild not found for punishment notification: {}", guildId);
-                    return false;
+                    return CompletableFuture.completedFuture(false);
                 }
                 
                 User user = ServerBot.getJda().getUserById(userId);
                 if (user == null) {
                     ServerBot.getLogger().error("User not found for punishment notification: {}", userId);
-                    return false;
+                    return CompletableFuture.completedFuture(false);
                 }
                 
                 return sendDMNotification(guild, user, type, reason, duration, moderatorName, settings);
                 
             } catch (Exception e) {
                 ServerBot.getLogger().error("Error sending punishment notification: {}", e.getMessage(), e);
-                return false;
+                return CompletableFuture.completedFuture(false);
             }
-        });
+        }).thenCompose(sent -> sent);
     }
     
     /**
      * Send the actual DM notification
+     * @return Future completed once Discord has accepted or rejected the DM
      */
-    private boolean sendDMNotification(Guild guild, User user, PunishmentType type, String reason, 
+    private CompletableFuture<Boolean> sendDMNotification(Guild guild, User user, PunishmentType type, String reason, 
             Duration duration, String moderatorName, PunishmentDMSettings settings) {
         
         try {
@@ -126,29 +127,24 @@ public class PunishmentNotificationService {
             }
             
             // Send DM
-            if (actionRow != null) {
-                user.openPrivateChannel()
-                    .flatMap(channel -> channel.sendMessageEmbeds(embed.build()).addComponents(actionRow))
-                    .queue(
-                        success -> ServerBot.getLogger().info("Sent punishment DM to user {} for {}", user.getId(), type),
-                        failure -> ServerBot.getLogger().warn("Failed to send punishment DM to user {}: {}", 
-                            user.getId(), failure.getMessage())
-                    );
-            } else {
-                user.openPrivateChannel()
-                    .flatMap(channel -> channel.sendMessageEmbeds(embed.build()))
-                    .queue(
-                        success -> ServerBot.getLogger().info("Sent punishment DM to user {} for {}", user.getId(), type),
-                        failure -> ServerBot.getLogger().warn("Failed to send punishment DM to user {}: {}", 
-                            user.getId(), failure.getMessage())
-                    );
-            }
-            
-            return true;
+            return user.openPrivateChannel()
+                .flatMap(channel -> actionRow != null
+                    ? channel.sendMessageEmbeds(embed.build()).addComponents(actionRow)
+                    : channel.sendMessageEmbeds(embed.build()))
+                .submit()
+                .handle((message, failure) -> {
+                    if (failure != null) {
+                        ServerBot.getLogger().warn("Failed to send punishment DM to user {}: {}", 
+                            user.getId(), failure.getMessage());
+                        return false;
+                    }
+                    ServerBot.getLogger().info("Sent punishment DM to user {} for {}", user.getId(), type);
+                    return true;
+                });
             
         } catch (Exception e) {
             ServerBot.getLogger().error("Error sending DM notification: {}", e.getMessage(), e);
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
     }
     
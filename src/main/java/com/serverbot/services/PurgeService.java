@@ -0,0 +1,459 @@
+package com.serverbot.services;
+
+import com.serverbot.utils.PurgeFilter;
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildMessageChannel;
+import net.dv8tion.jda.api.requests.RestAction;
+import net.dv8tion.jda.api.requests.restaction.pagination.MessagePaginationAction;
+import net.dv8tion.jda.api.utils.TimeUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Streaming purge engine.
+ * Channel history is walked one page at a time and each page is processed before the next is
+ * requested, so memory stays constant no matter how many messages match. Messages younger than
+ * two weeks are bulk deleted per page; older ones fall back to paced single deletes.
+ */
+public class PurgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PurgeService.class);
+    private static PurgeService instance;
+
+    public static final int MAX_PURGE = 10000;
+    // Upper bound on history walked per channel so a narrow filter can't page forever
+    private static final int MAX_SCANNED = 50000;
+    private static final int PAGE_SIZE = 100;
+    // Discord rejects bulk deletes of messages older than 14 days; keep a safety margin
+    private static final Duration BULK_DELETE_MAX_AGE = Duration.ofDays(14).minusMinutes(5);
+    private static final long SINGLE_DELETE_DELAY_MS = 1100;
+
+    // Channels purged at once by a guild-wide purge; each channel has its own history and bulk-delete rate limit bucket
+    private static final int MAX_PARALLEL_CHANNELS = 4;
+
+    private final Map<String, PurgeJob> activeJobs = new ConcurrentHashMap<>();
+    private final Map<String, GuildPurge> activeGuildPurges = new ConcurrentHashMap<>();
+
+    private PurgeService() {
+    }
+
+    public static synchronized PurgeService getInstance() {
+        if (instance == null) {
+            instance = new PurgeService();
+        }
+        return instance;
+    }
+
+    public enum Mode {
+        DELETE,
+        CLEAR_REACTIONS
+    }
+
+    /**
+     * Receives progress after each page of history has been processed
+     */
+    public interface ProgressListener {
+        void onProgress(PurgeJob job);
+    }
+
+    /**
+     * Start purging a channel
+     * @param limit Maximum number of matching messages to act on
+     * @return The running job, or null if a purge is already running in the channel
+     */
+    public PurgeJob start(GuildMessageChannel channel, PurgeFilter filter, Mode mode, int limit, ProgressListener progress) {
+        PurgeJob job = new PurgeJob(channel, filter, mode, Math.min(limit, MAX_PURGE), progress);
+        if (activeJobs.putIfAbsent(channel.getId(), job) != null) {
+            return null;
+        }
+
+        job.future.whenComplete((result, error) -> activeJobs.remove(channel.getId(), job));
+        logger.info("Starting purge in channel {} ({}, limit {}): {}", channel.getId(), mode, job.limit, filter.describe());
+        job.nextPage();
+        return job;
+    }
+
+    /**
+     * Remove everything a set of users posted within a time window across every readable channel of the guild.
+     * Channels are scanned concurrently, at most {@link #MAX_PARALLEL_CHANNELS} at a time.
+     * @return The running guild purge, or null if one is already running in the guild
+     */
+    public GuildPurge startGuildPurge(Guild guild, Set<Long> userIds, Duration window, Consumer<GuildPurge> progress) {
+        long after = TimeUtil.getDiscordTimestamp(System.currentTimeMillis() - window.toMillis());
+        PurgeFilter filter = PurgeFilter.builder().users(userIds).after(after).build();
+
+        List<GuildMessageChannel> channels = new ArrayList<>();
+        channels.addAll(guild.getTextChannels());
+        channels.addAll(guild.getNewsChannels());
+        channels.removeIf(channel -> !guild.getSelfMember().hasPermission(channel,
+            Permission.VIEW_CHANNEL, Permission.MESSAGE_HISTORY, Permission.MESSAGE_MANAGE));
+
+        GuildPurge purge = new GuildPurge(guild.getId(), filter, channels, progress);
+        if (activeGuildPurges.putIfAbsent(guild.getId(), purge) != null) {
+            return null;
+        }
+        purge.future.whenComplete((result, error) -> activeGuildPurges.remove(guild.getId(), purge));
+
+        logger.info("Starting guild purge in {} across {} channels: {}", guild.getId(), channels.size(), filter.describe());
+        if (channels.isEmpty()) {
+            purge.future.complete(purge);
+            return purge;
+        }
+        for (int i = 0; i < Math.min(MAX_PARALLEL_CHANNELS, channels.size()); i++) {
+            purge.startNextChannel();
+        }
+        return purge;
+    }
+
+    /**
+     * Request cancellation of the purge running in a channel; it stops after the current page
+     * @return true if a purge was running
+     */
+    public boolean cancel(String channelId) {
+        PurgeJob job = activeJobs.get(channelId);
+        if (job == null) {
+            return false;
+        }
+        job.cancelled = true;
+        return true;
+    }
+
+    /**
+     * Request cancellation of a guild-wide purge; running channels stop after their current page
+     * @return true if a guild purge was running
+     */
+    public boolean cancelGuildPurge(String guildId) {
+        GuildPurge purge = activeGuildPurges.get(guildId);
+        if (purge == null) {
+            return false;
+        }
+        purge.cancel();
+        return true;
+    }
+
+    public boolean isRunning(String channelId) {
+        return activeJobs.containsKey(channelId);
+    }
+
+    private static boolean isBulkDeletable(Message message) {
+        return message.getTimeCreated().isAfter(OffsetDateTime.now().minus(BULK_DELETE_MAX_AGE));
+    }
+
+    /**
+     * A guild-wide purge made of one {@link PurgeJob} per channel, aggregated into a single set of counters
+     */
+    public class GuildPurge {
+        private final String guildId;
+        private final PurgeFilter filter;
+        private final List<GuildMessageChannel> channels;
+        private final Consumer<GuildPurge> progress;
+        private final CompletableFuture<GuildPurge> future = new CompletableFuture<>();
+        private final Set<PurgeJob> running = ConcurrentHashMap.newKeySet();
+
+        private final AtomicInteger nextChannel = new AtomicInteger();
+        private final AtomicInteger channelsDone = new AtomicInteger();
+        private final AtomicInteger channelsWithMatches = new AtomicInteger();
+        private final AtomicInteger channelsFailed = new AtomicInteger();
+        // Totals from finished channels; running channels are added on read
+        private final AtomicInteger scanned = new AtomicInteger();
+        private final AtomicInteger deleted = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private volatile boolean cancelled;
+
+        private GuildPurge(String guildId, PurgeFilter filter, List<GuildMessageChannel> channels, Consumer<GuildPurge> progress) {
+            this.guildId = guildId;
+            this.filter = filter;
+            this.channels = channels;
+            this.progress = progress;
+        }
+
+        private void startNextChannel() {
+            int index = nextChannel.getAndIncrement();
+            if (index >= channels.size()) {
+                return;
+            }
+            if (cancelled) {
+                finishChannel(null);
+                return;
+            }
+
+            GuildMessageChannel channel = channels.get(index);
+            PurgeJob job = start(channel, filter, Mode.DELETE, MAX_PURGE, j -> notifyProgress());
+            if (job == null) {
+                // A channel purge is already running there; leave it alone
+                finishChannel(null);
+                return;
+            }
+            running.add(job);
+            job.getFuture().whenComplete((result, error) -> {
+                running.remove(job);
+                if (error != null) {
+                    channelsFailed.incrementAndGet();
+                }
+                finishChannel(job);
+            });
+        }
+
+        private void finishChannel(PurgeJob job) {
+            if (job != null) {
+                scanned.addAndGet(job.getScanned());
+                deleted.addAndGet(job.getProcessed());
+                failed.addAndGet(job.getFailed());
+                if (job.getMatched() > 0) {
+                    channelsWithMatches.incrementAndGet();
+                }
+            }
+            if (channelsDone.incrementAndGet() == channels.size()) {
+                logger.info("Guild purge in {} finished: {} deleted across {} channels", guildId, deleted.get(), channelsWithMatches.get());
+                future.complete(this);
+            } else {
+                notifyProgress();
+                startNextChannel();
+            }
+        }
+
+        private void notifyProgress() {
+            if (progress == null) {
+                return;
+            }
+            try {
+                progress.accept(this);
+            } catch (Exception e) {
+                logger.debug("Guild purge progress listener failed: {}", e.getMessage());
+            }
+        }
+
+        private void cancel() {
+            cancelled = true;
+            for (PurgeJob job : running) {
+                job.cancel();
+            }
+        }
+
+        public CompletableFuture<GuildPurge> getFuture() {
+            return future;
+        }
+
+        public PurgeFilter getFilter() {
+            return filter;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public int getChannelCount() {
+            return channels.size();
+        }
+
+        public int getChannelsDone() {
+            return channelsDone.get();
+        }
+
+        public int getChannelsWithMatches() {
+            return channelsWithMatches.get();
+        }
+
+        public int getChannelsFailed() {
+            return channelsFailed.get();
+        }
+
+        public int getScanned() {
+            int total = scanned.get();
+            for (PurgeJob job : running) {
+                total += job.getScanned();
+            }
+            return total;
+        }
+
+        public int getDeleted() {
+            int total = deleted.get();
+            for (PurgeJob job : running) {
+                total += job.getProcessed();
+            }
+            return total;
+        }
+
+        public int getFailed() {
+            return failed.get();
+        }
+    }
+
+    /**
+     * A single channel purge. Counters are only written from the chained callbacks, one page at a time.
+     */
+    public static class PurgeJob {
+        private final GuildMessageChannel channel;
+        private final PurgeFilter filter;
+        private final Mode mode;
+        private final int limit;
+        private final ProgressListener progress;
+        private final MessagePaginationAction history;
+        private final CompletableFuture<PurgeJob> future = new CompletableFuture<>();
+
+        private volatile boolean cancelled;
+        private volatile int scanned;
+        private volatile int matched;
+        private volatile int processed;
+        private volatile int failed;
+
+        private PurgeJob(GuildMessageChannel channel, PurgeFilter filter, Mode mode, int limit, ProgressListener progress) {
+            this.channel = channel;
+            this.filter = filter;
+            this.mode = mode;
+            this.limit = limit;
+            this.progress = progress;
+
+            MessagePaginationAction action = channel.getIterableHistory().cache(false).limit(PAGE_SIZE);
+            if (filter.getBeforeId() != 0) {
+                action = action.skipTo(filter.getBeforeId());
+            }
+            this.history = action;
+        }
+
+        private void nextPage() {
+            if (cancelled) {
+                future.complete(this);
+                return;
+            }
+
+            history.queue(page -> {
+                List<Message> recent = new ArrayList<>();
+                List<Message> old = new ArrayList<>();
+                boolean exhausted = page.size() < PAGE_SIZE;
+
+                try {
+                    for (Message message : page) {
+                        if (filter.isPastRange(message) || scanned >= MAX_SCANNED || matched >= limit) {
+                            exhausted = true;
+                            break;
+                        }
+                        scanned++;
+                        if (!filter.test(message)) {
+                            continue;
+                        }
+                        matched++;
+                        if (mode == Mode.DELETE && isBulkDeletable(message)) {
+                            recent.add(message);
+                        } else {
+                            old.add(message);
+                        }
+                    }
+                } catch (PurgeFilter.PatternTimeoutException e) {
+                    logger.warn("Aborting purge in {}: pattern timed out after scanning {} messages", channel.getId(), scanned);
+                    future.completeExceptionally(e);
+                    return;
+                }
+
+                boolean done = exhausted || matched >= limit;
+                processPage(recent, old).whenComplete((v, error) -> {
+                    if (progress != null) {
+                        try {
+                            progress.onProgress(this);
+                        } catch (Exception e) {
+                            logger.debug("Purge progress listener failed: {}", e.getMessage());
+                        }
+                    }
+                    if (done) {
+                        future.complete(this);
+                    } else {
+                        nextPage();
+                    }
+                });
+            }, error -> {
+                logger.warn("Failed to retrieve history for purge in {}: {}", channel.getId(), error.getMessage());
+                future.completeExceptionally(error);
+            });
+        }
+
+        private CompletableFuture<Void> processPage(List<Message> recent, List<Message> old) {
+            CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+            if (recent.size() >= 2) {
+                chain = track(channel.deleteMessages(recent).submit(), recent.size());
+            } else if (recent.size() == 1) {
+                old.add(0, recent.get(0));
+            }
+
+            // Sequential single requests, spaced out to stay clear of the per-route rate limit
+            for (Message message : old) {
+                chain = chain.thenCompose(v -> cancelled
+                    ? CompletableFuture.completedFuture(null)
+                    : track(singleAction(message).submit(), 1));
+            }
+            return chain;
+        }
+
+        private RestAction<Void> singleAction(Message message) {
+            RestAction<Void> action = mode == Mode.CLEAR_REACTIONS
+                ? message.clearReactions()
+                : message.delete();
+            return action.delay(SINGLE_DELETE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+
+        private CompletableFuture<Void> track(CompletableFuture<Void> request, int count) {
+            return request.handle((v, error) -> {
+                if (error != null) {
+                    failed += count;
+                    logger.debug("Purge request in {} failed: {}", channel.getId(), error.getMessage());
+                } else {
+                    processed += count;
+                }
+                return null;
+            });
+        }
+
+        public CompletableFuture<PurgeJob> getFuture() {
+            return future;
+        }
+
+        public GuildMessageChannel getChannel() {
+            return channel;
+        }
+
+        public PurgeFilter getFilter() {
+            return filter;
+        }
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public int getScanned() {
+            return scanned;
+        }
+
+        public int getMatched() {
+            return matched;
+        }
+
+        public int getProcessed() {
+            return processed;
+        }
+
+        public int getFailed() {
+            return failed;
+        }
+    }
+}
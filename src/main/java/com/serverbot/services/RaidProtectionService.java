@@ -0,0 +1,178 @@
+package com.serverbot.services;
+
+import com.serverbot.ServerBot;
+import com.serverbot.utils.AutoLogUtils;
+import com.serverbot.utils.DmUtils;
+import com.serverbot.utils.JoinRateTracker;
+import com.serverbot.utils.SafeRestAction;
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.*;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detects join raids from join velocity and responds once per raid:
+ * locks the server down, raises the verification level and sends a single aggregated alert.
+ */
+public class RaidProtectionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RaidProtectionService.class);
+    private static RaidProtectionService instance;
+
+    // Defaults for the raid* guild settings
+    private static final int DEFAULT_JOIN_THRESHOLD = 10;
+    private static final int DEFAULT_WINDOW_SECONDS = 10;
+    private static final int DEFAULT_COOLDOWN_MINUTES = 10;
+
+    private final Map<String, JoinRateTracker> trackers = new ConcurrentHashMap<>();
+    private final Map<String, Long> raidModeUntil = new ConcurrentHashMap<>();
+
+    private RaidProtectionService() {
+    }
+
+    public static synchronized RaidProtectionService getInstance() {
+        if (instance == null) {
+            instance = new RaidProtectionService();
+        }
+        return instance;
+    }
+
+    /**
+     * Record a member join and check for a raid
+     * @return true while the guild is in raid mode, so per-account alerts can be suppressed
+     */
+    public boolean recordJoin(Member member) {
+        Guild guild = member.getGuild();
+        String guildId = guild.getId();
+        Map<String, Object> settings = ServerBot.getStorageManager().getGuildSettings(guildId);
+        if (!Boolean.TRUE.equals(settings.get("raidProtectionEnabled"))) {
+            return false;
+        }
+
+        long now = System.currentTimeMillis();
+        long accountAge = now - member.getUser().getTimeCreated().toInstant().toEpochMilli();
+        JoinRateTracker tracker = trackers.computeIfAbsent(guildId, k -> new JoinRateTracker());
+        tracker.record(now, accountAge);
+
+        // Already handling a raid
+        Long until = raidModeUntil.get(guildId);
+        if (until != null && now < until) {
+            return true;
+        }
+
+        int threshold = getInt(settings, "raidJoinThreshold", DEFAULT_JOIN_THRESHOLD);
+        int window = getInt(settings, "raidJoinWindow", DEFAULT_WINDOW_SECONDS);
+        int joins = tracker.countJoins(now, window);
+        if (joins < threshold) {
+            return false;
+        }
+
+        // A raid: enter raid mode unless another join thread got there first
+        long cooldown = TimeUnit.MINUTES.toMillis(getInt(settings, "raidCooldown", DEFAULT_COOLDOWN_MINUTES));
+        Long previous = raidModeUntil.get(guildId);
+        boolean entered = previous == null
+            ? raidModeUntil.putIfAbsent(guildId, now + cooldown) == null
+            : raidModeUntil.replace(guildId, previous, now + cooldown);
+        if (!entered) {
+            return true;
+        }
+
+        triggerRaidResponse(guild, joins, window, tracker.ageHistogram(now, window), cooldown);
+        return true;
+    }
+
+    private void triggerRaidResponse(Guild guild, int joins, int windowSeconds, int[] histogram, long cooldownMillis) {
+        logger.warn("Raid detected in guild {} ({}): {} joins in {}s", guild.getName(), guild.getId(), joins, windowSeconds);
+
+        StringBuilder actions = new StringBuilder();
+        actions.append(lockGuild(guild)).append("\n");
+        actions.append(raiseVerification(guild)).append("\n");
+
+        StringBuilder ages = new StringBuilder();
+        for (int i = 0; i < histogram.length; i++) {
+            if (histogram[i] > 0) {
+                ages.append(JoinRateTracker.AGE_LABELS[i]).append(": **").append(histogram[i]).append("**\n");
+            }
+        }
+
+        MessageEmbed embed = new EmbedBuilder()
+            .setColor(Color.RED)
+            .setTitle("🚨 Raid Detected")
+            .setDescription("**" + joins + "** accounts joined within **" + windowSeconds + " seconds**.\n" +
+                "Individual suspicious-account alerts are paused for " +
+                TimeUnit.MILLISECONDS.toMinutes(cooldownMillis) + " minutes.")
+            .addField("Account Ages", ages.length() > 0 ? ages.toString() : "Unknown", true)
+            .addField("Actions Taken", actions.toString(), true)
+            .addField("Next Steps", "Review recent joins, then use `/lockdown server:True` to restore channels once the raid is over.", false)
+            .setFooter("Raid Protection", guild.getIconUrl())
+            .setTimestamp(OffsetDateTime.now())
+            .build();
+
+        AutoLogUtils.logRaidAlert(guild, embed);
+        SafeRestAction.queue(
+            guild.retrieveOwner(),
+            "retrieve guild owner for raid alert",
+            owner -> DmUtils.sendDm(guild, owner.getUser(), embed,
+                v -> logger.debug("Sent raid alert to owner of guild {}", guild.getId()),
+                error -> logger.warn("Failed to send raid alert to guild owner: {}", error.getMessage()))
+        );
+    }
+
+    /**
+     * Start a server-wide lockdown; it snapshots channel state so /lockdown server can restore it
+     */
+    private String lockGuild(Guild guild) {
+        LockdownService lockdownService = LockdownService.getInstance();
+        if (lockdownService.isGuildLocked(guild.getId())) {
+            return "• Server already locked down";
+        }
+        CompletableFuture<LockdownService.Result> future =
+            lockdownService.lockGuild(guild, guild.getSelfMember().getId(), "Automatic raid lockdown", null);
+        if (future == null) {
+            return "• Server lockdown already in progress";
+        }
+        future.whenComplete((result, error) -> {
+            if (error != null) {
+                logger.warn("Raid lockdown failed in {}: {}", guild.getId(), error.getMessage());
+            } else {
+                logger.info("Raid lockdown in {} locked {}/{} channels", guild.getId(), result.succeeded, result.total);
+            }
+        });
+        return "• Locking down all channels";
+    }
+
+    /**
+     * Raise the guild verification level to HIGH, remembering the previous level
+     */
+    private String raiseVerification(Guild guild) {
+        Guild.VerificationLevel current = guild.getVerificationLevel();
+        if (current.getKey() >= Guild.VerificationLevel.HIGH.getKey()) {
+            return "• Verification already " + current.name();
+        }
+        if (!guild.getSelfMember().hasPermission(Permission.MANAGE_SERVER)) {
+            return "• Could not raise verification (missing Manage Server)";
+        }
+
+        ServerBot.getStorageManager().updateGuildSettings(guild.getId(), "raidPreviousVerificationLevel", current.name());
+        guild.getManager().setVerificationLevel(Guild.VerificationLevel.HIGH).reason("Automatic raid protection").queue(
+            null,
+            error -> logger.warn("Failed to raise verification level in {}: {}", guild.getId(), error.getMessage())
+        );
+        return "• Verification raised from " + current.name() + " to HIGH";
+    }
+
+    private int getInt(Map<String, Object> settings, String key, int defaultValue) {
+        Object value = settings.get(key);
+        return value instanceof Number ? ((Number) value).intValue() : defaultValue;
+    }
+}
@@ -2,6 +2,8 @@ package com.serverbot.services;
 
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
+import com.serverbot.storage.UserDataIndex;
+import com.serverbot.storage.UserDataStore;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.Role;
@@ -21,10 +23,12 @@ public class RolePersistenceService {
     private final Gson gson;
     private static final String DATA_DIR = "data";
     private static final String ROLE_PERSISTENCE_FILE = "role_persistence.json";
+    private static final String STORE_NAME = "role_persistence";
     
     private RolePersistenceService() {
         this.gson = new Gson();
         new File(DATA_DIR).mkdirs();
+        registerUserData();
     }
     
     public static RolePersistenceService getInstance() {
@@ -69,6 +73,7 @@ public class RolePersistenceService {
                 guildData.put(guildId, guildUsers);
                 
                 saveRolePersistenceData(guildData);
+                UserDataIndex.getInstance().add(member.getId(), STORE_NAME, guildId);
                 
                 System.out.println("Saved " + roleIds.size() + " roles for user " + 
                     member.getUser().getName() + " in " + member.getGuild().getName());
@@ -225,6 +230,42 @@ public class RolePersistenceService {
         }
     }
     
+    /**
+     * Register saved roles with the user data index, keyed by guild id
+     */
+    private void registerUserData() {
+        UserDataIndex index = UserDataIndex.getInstance();
+        index.register(UserDataStore.of(STORE_NAME, "Saved roles",
+            (userId, keys, sink) -> {
+                Map<String, Map<String, UserRoleData>> guildData = loadRolePersistenceData();
+                for (String guildId : keys) {
+                    Map<String, UserRoleData> guildUsers = guildData.get(guildId);
+                    if (guildUsers != null && guildUsers.containsKey(userId)) {
+                        sink.accept(guildId, guildUsers.get(userId));
+                    }
+                }
+            },
+            (userId, keys) -> {
+                // One read and one write for all of the user's guilds
+                Map<String, Map<String, UserRoleData>> guildData = loadRolePersistenceData();
+                int removed = 0;
+                for (String guildId : keys) {
+                    Map<String, UserRoleData> guildUsers = guildData.get(guildId);
+                    if (guildUsers != null && guildUsers.remove(userId) != null) {
+                        removed++;
+                    }
+                }
+                if (removed > 0) {
+                    saveRolePersistenceData(guildData);
+                }
+                return removed;
+            }));
+        
+        index.clearStore(STORE_NAME);
+        loadRolePersistenceData().forEach((guildId, guildUsers) ->
+            guildUsers.keySet().forEach(userId -> index.add(userId, STORE_NAME, guildId)));
+    }
+    
     private Map<String, Map<String, UserRoleData>> loadRolePersistenceData() {
         try {
             File file = new File(DATA_DIR, ROLE_PERSISTENCE_FILE);
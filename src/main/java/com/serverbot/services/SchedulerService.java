@@ -13,6 +13,7 @@ import java.io.*;
 import java.lang.reflect.Type;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.Executors;
@@ -69,6 +70,36 @@ public class SchedulerService {
         addScheduledTask(task);
     }
     
+    /**
+     * Schedule unbans for several users at once, persisting them in a single write
+     */
+    public void scheduleUnbans(String guildId, Collection<String> userIds, String reason, long unbanTimestamp) {
+        List<ScheduledTask> tasks = new ArrayList<>(userIds.size());
+        for (String userId : userIds) {
+            tasks.add(ScheduledTask.unban(guildId, userId, reason, unbanTimestamp));
+        }
+        addScheduledTasks(tasks);
+    }
+    
+    /**
+     * Persist several tasks in a single write; tasks without an id are given one
+     */
+    public void addScheduledTasks(Collection<ScheduledTask> newTasks) {
+        if (newTasks.isEmpty()) {
+            return;
+        }
+        List<ScheduledTask> tasks = getScheduledTasks();
+        int index = 0;
+        for (ScheduledTask task : newTasks) {
+            if (task.id == null) {
+                // Suffix keeps ids unique when many are generated in the same millisecond
+                task.id = generateTaskId() + "_" + index++;
+            }
+            tasks.add(task);
+        }
+        saveScheduledTasks(tasks);
+    }
+    
     /**
      * Schedule a temporary mute that will be automatically lifted
      */
@@ -252,6 +283,17 @@ public class SchedulerService {
         public String reason;
         public long executeAt;
         public long createdAt;
+        
+        public static ScheduledTask unban(String guildId, String userId, String reason, long executeAt) {
+            ScheduledTask task = new ScheduledTask();
+            task.type = TaskType.UNBAN;
+            task.guildId = guildId;
+            task.userId = userId;
+            task.reason = reason;
+            task.executeAt = executeAt;
+            task.createdAt = System.currentTimeMillis();
+            return task;
+        }
     }
     
     public enum TaskType {
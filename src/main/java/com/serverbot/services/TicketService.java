@@ -4,6 +4,8 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
 import com.serverbot.ServerBot;
+import com.serverbot.storage.UserDataIndex;
+import com.serverbot.storage.UserDataStore;
 import com.serverbot.utils.EmbedUtils;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.Permission;
@@ -41,6 +43,7 @@ public class TicketService {
     private static final String CLOSED_TICKETS_CATEGORY_NAME = "Closed Tickets";
     private static final String ARCHIVED_TICKETS_CATEGORY_NAME = "Archived Tickets";
     private static final long CLOSED_TICKET_DELETE_DELAY_DAYS = 14;
+    private static final String STORE_NAME = "tickets";
     
     private final Gson gson;
     private final Map<String, TicketCategory> ticketCategories;
@@ -66,6 +69,7 @@ public class TicketService {
         loadTicketData();
         loadTicketSettings();
         loadTicketKiosks();
+        registerUserData();
         
         // Schedule daily cleanup task for expired tickets
         startCleanupScheduler();
@@ -160,6 +164,7 @@ public class TicketService {
                 
                 activeTickets.put(ticketId, ticketData);
                 saveTicketData();
+                UserDataIndex.getInstance().add(user.getId(), STORE_NAME, ticketId);
                 
                 // Send welcome message
                 sendTicketWelcomeMessage(ticketChannel, user, ticketId, reason);
@@ -914,6 +919,50 @@ public class TicketService {
         }
     }
     
+    /**
+     * Register tickets with the user data index, keyed by ticket id.
+     * Deletion only removes closed tickets; an open ticket is still in use by staff and is kept
+     * until it is closed.
+     */
+    private void registerUserData() {
+        UserDataIndex index = UserDataIndex.getInstance();
+        index.register(UserDataStore.of(STORE_NAME, "Closed support tickets",
+            (userId, keys, sink) -> {
+                for (String ticketId : keys) {
+                    TicketData ticket = activeTickets.get(ticketId);
+                    if (ticket != null && userId.equals(ticket.getCreatorId())) {
+                        sink.accept(ticketId, ticket);
+                    }
+                }
+            },
+            (userId, keys) -> {
+                int removed = 0;
+                net.dv8tion.jda.api.JDA jda = ServerBot.getJda();
+                for (String ticketId : keys) {
+                    TicketData ticket = activeTickets.get(ticketId);
+                    if (ticket == null || !userId.equals(ticket.getCreatorId())
+                            || ticket.getStatus() == TicketStatus.OPEN) {
+                        continue;
+                    }
+                    activeTickets.remove(ticketId);
+                    removed++;
+                    // The channel would be removed by the expiry cleanup, which no longer tracks it
+                    TextChannel channel = jda != null ? jda.getTextChannelById(ticket.getChannelId()) : null;
+                    if (channel != null) {
+                        channel.delete().reason("Ticket creator deleted their data").queue(null,
+                            error -> ServerBot.getLogger().warn("Failed to delete ticket channel {}: {}",
+                                ticket.getChannelId(), error.getMessage()));
+                    }
+                }
+                if (removed > 0) {
+                    saveTicketData();
+                }
+                return removed;
+            }));
+        
+        activeTickets.forEach((ticketId, ticket) -> index.add(ticket.getCreatorId(), STORE_NAME, ticketId));
+    }
+    
     // Kiosk persistence methods
     
     private void loadTicketKiosks() {
@@ -0,0 +1,310 @@
+package com.serverbot.services;
+
+import net.dv8tion.jda.api.entities.Webhook;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
+import net.dv8tion.jda.api.requests.ErrorResponse;
+import net.dv8tion.jda.api.requests.RestAction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * One bot-owned webhook per channel, shared by proxying, global chat and TalkAs.
+ * Lookups that miss the cache are coalesced so concurrent senders wait on the same REST call, and
+ * existing webhooks from before the pool (under the old per-feature names) are adopted instead of
+ * creating new ones, since Discord allows only 15 per channel. Sends are spaced to stay inside
+ * Discord's per-webhook limit rather than queueing behind 429s.
+ */
+public class WebhookPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookPool.class);
+    private static WebhookPool instance;
+
+    public static final String WEBHOOK_NAME = "ServerBot";
+    // Names used before the pool existed, adopted so channels don't collect one webhook per feature
+    private static final Set<String> LEGACY_NAMES = Set.of("ServerBot Proxy", "ServerBot GlobalChat", "ServerBot TalkAs");
+
+    private static final int MAX_CACHED = 2000;
+    // Discord allows about 5 executions per 2 seconds per webhook
+    private static final int BURST = 5;
+    private static final long WINDOW_MS = 2000;
+
+    // channelId -> entry, least recently used first
+    private final Map<String, Entry> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_CACHED;
+        }
+    };
+    private final Map<String, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService delayer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "webhook-pool");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder invalidated = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    private WebhookPool() {
+    }
+
+    public static synchronized WebhookPool getInstance() {
+        if (instance == null) {
+            instance = new WebhookPool();
+        }
+        return instance;
+    }
+
+    /**
+     * Get the channel's webhook, finding or creating it on a miss
+     * @return Future failing if the webhook can't be retrieved or created
+     */
+    public CompletableFuture<Webhook> get(TextChannel channel) {
+        return getEntry(channel).thenApply(entry -> entry.webhook);
+    }
+
+    /**
+     * Run a request against the channel's webhook, delayed if the webhook is at its rate limit.
+     * If Discord no longer knows the webhook, it is dropped and the request retried once with a fresh one.
+     */
+    public <T> CompletableFuture<T> submit(TextChannel channel, Function<Webhook, RestAction<T>> request) {
+        return submit(channel, request, true);
+    }
+
+    /**
+     * Like {@link #submit(TextChannel, Function)}, but never retried, for requests that can only be sent once
+     * such as uploads read from streams. An unknown webhook is still dropped so the next request gets a fresh one.
+     */
+    public <T> CompletableFuture<T> submitOnce(TextChannel channel, Function<Webhook, RestAction<T>> request) {
+        return submit(channel, request, false);
+    }
+
+    private <T> CompletableFuture<T> submit(TextChannel channel, Function<Webhook, RestAction<T>> request, boolean retry) {
+        return getEntry(channel).thenCompose(entry -> {
+            long delay = entry.reserve(System.currentTimeMillis());
+            CompletableFuture<T> result;
+            if (delay <= 0) {
+                result = request.apply(entry.webhook).submit();
+            } else {
+                throttled.increment();
+                result = new CompletableFuture<>();
+                CompletableFuture<T> delayed = result;
+                delayer.schedule(() -> {
+                    try {
+                        request.apply(entry.webhook).submit().whenComplete((value, error) -> {
+                            if (error != null) {
+                                delayed.completeExceptionally(error);
+                            } else {
+                                delayed.complete(value);
+                            }
+                        });
+                    } catch (Exception e) {
+                        delayed.completeExceptionally(e);
+                    }
+                }, delay, TimeUnit.MILLISECONDS);
+            }
+            return result.handle((value, error) -> {
+                if (error == null) {
+                    return CompletableFuture.completedFuture(value);
+                }
+                if (isUnknownWebhook(error)) {
+                    invalidate(channel.getId(), entry.webhook.getId());
+                    if (retry) {
+                        return submit(channel, request, false);
+                    }
+                }
+                return CompletableFuture.<T>failedFuture(error);
+            }).thenCompose(Function.identity());
+        });
+    }
+
+    /**
+     * Forget a channel's webhook, e.g. because the channel was deleted
+     */
+    public void invalidate(String channelId) {
+        Entry removed;
+        synchronized (cache) {
+            removed = cache.remove(channelId);
+        }
+        if (removed != null) {
+            invalidated.increment();
+        }
+    }
+
+    /**
+     * Forget every webhook in a guild, e.g. after leaving it
+     */
+    public void invalidateGuild(String guildId) {
+        synchronized (cache) {
+            int before = cache.size();
+            cache.values().removeIf(entry -> guildId.equals(entry.guildId));
+            invalidated.add(before - cache.size());
+        }
+    }
+
+    public int getCachedCount() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * e.g. "42 cached, 97% hit rate, 3 created, 1 throttled"
+     */
+    public String describeStats() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return String.format("%,d cached, %s hit rate, %,d created, %,d throttled",
+            getCachedCount(), total == 0 ? "n/a" : (h * 100 / total) + "%", created.sum(), throttled.sum());
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    public void shutdown() {
+        delayer.shutdown();
+    }
+
+    // Only drop the entry if it still holds the webhook that failed
+    private void invalidate(String channelId, String webhookId) {
+        boolean removed;
+        synchronized (cache) {
+            Entry entry = cache.get(channelId);
+            removed = entry != null && entry.webhook.getId().equals(webhookId);
+            if (removed) {
+                cache.remove(channelId);
+            }
+        }
+        if (removed) {
+            invalidated.increment();
+            logger.debug("Dropped unknown webhook {} for channel {}", webhookId, channelId);
+        }
+    }
+
+    private CompletableFuture<Entry> getEntry(TextChannel channel) {
+        String channelId = channel.getId();
+        Entry entry;
+        synchronized (cache) {
+            entry = cache.get(channelId);
+        }
+        if (entry != null) {
+            hits.increment();
+            return CompletableFuture.completedFuture(entry);
+        }
+
+        boolean[] started = new boolean[1];
+        CompletableFuture<Entry> future = inFlight.computeIfAbsent(channelId, k -> {
+            started[0] = true;
+            return lookup(channel);
+        });
+        if (started[0]) {
+            misses.increment();
+            future.whenComplete((result, error) -> inFlight.remove(channelId, future));
+        } else {
+            coalesced.increment();
+        }
+        return future;
+    }
+
+    private CompletableFuture<Entry> lookup(TextChannel channel) {
+        String selfId = channel.getJDA().getSelfUser().getId();
+        CompletableFuture<Webhook> webhook;
+        try {
+            webhook = channel.retrieveWebhooks().submit().thenCompose(webhooks -> {
+                Webhook legacy = null;
+                for (Webhook wh : webhooks) {
+                    if (wh.getOwnerAsUser() == null || !selfId.equals(wh.getOwnerAsUser().getId()) || wh.getToken() == null) {
+                        continue;
+                    }
+                    if (WEBHOOK_NAME.equals(wh.getName())) {
+                        return CompletableFuture.completedFuture(wh);
+                    }
+                    if (legacy == null && LEGACY_NAMES.contains(wh.getName())) {
+                        legacy = wh;
+                    }
+                }
+                if (legacy != null) {
+                    return CompletableFuture.completedFuture(legacy);
+                }
+                created.increment();
+                return channel.createWebhook(WEBHOOK_NAME).submit();
+            });
+        } catch (Exception e) {
+            // JDA checks permissions before queueing and throws here when they are missing
+            webhook = CompletableFuture.failedFuture(e);
+        }
+
+        return webhook.thenApply(wh -> {
+            Entry entry = new Entry(wh, channel.getGuild().getId());
+            synchronized (cache) {
+                cache.put(channel.getId(), entry);
+            }
+            return entry;
+        }).whenComplete((entry, error) -> {
+            if (error != null) {
+                logger.warn("Failed to get webhook for channel {}: {}", channel.getId(), unwrap(error).getMessage());
+            }
+        });
+    }
+
+    private static boolean isUnknownWebhook(Throwable error) {
+        Throwable cause = unwrap(error);
+        return cause instanceof ErrorResponseException
+            && ((ErrorResponseException) cause).getErrorResponse() == ErrorResponse.UNKNOWN_WEBHOOK;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static final class Entry {
+        private final Webhook webhook;
+        private final String guildId;
+        // Start times of the last BURST requests, oldest at next
+        private final long[] sends = new long[BURST];
+        private int next;
+
+        private Entry(Webhook webhook, String guildId) {
+            this.webhook = webhook;
+            this.guildId = guildId;
+        }
+
+        /**
+         * Reserve a send slot
+         * @return How long to wait before sending, 0 to send now
+         */
+        synchronized long reserve(long now) {
+            long start = Math.max(now, sends[next] + WINDOW_MS);
+            sends[next] = start;
+            next = (next + 1) % BURST;
+            return start - now;
+        }
+    }
+}
@@ -13,6 +13,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 
 /**
  * File-based data storage manager that replaces database functionality
@@ -21,6 +22,17 @@ public class FileStorageManager {
     
     private static final Logger logger = LoggerFactory.getLogger(FileStorageManager.class);
     private static final String DATA_DIR = "data";
+    
+    // Store names in the user data index
+    private static final String STORE_ECONOMY = "economy";
+    private static final String STORE_LEVELS = "levels";
+    private static final String STORE_WARNINGS = "warnings";
+    private static final String STORE_MODERATION_LOGS = "moderation_logs";
+    private static final String STORE_SUSPICIOUS_USERS = "suspicious_users";
+    private static final String STORE_PENDING_REPORTS = "pending_reports";
+    // Moderation log records read per page when exporting a user's history
+    private static final int EXPORT_PAGE_SIZE = 200;
+    
     private final Gson gson;
     private final File dataDir;
     
@@ -30,14 +42,20 @@ public class FileStorageManager {
     private final Map<String, List<Map<String, Object>>> userWarningsCache = new ConcurrentHashMap<>();
     private final Map<String, Map<String, Object>> guildSettingsCache = new ConcurrentHashMap<>();
     
+    // Bumped on every guild settings change so compiled per-guild state (e.g. automod) knows when to rebuild
+    private final Map<String, Long> guildSettingsVersions = new ConcurrentHashMap<>();
+    
         // Temp punishments cache and operations
     private final Map<String, Map<String, Object>> tempPunishmentsCache = new HashMap<>();
     private final File tempPunishmentsFile;
     
-    // Moderation logs cache and operations  
-    private final Map<String, List<Map<String, Object>>> moderationLogsCache = new HashMap<>();
+    // Moderation logs: segmented append-only store, plus the old single file it is migrated from
+    private final ModerationLogStore moderationLogStore;
     private final File moderationLogsFile;
     
+    // Full-text index over moderation log and warning reasons, rebuilt on startup and kept current on writes
+    private final ModerationSearchIndex moderationSearchIndex = new ModerationSearchIndex();
+    
     // Suspicious users cache and operations
     private final Map<String, Map<String, Object>> suspiciousUsersCache = new ConcurrentHashMap<>();
     private final File suspiciousUsersFile;
@@ -51,6 +69,7 @@ public class FileStorageManager {
         this.dataDir = new File(DATA_DIR);
         this.tempPunishmentsFile = new File(dataDir, "temp_punishments.json");
         this.moderationLogsFile = new File(dataDir, "moderation_logs.json");
+        this.moderationLogStore = new ModerationLogStore(new File(dataDir, "modlogs"));
         this.suspiciousUsersFile = new File(dataDir, "suspicious_users.json");
         this.pendingReportMessagesFile = new File(dataDir, "pending_report_messages.json");
         this.gson = new GsonBuilder()
@@ -82,6 +101,8 @@ public class FileStorageManager {
         loadModerationLogs();
         loadSuspiciousUsers();
         loadPendingReportMessages();
+        moderationSearchIndex.rebuild(moderationLogStore, userWarningsCache);
+        registerUserDataStores();
         logger.info("All data loaded from files");
     }
     
@@ -96,6 +117,7 @@ public class FileStorageManager {
     public void setBalance(String guildId, String userId, long balance) {
         String key = guildId + ":" + userId;
         Map<String, Object> data = userEconomyCache.computeIfAbsent(key, k -> new HashMap<>());
+        UserDataIndex.getInstance().add(userId, STORE_ECONOMY, key);
         data.put("balance", balance);
         data.put("lastUpdated", System.currentTimeMillis());
         saveEconomyData();
@@ -147,6 +169,7 @@ public class FileStorageManager {
     public void addExperience(String guildId, String userId, long experience) {
         String key = guildId + ":" + userId;
         Map<String, Object> data = userLevelsCache.computeIfAbsent(key, k -> new HashMap<>());
+        UserDataIndex.getInstance().add(userId, STORE_LEVELS, key);
         
         long currentExp = ((Number) data.getOrDefault("experience", 0)).longValue();
         
@@ -197,6 +220,8 @@ public class FileStorageManager {
         
         warnings.add(warning);
         saveWarningsData();
+        moderationSearchIndex.indexWarning(guildId, userId, warning);
+        UserDataIndex.getInstance().add(userId, STORE_WARNINGS, key);
     }
     
     public List<Map<String, Object>> getWarnings(String guildId, String userId) {
@@ -212,66 +237,122 @@ public class FileStorageManager {
         String key = guildId + ":" + userId;
         userWarningsCache.remove(key);
         saveWarningsData();
+        moderationSearchIndex.removeWarnings(guildId, userId);
+        UserDataIndex.getInstance().remove(userId, STORE_WARNINGS, key);
     }
     
     /**
-     * Delete ALL stored data for a specific user across all guilds.
-     * This is used to comply with data-deletion requests (GDPR / Discord Developer ToS).
-     * Removes: economy, leveling, warnings, moderation logs (as subject), suspicious user data,
-     * and pending report messages for that user.
-     *
-     * @param userId The Discord user ID whose data should be purged
-     * @return the number of data categories that had data removed
+     * Register this manager's per-user data with the user data index and index what was loaded from disk.
+     * Deletion and export requests (GDPR / Discord Developer ToS) then only touch the user's own keys.
      */
-    public int deleteAllUserData(String userId) {
-        int categoriesCleared = 0;
+    private void registerUserDataStores() {
+        UserDataIndex index = UserDataIndex.getInstance();
         
-        // 1. Economy data — remove all guild:userId keys
-        int removed = removeKeysEndingWith(userEconomyCache, userId);
-        if (removed > 0) { categoriesCleared++; saveEconomyData(); }
-        
-        // 2. Leveling data
-        removed = removeKeysEndingWith(userLevelsCache, userId);
-        if (removed > 0) { categoriesCleared++; saveLevelsData(); }
-        
-        // 3. Warnings
-        removed = removeKeysEndingWith(userWarningsCache, userId);
-        if (removed > 0) { categoriesCleared++; saveWarningsData(); }
-        
-        // 4. Moderation logs where this user is the subject
-        for (Map.Entry<String, List<Map<String, Object>>> entry : moderationLogsCache.entrySet()) {
-            int sizeBefore = entry.getValue().size();
-            entry.getValue().removeIf(log -> userId.equals(log.get("userId")) || userId.equals(log.get("targetId")));
-            if (entry.getValue().size() != sizeBefore) categoriesCleared++;
-        }
-        saveModerationLogs();
+        index.register(UserDataStore.of(STORE_ECONOMY, "Economy balances",
+            (userId, keys, sink) -> exportKeys(userEconomyCache, keys, sink),
+            (userId, keys) -> {
+                int removed = removeKeys(userEconomyCache, keys);
+                if (removed > 0) saveEconomyData();
+                return removed;
+            }));
+        index.register(UserDataStore.of(STORE_LEVELS, "Leveling XP and progress",
+            (userId, keys, sink) -> exportKeys(userLevelsCache, keys, sink),
+            (userId, keys) -> {
+                int removed = removeKeys(userLevelsCache, keys);
+                if (removed > 0) saveLevelsData();
+                return removed;
+            }));
+        index.register(UserDataStore.of(STORE_WARNINGS, "Warning records",
+            (userId, keys, sink) -> exportKeys(userWarningsCache, keys, sink),
+            (userId, keys) -> {
+                int removed = removeKeys(userWarningsCache, keys);
+                for (String key : keys) {
+                    moderationSearchIndex.removeWarnings(key.substring(0, key.indexOf(':')), userId);
+                }
+                if (removed > 0) saveWarningsData();
+                return removed;
+            }));
+        // Keyed by guild id; the log store's own per-user index finds the records
+        index.register(UserDataStore.of(STORE_MODERATION_LOGS, "Moderation log entries",
+            (userId, keys, sink) -> {
+                for (String guildId : keys) {
+                    // One page at a time so a long history is never held in memory at once
+                    Long cursor = null;
+                    do {
+                        ModerationLogStore.HistoryPage page = moderationLogStore.getUserHistory(guildId, userId, cursor, EXPORT_PAGE_SIZE);
+                        for (Map<String, Object> record : page.getEntries()) {
+                            sink.accept(guildId + ":" + record.get("id"), record);
+                        }
+                        cursor = page.getNextCursor();
+                    } while (cursor != null);
+                }
+            },
+            (userId, keys) -> {
+                int removed = 0;
+                for (String guildId : keys) {
+                    removed += moderationLogStore.removeUser(guildId, userId);
+                }
+                moderationSearchIndex.removeUser(userId);
+                return removed;
+            }));
+        index.register(UserDataStore.of(STORE_SUSPICIOUS_USERS, "Suspicious account records",
+            (userId, keys, sink) -> exportKeys(suspiciousUsersCache, keys, sink),
+            (userId, keys) -> {
+                int removed = removeKeys(suspiciousUsersCache, keys);
+                if (removed > 0) saveSuspiciousUsers();
+                return removed;
+            }));
+        index.register(UserDataStore.of(STORE_PENDING_REPORTS, "Pending report messages",
+            (userId, keys, sink) -> exportKeys(pendingReportMessagesCache, keys, sink),
+            (userId, keys) -> {
+                int removed = removeKeys(pendingReportMessagesCache, keys);
+                if (removed > 0) savePendingReportMessages();
+                return removed;
+            }));
         
-        // 5. Suspicious user data
-        if (suspiciousUsersCache.remove(userId) != null) {
-            categoriesCleared++;
-            saveSuspiciousUsers();
+        index.clearStore(STORE_ECONOMY);
+        index.clearStore(STORE_LEVELS);
+        index.clearStore(STORE_WARNINGS);
+        index.clearStore(STORE_MODERATION_LOGS);
+        index.clearStore(STORE_SUSPICIOUS_USERS);
+        index.clearStore(STORE_PENDING_REPORTS);
+        indexGuildUserKeys(index, STORE_ECONOMY, userEconomyCache.keySet());
+        indexGuildUserKeys(index, STORE_LEVELS, userLevelsCache.keySet());
+        indexGuildUserKeys(index, STORE_WARNINGS, userWarningsCache.keySet());
+        moderationLogStore.forEachSubject((guildId, userId) -> index.add(userId, STORE_MODERATION_LOGS, guildId));
+        for (String userId : suspiciousUsersCache.keySet()) {
+            index.add(userId, STORE_SUSPICIOUS_USERS, userId);
         }
-        
-        // 6. Pending report messages
-        if (pendingReportMessagesCache.remove(userId) != null) {
-            categoriesCleared++;
-            savePendingReportMessages();
+        for (String userId : pendingReportMessagesCache.keySet()) {
+            index.add(userId, STORE_PENDING_REPORTS, userId);
         }
-        
-        logger.info("Deleted all stored data for user {} — {} categories cleared", userId, categoriesCleared);
-        return categoriesCleared;
     }
     
     /**
-     * Helper: removes all entries from a map whose key ends with ":userId".
+     * Index "guildId:userId" keys under their user
      */
-    private <V> int removeKeysEndingWith(Map<String, V> map, String userId) {
-        String suffix = ":" + userId;
+    private void indexGuildUserKeys(UserDataIndex index, String store, Set<String> keys) {
+        for (String key : keys) {
+            int separator = key.indexOf(':');
+            if (separator > 0) {
+                index.add(key.substring(separator + 1), store, key);
+            }
+        }
+    }
+    
+    private <V> void exportKeys(Map<String, V> map, Set<String> keys, BiConsumer<String, Object> sink) {
+        for (String key : keys) {
+            V value = map.get(key);
+            if (value != null) {
+                sink.accept(key, value);
+            }
+        }
+    }
+    
+    private <V> int removeKeys(Map<String, V> map, Set<String> keys) {
         int count = 0;
-        var iter = map.entrySet().iterator();
-        while (iter.hasNext()) {
-            if (iter.next().getKey().endsWith(suffix)) {
-                iter.remove();
+        for (String key : keys) {
+            if (map.remove(key) != null) {
                 count++;
             }
         }
@@ -302,8 +383,13 @@ public class FileStorageManager {
             userWarningsCache.remove(key);
         } else {
             userWarningsCache.put(key, new ArrayList<>(warnings));
+            UserDataIndex.getInstance().add(userId, STORE_WARNINGS, key);
         }
         saveWarningsData();
+        moderationSearchIndex.removeWarnings(guildId, userId);
+        for (Map<String, Object> warning : warnings) {
+            moderationSearchIndex.indexWarning(guildId, userId, warning);
+        }
     }
     
     /**
@@ -314,10 +400,8 @@ public class FileStorageManager {
     }
     
     public void logModerationAction(String guildId, String targetId, String moderatorId, String action, String reason, String duration) {
-        List<Map<String, Object>> logs = moderationLogsCache.computeIfAbsent(guildId, k -> new ArrayList<>());
-        
+        // The store assigns the record id
         Map<String, Object> logEntry = new HashMap<>();
-        logEntry.put("id", System.currentTimeMillis());
         logEntry.put("targetId", targetId);
         logEntry.put("moderatorId", moderatorId);
         logEntry.put("action", action);
@@ -325,8 +409,7 @@ public class FileStorageManager {
         logEntry.put("duration", duration);
         logEntry.put("timestamp", System.currentTimeMillis());
         
-        logs.add(logEntry);
-        saveModerationLogs();
+        appendModerationLogs(guildId, List.of(logEntry));
     }
     
     // Guild settings methods
@@ -341,9 +424,17 @@ public class FileStorageManager {
         } else {
             settings.put(key, value);
         }
+        guildSettingsVersions.merge(guildId, 1L, Long::sum);
         saveGuildSettings();
     }
     
+    /**
+     * Get a counter that changes whenever the guild's settings are modified
+     */
+    public long getGuildSettingsVersion(String guildId) {
+        return guildSettingsVersions.getOrDefault(guildId, 0L);
+    }
+    
     /**
      * Remove a specific key from guild settings.
      */
@@ -351,6 +442,7 @@ public class FileStorageManager {
         Map<String, Object> settings = guildSettingsCache.get(guildId);
         if (settings != null) {
             settings.remove(key);
+            guildSettingsVersions.merge(guildId, 1L, Long::sum);
             saveGuildSettings();
         }
     }
@@ -489,7 +581,6 @@ public class FileStorageManager {
         saveWarningsData();
         saveGuildSettings();
         saveTempPunishments();
-        saveModerationLogs();
         logger.info("All data saved to files");
     }
     
@@ -499,6 +590,17 @@ public class FileStorageManager {
         saveTempPunishments();
     }
     
+    /**
+     * Store several temp punishments with a single write
+     */
+    public void storeTempPunishments(Map<String, Map<String, Object>> punishments) {
+        if (punishments.isEmpty()) {
+            return;
+        }
+        tempPunishmentsCache.putAll(punishments);
+        saveTempPunishments();
+    }
+    
     public Map<String, Map<String, Object>> getAllTempPunishments() {
         return new HashMap<>(tempPunishmentsCache);
     }
@@ -536,16 +638,55 @@ public class FileStorageManager {
     
     // Moderation Logs Management
     public void addModerationLog(String guildId, Map<String, Object> logEntry) {
-        moderationLogsCache.computeIfAbsent(guildId, k -> new ArrayList<>()).add(logEntry);
-        saveModerationLogs();
+        appendModerationLogs(guildId, List.of(logEntry));
+    }
+    
+    /**
+     * Add several moderation log entries with a single write
+     */
+    public void addModerationLogs(String guildId, List<Map<String, Object>> logEntries) {
+        appendModerationLogs(guildId, logEntries);
+    }
+    
+    /**
+     * Append to the log and keep the search and user data indexes current
+     */
+    private void appendModerationLogs(String guildId, List<Map<String, Object>> logEntries) {
+        List<Map<String, Object>> stored = moderationLogStore.append(guildId, logEntries);
+        moderationSearchIndex.indexLogRecords(guildId, stored);
+        for (Map<String, Object> record : stored) {
+            Object subject = record.get("userId") != null ? record.get("userId") : record.get("targetId");
+            if (subject != null) {
+                UserDataIndex.getInstance().add(subject.toString(), STORE_MODERATION_LOGS, guildId);
+            }
+        }
     }
     
-    public List<Map<String, Object>> getModerationLogs(String guildId) {
-        return new ArrayList<>(moderationLogsCache.getOrDefault(guildId, new ArrayList<>()));
+    /**
+     * Get one page of a user's moderation history, newest first
+     * @param before Cursor returned with the previous page, or null for the newest entries
+     */
+    public ModerationLogStore.HistoryPage getUserModerationHistory(String guildId, String userId, Long before, int limit) {
+        return moderationLogStore.getUserHistory(guildId, userId, before, limit);
+    }
+    
+    public ModerationLogStore getModerationLogStore() {
+        return moderationLogStore;
+    }
+    
+    /**
+     * Search moderation log entries and warnings by reason text and filters
+     * @return One page of matches, newest first
+     */
+    public ModerationSearchIndex.SearchResult searchModerationHistory(String guildId, ModerationSearchIndex.Query query,
+                                                                      int offset, int limit) {
+        return moderationSearchIndex.search(guildId, query, offset, limit);
     }
     
+    /**
+     * Move entries from the old single-file log into the segmented store, once
+     */
     private void loadModerationLogs() {
-        moderationLogsCache.clear();
         if (!moderationLogsFile.exists()) {
             return;
         }
@@ -553,20 +694,18 @@ public class FileStorageManager {
         try (FileReader reader = new FileReader(moderationLogsFile)) {
             Type type = new TypeToken<Map<String, List<Map<String, Object>>>>(){}.getType();
             Map<String, List<Map<String, Object>>> data = gson.fromJson(reader, type);
+            int migrated = 0;
             if (data != null) {
-                moderationLogsCache.putAll(data);
+                moderationLogStore.importLegacy(data);
+                for (List<Map<String, Object>> entries : data.values()) {
+                    migrated += entries.size();
+                }
             }
-            logger.debug("Loaded moderation logs for {} guilds", moderationLogsCache.size());
-        } catch (IOException e) {
-            logger.error("Failed to load moderation logs", e);
-        }
-    }
-    
-    private void saveModerationLogs() {
-        try (FileWriter writer = new FileWriter(moderationLogsFile)) {
-            gson.toJson(moderationLogsCache, writer);
+            reader.close();
+            Files.move(moderationLogsFile.toPath(), new File(dataDir, "moderation_logs.json.migrated").toPath());
+            logger.info("Migrated {} moderation log entries to the segmented log", migrated);
         } catch (IOException e) {
-            logger.error("Failed to save moderation logs", e);
+            logger.error("Failed to migrate moderation logs", e);
         }
     }
     
@@ -588,6 +727,7 @@ public class FileStorageManager {
         
         suspiciousUsersCache.put(userId, data);
         saveSuspiciousUsers();
+        UserDataIndex.getInstance().add(userId, STORE_SUSPICIOUS_USERS, userId);
         logger.info("Marked user {} as suspicious by {}", userId, markedBy);
     }
     
@@ -657,6 +797,7 @@ public class FileStorageManager {
             data.put("markedAt", System.currentTimeMillis());
             data.put("reason", "Added via note");
             suspiciousUsersCache.put(userId, data);
+            UserDataIndex.getInstance().add(userId, STORE_SUSPICIOUS_USERS, userId);
         }
         
         // Add note to notes list
@@ -748,6 +889,7 @@ public class FileStorageManager {
     public void storePendingReportMessages(String userId, Map<String, String> ownerMessageIds) {
         pendingReportMessagesCache.put(userId, new ConcurrentHashMap<>(ownerMessageIds));
         savePendingReportMessages();
+        UserDataIndex.getInstance().add(userId, STORE_PENDING_REPORTS, userId);
         logger.debug("Stored {} pending report message IDs for user {}", ownerMessageIds.size(), userId);
     }
     
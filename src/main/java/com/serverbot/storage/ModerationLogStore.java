@@ -0,0 +1,774 @@
+package com.serverbot.storage;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.ToNumberPolicy;
+import com.google.gson.reflect.TypeToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Append-only moderation log with one directory per guild.
+ * Records are written as newline-delimited JSON to numbered segments. Once a segment reaches
+ * {@link #SEGMENT_MAX_BYTES} it is sealed (gzipped) and a new segment is started. An in-memory
+ * index maps each user to the position of their records, so history lookups read only those
+ * records instead of the whole guild log.
+ */
+public class ModerationLogStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModerationLogStore.class);
+
+    private static final long SEGMENT_MAX_BYTES = 1024 * 1024;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String ACTIVE_SUFFIX = ".ndjson";
+    private static final String SEALED_SUFFIX = ".ndjson.gz";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    // Ids are (millis since 2015-01-01) << 12 | sequence, which stays exact even if read back as a double
+    private static final long ID_EPOCH = 1420070400000L;
+    private static final int SEQUENCE_BITS = 12;
+
+    private static final Type RECORD_TYPE = new TypeToken<Map<String, Object>>(){}.getType();
+
+    private final File rootDir;
+    private final Gson gson = new GsonBuilder()
+            .setObjectToNumberStrategy(ToNumberPolicy.LONG_OR_DOUBLE)
+            .create();
+    private final Map<String, GuildLog> guildLogs = new ConcurrentHashMap<>();
+    private final AtomicLong lastId = new AtomicLong();
+
+    public ModerationLogStore(File rootDir) {
+        this.rootDir = rootDir;
+        if (!rootDir.exists() && !rootDir.mkdirs()) {
+            logger.error("Failed to create moderation log directory {}", rootDir);
+        }
+        loadAll();
+    }
+
+    /**
+     * Allocate a unique id ordered by time. Several ids in the same millisecond get increasing
+     * sequence numbers, and a clock going backwards never produces a smaller id.
+     */
+    private long nextId(long timestamp) {
+        long candidate = Math.max(0, timestamp - ID_EPOCH) << SEQUENCE_BITS;
+        while (true) {
+            long last = lastId.get();
+            long id = Math.max(candidate, last + 1);
+            if (lastId.compareAndSet(last, id)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Append records to a guild's log with a single write.
+     * Each record gets a fresh id, and a timestamp if it has none.
+     * @return The records as stored, or an empty list if the write failed
+     */
+    public List<Map<String, Object>> append(String guildId, List<Map<String, Object>> entries) {
+        if (entries.isEmpty()) {
+            return Collections.emptyList();
+        }
+        GuildLog log = guildLogs.computeIfAbsent(guildId, this::createGuildLog);
+        long now = System.currentTimeMillis();
+        List<Map<String, Object>> records = new ArrayList<>(entries.size());
+        for (Map<String, Object> entry : entries) {
+            Map<String, Object> record = new LinkedHashMap<>(entry);
+            record.putIfAbsent("timestamp", now);
+            records.add(record);
+        }
+        return log.append(records, false) ? records : Collections.emptyList();
+    }
+
+    /**
+     * Import records from the old single-file format, keeping their original timestamps in the ids.
+     * Ids are handed out in timestamp order across every guild so they stay close to the time they
+     * encode, and records already in the store are skipped so an interrupted import can run again.
+     */
+    void importLegacy(Map<String, List<Map<String, Object>>> entriesByGuild) {
+        List<Map.Entry<String, Map<String, Object>>> records = new ArrayList<>();
+        for (Map.Entry<String, List<Map<String, Object>>> guild : entriesByGuild.entrySet()) {
+            Set<String> existing = new HashSet<>();
+            GuildLog log = guildLogs.get(guild.getKey());
+            if (log != null) {
+                log.forEachRecord(record -> existing.add(legacyKey(record)));
+            }
+            for (Map<String, Object> entry : guild.getValue()) {
+                Map<String, Object> record = new LinkedHashMap<>(entry);
+                record.put("timestamp", toLong(record.get("timestamp")));
+                if (!existing.contains(legacyKey(record))) {
+                    records.add(Map.entry(guild.getKey(), record));
+                }
+            }
+        }
+        records.sort(Comparator.comparingLong(record -> (Long) record.getValue().get("timestamp")));
+
+        Map<String, List<Map<String, Object>>> byGuild = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, Object>> record : records) {
+            record.getValue().put("id", nextId((Long) record.getValue().get("timestamp")));
+            byGuild.computeIfAbsent(record.getKey(), k -> new ArrayList<>()).add(record.getValue());
+        }
+        for (Map.Entry<String, List<Map<String, Object>>> guild : byGuild.entrySet()) {
+            guildLogs.computeIfAbsent(guild.getKey(), this::createGuildLog).append(guild.getValue(), true);
+        }
+    }
+
+    /**
+     * Identify a legacy record by its content, since the old format had no ids
+     */
+    private static String legacyKey(Map<String, Object> record) {
+        return toLong(record.get("timestamp")) + "|" + record.get("type") + "|" + record.get("userId") + "|"
+            + record.get("moderatorId") + "|" + record.get("reason");
+    }
+
+    /**
+     * Get one page of a user's moderation history, newest first
+     * @param before Cursor from a previous page's {@link HistoryPage#getNextCursor()}, or null for the newest records
+     * @param limit Maximum number of records to return
+     */
+    public HistoryPage getUserHistory(String guildId, String userId, Long before, int limit) {
+        GuildLog log = guildLogs.get(guildId);
+        if (log == null) {
+            return new HistoryPage(Collections.emptyList(), null, 0, 0);
+        }
+        return log.readUserPage(userId, before, Math.max(1, limit));
+    }
+
+    /**
+     * Read records by id, in the order given. Ids that no longer exist are skipped.
+     */
+    public List<Map<String, Object>> getRecords(String guildId, List<Long> ids) {
+        GuildLog log = guildLogs.get(guildId);
+        return log == null || ids.isEmpty() ? Collections.emptyList() : log.readByIds(ids);
+    }
+
+    /**
+     * Get the number of records about a user without reading them
+     */
+    public int countUserRecords(String guildId, String userId) {
+        GuildLog log = guildLogs.get(guildId);
+        return log == null ? 0 : log.countUser(userId);
+    }
+
+    /**
+     * Visit every record in a guild's log, oldest first.
+     * This reads the whole log; history lookups should use {@link #getUserHistory}.
+     */
+    public void forEachRecord(String guildId, Consumer<Map<String, Object>> consumer) {
+        GuildLog log = guildLogs.get(guildId);
+        if (log != null) {
+            log.forEachRecord(consumer);
+        }
+    }
+
+    public Set<String> getGuildIds() {
+        return Collections.unmodifiableSet(guildLogs.keySet());
+    }
+
+    /**
+     * Visit every (guildId, userId) pair that has records, without reading any records
+     */
+    public void forEachSubject(BiConsumer<String, String> consumer) {
+        for (Map.Entry<String, GuildLog> entry : guildLogs.entrySet()) {
+            for (String userId : entry.getValue().subjects()) {
+                consumer.accept(entry.getKey(), userId);
+            }
+        }
+    }
+
+    /**
+     * Remove every record about a user from one guild's log
+     * @return Number of records removed
+     */
+    public int removeUser(String guildId, String userId) {
+        GuildLog log = guildLogs.get(guildId);
+        return log == null ? 0 : log.removeUser(userId);
+    }
+
+    /**
+     * Remove every record about a user from all guild logs, rewriting only the segments that held them
+     * @return Number of records removed
+     */
+    public int removeUser(String userId) {
+        int removed = 0;
+        for (GuildLog log : guildLogs.values()) {
+            removed += log.removeUser(userId);
+        }
+        return removed;
+    }
+
+    private void loadAll() {
+        File[] guildDirs = rootDir.listFiles(File::isDirectory);
+        if (guildDirs == null) {
+            return;
+        }
+        int records = 0;
+        for (File guildDir : guildDirs) {
+            GuildLog log = createGuildLog(guildDir.getName());
+            log.load();
+            guildLogs.put(guildDir.getName(), log);
+            records += log.recordCount;
+        }
+        logger.debug("Indexed {} moderation log records across {} guilds", records, guildLogs.size());
+    }
+
+    private GuildLog createGuildLog(String guildId) {
+        return new GuildLog(guildId, new File(rootDir, guildId));
+    }
+
+    private static String subjectOf(Map<String, Object> record) {
+        Object userId = record.get("userId");
+        if (userId == null) {
+            userId = record.get("targetId");
+        }
+        return userId != null ? userId.toString() : null;
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+
+    /**
+     * Location of one record inside a guild's segments
+     */
+    private static final class RecordRef {
+        final long id;
+        final int segment;
+        final long offset;
+        final int length;
+
+        RecordRef(long id, int segment, long offset, int length) {
+            this.id = id;
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    @FunctionalInterface
+    private interface LineVisitor {
+        void visit(long offset, byte[] line);
+    }
+
+    /**
+     * Segments and user index for one guild. All access is synchronized on the instance.
+     */
+    private final class GuildLog {
+        final String guildId;
+        final File dir;
+        // Refs in id order since records are only ever appended; the same refs are shared by the per-user lists
+        final List<RecordRef> all = new ArrayList<>();
+        final Map<String, List<RecordRef>> byUser = new HashMap<>();
+        int activeSegment = 1;
+        long activeSize;
+        int recordCount;
+
+        GuildLog(String guildId, File dir) {
+            this.guildId = guildId;
+            this.dir = dir;
+        }
+
+        File activeFile(int segment) {
+            return new File(dir, String.format("%s%06d%s", SEGMENT_PREFIX, segment, ACTIVE_SUFFIX));
+        }
+
+        File sealedFile(int segment) {
+            return new File(dir, String.format("%s%06d%s", SEGMENT_PREFIX, segment, SEALED_SUFFIX));
+        }
+
+        synchronized void load() {
+            all.clear();
+            byUser.clear();
+            recordCount = 0;
+            activeSegment = 1;
+            activeSize = 0;
+
+            TreeMap<Integer, Boolean> segments = listSegments();
+            if (segments.isEmpty()) {
+                return;
+            }
+
+            int last = segments.lastKey();
+            for (Map.Entry<Integer, Boolean> segment : segments.entrySet()) {
+                int number = segment.getKey();
+                boolean sealed = segment.getValue();
+                long end = indexSegment(number, sealed);
+                if (!sealed && number != last) {
+                    // Left unsealed by an interrupted rollover
+                    seal(number);
+                } else if (!sealed) {
+                    truncateTornTail(number, end);
+                    activeSegment = number;
+                    activeSize = end;
+                }
+            }
+            if (segments.lastEntry().getValue()) {
+                activeSegment = last + 1;
+            }
+        }
+
+        /**
+         * Find this guild's segments, cleaning up after interrupted seals
+         * @return Segment number to whether it is sealed
+         */
+        private TreeMap<Integer, Boolean> listSegments() {
+            TreeMap<Integer, Boolean> segments = new TreeMap<>();
+            File[] files = dir.listFiles();
+            if (files == null) {
+                return segments;
+            }
+            for (File file : files) {
+                String name = file.getName();
+                if (name.endsWith(TEMP_SUFFIX)) {
+                    file.delete();
+                    continue;
+                }
+                boolean sealed = name.endsWith(SEALED_SUFFIX);
+                if (!name.startsWith(SEGMENT_PREFIX) || (!sealed && !name.endsWith(ACTIVE_SUFFIX))) {
+                    continue;
+                }
+                String digits = name.substring(SEGMENT_PREFIX.length(), name.indexOf('.'));
+                try {
+                    segments.merge(Integer.parseInt(digits), sealed, Boolean::logicalOr);
+                } catch (NumberFormatException e) {
+                    logger.warn("Ignoring unexpected file in moderation log directory: {}", file);
+                }
+            }
+            // A sealed copy is only renamed into place once complete, so any leftover plain copy is redundant
+            for (Map.Entry<Integer, Boolean> segment : segments.entrySet()) {
+                if (segment.getValue()) {
+                    File plain = activeFile(segment.getKey());
+                    if (plain.exists()) {
+                        plain.delete();
+                    }
+                }
+            }
+            return segments;
+        }
+
+        /**
+         * Add a segment's records to the index
+         * @return Offset just past the last complete record
+         */
+        private long indexSegment(int segment, boolean sealed) {
+            File file = sealed ? sealedFile(segment) : activeFile(segment);
+            try (InputStream in = openSegment(file, sealed)) {
+                return scanLines(in, (offset, line) -> {
+                    Map<String, Object> record = parse(line);
+                    if (record != null) {
+                        index(record, segment, offset, line.length);
+                    }
+                });
+            } catch (IOException e) {
+                logger.error("Failed to read moderation log segment {}", file, e);
+                return 0;
+            }
+        }
+
+        private void truncateTornTail(int segment, long end) {
+            File file = activeFile(segment);
+            if (file.length() <= end) {
+                return;
+            }
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(end);
+                logger.warn("Dropped incomplete trailing record from {}", file);
+            } catch (IOException e) {
+                logger.error("Failed to truncate moderation log segment {}", file, e);
+            }
+        }
+
+        private void index(Map<String, Object> record, int segment, long offset, int length) {
+            long id = toLong(record.get("id"));
+            lastId.accumulateAndGet(id, Math::max);
+            recordCount++;
+            RecordRef ref = new RecordRef(id, segment, offset, length);
+            all.add(ref);
+            String subject = subjectOf(record);
+            if (subject != null) {
+                byUser.computeIfAbsent(subject, k -> new ArrayList<>()).add(ref);
+            }
+        }
+
+        synchronized boolean append(List<Map<String, Object>> records, boolean idsAssigned) {
+            if (!dir.exists() && !dir.mkdirs()) {
+                logger.error("Failed to create moderation log directory {}", dir);
+                return false;
+            }
+
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            List<long[]> positions = new ArrayList<>(records.size());
+            long offset = activeSize;
+            for (Map<String, Object> record : records) {
+                if (!idsAssigned) {
+                    record.put("id", nextId(System.currentTimeMillis()));
+                }
+                byte[] line = (gson.toJson(record) + "\n").getBytes(StandardCharsets.UTF_8);
+                buffer.write(line, 0, line.length);
+                positions.add(new long[]{offset, line.length - 1});
+                offset += line.length;
+            }
+
+            try (OutputStream out = new FileOutputStream(activeFile(activeSegment), true)) {
+                buffer.writeTo(out);
+            } catch (IOException e) {
+                logger.error("Failed to append to moderation log for guild {}", guildId, e);
+                return false;
+            }
+
+            for (int i = 0; i < records.size(); i++) {
+                index(records.get(i), activeSegment, positions.get(i)[0], (int) positions.get(i)[1]);
+            }
+            activeSize = offset;
+
+            if (activeSize >= SEGMENT_MAX_BYTES) {
+                seal(activeSegment);
+                activeSegment++;
+                activeSize = 0;
+            }
+            return true;
+        }
+
+        /**
+         * Gzip a finished segment. The compressed copy is written to a temp file and renamed into
+         * place before the plain segment is removed, so a crash never loses records.
+         */
+        private void seal(int segment) {
+            File plain = activeFile(segment);
+            File sealed = sealedFile(segment);
+            File temp = new File(dir, sealed.getName() + TEMP_SUFFIX);
+            try {
+                try (InputStream in = new FileInputStream(plain);
+                     OutputStream out = new GZIPOutputStream(new FileOutputStream(temp))) {
+                    in.transferTo(out);
+                }
+                Files.move(temp.toPath(), sealed.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                Files.delete(plain.toPath());
+                logger.debug("Sealed moderation log segment {} for guild {}", segment, guildId);
+            } catch (IOException e) {
+                logger.error("Failed to seal moderation log segment {}", plain, e);
+                temp.delete();
+            }
+        }
+
+        synchronized List<Map<String, Object>> readByIds(List<Long> ids) {
+            List<RecordRef> refs = new ArrayList<>(ids.size());
+            for (long id : ids) {
+                int low = 0;
+                int high = all.size() - 1;
+                while (low <= high) {
+                    int mid = (low + high) >>> 1;
+                    long midId = all.get(mid).id;
+                    if (midId < id) {
+                        low = mid + 1;
+                    } else if (midId > id) {
+                        high = mid - 1;
+                    } else {
+                        refs.add(all.get(mid));
+                        break;
+                    }
+                }
+            }
+            return readRecords(refs);
+        }
+
+        synchronized List<String> subjects() {
+            return new ArrayList<>(byUser.keySet());
+        }
+
+        synchronized int countUser(String userId) {
+            List<RecordRef> refs = byUser.get(userId);
+            return refs == null ? 0 : refs.size();
+        }
+
+        synchronized HistoryPage readUserPage(String userId, Long before, int limit) {
+            List<RecordRef> refs = byUser.get(userId);
+            if (refs == null || refs.isEmpty()) {
+                return new HistoryPage(Collections.emptyList(), null, 0, 0);
+            }
+
+            // Index of the newest record older than the cursor
+            int end = refs.size();
+            if (before != null) {
+                int low = 0;
+                int high = refs.size();
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if (refs.get(mid).id < before) {
+                        low = mid + 1;
+                    } else {
+                        high = mid;
+                    }
+                }
+                end = low;
+            }
+            int start = Math.max(0, end - limit);
+
+            List<RecordRef> page = new ArrayList<>(refs.subList(start, end));
+            Collections.reverse(page);
+            List<Map<String, Object>> records = readRecords(page);
+            Long nextCursor = start > 0 ? page.get(page.size() - 1).id : null;
+            return new HistoryPage(records, nextCursor, refs.size() - end, refs.size());
+        }
+
+        /**
+         * Read the given records, keeping their order. Records in the same segment are read in one pass.
+         */
+        private List<Map<String, Object>> readRecords(List<RecordRef> refs) {
+            Map<Integer, List<RecordRef>> bySegment = new TreeMap<>();
+            for (RecordRef ref : refs) {
+                bySegment.computeIfAbsent(ref.segment, k -> new ArrayList<>()).add(ref);
+            }
+
+            Map<Long, Map<String, Object>> found = new HashMap<>();
+            for (Map.Entry<Integer, List<RecordRef>> entry : bySegment.entrySet()) {
+                List<RecordRef> segmentRefs = entry.getValue();
+                segmentRefs.sort(Comparator.comparingLong(ref -> ref.offset));
+                try {
+                    if (entry.getKey() == activeSegment) {
+                        readFromActive(entry.getKey(), segmentRefs, found);
+                    } else {
+                        readFromSealed(entry.getKey(), segmentRefs, found);
+                    }
+                } catch (IOException e) {
+                    logger.error("Failed to read moderation log segment {} for guild {}", entry.getKey(), guildId, e);
+                }
+            }
+
+            List<Map<String, Object>> records = new ArrayList<>(refs.size());
+            for (RecordRef ref : refs) {
+                Map<String, Object> record = found.get(ref.id);
+                if (record != null) {
+                    records.add(record);
+                }
+            }
+            return records;
+        }
+
+        private void readFromActive(int segment, List<RecordRef> refs, Map<Long, Map<String, Object>> found) throws IOException {
+            try (RandomAccessFile raf = new RandomAccessFile(activeFile(segment), "r")) {
+                for (RecordRef ref : refs) {
+                    byte[] line = new byte[ref.length];
+                    raf.seek(ref.offset);
+                    raf.readFully(line);
+                    addParsed(ref, line, found);
+                }
+            }
+        }
+
+        private void readFromSealed(int segment, List<RecordRef> refs, Map<Long, Map<String, Object>> found) throws IOException {
+            try (InputStream in = openSegment(sealedFile(segment), true)) {
+                long position = 0;
+                for (RecordRef ref : refs) {
+                    in.skipNBytes(ref.offset - position);
+                    byte[] line = in.readNBytes(ref.length);
+                    position = ref.offset + line.length;
+                    addParsed(ref, line, found);
+                }
+            }
+        }
+
+        private void addParsed(RecordRef ref, byte[] line, Map<Long, Map<String, Object>> found) {
+            Map<String, Object> record = parse(line);
+            if (record != null) {
+                found.put(ref.id, record);
+            }
+        }
+
+        synchronized void forEachRecord(Consumer<Map<String, Object>> consumer) {
+            for (Map.Entry<Integer, Boolean> segment : existingSegments().entrySet()) {
+                File file = segment.getValue() ? sealedFile(segment.getKey()) : activeFile(segment.getKey());
+                try (InputStream in = openSegment(file, segment.getValue())) {
+                    scanLines(in, (offset, line) -> {
+                        Map<String, Object> record = parse(line);
+                        if (record != null) {
+                            consumer.accept(record);
+                        }
+                    });
+                } catch (IOException e) {
+                    logger.error("Failed to read moderation log segment {}", file, e);
+                }
+            }
+        }
+
+        synchronized int removeUser(String userId) {
+            List<RecordRef> refs = byUser.get(userId);
+            if (refs == null || refs.isEmpty()) {
+                return 0;
+            }
+
+            int removed = 0;
+            Set<Integer> affected = new TreeSet<>();
+            for (RecordRef ref : refs) {
+                affected.add(ref.segment);
+            }
+            for (int segment : affected) {
+                removed += rewriteWithout(segment, userId);
+            }
+
+            // Offsets in rewritten segments have moved, so rebuild this guild's index from disk
+            load();
+            return removed;
+        }
+
+        /**
+         * Rewrite one segment without a user's records, keeping it sealed or active as it was
+         */
+        private int rewriteWithout(int segment, String userId) {
+            boolean sealed = segment != activeSegment;
+            File file = sealed ? sealedFile(segment) : activeFile(segment);
+            File temp = new File(dir, file.getName() + TEMP_SUFFIX);
+            int[] removed = {0};
+            try {
+                try (InputStream in = openSegment(file, sealed);
+                     OutputStream out = sealed
+                         ? new GZIPOutputStream(new FileOutputStream(temp))
+                         : new BufferedOutputStream(new FileOutputStream(temp))) {
+                    scanLines(in, (offset, line) -> {
+                        Map<String, Object> record = parse(line);
+                        if (record != null && userId.equals(subjectOf(record))) {
+                            removed[0]++;
+                            return;
+                        }
+                        try {
+                            out.write(line);
+                            out.write('\n');
+                        } catch (IOException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    });
+                }
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                return removed[0];
+            } catch (IOException | IllegalStateException e) {
+                logger.error("Failed to remove user {} from moderation log segment {}", userId, file, e);
+                temp.delete();
+                return 0;
+            }
+        }
+
+        private TreeMap<Integer, Boolean> existingSegments() {
+            TreeMap<Integer, Boolean> segments = new TreeMap<>();
+            for (int segment = 1; segment <= activeSegment; segment++) {
+                if (segment < activeSegment && sealedFile(segment).exists()) {
+                    segments.put(segment, true);
+                } else if (activeFile(segment).exists()) {
+                    segments.put(segment, false);
+                }
+            }
+            return segments;
+        }
+    }
+
+    private static InputStream openSegment(File file, boolean sealed) throws IOException {
+        InputStream in = new FileInputStream(file);
+        return sealed ? new GZIPInputStream(new BufferedInputStream(in)) : new BufferedInputStream(in);
+    }
+
+    /**
+     * Read newline-terminated lines, reporting each with its byte offset. An unterminated final line
+     * (from a write cut short) is ignored.
+     * @return Offset just past the last complete line
+     */
+    private static long scanLines(InputStream in, LineVisitor visitor) throws IOException {
+        InputStream buffered = in instanceof BufferedInputStream ? in : new BufferedInputStream(in);
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        long offset = 0;
+        long lineStart = 0;
+        int b;
+        while ((b = buffered.read()) != -1) {
+            offset++;
+            if (b == '\n') {
+                if (line.size() > 0) {
+                    visitor.visit(lineStart, line.toByteArray());
+                }
+                line.reset();
+                lineStart = offset;
+            } else {
+                line.write(b);
+            }
+        }
+        return lineStart;
+    }
+
+    private Map<String, Object> parse(byte[] line) {
+        try {
+            return gson.fromJson(new String(line, StandardCharsets.UTF_8), RECORD_TYPE);
+        } catch (JsonParseException e) {
+            logger.warn("Skipping unreadable moderation log record: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * One page of a user's moderation history, newest first
+     */
+    public static class HistoryPage {
+        private final List<Map<String, Object>> entries;
+        private final Long nextCursor;
+        private final int skipped;
+        private final int total;
+
+        HistoryPage(List<Map<String, Object>> entries, Long nextCursor, int skipped, int total) {
+            this.entries = entries;
+            this.nextCursor = nextCursor;
+            this.skipped = skipped;
+            this.total = total;
+        }
+
+        public List<Map<String, Object>> getEntries() {
+            return entries;
+        }
+
+        /**
+         * Cursor for the next (older) page, or null if this is the last page
+         */
+        public Long getNextCursor() {
+            return nextCursor;
+        }
+
+        /**
+         * Number of newer records before this page
+         */
+        public int getSkipped() {
+            return skipped;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+    }
+}
@@ -0,0 +1,552 @@
+package com.serverbot.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Full-text index over moderation log entries and warning reasons, one index per guild.
+ * Reasons are split into lowercase terms, and each term keeps a posting list of the documents that
+ * contain it. Documents are numbered in the order they are added, so posting lists stay sorted and
+ * AND/OR queries are linear merges. Each document only keeps its key and a few small attributes;
+ * the full entries are read back from storage for the page being shown.
+ */
+public class ModerationSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModerationSearchIndex.class);
+
+    public enum Source { LOG, WARNING }
+
+    private static final int MIN_TERM_LENGTH = 2;
+    private static final int MAX_TERM_LENGTH = 32;
+    private static final String DEFAULT_REASON = "No reason provided";
+    // Compact a guild's index once this fraction of its documents are deleted
+    private static final double COMPACT_DELETED_RATIO = 0.25;
+    private static final int COMPACT_MIN_DELETED = 64;
+    private static final Set<String> STOP_WORDS = Set.of(
+        "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it",
+        "of", "on", "or", "the", "this", "to", "was", "with"
+    );
+
+    private final Map<String, GuildIndex> guildIndexes = new ConcurrentHashMap<>();
+
+    /**
+     * Rebuild every guild's index from storage. Guilds are indexed in parallel.
+     * @param warnings Warnings keyed by "guildId:userId", as held by the storage manager
+     */
+    public void rebuild(ModerationLogStore logStore, Map<String, List<Map<String, Object>>> warnings) {
+        long start = System.currentTimeMillis();
+
+        Map<String, Map<String, List<Map<String, Object>>>> warningsByGuild = new HashMap<>();
+        for (Map.Entry<String, List<Map<String, Object>>> entry : warnings.entrySet()) {
+            int separator = entry.getKey().indexOf(':');
+            if (separator > 0) {
+                warningsByGuild.computeIfAbsent(entry.getKey().substring(0, separator), k -> new HashMap<>())
+                    .put(entry.getKey().substring(separator + 1), entry.getValue());
+            }
+        }
+
+        Set<String> guildIds = new LinkedHashSet<>(logStore.getGuildIds());
+        guildIds.addAll(warningsByGuild.keySet());
+
+        Map<String, GuildIndex> rebuilt = new ConcurrentHashMap<>();
+        guildIds.parallelStream().forEach(guildId -> {
+            GuildIndex index = new GuildIndex();
+            logStore.forEachRecord(guildId, index::addLogRecord);
+            Map<String, List<Map<String, Object>>> guildWarnings = warningsByGuild.getOrDefault(guildId, Collections.emptyMap());
+            for (Map.Entry<String, List<Map<String, Object>>> entry : guildWarnings.entrySet()) {
+                for (Map<String, Object> warning : entry.getValue()) {
+                    index.addWarning(entry.getKey(), warning);
+                }
+            }
+            rebuilt.put(guildId, index);
+        });
+
+        guildIndexes.clear();
+        guildIndexes.putAll(rebuilt);
+
+        int documents = rebuilt.values().stream().mapToInt(index -> index.size).sum();
+        int terms = rebuilt.values().stream().mapToInt(index -> index.postings.size()).sum();
+        logger.info("Built moderation search index: {} documents, {} terms across {} guilds in {} ms",
+            documents, terms, rebuilt.size(), System.currentTimeMillis() - start);
+    }
+
+    public void indexLogRecords(String guildId, List<Map<String, Object>> records) {
+        GuildIndex index = guildIndexes.computeIfAbsent(guildId, k -> new GuildIndex());
+        for (Map<String, Object> record : records) {
+            index.addLogRecord(record);
+        }
+    }
+
+    public void indexWarning(String guildId, String userId, Map<String, Object> warning) {
+        guildIndexes.computeIfAbsent(guildId, k -> new GuildIndex()).addWarning(userId, warning);
+    }
+
+    /**
+     * Drop a user's warnings in one guild, e.g. after they were cleared or expired
+     */
+    public void removeWarnings(String guildId, String userId) {
+        GuildIndex index = guildIndexes.get(guildId);
+        if (index != null) {
+            index.removeUser(userId, Source.WARNING);
+        }
+    }
+
+    /**
+     * Drop every document about a user in all guilds
+     */
+    public void removeUser(String userId) {
+        for (GuildIndex index : guildIndexes.values()) {
+            index.removeUser(userId, null);
+        }
+    }
+
+    /**
+     * Run a query against a guild's index
+     * @return Matching documents, newest first, limited to one page
+     */
+    public SearchResult search(String guildId, Query query, int offset, int limit) {
+        GuildIndex index = guildIndexes.get(guildId);
+        if (index == null) {
+            return new SearchResult(Collections.emptyList(), 0);
+        }
+        return index.search(query, offset, limit);
+    }
+
+    /**
+     * Split text into the terms it is indexed under: lowercase runs of letters and digits,
+     * without stop words and very short or long tokens. Each term is returned once.
+     */
+    static Set<String> tokenize(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                int length = i - start;
+                String term = lower.substring(start, i);
+                if (length >= MIN_TERM_LENGTH && length <= MAX_TERM_LENGTH && !STOP_WORDS.contains(term)) {
+                    terms.add(term);
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+
+    /**
+     * Sorted, growable list of document numbers for one term
+     */
+    private static final class PostingList {
+        int[] docs = new int[4];
+        int size;
+
+        void add(int doc) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+    }
+
+    /**
+     * Documents and postings for one guild. All access is synchronized on the instance.
+     */
+    private static final class GuildIndex {
+        final Map<String, PostingList> postings = new HashMap<>();
+        // User ids, moderator ids and action types are stored once and referenced by number
+        final List<String> names = new ArrayList<>();
+        final Map<String, Integer> nameIds = new HashMap<>();
+        final BitSet deleted = new BitSet();
+
+        int size;
+        long[] keys = new long[64];
+        long[] timestamps = new long[64];
+        int[] users = new int[64];
+        int[] moderators = new int[64];
+        int[] types = new int[64];
+        byte[] sources = new byte[64];
+
+        synchronized void addLogRecord(Map<String, Object> record) {
+            Object userId = record.get("userId") != null ? record.get("userId") : record.get("targetId");
+            Object type = record.get("type") != null ? record.get("type") : record.get("action");
+            add(Source.LOG, toLong(record.get("id")), userId, record.get("moderatorId"), type,
+                toLong(record.get("timestamp")), record.get("reason"));
+        }
+
+        synchronized void addWarning(String userId, Map<String, Object> warning) {
+            add(Source.WARNING, toLong(warning.get("id")), userId, warning.get("moderatorId"), "WARN",
+                toLong(warning.get("timestamp")), warning.get("reason"));
+        }
+
+        private void add(Source source, long key, Object userId, Object moderatorId, Object type,
+                         long timestamp, Object reason) {
+            if (size == keys.length) {
+                int capacity = size * 2;
+                keys = Arrays.copyOf(keys, capacity);
+                timestamps = Arrays.copyOf(timestamps, capacity);
+                users = Arrays.copyOf(users, capacity);
+                moderators = Arrays.copyOf(moderators, capacity);
+                types = Arrays.copyOf(types, capacity);
+                sources = Arrays.copyOf(sources, capacity);
+            }
+
+            int doc = size++;
+            keys[doc] = key;
+            timestamps[doc] = timestamp;
+            users[doc] = nameId(userId);
+            moderators[doc] = nameId(moderatorId);
+            types[doc] = nameId(type != null ? type.toString().toUpperCase(Locale.ROOT) : null);
+            sources[doc] = (byte) source.ordinal();
+
+            // The default reason is on most entries and never worth searching for
+            if (reason != null && !DEFAULT_REASON.equals(reason)) {
+                for (String term : tokenize(reason.toString())) {
+                    postings.computeIfAbsent(term, k -> new PostingList()).add(doc);
+                }
+            }
+        }
+
+        private int nameId(Object name) {
+            if (name == null) {
+                return -1;
+            }
+            return nameIds.computeIfAbsent(name.toString(), k -> {
+                names.add(k);
+                return names.size() - 1;
+            });
+        }
+
+        private String name(int id) {
+            return id >= 0 ? names.get(id) : null;
+        }
+
+        /**
+         * Mark a user's documents as deleted. Postings are left in place and skipped when searching
+         * until enough documents are deleted to compact the index.
+         * @param source Only remove documents from this source, or null for all
+         */
+        synchronized void removeUser(String userId, Source source) {
+            Integer user = nameIds.get(userId);
+            if (user == null) {
+                return;
+            }
+            for (int doc = 0; doc < size; doc++) {
+                if (users[doc] == user && (source == null || sources[doc] == source.ordinal())) {
+                    deleted.set(doc);
+                }
+            }
+            int deletedCount = deleted.cardinality();
+            if (deletedCount >= COMPACT_MIN_DELETED && deletedCount > size * COMPACT_DELETED_RATIO) {
+                compact();
+            }
+        }
+
+        /**
+         * Drop deleted documents and renumber the rest in their original order, so posting lists stay sorted
+         */
+        private void compact() {
+            int[] renumbered = new int[size];
+            int live = 0;
+            for (int doc = 0; doc < size; doc++) {
+                if (deleted.get(doc)) {
+                    renumbered[doc] = -1;
+                    continue;
+                }
+                renumbered[doc] = live;
+                keys[live] = keys[doc];
+                timestamps[live] = timestamps[doc];
+                users[live] = users[doc];
+                moderators[live] = moderators[doc];
+                types[live] = types[doc];
+                sources[live] = sources[doc];
+                live++;
+            }
+
+            postings.values().removeIf(list -> {
+                int n = 0;
+                for (int i = 0; i < list.size; i++) {
+                    int doc = renumbered[list.docs[i]];
+                    if (doc >= 0) {
+                        list.docs[n++] = doc;
+                    }
+                }
+                list.size = n;
+                return n == 0;
+            });
+
+            logger.debug("Compacted moderation search index from {} to {} documents", size, live);
+            size = live;
+            deleted.clear();
+        }
+
+        synchronized SearchResult search(Query query, int offset, int limit) {
+            int moderator = -2;
+            if (query.moderatorId != null) {
+                Integer id = nameIds.get(query.moderatorId);
+                if (id == null) {
+                    return new SearchResult(Collections.emptyList(), 0);
+                }
+                moderator = id;
+            }
+            int type = -2;
+            if (query.type != null) {
+                Integer id = nameIds.get(query.type);
+                if (id == null) {
+                    return new SearchResult(Collections.emptyList(), 0);
+                }
+                type = id;
+            }
+
+            int[] candidates = query.groups.isEmpty() ? null : matchTerms(query.groups);
+            int count = candidates != null ? candidates.length : size;
+
+            // Walk candidates from the newest document down, keeping those that pass the filters
+            List<Integer> matches = new ArrayList<>();
+            for (int i = count - 1; i >= 0; i--) {
+                int doc = candidates != null ? candidates[i] : i;
+                if (deleted.get(doc)
+                        || (moderator != -2 && moderators[doc] != moderator)
+                        || (type != -2 && types[doc] != type)
+                        || timestamps[doc] < query.after
+                        || timestamps[doc] > query.before) {
+                    continue;
+                }
+                matches.add(doc);
+            }
+
+            // Warnings and log entries are added separately on rebuild, so order by time rather than document number
+            matches.sort((a, b) -> timestamps[a] != timestamps[b]
+                ? Long.compare(timestamps[b], timestamps[a])
+                : Integer.compare(b, a));
+
+            List<Hit> hits = new ArrayList<>();
+            for (int i = offset; i < Math.min(matches.size(), offset + limit); i++) {
+                int doc = matches.get(i);
+                hits.add(new Hit(Source.values()[sources[doc]], keys[doc], name(users[doc]),
+                    name(moderators[doc]), name(types[doc]), timestamps[doc]));
+            }
+            return new SearchResult(hits, matches.size());
+        }
+
+        /**
+         * Documents matching any group, where a group matches when it contains every one of its terms
+         */
+        private int[] matchTerms(List<List<String>> groups) {
+            int[] result = new int[0];
+            for (List<String> group : groups) {
+                int[] groupDocs = null;
+                for (String term : group) {
+                    PostingList list = postings.get(term);
+                    if (list == null) {
+                        groupDocs = new int[0];
+                        break;
+                    }
+                    int[] termDocs = Arrays.copyOf(list.docs, list.size);
+                    groupDocs = groupDocs == null ? termDocs : intersect(groupDocs, termDocs);
+                    if (groupDocs.length == 0) {
+                        break;
+                    }
+                }
+                if (groupDocs != null) {
+                    result = union(result, groupDocs);
+                }
+            }
+            return result;
+        }
+
+        private static int[] intersect(int[] a, int[] b) {
+            int[] out = new int[Math.min(a.length, b.length)];
+            int i = 0, j = 0, n = 0;
+            while (i < a.length && j < b.length) {
+                if (a[i] < b[j]) {
+                    i++;
+                } else if (a[i] > b[j]) {
+                    j++;
+                } else {
+                    out[n++] = a[i];
+                    i++;
+                    j++;
+                }
+            }
+            return Arrays.copyOf(out, n);
+        }
+
+        private static int[] union(int[] a, int[] b) {
+            int[] out = new int[a.length + b.length];
+            int i = 0, j = 0, n = 0;
+            while (i < a.length || j < b.length) {
+                if (j >= b.length || (i < a.length && a[i] < b[j])) {
+                    out[n++] = a[i++];
+                } else if (i >= a.length || b[j] < a[i]) {
+                    out[n++] = b[j++];
+                } else {
+                    out[n++] = a[i];
+                    i++;
+                    j++;
+                }
+            }
+            return Arrays.copyOf(out, n);
+        }
+    }
+
+    /**
+     * A parsed search. Terms are ANDed together; "OR" (or "|") starts an alternative group,
+     * so "scam link OR phishing" finds entries mentioning both scam and link, or phishing.
+     */
+    public static class Query {
+        private final List<List<String>> groups;
+        private String moderatorId;
+        private String type;
+        private long after = Long.MIN_VALUE;
+        private long before = Long.MAX_VALUE;
+
+        private Query(List<List<String>> groups) {
+            this.groups = groups;
+        }
+
+        public static Query parse(String text) {
+            List<List<String>> groups = new ArrayList<>();
+            List<String> current = new ArrayList<>();
+            if (text != null) {
+                for (String word : text.trim().split("\\s+")) {
+                    if (word.equalsIgnoreCase("OR") || word.equals("|")) {
+                        if (!current.isEmpty()) {
+                            groups.add(current);
+                        }
+                        current = new ArrayList<>();
+                    } else if (!word.equalsIgnoreCase("AND") && !word.equals("&")) {
+                        for (String term : tokenize(word)) {
+                            if (!current.contains(term)) {
+                                current.add(term);
+                            }
+                        }
+                    }
+                }
+            }
+            if (!current.isEmpty()) {
+                groups.add(current);
+            }
+            return new Query(groups);
+        }
+
+        public Query moderator(String moderatorId) {
+            this.moderatorId = moderatorId;
+            return this;
+        }
+
+        public Query type(String type) {
+            this.type = type != null ? type.toUpperCase(Locale.ROOT) : null;
+            return this;
+        }
+
+        /**
+         * Only match entries at or after this time (epoch millis)
+         */
+        public Query after(long timestamp) {
+            this.after = timestamp;
+            return this;
+        }
+
+        /**
+         * Only match entries at or before this time (epoch millis)
+         */
+        public Query before(long timestamp) {
+            this.before = timestamp;
+            return this;
+        }
+
+        public boolean hasTerms() {
+            return !groups.isEmpty();
+        }
+    }
+
+    /**
+     * One matching entry, enough to look it up in storage
+     */
+    public static class Hit {
+        private final Source source;
+        private final long key;
+        private final String userId;
+        private final String moderatorId;
+        private final String type;
+        private final long timestamp;
+
+        private Hit(Source source, long key, String userId, String moderatorId, String type, long timestamp) {
+            this.source = source;
+            this.key = key;
+            this.userId = userId;
+            this.moderatorId = moderatorId;
+            this.type = type;
+            this.timestamp = timestamp;
+        }
+
+        public Source getSource() {
+            return source;
+        }
+
+        /**
+         * Moderation log record id, or the warning's id for warnings
+         */
+        public long getKey() {
+            return key;
+        }
+
+        public String getUserId() {
+            return userId;
+        }
+
+        public String getModeratorId() {
+            return moderatorId;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+    }
+
+    public static class SearchResult {
+        private final List<Hit> hits;
+        private final int total;
+
+        private SearchResult(List<Hit> hits, int total) {
+            this.hits = hits;
+            this.total = total;
+        }
+
+        public List<Hit> getHits() {
+            return hits;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+    }
+}
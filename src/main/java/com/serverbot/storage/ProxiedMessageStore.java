@@ -0,0 +1,383 @@
+package com.serverbot.storage;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.serverbot.services.ProxyService.ProxiedMessageData;
+import com.serverbot.utils.InstantTypeAdapter;
+import net.dv8tion.jda.api.utils.TimeUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Append-only store for proxied message records, with one segment file per UTC day:
+ * {@code <dir>/2024-05-01.ndjson}. The day comes from the proxy message's snowflake, so any id can be
+ * mapped to its segment without an index. Segments past the retention window are deleted whole, the
+ * last {@link #RECENT_DAYS} days are kept in memory, and older ids are looked up by reading their
+ * segment on demand.
+ */
+public class ProxiedMessageStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProxiedMessageStore.class);
+
+    private static final String SEGMENT_SUFFIX = ".ndjson";
+    // Days held in memory, counting today
+    private static final int RECENT_DAYS = 2;
+    // Older segments kept in memory after an on-demand lookup
+    private static final int LOADED_SEGMENTS = 3;
+
+    private final File dir;
+    private final int retentionDays;
+    private final Gson gson = new GsonBuilder()
+            .registerTypeAdapter(Instant.class, new InstantTypeAdapter())
+            .create();
+
+    private final Map<LocalDate, Map<String, ProxiedMessageData>> recent = new ConcurrentHashMap<>();
+    private final Map<LocalDate, Map<String, ProxiedMessageData>> loaded =
+            new LinkedHashMap<>(LOADED_SEGMENTS + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<LocalDate, Map<String, ProxiedMessageData>> eldest) {
+                    return size() > LOADED_SEGMENTS;
+                }
+            };
+
+    private LocalDate openDay;
+    private BufferedWriter writer;
+
+    public ProxiedMessageStore(File dir, int retentionDays) {
+        this.dir = dir;
+        this.retentionDays = Math.max(1, retentionDays);
+        dir.mkdirs();
+    }
+
+    /**
+     * Drop expired segments, load the recent window into memory and report the author of every retained record
+     * @param onRecord Called with (authorId, segment day) for each record
+     */
+    public synchronized void load(BiConsumer<String, LocalDate> onRecord) {
+        dropExpired();
+        LocalDate recentFrom = today().minusDays(RECENT_DAYS - 1);
+        int total = 0;
+        for (LocalDate day : listSegments().keySet()) {
+            Map<String, ProxiedMessageData> records = readSegment(day);
+            total += records.size();
+            for (ProxiedMessageData data : records.values()) {
+                onRecord.accept(data.getAuthorId(), day);
+            }
+            if (!day.isBefore(recentFrom)) {
+                recent.put(day, new ConcurrentHashMap<>(records));
+            }
+        }
+        logger.info("Loaded {} proxied message records ({} in memory)", total,
+            recent.values().stream().mapToInt(Map::size).sum());
+    }
+
+    /**
+     * Append one record to its day's segment
+     * @return The segment day the record was written to
+     */
+    public synchronized LocalDate append(ProxiedMessageData data) {
+        LocalDate day = dayOf(data.getProxyMessageId());
+        try {
+            if (!day.equals(openDay)) {
+                roll(day);
+            }
+            writer.write(gson.toJson(data));
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            logger.error("Failed to append proxied message record {}", data.getProxyMessageId(), e);
+        }
+        Map<String, ProxiedMessageData> segment = recent.get(day);
+        if (segment == null) {
+            synchronized (loaded) {
+                segment = loaded.get(day);
+            }
+        }
+        if (segment != null) {
+            segment.put(data.getProxyMessageId(), data);
+        }
+        return day;
+    }
+
+    /**
+     * Import records from the old single-file format, one write per segment
+     */
+    public synchronized void importLegacy(Collection<ProxiedMessageData> records) {
+        LocalDate cutoff = cutoff();
+        Map<LocalDate, StringBuilder> lines = new TreeMap<>();
+        int imported = 0;
+        for (ProxiedMessageData data : records) {
+            LocalDate day = dayOf(data.getProxyMessageId());
+            if (day.isBefore(cutoff)) {
+                continue;
+            }
+            lines.computeIfAbsent(day, k -> new StringBuilder()).append(gson.toJson(data)).append('\n');
+            imported++;
+        }
+        closeWriter();
+        for (Map.Entry<LocalDate, StringBuilder> entry : lines.entrySet()) {
+            try (BufferedWriter out = openAppend(entry.getKey())) {
+                out.write(entry.getValue().toString());
+            } catch (IOException e) {
+                logger.error("Failed to import proxied messages for {}", entry.getKey(), e);
+            }
+        }
+        logger.info("Imported {} of {} legacy proxied message records", imported, records.size());
+    }
+
+    /**
+     * Look up a proxy message by id. Ids outside the in-memory window read their segment from disk.
+     */
+    public ProxiedMessageData get(String messageId) {
+        LocalDate day;
+        try {
+            day = dayOf(messageId);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        Map<String, ProxiedMessageData> segment = recent.get(day);
+        if (segment != null) {
+            return segment.get(messageId);
+        }
+        if (day.isBefore(cutoff()) || day.isAfter(today())) {
+            return null;
+        }
+        synchronized (loaded) {
+            segment = loaded.get(day);
+            if (segment == null) {
+                segment = new ConcurrentHashMap<>(readSegment(day));
+                loaded.put(day, segment);
+            }
+        }
+        return segment.get(messageId);
+    }
+
+    /**
+     * Look up a proxy message by id in the in-memory window only, never touching disk
+     */
+    public ProxiedMessageData getRecent(String messageId) {
+        try {
+            Map<String, ProxiedMessageData> segment = recent.get(dayOf(messageId));
+            return segment != null ? segment.get(messageId) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Pass the user's records in the given segment days to the sink
+     */
+    public void exportUser(String userId, Set<String> days, BiConsumer<String, Object> sink) {
+        for (String key : days) {
+            LocalDate day = parseDay(key);
+            if (day == null) {
+                continue;
+            }
+            for (ProxiedMessageData data : readSegment(day).values()) {
+                if (userId.equals(data.getAuthorId())) {
+                    sink.accept(data.getProxyMessageId(), data);
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove the user's records from the given segment days, rewriting only those segments
+     * @return Number of records removed
+     */
+    public synchronized int removeUser(String userId, Set<String> days) {
+        int removed = 0;
+        for (String key : days) {
+            LocalDate day = parseDay(key);
+            if (day == null) {
+                continue;
+            }
+            Map<String, ProxiedMessageData> records = readSegment(day);
+            int before = records.size();
+            if (!records.values().removeIf(data -> userId.equals(data.getAuthorId()))) {
+                continue;
+            }
+            if (day.equals(openDay)) {
+                closeWriter();
+            }
+            File temp = new File(dir, day + SEGMENT_SUFFIX + ".tmp");
+            try (BufferedWriter out = new BufferedWriter(new OutputStreamWriter(
+                    new FileOutputStream(temp), StandardCharsets.UTF_8))) {
+                for (ProxiedMessageData data : records.values()) {
+                    out.write(gson.toJson(data));
+                    out.newLine();
+                }
+            } catch (IOException e) {
+                logger.error("Failed to rewrite proxied message segment {}", day, e);
+                temp.delete();
+                continue;
+            }
+            try {
+                Files.move(temp.toPath(), segmentFile(day).toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                logger.error("Failed to replace proxied message segment {}", day, e);
+                temp.delete();
+                continue;
+            }
+            removed += before - records.size();
+
+            if (recent.containsKey(day)) {
+                recent.put(day, new ConcurrentHashMap<>(records));
+            }
+            synchronized (loaded) {
+                loaded.remove(day);
+            }
+        }
+        return removed;
+    }
+
+    public synchronized void close() {
+        closeWriter();
+    }
+
+    /**
+     * Segment key used in user data index references
+     */
+    public static String segmentKey(LocalDate day) {
+        return day.toString();
+    }
+
+    // Must hold this
+    private void roll(LocalDate day) throws IOException {
+        closeWriter();
+        writer = openAppend(day);
+        openDay = day;
+
+        // A new day moves the in-memory window and may push a segment past retention
+        LocalDate recentFrom = today().minusDays(RECENT_DAYS - 1);
+        recent.keySet().removeIf(d -> d.isBefore(recentFrom));
+        if (!day.isBefore(recentFrom)) {
+            recent.computeIfAbsent(day, k -> new ConcurrentHashMap<>());
+        }
+        dropExpired();
+    }
+
+    private void dropExpired() {
+        LocalDate cutoff = cutoff();
+        int dropped = 0;
+        for (Map.Entry<LocalDate, File> entry : listSegments().entrySet()) {
+            if (entry.getKey().isBefore(cutoff) && entry.getValue().delete()) {
+                dropped++;
+            }
+        }
+        if (dropped > 0) {
+            synchronized (loaded) {
+                loaded.keySet().removeIf(day -> day.isBefore(cutoff));
+            }
+            logger.info("Dropped {} proxied message segments older than {} days", dropped, retentionDays);
+        }
+    }
+
+    private Map<String, ProxiedMessageData> readSegment(LocalDate day) {
+        Map<String, ProxiedMessageData> records = new HashMap<>();
+        File file = segmentFile(day);
+        if (!file.exists()) {
+            return records;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    ProxiedMessageData data = gson.fromJson(line, ProxiedMessageData.class);
+                    if (data != null && data.getProxyMessageId() != null) {
+                        records.put(data.getProxyMessageId(), data);
+                    }
+                } catch (JsonParseException e) {
+                    // Torn line from a crash mid-append
+                    logger.debug("Skipping unreadable proxied message record in {}", file.getName());
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Failed to read proxied message segment {}", file.getName(), e);
+        }
+        return records;
+    }
+
+    private Map<LocalDate, File> listSegments() {
+        Map<LocalDate, File> segments = new TreeMap<>();
+        File[] files = dir.listFiles((d, name) -> name.endsWith(SEGMENT_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                LocalDate day = parseDay(file.getName().substring(0, file.getName().length() - SEGMENT_SUFFIX.length()));
+                if (day != null) {
+                    segments.put(day, file);
+                }
+            }
+        }
+        return segments;
+    }
+
+    private BufferedWriter openAppend(LocalDate day) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(
+            new FileOutputStream(segmentFile(day), true), StandardCharsets.UTF_8));
+    }
+
+    private void closeWriter() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                logger.debug("Failed to close proxied message segment: {}", e.getMessage());
+            }
+            writer = null;
+            openDay = null;
+        }
+    }
+
+    private File segmentFile(LocalDate day) {
+        return new File(dir, day + SEGMENT_SUFFIX);
+    }
+
+    private LocalDate cutoff() {
+        return today().minusDays(retentionDays - 1);
+    }
+
+    private static LocalDate today() {
+        return LocalDate.now(ZoneOffset.UTC);
+    }
+
+    private static LocalDate dayOf(String messageId) {
+        return TimeUtil.getTimeCreated(Long.parseUnsignedLong(messageId)).atZoneSameInstant(ZoneOffset.UTC).toLocalDate();
+    }
+
+    private static LocalDate parseDay(String value) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,564 @@
+package com.serverbot.storage;
+
+import net.dv8tion.jda.api.utils.TimeUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Links each relayed global chat message to its copies in the other linked channels, so replies,
+ * deletes and reactions can follow a message across servers.
+ * Every global channel (network) has its own ring of relays kept in insertion order, so eviction
+ * always drops that network's oldest relay and a busy network can't push out a quiet one's history.
+ * A ring doubles instead of evicting while its oldest relay is younger than {@link #RETENTION_MS},
+ * which sizes it by the network's message rate. Ids are held as snowflake longs in flat arrays.
+ * A coalesced post is a copy of every message merged into it, so it is recorded under each of those
+ * sources and looks up to the newest of them.
+ * Changes are appended to a journal off the caller's thread and replayed on startup; the journal is
+ * rewritten from memory once it is mostly evicted or deleted relays.
+ */
+public class RelayMappingStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(RelayMappingStore.class);
+
+    private static final String JOURNAL_FILE = "relay_journal.log";
+    private static final int MIN_CAPACITY = 256;
+    private static final int MAX_CAPACITY = 1 << 15;
+    // Rings grow rather than evict relays younger than this
+    private static final long RETENTION_MS = TimeUnit.HOURS.toMillis(24);
+    // Rewrite the journal once it has this many lines per live entry
+    private static final int COMPACT_RATIO = 4;
+    private static final int COMPACT_MIN_LINES = 10_000;
+
+    private final File journal;
+    private final Map<String, Ring> networks = new ConcurrentHashMap<>();
+    private final WriteBehindQueue writer = new WriteBehindQueue("globalchat-relays", 5000);
+
+    // Writer thread only
+    private BufferedWriter out;
+    private long journalLines;
+
+    public RelayMappingStore(File dir) {
+        dir.mkdirs();
+        this.journal = new File(dir, JOURNAL_FILE);
+    }
+
+    /**
+     * Replay the journal, keeping only networks that still exist, then compact it
+     */
+    public void load(Set<String> globalIds) {
+        if (journal.exists()) {
+            long lines = 0;
+            try (BufferedReader reader = Files.newBufferedReader(journal.toPath(), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines++;
+                    replay(line, globalIds);
+                }
+            } catch (IOException e) {
+                logger.error("Failed to read global chat relay journal", e);
+            }
+            logger.info("Loaded {} global chat relays from {} journal lines", getRelayCount(), lines);
+        }
+        writer.execute(this::compact);
+    }
+
+    /**
+     * Start tracking a relayed message; copies are added as their sends complete
+     */
+    public void record(String globalId, String sourceMessageId, String sourceChannelId) {
+        long source = parseId(sourceMessageId);
+        long channel = parseId(sourceChannelId);
+        if (source == 0 || channel == 0) {
+            return;
+        }
+        if (networks.computeIfAbsent(globalId, k -> new Ring()).add(source, channel)) {
+            journal("R " + globalId + " " + source + " " + channel);
+        }
+    }
+
+    /**
+     * Record a sent copy of a tracked message; a copy already recorded under another source is shared with it
+     */
+    public void addCopy(String globalId, String sourceMessageId, String channelId, String messageId) {
+        Ring ring = networks.get(globalId);
+        long source = parseId(sourceMessageId);
+        long channel = parseId(channelId);
+        long message = parseId(messageId);
+        if (ring != null && channel != 0 && message != 0 && ring.addCopy(source, channel, message)) {
+            journal("C " + globalId + " " + source + " " + channel + " " + message);
+        }
+    }
+
+    /**
+     * Find the relay a message belongs to, either as its source or as one of its copies
+     * @return Snapshot of the relay, or null if the message isn't tracked in this network
+     */
+    public Relay find(String globalId, String messageId) {
+        Ring ring = networks.get(globalId);
+        long id = parseId(messageId);
+        return ring == null || id == 0 ? null : ring.find(id);
+    }
+
+    public void remove(String globalId, String sourceMessageId) {
+        Ring ring = networks.get(globalId);
+        long source = parseId(sourceMessageId);
+        if (ring != null && ring.remove(source)) {
+            journal("D " + globalId + " " + source);
+        }
+    }
+
+    /**
+     * Forget every relay in a deleted network
+     */
+    public void dropNetwork(String globalId) {
+        if (networks.remove(globalId) != null) {
+            journal("N " + globalId);
+        }
+    }
+
+    public int getRelayCount() {
+        int count = 0;
+        for (Ring ring : networks.values()) {
+            count += ring.getLive();
+        }
+        return count;
+    }
+
+    /**
+     * e.g. "1,204 relays in 3 networks"
+     */
+    public String describeStats() {
+        return String.format("%,d relays in %,d networks", getRelayCount(), networks.size());
+    }
+
+    /**
+     * Write pending journal lines and close the journal
+     */
+    public void close() {
+        writer.execute(this::closeJournal);
+        writer.shutdown();
+    }
+
+    // ── Journal ──────────────────────────────────────────────────────
+
+    private void journal(String line) {
+        writer.execute(() -> {
+            try {
+                if (out == null) {
+                    out = openAppend();
+                }
+                out.write(line);
+                out.newLine();
+                out.flush();
+                journalLines++;
+            } catch (IOException e) {
+                logger.error("Failed to append to global chat relay journal", e);
+                closeJournal();
+                return;
+            }
+            long live = 0;
+            for (Ring ring : networks.values()) {
+                live += ring.getEntries();
+            }
+            if (journalLines > COMPACT_MIN_LINES && journalLines > live * COMPACT_RATIO) {
+                // Coalesced, so a burst of appends past the threshold compacts once
+                writer.save("compact", this::compact);
+            }
+        });
+    }
+
+    private void replay(String line, Set<String> globalIds) {
+        String[] parts = line.split(" ");
+        if (parts.length < 2 || !globalIds.contains(parts[1])) {
+            return;
+        }
+        try {
+            switch (parts[0]) {
+                case "R":
+                    networks.computeIfAbsent(parts[1], k -> new Ring())
+                        .add(Long.parseLong(parts[2]), Long.parseLong(parts[3]));
+                    break;
+                case "C":
+                    Ring ring = networks.get(parts[1]);
+                    if (ring != null) {
+                        ring.addCopy(Long.parseLong(parts[2]), Long.parseLong(parts[3]), Long.parseLong(parts[4]));
+                    }
+                    break;
+                case "D":
+                    Ring target = networks.get(parts[1]);
+                    if (target != null) {
+                        target.remove(Long.parseLong(parts[2]));
+                    }
+                    break;
+                case "N":
+                    networks.remove(parts[1]);
+                    break;
+                default:
+                    break;
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            // Torn line from a crash mid-append
+            logger.debug("Skipping unreadable global chat relay journal line");
+        }
+    }
+
+    /**
+     * Rewrite the journal with only the live relays. Runs on the writer thread, so lines queued after
+     * the snapshot are appended to the new file; replaying them again is harmless.
+     */
+    private void compact() {
+        closeJournal();
+        File temp = new File(journal.getParentFile(), JOURNAL_FILE + ".tmp");
+        long lines = 0;
+        try (BufferedWriter tempOut = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(temp), StandardCharsets.UTF_8))) {
+            for (Map.Entry<String, Ring> entry : networks.entrySet()) {
+                lines += entry.getValue().writeTo(entry.getKey(), tempOut);
+            }
+        } catch (IOException e) {
+            logger.error("Failed to compact global chat relay journal", e);
+            temp.delete();
+            return;
+        }
+        try {
+            Files.move(temp.toPath(), journal.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            journalLines = lines;
+        } catch (IOException e) {
+            logger.error("Failed to replace global chat relay journal", e);
+            temp.delete();
+        }
+    }
+
+    private BufferedWriter openAppend() throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(journal, true), StandardCharsets.UTF_8));
+    }
+
+    private void closeJournal() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                logger.debug("Failed to close global chat relay journal: {}", e.getMessage());
+            }
+            out = null;
+        }
+    }
+
+    private static long parseId(String id) {
+        if (id == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static long ageMillis(long snowflake, long now) {
+        return now - ((snowflake >>> TimeUtil.TIMESTAMP_OFFSET) + TimeUtil.DISCORD_EPOCH);
+    }
+
+    // ── Relay snapshot ───────────────────────────────────────────────
+
+    /**
+     * A relayed message and the copies sent so far, copied out of the ring
+     */
+    public static final class Relay {
+        private final long sourceMessageId;
+        private final long sourceChannelId;
+        // (channelId, messageId) pairs
+        private final long[] copies;
+
+        private Relay(long sourceMessageId, long sourceChannelId, long[] copies) {
+            this.sourceMessageId = sourceMessageId;
+            this.sourceChannelId = sourceChannelId;
+            this.copies = copies;
+        }
+
+        public String getSourceMessageId() {
+            return Long.toString(sourceMessageId);
+        }
+
+        public String getSourceChannelId() {
+            return Long.toString(sourceChannelId);
+        }
+
+        /**
+         * @return The copy's message ID in that channel, or null if none was sent there
+         */
+        public String getCopyIn(String channelId) {
+            long channel = parseId(channelId);
+            for (int i = 0; i < copies.length; i += 2) {
+                if (copies[i] == channel) {
+                    return Long.toString(copies[i + 1]);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @return Channel ID -> copy message ID
+         */
+        public Map<String, String> getCopies() {
+            Map<String, String> map = new LinkedHashMap<>();
+            for (int i = 0; i < copies.length; i += 2) {
+                map.put(Long.toString(copies[i]), Long.toString(copies[i + 1]));
+            }
+            return map;
+        }
+    }
+
+    // ── Per-network ring ─────────────────────────────────────────────
+
+    private static final class Ring {
+        // Slot arrays; a source of 0 marks an empty slot
+        private long[] sources = new long[MIN_CAPACITY];
+        private long[] sourceChannels = new long[MIN_CAPACITY];
+        private long[][] copies = new long[MIN_CAPACITY][];
+        // Slot the next relay goes to; when full it holds the oldest relay
+        private int next;
+        private int live;
+        private int entries;
+        // Source and copy message IDs -> slot; a shared copy maps to its newest source
+        private LongIntMap index = new LongIntMap(MIN_CAPACITY * 4);
+
+        synchronized boolean add(long source, long channel) {
+            if (index.get(source) >= 0) {
+                return false;
+            }
+            if (sources[next] != 0) {
+                if (sources.length < MAX_CAPACITY && ageMillis(sources[next], System.currentTimeMillis()) < RETENTION_MS) {
+                    grow();
+                } else {
+                    clear(next);
+                }
+            }
+            sources[next] = source;
+            sourceChannels[next] = channel;
+            copies[next] = new long[0];
+            index.put(source, next);
+            live++;
+            entries++;
+            next = (next + 1) & (sources.length - 1);
+            return true;
+        }
+
+        synchronized boolean addCopy(long source, long channel, long message) {
+            int slot = index.get(source);
+            if (slot < 0 || sources[slot] != source) {
+                return false;
+            }
+            int owner = index.get(message);
+            if (owner == slot) {
+                return false;
+            }
+            long[] old = copies[slot];
+            long[] updated = Arrays.copyOf(old, old.length + 2);
+            updated[old.length] = channel;
+            updated[old.length + 1] = message;
+            copies[slot] = updated;
+            // Sources are evicted oldest first, so the newest keeps a shared copy findable the longest
+            if (owner < 0 || sources[owner] < source) {
+                index.put(message, slot);
+            }
+            entries++;
+            return true;
+        }
+
+        synchronized Relay find(long messageId) {
+            int slot = index.get(messageId);
+            if (slot < 0 || sources[slot] == 0) {
+                return null;
+            }
+            return new Relay(sources[slot], sourceChannels[slot], copies[slot]);
+        }
+
+        synchronized boolean remove(long source) {
+            int slot = index.get(source);
+            if (slot < 0 || sources[slot] != source) {
+                return false;
+            }
+            clear(slot);
+            return true;
+        }
+
+        synchronized int getLive() {
+            return live;
+        }
+
+        synchronized int getEntries() {
+            return entries;
+        }
+
+        /**
+         * Write the live relays as journal lines, oldest first
+         * @return Lines written
+         */
+        synchronized int writeTo(String globalId, BufferedWriter writer) throws IOException {
+            int lines = 0;
+            int mask = sources.length - 1;
+            for (int i = 0; i < sources.length; i++) {
+                int slot = (next + i) & mask;
+                if (sources[slot] == 0) {
+                    continue;
+                }
+                writer.write("R " + globalId + " " + sources[slot] + " " + sourceChannels[slot]);
+                writer.newLine();
+                lines++;
+                long[] pairs = copies[slot];
+                for (int j = 0; j < pairs.length; j += 2) {
+                    writer.write("C " + globalId + " " + sources[slot] + " " + pairs[j] + " " + pairs[j + 1]);
+                    writer.newLine();
+                    lines++;
+                }
+            }
+            return lines;
+        }
+
+        private void clear(int slot) {
+            index.remove(sources[slot]);
+            long[] pairs = copies[slot];
+            for (int j = 1; j < pairs.length; j += 2) {
+                if (index.get(pairs[j]) == slot) {
+                    index.remove(pairs[j]);
+                }
+            }
+            entries -= 1 + pairs.length / 2;
+            live--;
+            sources[slot] = 0;
+            sourceChannels[slot] = 0;
+            copies[slot] = null;
+        }
+
+        // Called when full: the oldest relay moves to slot 0 and the new half starts empty
+        private void grow() {
+            int capacity = sources.length;
+            long[] newSources = new long[capacity * 2];
+            long[] newChannels = new long[capacity * 2];
+            long[][] newCopies = new long[capacity * 2][];
+            LongIntMap newIndex = new LongIntMap(capacity * 8);
+            for (int i = 0; i < capacity; i++) {
+                int slot = (next + i) & (capacity - 1);
+                newSources[i] = sources[slot];
+                newChannels[i] = sourceChannels[slot];
+                newCopies[i] = copies[slot];
+                if (newSources[i] != 0) {
+                    newIndex.put(newSources[i], i);
+                    for (int j = 1; j < newCopies[i].length; j += 2) {
+                        newIndex.put(newCopies[i][j], i);
+                    }
+                }
+            }
+            sources = newSources;
+            sourceChannels = newChannels;
+            copies = newCopies;
+            index = newIndex;
+            next = capacity;
+        }
+    }
+
+    /**
+     * Open-addressing long to int map with backward-shift deletion; 0 is not a valid key
+     */
+    private static final class LongIntMap {
+        private long[] keys;
+        private int[] values;
+        private int size;
+
+        LongIntMap(int capacity) {
+            keys = new long[Integer.highestOneBit(Math.max(16, capacity - 1)) << 1];
+            values = new int[keys.length];
+        }
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+                if (keys[i] == 0) {
+                    return -1;
+                }
+            }
+        }
+
+        void put(long key, int value) {
+            if ((size + 1) * 2 > keys.length) {
+                resize();
+            }
+            int mask = keys.length - 1;
+            for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    values[i] = value;
+                    return;
+                }
+                if (keys[i] == 0) {
+                    keys[i] = key;
+                    values[i] = value;
+                    size++;
+                    return;
+                }
+            }
+        }
+
+        void remove(long key) {
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (keys[i] != key) {
+                if (keys[i] == 0) {
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            // Shift later entries of the probe run back so lookups never stop early at the hole
+            int hole = i;
+            for (int j = (hole + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+                int home = slot(keys[j], mask);
+                if (((j - home) & mask) >= ((j - hole) & mask)) {
+                    keys[hole] = keys[j];
+                    values[hole] = values[j];
+                    hole = j;
+                }
+            }
+            keys[hole] = 0;
+            size--;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[keys.length];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int slot(long key, int mask) {
+            // Snowflakes share their high bits, so mix before masking
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+}
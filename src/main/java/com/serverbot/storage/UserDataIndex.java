@@ -0,0 +1,295 @@
+package com.serverbot.storage;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
+import com.serverbot.utils.InstantTypeAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Reverse index from a user to every record the bot stores about them, as (store, key) pairs.
+ * Stores add references when they write a user's data and when they load from disk, so deleting or
+ * exporting a user's data only touches that user's own records. References can outlive the record
+ * they point to; stores skip keys that no longer exist.
+ */
+public class UserDataIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserDataIndex.class);
+    private static UserDataIndex instance;
+
+    private static final String EXPORT_DIR = "data/exports";
+
+    // userId -> store name -> keys
+    private final Map<String, Map<String, Set<String>>> refs = new ConcurrentHashMap<>();
+    // Registration order is kept so exports and progress read the same way every time
+    private final Map<String, UserDataStore> stores = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final Set<String> activeJobs = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "user-data-jobs");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Gson gson = new GsonBuilder()
+            .registerTypeAdapter(Instant.class, new InstantTypeAdapter())
+            .serializeNulls()
+            .create();
+
+    private UserDataIndex() {
+    }
+
+    public static synchronized UserDataIndex getInstance() {
+        if (instance == null) {
+            instance = new UserDataIndex();
+        }
+        return instance;
+    }
+
+    public void register(UserDataStore store) {
+        stores.put(store.getName(), store);
+    }
+
+    public void add(String userId, String store, String key) {
+        if (userId == null || key == null) {
+            return;
+        }
+        refs.computeIfAbsent(userId, k -> new ConcurrentHashMap<>())
+            .computeIfAbsent(store, k -> ConcurrentHashMap.newKeySet())
+            .add(key);
+    }
+
+    public void remove(String userId, String store, String key) {
+        Map<String, Set<String>> userRefs = refs.get(userId);
+        if (userRefs == null) {
+            return;
+        }
+        Set<String> keys = userRefs.get(store);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                userRefs.remove(store);
+            }
+        }
+    }
+
+    /**
+     * Drop every reference from one store, before the store re-adds them on reload
+     */
+    public void clearStore(String store) {
+        for (Map<String, Set<String>> userRefs : refs.values()) {
+            userRefs.remove(store);
+        }
+    }
+
+    public boolean isRunning(String userId) {
+        return activeJobs.contains(userId);
+    }
+
+    /**
+     * Delete everything stored about a user, one store at a time
+     * @param progress Called after each store, may be null
+     * @return Future completed with the outcome, or null if a job for this user is already running
+     */
+    public CompletableFuture<JobResult> deleteUser(String userId, ProgressListener progress) {
+        if (!activeJobs.add(userId)) {
+            return null;
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            Map<String, Set<String>> userRefs = snapshot(userId);
+            JobResult result = new JobResult(userRefs.size());
+            for (Map.Entry<String, Set<String>> entry : userRefs.entrySet()) {
+                UserDataStore store = stores.get(entry.getKey());
+                if (store != null) {
+                    try {
+                        int removed = store.deleteRecords(userId, entry.getValue());
+                        result.records += removed;
+                        if (removed > 0) {
+                            result.categories.add(store.getDescription());
+                        }
+                        // Only the keys handled here; anything written meanwhile stays indexed
+                        for (String key : entry.getValue()) {
+                            remove(userId, entry.getKey(), key);
+                        }
+                    } catch (Exception e) {
+                        logger.error("Failed to delete {} data for user {}", store.getName(), userId, e);
+                        result.failedStores++;
+                    }
+                }
+                result.storesDone++;
+                notify(progress, result, store);
+            }
+            refs.computeIfPresent(userId, (k, remaining) -> remaining.isEmpty() ? null : remaining);
+            logger.info("Deleted {} records in {} categories for user {}", result.records, result.categories.size(), userId);
+            return result;
+        }, executor).whenComplete((result, error) -> activeJobs.remove(userId));
+    }
+
+    /**
+     * Write everything stored about a user to a JSON file, streaming one record at a time
+     * @param progress Called after each store, may be null
+     * @return Future completed with the outcome, whose file the caller deletes once sent, or null if a job for this user is already running
+     */
+    public CompletableFuture<JobResult> exportUser(String userId, ProgressListener progress) {
+        if (!activeJobs.add(userId)) {
+            return null;
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            Map<String, Set<String>> userRefs = snapshot(userId);
+            JobResult result = new JobResult(userRefs.size());
+            File dir = new File(EXPORT_DIR);
+            dir.mkdirs();
+            File file = new File(dir, userId + "-" + System.currentTimeMillis() + ".json");
+
+            try (JsonWriter writer = new JsonWriter(new BufferedWriter(
+                    new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)))) {
+                writer.setIndent("  ");
+                writer.beginObject();
+                writer.name("userId").value(userId);
+                writer.name("exportedAt").value(Instant.now().toString());
+                writer.name("data").beginObject();
+                for (Map.Entry<String, Set<String>> entry : userRefs.entrySet()) {
+                    UserDataStore store = stores.get(entry.getKey());
+                    if (store != null) {
+                        writeStore(writer, store, userId, entry.getValue(), result);
+                    }
+                    result.storesDone++;
+                    notify(progress, result, store);
+                }
+                writer.endObject();
+                writer.endObject();
+            } catch (IOException | UncheckedIOException e) {
+                file.delete();
+                throw new IllegalStateException("Failed to write data export: " + e.getMessage(), e);
+            }
+
+            result.file = file;
+            logger.info("Exported {} records for user {}", result.records, userId);
+            return result;
+        }, executor).whenComplete((result, error) -> activeJobs.remove(userId));
+    }
+
+    private void writeStore(JsonWriter writer, UserDataStore store, String userId, Set<String> keys,
+                            JobResult result) throws IOException {
+        writer.name(store.getName()).beginObject();
+        int before = result.records;
+        try {
+            store.exportRecords(userId, keys, (key, record) -> {
+                try {
+                    writer.name(key);
+                    gson.toJson(record, record.getClass(), writer);
+                    result.records++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Failed to export {} data for user {}", store.getName(), userId, e);
+            result.failedStores++;
+        }
+        writer.endObject();
+        if (result.records > before) {
+            result.categories.add(store.getDescription());
+        }
+    }
+
+    private Map<String, Set<String>> snapshot(String userId) {
+        Map<String, Set<String>> userRefs = refs.getOrDefault(userId, Collections.emptyMap());
+        Map<String, Set<String>> copy = new LinkedHashMap<>();
+        // Walk in registration order
+        synchronized (stores) {
+            for (String store : stores.keySet()) {
+                Set<String> keys = userRefs.get(store);
+                if (keys != null && !keys.isEmpty()) {
+                    copy.put(store, Set.copyOf(keys));
+                }
+            }
+        }
+        return copy;
+    }
+
+    private void notify(ProgressListener progress, JobResult result, UserDataStore store) {
+        if (progress == null) {
+            return;
+        }
+        try {
+            progress.onProgress(result, store != null ? store.getDescription() : null);
+        } catch (Exception e) {
+            logger.debug("User data progress listener failed: {}", e.getMessage());
+        }
+    }
+
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(JobResult progress, String lastStore);
+    }
+
+    /**
+     * Progress and outcome of a delete or export job
+     */
+    public static class JobResult {
+        private final int storesTotal;
+        private final Set<String> categories = new LinkedHashSet<>();
+        private volatile int storesDone;
+        private volatile int records;
+        private volatile int failedStores;
+        private volatile File file;
+
+        private JobResult(int storesTotal) {
+            this.storesTotal = storesTotal;
+        }
+
+        public int getStoresTotal() {
+            return storesTotal;
+        }
+
+        public int getStoresDone() {
+            return storesDone;
+        }
+
+        public int getRecords() {
+            return records;
+        }
+
+        public int getFailedStores() {
+            return failedStores;
+        }
+
+        /**
+         * Descriptions of the stores that held data
+         */
+        public Set<String> getCategories() {
+            return categories;
+        }
+
+        /**
+         * The export file, for export jobs
+         */
+        public File getFile() {
+            return file;
+        }
+    }
+}
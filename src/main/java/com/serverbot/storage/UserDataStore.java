@@ -0,0 +1,68 @@
+package com.serverbot.storage;
+
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * A place where the bot keeps per-user data, registered with {@link UserDataIndex} so a user's
+ * records can be exported or deleted by key without scanning the whole store.
+ * Keys are whatever the store uses to find the record (e.g. "guildId:userId" or a member id).
+ * A key may refer to a record that no longer exists; stores skip those.
+ */
+public interface UserDataStore {
+
+    /**
+     * Short id used in index references and export files, e.g. "economy"
+     */
+    String getName();
+
+    /**
+     * Human readable description shown to the user, e.g. "Economy balances"
+     */
+    String getDescription();
+
+    /**
+     * Pass each of the user's records for the given keys to the sink as (key, record)
+     */
+    void exportRecords(String userId, Set<String> keys, BiConsumer<String, Object> sink);
+
+    /**
+     * Delete the user's records for the given keys
+     * @return Number of records removed
+     */
+    int deleteRecords(String userId, Set<String> keys);
+
+    @FunctionalInterface
+    interface Exporter {
+        void exportRecords(String userId, Set<String> keys, BiConsumer<String, Object> sink);
+    }
+
+    @FunctionalInterface
+    interface Deleter {
+        int deleteRecords(String userId, Set<String> keys);
+    }
+
+    static UserDataStore of(String name, String description, Exporter exporter, Deleter deleter) {
+        return new UserDataStore() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+
+            @Override
+            public void exportRecords(String userId, Set<String> keys, BiConsumer<String, Object> sink) {
+                exporter.exportRecords(userId, keys, sink);
+            }
+
+            @Override
+            public int deleteRecords(String userId, Set<String> keys) {
+                return deleter.deleteRecords(userId, keys);
+            }
+        };
+    }
+}
@@ -0,0 +1,96 @@
+package com.serverbot.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves file writes off the threads that change the data.
+ * Saves are keyed, so a burst of changes to one file collapses into a single write shortly after the
+ * last request; appends run in submission order. Everything runs on one writer thread, so writes to
+ * the same file never overlap.
+ */
+public class WriteBehindQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindQueue.class);
+
+    private final long delayMillis;
+    private final Map<String, Runnable> dirty = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService writer;
+
+    /**
+     * @param name Writer thread name
+     * @param delayMillis How long a save waits for further changes before writing
+     */
+    public WriteBehindQueue(String name, long delayMillis) {
+        this.delayMillis = delayMillis;
+        this.writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Request a save; if one for this key is already waiting, it covers this change too
+     */
+    public void save(String key, Runnable save) {
+        if (dirty.putIfAbsent(key, save) == null) {
+            try {
+                writer.schedule(() -> run(key), delayMillis, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                // Shut down: write now rather than lose the change
+                run(key);
+            }
+        }
+    }
+
+    /**
+     * Run a write in order with the other queued work
+     */
+    public void execute(Runnable write) {
+        try {
+            writer.execute(() -> runSafely(write));
+        } catch (Exception e) {
+            runSafely(write);
+        }
+    }
+
+    /**
+     * Write everything pending and stop the writer thread
+     */
+    public void shutdown() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("Write-behind queue did not drain in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Anything the writer did not reach in time is written here instead
+        for (String key : dirty.keySet()) {
+            run(key);
+        }
+    }
+
+    private void run(String key) {
+        Runnable save = dirty.remove(key);
+        if (save != null) {
+            runSafely(save);
+        }
+    }
+
+    private void runSafely(Runnable write) {
+        try {
+            write.run();
+        } catch (Exception e) {
+            logger.error("Write-behind task failed: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.serverbot.ServerBot;
 import com.serverbot.listeners.AutoLogListener;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import org.slf4j.Logger;
@@ -28,6 +29,7 @@ public class AutoLogUtils {
     private static final String EMOJI_UNBAN = CustomEmojis.SUCCESS;
     private static final String EMOJI_UNMUTE = CustomEmojis.SUCCESS;
     private static final String EMOJI_UNWARN = CustomEmojis.SUCCESS;
+    private static final String EMOJI_PURGE = CustomEmojis.WARN;
     
     private static final Logger logger = LoggerFactory.getLogger(AutoLogUtils.class);
     
@@ -288,6 +290,88 @@ public class AutoLogUtils {
         );
     }
     
+    /**
+     * Send a raid alert to the moderation log channel.
+     * Raid alerts are security-critical, so they are sent whenever a log channel is configured.
+     */
+    public static void logRaidAlert(Guild guild, MessageEmbed embed) {
+        TextChannel logChannel = getLogChannel(guild, "moderation", "raids");
+        if (logChannel == null) return;
+        
+        logChannel.sendMessageEmbeds(embed).queue(
+            success -> {
+                AutoLogListener.trackLogMessage(success.getId());
+                logger.debug("Logged raid alert for guild {} to AutoLog channel", guild.getId());
+            },
+            error -> logger.warn("Failed to log raid alert to AutoLog channel: {}", error.getMessage())
+        );
+    }
+    
+    /**
+     * Log a single aggregated entry for a bulk ban to the AutoLog channel
+     */
+    public static void logBulkBan(Guild guild, User moderator, String reason, Duration duration,
+                                  int banned, int failed, int skipped) {
+        if (!isAutoLogEnabled(guild.getId(), "moderation", "bans")) {
+            return;
+        }
+        
+        TextChannel logChannel = getLogChannel(guild, "moderation", "bans");
+        if (logChannel == null) return;
+        
+        EmbedBuilder embed = new EmbedBuilder()
+                .setColor(Color.RED)
+                .setTitle(EMOJI_BAN + " Bulk Ban")
+                .addField("Users Banned", String.valueOf(banned), true)
+                .addField("Failed", String.valueOf(failed), true)
+                .addField("Skipped", String.valueOf(skipped), true)
+                .addField("Moderator", moderator.getAsMention(), true)
+                .addField("Duration", duration != null ? formatDuration(duration) : "Permanent", true)
+                .addField("Reason", reason, false)
+                .setFooter("Moderator ID: " + moderator.getId())
+                .setTimestamp(OffsetDateTime.now());
+        
+        logChannel.sendMessageEmbeds(embed.build()).queue(
+            success -> {
+                AutoLogListener.trackLogMessage(success.getId());
+                logger.debug("Logged bulk ban of {} users to AutoLog channel", banned);
+            },
+            error -> logger.warn("Failed to log bulk ban to AutoLog channel: {}", error.getMessage())
+        );
+    }
+    
+    /**
+     * Log a single summary of a server-wide purge to the AutoLog channel
+     */
+    public static void logGuildPurge(Guild guild, User moderator, int userCount, Duration window,
+                                     int deleted, int channels, boolean cancelled) {
+        if (!isAutoLogEnabled(guild.getId(), "moderation", "purges")) {
+            return;
+        }
+        
+        TextChannel logChannel = getLogChannel(guild, "moderation", "purges");
+        if (logChannel == null) return;
+        
+        EmbedBuilder embed = new EmbedBuilder()
+                .setColor(Color.ORANGE)
+                .setTitle(EMOJI_PURGE + (cancelled ? " Server Purge Cancelled" : " Server Purge"))
+                .addField("Users", String.valueOf(userCount), true)
+                .addField("Time Window", formatDuration(window), true)
+                .addField("Moderator", moderator.getAsMention(), true)
+                .addField("Messages Deleted", String.valueOf(deleted), true)
+                .addField("Channels Affected", String.valueOf(channels), true)
+                .setFooter("Moderator ID: " + moderator.getId())
+                .setTimestamp(OffsetDateTime.now());
+        
+        logChannel.sendMessageEmbeds(embed.build()).queue(
+            success -> {
+                AutoLogListener.trackLogMessage(success.getId());
+                logger.debug("Logged server purge for guild {} to AutoLog channel", guild.getId());
+            },
+            error -> logger.warn("Failed to log server purge to AutoLog channel: {}", error.getMessage())
+        );
+    }
+    
     /**
      * Checks if auto-logging is enabled for a specific event type
      */
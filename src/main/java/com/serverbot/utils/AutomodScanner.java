@@ -0,0 +1,559 @@
+package com.serverbot.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Compiled automod configuration for one guild.
+ * All enabled rules are evaluated together in a single pass over the message content:
+ * leetspeak-normalizing Aho-Corasick automata for the word list, caps ratio,
+ * repeated character runs, mention counting and URL domain matching. Links without a scheme
+ * ("discord.gg/abc"), which Discord also turns into links, are matched by the shape of their host.
+ * Stretched letters ("fuuuck") are caught without letting short words match longer list
+ * entries: list words with a doubled letter ("ass", "butt") are matched with runs capped at two
+ * instead of collapsed, so "as" and "but" stay clean.
+ */
+public class AutomodScanner {
+
+    public enum Rule {
+        BAD_WORDS("bad_words", "Bad Words"),
+        CAPS_LOCK("caps_lock", "Caps Lock"),
+        REPEATED_TEXT("repeated_text", "Repeated Text"),
+        MASS_MENTIONS("mass_mentions", "Mass Mentions"),
+        LINK_FILTER("link_filter", "Link Filter");
+
+        private final String key;
+        private final String displayName;
+
+        Rule(String key, String displayName) {
+            this.key = key;
+            this.displayName = displayName;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    // Minimum letters before the caps ratio is considered, so "OK" or "LOL" don't trigger
+    private static final int MIN_CAPS_LETTERS = 8;
+
+    // Raw-text tokens matched by the second automaton
+    private static final int TOKEN_HTTP = 0;
+    private static final int TOKEN_HTTPS = 1;
+    private static final int TOKEN_USER_MENTION = 2;
+    private static final int TOKEN_EVERYONE = 3;
+    private static final int TOKEN_HERE = 4;
+    private static final String[] TOKENS = {"http://", "https://", "<@", "@everyone", "@here"};
+    // Characters after which Discord starts a bare link; anything else means the text is mid-word or mid-path
+    private static final String BARE_LINK_PREFIXES = "(<[\"'`*_~|>";
+
+    private final boolean badWordsEnabled;
+    private final boolean capsEnabled;
+    private final boolean repeatedEnabled;
+    private final boolean mentionsEnabled;
+    private final boolean linksEnabled;
+
+    private final int capsPercent;
+    private final int maxRun;
+    private final int maxMentions;
+
+    // List words without doubled letters, matched with every run collapsed to one letter
+    private final Automaton singleWords;
+    // List words with a doubled letter, matched with runs capped at two
+    private final Automaton doubleWords;
+    private final Automaton tokens;
+    private final Set<String> allowedDomains;
+
+    private AutomodScanner(Builder builder) {
+        this.badWordsEnabled = builder.badWordsEnabled && !builder.words.isEmpty();
+        this.capsEnabled = builder.capsEnabled;
+        this.repeatedEnabled = builder.repeatedEnabled;
+        this.mentionsEnabled = builder.mentionsEnabled;
+        this.linksEnabled = builder.linksEnabled;
+        this.capsPercent = builder.capsPercent;
+        this.maxRun = builder.maxRun;
+        this.maxMentions = builder.maxMentions;
+        this.allowedDomains = new HashSet<>(builder.allowedDomains);
+
+        List<String> singles = new ArrayList<>();
+        List<String> doubles = new ArrayList<>();
+        for (String word : builder.words) {
+            String normalized = normalizeWord(word, 2);
+            if (normalized.isEmpty()) {
+                continue;
+            }
+            if (hasDoubledLetter(normalized)) {
+                doubles.add(normalized);
+            } else {
+                singles.add(normalized);
+            }
+        }
+        this.singleWords = badWordsEnabled && !singles.isEmpty() ? new Automaton(singles) : null;
+        this.doubleWords = badWordsEnabled && !doubles.isEmpty() ? new Automaton(doubles) : null;
+        this.tokens = (mentionsEnabled || linksEnabled) ? new Automaton(Arrays.asList(TOKENS)) : null;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return true if at least one rule is active and scanning is worthwhile
+     */
+    public boolean isActive() {
+        return badWordsEnabled || capsEnabled || repeatedEnabled || mentionsEnabled || linksEnabled;
+    }
+
+    /**
+     * Scan a message and return the first rule it violates
+     * @param content Raw message content
+     * @return The violated rule, or null if the message is clean
+     */
+    public Rule scan(String content) {
+        if (content == null || content.isEmpty() || !isActive()) {
+            return null;
+        }
+
+        int letters = 0;
+        int upper = 0;
+        int run = 0;
+        char previous = 0;
+        int mentions = 0;
+
+        WordMatcher singles = singleWords != null ? new WordMatcher(singleWords, 1) : null;
+        WordMatcher doubles = doubleWords != null ? new WordMatcher(doubleWords, 2) : null;
+
+        int tokenState = 0;
+        int domainStart = -1;      // raw index where a URL's host begins
+        int bareStart = -1;        // raw index where a possible scheme-less host begins
+
+        int length = content.length();
+        for (int i = 0; i < length; i++) {
+            char c = content.charAt(i);
+            char lower = Character.toLowerCase(c);
+
+            // Caps ratio
+            if (capsEnabled && Character.isLetter(c)) {
+                letters++;
+                if (Character.isUpperCase(c)) {
+                    upper++;
+                }
+            }
+
+            // Repeated runs of the same character
+            if (repeatedEnabled && !Character.isWhitespace(c)) {
+                run = lower == previous ? run + 1 : 1;
+                previous = lower;
+                if (run > maxRun) {
+                    return Rule.REPEATED_TEXT;
+                }
+            }
+
+            // Word list on the leetspeak-normalized stream
+            if (singles != null || doubles != null) {
+                char n = normalizeChar(lower);
+                if ((singles != null && singles.accept(n)) | (doubles != null && doubles.accept(n))) {
+                    return Rule.BAD_WORDS;
+                }
+            }
+
+            // URLs and mentions on the raw lowercase stream
+            if (tokens != null) {
+                boolean hostChar = isHostChar(lower);
+                if (domainStart >= 0 && !hostChar) {
+                    if (linksEnabled && !isAllowedDomain(trimHost(content.substring(domainStart, i)))) {
+                        return Rule.LINK_FILTER;
+                    }
+                    domainStart = -1;
+                }
+                if (bareStart >= 0 && !hostChar) {
+                    if (linksEnabled && isBlockedBareHost(content.substring(bareStart, i))) {
+                        return Rule.LINK_FILTER;
+                    }
+                    bareStart = -1;
+                } else if (hostChar && bareStart < 0 && domainStart < 0 && startsBareLink(content, i)) {
+                    bareStart = i;
+                }
+                tokenState = tokens.step(tokenState, lower);
+                int token = tokens.firstOutputId(tokenState);
+                if (token == TOKEN_HTTP || token == TOKEN_HTTPS) {
+                    domainStart = i + 1;
+                } else if (token == TOKEN_USER_MENTION || token == TOKEN_EVERYONE || token == TOKEN_HERE) {
+                    mentions++;
+                    if (mentionsEnabled && mentions > maxMentions) {
+                        return Rule.MASS_MENTIONS;
+                    }
+                }
+            }
+        }
+
+        if ((singles != null && singles.pendingHit) || (doubles != null && doubles.pendingHit)) {
+            return Rule.BAD_WORDS;
+        }
+        if (domainStart >= 0 && linksEnabled && !isAllowedDomain(trimHost(content.substring(domainStart)))) {
+            return Rule.LINK_FILTER;
+        }
+        if (bareStart >= 0 && linksEnabled && isBlockedBareHost(content.substring(bareStart))) {
+            return Rule.LINK_FILTER;
+        }
+        if (capsEnabled && letters >= MIN_CAPS_LETTERS && upper * 100 > capsPercent * letters) {
+            return Rule.CAPS_LOCK;
+        }
+        return null;
+    }
+
+    private boolean isAllowedDomain(String host) {
+        if (host.isEmpty()) {
+            return true;
+        }
+        // Accept exact matches and subdomains of allowed domains
+        String candidate = host;
+        while (true) {
+            if (allowedDomains.contains(candidate)) {
+                return true;
+            }
+            int dot = candidate.indexOf('.');
+            if (dot < 0) {
+                return false;
+            }
+            candidate = candidate.substring(dot + 1);
+        }
+    }
+
+    /**
+     * A scheme-less token is only treated as a link if its host looks like a domain with a
+     * letters-only TLD, so "e.g." or "v1.2" aren't caught
+     */
+    private boolean isBlockedBareHost(String token) {
+        String host = trimHost(token);
+        int dot = host.lastIndexOf('.');
+        if (dot <= 0 || host.length() - dot - 1 < 2 || host.contains("..")) {
+            return false;
+        }
+        for (int i = dot + 1; i < host.length(); i++) {
+            char c = host.charAt(i);
+            if (c < 'a' || c > 'z') {
+                return false;
+            }
+        }
+        return !isAllowedDomain(host);
+    }
+
+    private static boolean startsBareLink(String content, int index) {
+        if (index == 0) {
+            return true;
+        }
+        char before = content.charAt(index - 1);
+        return Character.isWhitespace(before) || BARE_LINK_PREFIXES.indexOf(before) >= 0;
+    }
+
+    /**
+     * Lowercase a host and drop trailing dots and hyphens, e.g. from the end of a sentence
+     */
+    private static String trimHost(String host) {
+        int end = host.length();
+        while (end > 0 && (host.charAt(end - 1) == '.' || host.charAt(end - 1) == '-')) {
+            end--;
+        }
+        return host.substring(0, end).toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isHostChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '.' || c == '-';
+    }
+
+    /**
+     * Map leetspeak substitutions to letters. Returns 0 for characters that are
+     * ignored entirely (zero-width and formatting characters used to dodge filters).
+     */
+    static char normalizeChar(char c) {
+        switch (c) {
+            case '0': return 'o';
+            case '1': return 'i';
+            case '3': return 'e';
+            case '4': case '@': return 'a';
+            case '5': case '$': return 's';
+            case '7': case '+': return 't';
+            case '8': return 'b';
+            case '9': return 'g';
+            case '*': case '_': case '\u200B': case '\u200C': case '\u200D': case '\u2060': return 0;
+            default: return c;
+        }
+    }
+
+    /**
+     * Leetspeak-normalize a list word, keeping only letters and capping runs of the same letter
+     */
+    static String normalizeWord(String word, int maxRun) {
+        StringBuilder sb = new StringBuilder(word.length());
+        char last = 0;
+        int run = 0;
+        for (char c : word.toLowerCase(Locale.ROOT).toCharArray()) {
+            char n = normalizeChar(c);
+            if (n < 'a' || n > 'z') {
+                continue;
+            }
+            run = n == last ? run + 1 : 1;
+            last = n;
+            if (run <= maxRun) {
+                sb.append(n);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean hasDoubledLetter(String word) {
+        for (int i = 1; i < word.length(); i++) {
+            if (word.charAt(i) == word.charAt(i - 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whole-word matching of one automaton against the normalized stream, with runs of the same
+     * letter capped at maxRun. A match only counts once the word ends, so list words inside longer
+     * words don't trigger.
+     */
+    private static final class WordMatcher {
+        private final Automaton automaton;
+        private final int maxRun;
+        private int state;
+        private int pos;           // position in the capped stream
+        private int start;         // capped position where the current word began
+        private char last;
+        private int run;
+        private boolean pendingHit;
+
+        WordMatcher(Automaton automaton, int maxRun) {
+            this.automaton = automaton;
+            this.maxRun = maxRun;
+        }
+
+        /**
+         * Feed one normalized character
+         * @return true if a list word just ended here
+         */
+        boolean accept(char n) {
+            if (n == 0) {
+                // Ignored filler character, the word continues
+                return false;
+            }
+            if (n < 'a' || n > 'z') {
+                if (pendingHit) {
+                    return true;
+                }
+                state = 0;
+                last = 0;
+                run = 0;
+                pos++;
+                start = pos;
+                return false;
+            }
+            run = n == last ? run + 1 : 1;
+            last = n;
+            if (run > maxRun) {
+                return false;
+            }
+            // A letter following a pending match means the match was inside a longer word
+            pendingHit = false;
+            state = automaton.step(state, n);
+            pos++;
+            int matchLength = automaton.longestOutput(state);
+            if (matchLength > 0 && pos - matchLength == start) {
+                pendingHit = true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Aho-Corasick automaton over chars. Edges are kept as small per-state arrays and a step follows
+     * failure links until an edge matches, which is amortized constant time per character.
+     */
+    private static final class Automaton {
+        private final List<char[]> edgeChars = new ArrayList<>();
+        private final List<int[]> edgeTargets = new ArrayList<>();
+        private int[] fail;
+        private int[] longestOutput;
+        private int[] firstOutputId;
+
+        Automaton(Collection<String> patterns) {
+            addState();
+            List<Integer> outputLength = new ArrayList<>();
+            List<Integer> outputId = new ArrayList<>();
+            outputLength.add(0);
+            outputId.add(-1);
+
+            int id = 0;
+            for (String pattern : patterns) {
+                int state = 0;
+                for (char c : pattern.toCharArray()) {
+                    int next = child(state, c);
+                    if (next < 0) {
+                        next = addState();
+                        outputLength.add(0);
+                        outputId.add(-1);
+                        addEdge(state, c, next);
+                    }
+                    state = next;
+                }
+                outputLength.set(state, Math.max(outputLength.get(state), pattern.length()));
+                if (outputId.get(state) < 0) {
+                    outputId.set(state, id);
+                }
+                id++;
+            }
+
+            int states = edgeChars.size();
+            fail = new int[states];
+            longestOutput = new int[states];
+            firstOutputId = new int[states];
+            for (int s = 0; s < states; s++) {
+                longestOutput[s] = outputLength.get(s);
+                firstOutputId[s] = outputId.get(s);
+            }
+
+            // Breadth-first construction of failure links, inheriting outputs along them
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            char[] rootChars = edgeChars.get(0);
+            for (int i = 0; i < rootChars.length; i++) {
+                int s = edgeTargets.get(0)[i];
+                fail[s] = 0;
+                queue.add(s);
+            }
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                char[] chars = edgeChars.get(state);
+                int[] targets = edgeTargets.get(state);
+                for (int i = 0; i < chars.length; i++) {
+                    int next = targets[i];
+                    int f = fail[state];
+                    while (f != 0 && child(f, chars[i]) < 0) {
+                        f = fail[f];
+                    }
+                    int fc = child(f, chars[i]);
+                    fail[next] = (fc >= 0 && fc != next) ? fc : 0;
+                    longestOutput[next] = Math.max(longestOutput[next], longestOutput[fail[next]]);
+                    if (firstOutputId[next] < 0) {
+                        firstOutputId[next] = firstOutputId[fail[next]];
+                    }
+                    queue.add(next);
+                }
+            }
+        }
+
+        int step(int state, char c) {
+            while (true) {
+                int next = child(state, c);
+                if (next >= 0) {
+                    return next;
+                }
+                if (state == 0) {
+                    return 0;
+                }
+                state = fail[state];
+            }
+        }
+
+        int longestOutput(int state) {
+            return longestOutput[state];
+        }
+
+        int firstOutputId(int state) {
+            return firstOutputId[state];
+        }
+
+        private int addState() {
+            edgeChars.add(new char[0]);
+            edgeTargets.add(new int[0]);
+            return edgeChars.size() - 1;
+        }
+
+        private void addEdge(int state, char c, int target) {
+            char[] chars = edgeChars.get(state);
+            int[] targets = edgeTargets.get(state);
+            char[] newChars = Arrays.copyOf(chars, chars.length + 1);
+            int[] newTargets = Arrays.copyOf(targets, targets.length + 1);
+            newChars[chars.length] = c;
+            newTargets[targets.length] = target;
+            edgeChars.set(state, newChars);
+            edgeTargets.set(state, newTargets);
+        }
+
+        private int child(int state, char c) {
+            char[] chars = edgeChars.get(state);
+            for (int i = 0; i < chars.length; i++) {
+                if (chars[i] == c) {
+                    return edgeTargets.get(state)[i];
+                }
+            }
+            return -1;
+        }
+    }
+
+    public static class Builder {
+        private boolean badWordsEnabled;
+        private boolean capsEnabled;
+        private boolean repeatedEnabled;
+        private boolean mentionsEnabled;
+        private boolean linksEnabled;
+        private int capsPercent = 70;
+        private int maxRun = 10;
+        private int maxMentions = 5;
+        private final List<String> words = new ArrayList<>();
+        private final List<String> allowedDomains = new ArrayList<>();
+
+        public Builder badWords(boolean enabled, Collection<String> list) {
+            this.badWordsEnabled = enabled;
+            if (list != null) {
+                this.words.addAll(list);
+            }
+            return this;
+        }
+
+        public Builder capsLock(boolean enabled, int percent) {
+            this.capsEnabled = enabled;
+            this.capsPercent = percent;
+            return this;
+        }
+
+        public Builder repeatedText(boolean enabled, int maxRun) {
+            this.repeatedEnabled = enabled;
+            this.maxRun = maxRun;
+            return this;
+        }
+
+        public Builder massMentions(boolean enabled, int maxMentions) {
+            this.mentionsEnabled = enabled;
+            this.maxMentions = maxMentions;
+            return this;
+        }
+
+        public Builder linkFilter(boolean enabled, Collection<String> allowed) {
+            this.linksEnabled = enabled;
+            if (allowed != null) {
+                for (String domain : allowed) {
+                    this.allowedDomains.add(domain.toLowerCase(Locale.ROOT));
+                }
+            }
+            return this;
+        }
+
+        public AutomodScanner build() {
+            return new AutomodScanner(this);
+        }
+    }
+}
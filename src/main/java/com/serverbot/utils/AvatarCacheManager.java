@@ -1,24 +1,82 @@
 package com.serverbot.utils;
 
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.serverbot.ServerBot;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
 import java.io.*;
+import java.lang.reflect.Type;
+import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
 import java.security.MessageDigest;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
 
 /**
- * Manages caching of avatar images from Discord CDN to prevent link expiration
+ * Manages caching of avatar images from Discord CDN to prevent link expiration.
+ * Downloads run on a small background pool and concurrent requests for one URL share a download.
+ * Files are named by content hash so the same image behind different URLs is stored once, and the
+ * least recently used files are evicted once the cache exceeds its disk quota.
  */
 public class AvatarCacheManager {
     private static final Logger logger = LoggerFactory.getLogger(AvatarCacheManager.class);
     private static final Path CACHE_DIR = Paths.get("data", "avatar_cache");
+    private static final Path INDEX_FILE = CACHE_DIR.resolve("index.json");
+    
+    private static final int DOWNLOAD_THREADS = 4;
+    private static final int CONNECT_TIMEOUT_MS = 5000;
+    private static final int READ_TIMEOUT_MS = 10000;
+    // Discord rejects avatars above this, so anything larger is not worth keeping
+    private static final long MAX_DOWNLOAD_BYTES = 10L * 1024 * 1024;
+    private static final int DEFAULT_MAX_MB = 256;
+    private static final int DEFAULT_MAX_SIZE = 256;
+    
+    private static final Gson gson = new Gson();
+    private static final AtomicInteger threadCount = new AtomicInteger();
+    private static final ExecutorService downloadPool = Executors.newFixedThreadPool(DOWNLOAD_THREADS, r -> {
+        Thread thread = new Thread(r, "avatar-cache-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    // CDN URL -> cached filename
+    private static final Map<String, String> urlIndex = new ConcurrentHashMap<>();
+    // CDN URL -> download in progress
+    private static final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private static final AtomicLong cacheBytes = new AtomicLong();
+    // Guards adding and removing cache files so cacheBytes matches what is on disk
+    private static final Object fileLock = new Object();
+    
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static final LongAdder coalesced = new LongAdder();
+    private static final LongAdder bytesDownloaded = new LongAdder();
     
     static {
         try {
@@ -26,55 +84,307 @@ public class AvatarCacheManager {
         } catch (IOException e) {
             logger.error("Failed to create avatar cache directory", e);
         }
+        loadIndex();
     }
     
     /**
-     * Downloads and caches an avatar from a Discord CDN URL
+     * Downloads and caches an avatar from a Discord CDN URL in the background
      * @param cdnUrl The Discord CDN URL
-     * @return A file:// URL pointing to the cached image, or the original URL if caching fails
+     * @return A future with a file:// URL pointing to the cached image, or the original URL if caching fails
      */
-    public static String cacheAvatar(String cdnUrl) {
+    public static CompletableFuture<String> cacheAvatarAsync(String cdnUrl) {
         if (cdnUrl == null || cdnUrl.isEmpty()) {
-            return null;
+            return CompletableFuture.completedFuture(null);
         }
         
         // If it's already a file:// URL, return it as-is
         if (cdnUrl.startsWith("file://")) {
-            return cdnUrl;
+            return CompletableFuture.completedFuture(cdnUrl);
         }
         
         // Only cache Discord CDN URLs
         if (!isDiscordCdnUrl(cdnUrl)) {
-            return cdnUrl;
+            return CompletableFuture.completedFuture(cdnUrl);
         }
         
-        try {
-            // Generate a unique filename based on the URL
-            String filename = generateFilename(cdnUrl);
+        // If already cached, return the cached version
+        String filename = urlIndex.get(cdnUrl);
+        if (filename != null) {
             Path cachePath = CACHE_DIR.resolve(filename);
-            
-            // If already cached, return the cached version
-            if (Files.exists(cachePath)) {
+            if (touch(cachePath)) {
+                hits.increment();
                 logger.debug("Avatar already cached: {}", filename);
-                return cachePath.toUri().toString();
+                return CompletableFuture.completedFuture(cachePath.toUri().toString());
+            }
+            urlIndex.remove(cdnUrl, filename);
+        }
+        
+        // Join a download that is already running for this URL
+        CompletableFuture<String> created = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(cdnUrl, created);
+        if (existing != null) {
+            coalesced.increment();
+            return existing;
+        }
+        
+        misses.increment();
+        downloadPool.execute(() -> {
+            try {
+                created.complete(download(cdnUrl));
+            } catch (Exception e) {
+                logger.error("Failed to cache avatar from URL: " + cdnUrl, e);
+                // Return original URL if caching fails
+                created.complete(cdnUrl);
+            } finally {
+                inFlight.remove(cdnUrl, created);
             }
+        });
+        return created;
+    }
+    
+    private static String download(String cdnUrl) throws Exception {
+        logger.info("Downloading avatar from CDN: {}", cdnUrl);
+        String extension = getUrlExtension(cdnUrl);
+        Path temp = Files.createTempFile(CACHE_DIR, "download-", ".tmp");
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            HttpURLConnection connection = (HttpURLConnection) new URL(cdnUrl).openConnection();
+            connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+            connection.setReadTimeout(READ_TIMEOUT_MS);
+            long length;
+            try (InputStream in = new DigestInputStream(connection.getInputStream(), digest);
+                 OutputStream out = Files.newOutputStream(temp)) {
+                length = copyLimited(in, out);
+            } finally {
+                connection.disconnect();
+            }
+            bytesDownloaded.add(length);
             
-            // Download the image
-            logger.info("Downloading avatar from CDN: {}", cdnUrl);
-            URL url = new URL(cdnUrl);
-            try (InputStream in = url.openStream()) {
-                Files.copy(in, cachePath, StandardCopyOption.REPLACE_EXISTING);
+            // Same image under another URL is stored once
+            String filename = Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest())
+                .substring(0, 16) + extension;
+            Path cachePath = CACHE_DIR.resolve(filename);
+            boolean stored = false;
+            if (!touch(cachePath)) {
+                downscale(temp, extension);
+                // Another download of the same image may have finished while this one was scaling
+                synchronized (fileLock) {
+                    if (!Files.exists(cachePath)) {
+                        long size = Files.size(temp);
+                        Files.move(temp, cachePath, StandardCopyOption.ATOMIC_MOVE);
+                        cacheBytes.addAndGet(size);
+                        stored = true;
+                    }
+                }
+            }
+            if (stored) {
                 logger.info("Avatar cached successfully: {}", filename);
-                return cachePath.toUri().toString();
+            } else {
+                logger.debug("Avatar content already cached under another URL: {}", filename);
             }
             
+            urlIndex.put(cdnUrl, filename);
+            saveIndex();
+            evictIfNeeded(filename);
+            return cachePath.toUri().toString();
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    private static long copyLimited(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[8192];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            total += read;
+            if (total > MAX_DOWNLOAD_BYTES) {
+                throw new IOException("Avatar exceeds " + MAX_DOWNLOAD_BYTES + " bytes");
+            }
+            out.write(buffer, 0, read);
+        }
+        return total;
+    }
+    
+    /**
+     * Shrink a still image in place to the configured size; animated and WebP images are kept as-is
+     */
+    private static void downscale(Path file, String extension) {
+        int maxSize = getMaxSize();
+        if (maxSize <= 0 || !(extension.equals(".png") || extension.equals(".jpg"))) {
+            return;
+        }
+        try {
+            BufferedImage image = ImageIO.read(file.toFile());
+            if (image == null || (image.getWidth() <= maxSize && image.getHeight() <= maxSize)) {
+                return;
+            }
+            double scale = (double) maxSize / Math.max(image.getWidth(), image.getHeight());
+            int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+            int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+            boolean png = extension.equals(".png");
+            BufferedImage scaled = new BufferedImage(width, height,
+                png ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = scaled.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(image, 0, 0, width, height, null);
+            g.dispose();
+            ImageIO.write(scaled, png ? "png" : "jpg", file.toFile());
         } catch (Exception e) {
-            logger.error("Failed to cache avatar from URL: " + cdnUrl, e);
-            // Return original URL if caching fails
-            return cdnUrl;
+            logger.debug("Keeping avatar at original size: {}", e.getMessage());
         }
     }
     
+    /**
+     * Delete least recently used files until the cache is back under its quota
+     * @param keep File that was just added and must survive
+     */
+    private static void evictIfNeeded(String keep) {
+        long quota = getMaxBytes();
+        if (cacheBytes.get() <= quota) {
+            return;
+        }
+        synchronized (fileLock) {
+            List<Path> files = listCachedFiles();
+            files.sort(Comparator.comparing(AvatarCacheManager::lastUsed));
+            // Leave some headroom so every new avatar does not trigger another pass
+            long target = quota * 9 / 10;
+            List<String> evicted = new ArrayList<>();
+            for (Path file : files) {
+                if (cacheBytes.get() <= target) {
+                    break;
+                }
+                String name = file.getFileName().toString();
+                if (name.equals(keep)) {
+                    continue;
+                }
+                try {
+                    long size = Files.size(file);
+                    Files.deleteIfExists(file);
+                    cacheBytes.addAndGet(-size);
+                    evicted.add(name);
+                } catch (IOException e) {
+                    logger.debug("Failed to evict cached avatar {}: {}", name, e.getMessage());
+                }
+            }
+            if (!evicted.isEmpty()) {
+                urlIndex.values().removeAll(evicted);
+                saveIndex();
+                logger.info("Evicted {} cached avatars, cache is now {} bytes", evicted.size(), cacheBytes.get());
+            }
+        }
+    }
+    
+    private static boolean touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+    
+    private static FileTime lastUsed(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+    
+    private static List<Path> listCachedFiles() {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> stream = Files.list(CACHE_DIR)) {
+            stream.filter(Files::isRegularFile)
+                .filter(path -> !path.equals(INDEX_FILE) && !path.toString().endsWith(".tmp"))
+                .forEach(files::add);
+        } catch (IOException e) {
+            logger.error("Failed to list avatar cache", e);
+        }
+        return files;
+    }
+    
+    private static void loadIndex() {
+        long total = 0;
+        for (Path file : listCachedFiles()) {
+            try {
+                total += Files.size(file);
+            } catch (IOException ignored) {
+                // Removed while listing
+            }
+        }
+        cacheBytes.set(total);
+        
+        if (Files.exists(INDEX_FILE)) {
+            try (Reader reader = Files.newBufferedReader(INDEX_FILE, StandardCharsets.UTF_8)) {
+                Type type = new TypeToken<Map<String, String>>(){}.getType();
+                Map<String, String> loaded = gson.fromJson(reader, type);
+                if (loaded != null) {
+                    urlIndex.putAll(loaded);
+                }
+            } catch (Exception e) {
+                logger.error("Failed to load avatar cache index", e);
+            }
+        }
+    }
+    
+    private static synchronized void saveIndex() {
+        Path temp = CACHE_DIR.resolve("index.json.tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                gson.toJson(new HashMap<>(urlIndex), writer);
+            }
+            Files.move(temp, INDEX_FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.error("Failed to save avatar cache index", e);
+        }
+    }
+    
+    private static long getMaxBytes() {
+        BotConfig config = ServerBot.getConfigManager() != null ? ServerBot.getConfigManager().getConfig() : null;
+        int mb = config != null ? config.getAvatarCacheMaxMb() : DEFAULT_MAX_MB;
+        return Math.max(1, mb) * 1024L * 1024L;
+    }
+    
+    private static int getMaxSize() {
+        BotConfig config = ServerBot.getConfigManager() != null ? ServerBot.getConfigManager().getConfig() : null;
+        return config != null ? config.getAvatarCacheMaxSize() : DEFAULT_MAX_SIZE;
+    }
+    
+    // ========== Metrics ==========
+    
+    public static long getHits() {
+        return hits.sum();
+    }
+    
+    public static long getMisses() {
+        return misses.sum();
+    }
+    
+    /**
+     * Requests that joined a download already in progress
+     */
+    public static long getCoalesced() {
+        return coalesced.sum();
+    }
+    
+    public static long getBytesDownloaded() {
+        return bytesDownloaded.sum();
+    }
+    
+    public static long getCacheBytes() {
+        return cacheBytes.get();
+    }
+    
+    /**
+     * One line summary for bot info, e.g. "12.4 MB, 93% hits"
+     */
+    public static String describeStats() {
+        long lookups = getHits() + getMisses() + getCoalesced();
+        long hitRate = lookups > 0 ? (getHits() + getCoalesced()) * 100 / lookups : 0;
+        return String.format("%.1f MB, %d%% hits", getCacheBytes() / (1024.0 * 1024.0), hitRate);
+    }
+    
     /**
      * Gets the local file path for a cached avatar
      * @param fileUrl A file:// URL
@@ -152,33 +462,18 @@ public class AvatarCacheManager {
     }
     
     /**
-     * Generates a unique filename for an avatar URL using hash
+     * Gets the image extension from a CDN URL
      */
-    private static String generateFilename(String url) {
-        try {
-            // Extract extension from URL
-            String extension = ".png"; // Default
-            if (url.contains(".jpg") || url.contains(".jpeg")) {
-                extension = ".jpg";
-            } else if (url.contains(".gif")) {
-                extension = ".gif";
-            } else if (url.contains(".webp")) {
-                extension = ".webp";
-            }
-            
-            // Create hash of URL
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(url.getBytes());
-            String hashStr = Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
-            
-            // Use first 16 characters of hash for filename
-            return hashStr.substring(0, 16) + extension;
-            
-        } catch (Exception e) {
-            logger.error("Failed to generate filename for URL: " + url, e);
-            // Fallback to timestamp-based filename
-            return "avatar_" + System.currentTimeMillis() + ".png";
+    private static String getUrlExtension(String url) {
+        String extension = ".png"; // Default
+        if (url.contains(".jpg") || url.contains(".jpeg")) {
+            extension = ".jpg";
+        } else if (url.contains(".gif")) {
+            extension = ".gif";
+        } else if (url.contains(".webp")) {
+            extension = ".webp";
         }
+        return extension;
     }
     
     /**
@@ -190,7 +485,16 @@ public class AvatarCacheManager {
         String localPath = getLocalPath(fileUrl);
         if (localPath != null) {
             try {
-                Files.deleteIfExists(Paths.get(localPath));
+                Path file = Paths.get(localPath);
+                synchronized (fileLock) {
+                    long size = Files.exists(file) ? Files.size(file) : 0;
+                    if (Files.deleteIfExists(file)) {
+                        cacheBytes.addAndGet(-size);
+                    }
+                }
+                // The same file may back several URLs
+                urlIndex.values().removeIf(name -> name.equals(file.getFileName().toString()));
+                saveIndex();
                 logger.info("Deleted cached avatar: {}", localPath);
                 return true;
             } catch (IOException e) {
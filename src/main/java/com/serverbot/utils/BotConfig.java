@@ -31,6 +31,22 @@ public class BotConfig {
     @SerializedName("bot_version")
     private String botVersion = "1.0.0";
     
+    // When set, slash commands are registered to this guild only (instant propagation for testing)
+    @SerializedName("dev_guild_id")
+    private String devGuildId = "";
+    
+    // Disk quota for data/avatar_cache, least recently used avatars are evicted past it
+    @SerializedName("avatar_cache_max_mb")
+    private int avatarCacheMaxMb = 256;
+    
+    // Cached avatars larger than this many pixels on either side are downscaled, 0 keeps the original
+    @SerializedName("avatar_cache_max_size")
+    private int avatarCacheMaxSize = 256;
+    
+    // Days of proxied message records kept for reaction deletes and lookups
+    @SerializedName("proxy_message_retention_days")
+    private int proxyMessageRetentionDays = 30;
+    
     public String getBotToken() {
         return botToken;
     }
@@ -120,4 +136,44 @@ public class BotConfig {
     public void setBotVersion(String botVersion) {
         this.botVersion = botVersion;
     }
+    
+    public String getDevGuildId() {
+        return devGuildId;
+    }
+    
+    public void setDevGuildId(String devGuildId) {
+        this.devGuildId = devGuildId;
+    }
+    
+    public int getAvatarCacheMaxMb() {
+        return avatarCacheMaxMb;
+    }
+    
+    public void setAvatarCacheMaxMb(int avatarCacheMaxMb) {
+        this.avatarCacheMaxMb = avatarCacheMaxMb;
+    }
+    
+    public int getAvatarCacheMaxSize() {
+        return avatarCacheMaxSize;
+    }
+    
+    public void setAvatarCacheMaxSize(int avatarCacheMaxSize) {
+        this.avatarCacheMaxSize = avatarCacheMaxSize;
+    }
+    
+    public int getProxyMessageRetentionDays() {
+        return proxyMessageRetentionDays;
+    }
+    
+    public void setProxyMessageRetentionDays(int proxyMessageRetentionDays) {
+        this.proxyMessageRetentionDays = proxyMessageRetentionDays;
+    }
+    
+    /**
+     * Check if developer mode (single test guild command registration) is enabled
+     * @return true if a dev guild ID is configured
+     */
+    public boolean isDevMode() {
+        return devGuildId != null && !devGuildId.isEmpty();
+    }
 }
@@ -1,5 +1,6 @@
 package com.serverbot.utils;
 
+import com.serverbot.services.MessageExpiryService;
 import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
@@ -44,9 +45,8 @@ public class DismissibleMessage {
             .setComponents(ActionRow.of(dismissButton))
             .queue(message -> {
                 if (autoDeleteSeconds > 0) {
-                    message.delete().queueAfter(autoDeleteSeconds, TimeUnit.SECONDS, 
-                        success -> {}, 
-                        failure -> {}); // Silently ignore if message already deleted
+                    MessageExpiryService.getInstance().schedule(message.getChannel().getId(), message.getId(),
+                        autoDeleteSeconds, TimeUnit.SECONDS);
                 }
             });
     }
@@ -0,0 +1,307 @@
+package com.serverbot.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Detects the same (or nearly the same) message being posted across channels and accounts.
+ * One instance is kept per guild. Messages are fingerprinted with an exact hash of the
+ * normalized text plus a 64-bit SimHash of character shingles, and recent fingerprints are
+ * kept in a fixed-size table, so memory per guild is bounded and each message costs at most
+ * one pass over the text plus one pass over the table.
+ * A fingerprint lives for one window from its first sighting, so text that keeps being posted
+ * starts a fresh count instead of accumulating forever. Copy and channel limits apply to each
+ * author's own copies; copies from different authors only add up for the raid rule, which needs
+ * longer text, so several people typing the same short phrase isn't treated as spam.
+ */
+public class DuplicateMessageDetector {
+
+    private static final int TABLE_SIZE = 64;
+    private static final int MAX_TRACKED = 8;      // distinct authors/channels/messages kept per fingerprint
+    private static final int MIN_LENGTH = 10;      // normalized characters before a message is fingerprinted
+    private static final int MIN_RAID_LENGTH = 30; // normalized characters before distinct authors count
+    private static final int SHINGLE = 4;
+    private static final int NEAR_DUPLICATE_BITS = 3;
+
+    private final Entry[] table = new Entry[TABLE_SIZE];
+
+    public DuplicateMessageDetector() {
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            table[i] = new Entry();
+        }
+    }
+
+    /**
+     * Record a message and check whether its fingerprint crossed a threshold
+     * @param content Raw message content
+     * @param authorId Author's user ID
+     * @param channelId Channel the message was posted in
+     * @param messageId The message ID (kept so earlier copies can be cleaned up)
+     * @param now Current time in milliseconds
+     * @param limits Thresholds and window for the guild
+     * @return The detection result, never null
+     */
+    public synchronized Result record(String content, long authorId, long channelId, long messageId,
+                                      long now, Limits limits) {
+        String normalized = normalize(content);
+        if (normalized.length() < MIN_LENGTH) {
+            return Result.CLEAN;
+        }
+
+        long exact = fnv1a(normalized, 0, normalized.length());
+        long sim = simHash(normalized);
+
+        // Find a live matching entry, remembering a free (expired) or oldest slot otherwise
+        Entry match = null;
+        Entry free = null;
+        Entry oldest = null;
+        for (Entry entry : table) {
+            if (!entry.isLive(now, limits.windowMillis)) {
+                if (free == null) {
+                    free = entry;
+                }
+                continue;
+            }
+            if (entry.exact == exact || Long.bitCount(entry.simHash ^ sim) <= NEAR_DUPLICATE_BITS) {
+                match = entry;
+                break;
+            }
+            if (oldest == null || entry.firstSeen < oldest.firstSeen) {
+                oldest = entry;
+            }
+        }
+
+        if (match == null) {
+            Entry slot = free != null ? free : oldest;
+            slot.reset(exact, sim, now);
+            slot.add(authorId, channelId, messageId);
+            return Result.CLEAN;
+        }
+
+        int author = match.add(authorId, channelId, messageId);
+        boolean raid = normalized.length() >= MIN_RAID_LENGTH && match.authorCount >= limits.authorLimit;
+        // Authors past MAX_TRACKED aren't tracked individually and can only be caught by the raid rule
+        boolean repeated = author >= 0 && (match.authorCopies[author] > limits.duplicateLimit
+                || Integer.bitCount(match.authorChannels[author]) >= limits.channelLimit);
+        if (!raid && !repeated) {
+            return Result.CLEAN;
+        }
+
+        // First time over a threshold: hand back earlier copies so they can be removed too.
+        // A raid takes every author's copies; a repeating author only their own.
+        List<long[]> earlier = new ArrayList<>();
+        if (raid && !match.raidFlagged) {
+            match.raidFlagged = true;
+            match.flaggedAuthors = -1;
+            collectEarlier(match, messageId, -1, earlier);
+        } else if (!raid && (match.flaggedAuthors & (1 << author)) == 0) {
+            match.flaggedAuthors |= 1 << author;
+            collectEarlier(match, messageId, author, earlier);
+        }
+        return raid
+            ? new Result(true, earlier, match.authorCount, match.channelCount)
+            : new Result(true, earlier, 1, Integer.bitCount(match.authorChannels[author]));
+    }
+
+    /**
+     * @param author Author index to collect copies of, or -1 for every author
+     */
+    private static void collectEarlier(Entry entry, long messageId, int author, List<long[]> earlier) {
+        for (int i = 0; i < entry.messageCount; i++) {
+            if (entry.messageIds[i] != messageId && (author < 0 || entry.messageAuthors[i] == author)) {
+                earlier.add(new long[]{entry.messageChannels[i], entry.messageIds[i]});
+            }
+        }
+    }
+
+    /**
+     * Lowercase, keep letters and digits only
+     */
+    static String normalize(String content) {
+        if (content == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(content.length());
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 64-bit SimHash over overlapping character shingles
+     */
+    static long simHash(String text) {
+        int[] votes = new int[64];
+        int shingles = Math.max(1, text.length() - SHINGLE + 1);
+        for (int i = 0; i < shingles; i++) {
+            long h = mix(fnv1a(text, i, Math.min(text.length(), i + SHINGLE)));
+            for (int bit = 0; bit < 64; bit++) {
+                votes[bit] += ((h >>> bit) & 1L) != 0 ? 1 : -1;
+            }
+        }
+        long result = 0;
+        for (int bit = 0; bit < 64; bit++) {
+            if (votes[bit] > 0) {
+                result |= 1L << bit;
+            }
+        }
+        return result;
+    }
+
+    private static long fnv1a(String text, int from, int to) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = from; i < to; i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Per-guild thresholds
+     */
+    public static class Limits {
+        final int authorLimit;
+        final int channelLimit;
+        final int duplicateLimit;
+        final long windowMillis;
+
+        /**
+         * @param authorLimit Distinct authors posting the same text that count as a raid
+         * @param channelLimit Distinct channels one author may post the same text in
+         * @param duplicateLimit Copies one author may post
+         * @param windowMillis How long a fingerprint stays live after its first sighting
+         */
+        public Limits(int authorLimit, int channelLimit, int duplicateLimit, long windowMillis) {
+            this.authorLimit = Math.max(2, Math.min(authorLimit, MAX_TRACKED));
+            this.channelLimit = Math.max(2, Math.min(channelLimit, MAX_TRACKED));
+            this.duplicateLimit = duplicateLimit;
+            this.windowMillis = windowMillis;
+        }
+    }
+
+    public static class Result {
+        static final Result CLEAN = new Result(false, Collections.emptyList(), 0, 0);
+
+        private final boolean triggered;
+        private final List<long[]> earlierMessages;
+        private final int authorCount;
+        private final int channelCount;
+
+        Result(boolean triggered, List<long[]> earlierMessages, int authorCount, int channelCount) {
+            this.triggered = triggered;
+            this.earlierMessages = earlierMessages;
+            this.authorCount = authorCount;
+            this.channelCount = channelCount;
+        }
+
+        public boolean isTriggered() {
+            return triggered;
+        }
+
+        /**
+         * Earlier copies as {channelId, messageId} pairs, only populated the first time a fingerprint triggers
+         */
+        public List<long[]> getEarlierMessages() {
+            return earlierMessages;
+        }
+
+        public int getAuthorCount() {
+            return authorCount;
+        }
+
+        public int getChannelCount() {
+            return channelCount;
+        }
+    }
+
+    private static final class Entry {
+        long exact;
+        long simHash;
+        long firstSeen;
+        boolean raidFlagged;
+        // Bit per author index whose earlier copies were already handed back
+        int flaggedAuthors;
+
+        final long[] authors = new long[MAX_TRACKED];
+        final int[] authorCopies = new int[MAX_TRACKED];
+        // Bit per channel index the author posted this text in
+        final int[] authorChannels = new int[MAX_TRACKED];
+        int authorCount;
+        final long[] channels = new long[MAX_TRACKED];
+        int channelCount;
+        final long[] messageIds = new long[MAX_TRACKED];
+        final long[] messageChannels = new long[MAX_TRACKED];
+        final int[] messageAuthors = new int[MAX_TRACKED];
+        int messageCount;
+
+        boolean isLive(long now, long windowMillis) {
+            return authorCount > 0 && now - firstSeen <= windowMillis;
+        }
+
+        void reset(long exact, long simHash, long now) {
+            this.exact = exact;
+            this.simHash = simHash;
+            this.firstSeen = now;
+            this.raidFlagged = false;
+            this.flaggedAuthors = 0;
+            this.authorCount = 0;
+            this.channelCount = 0;
+            this.messageCount = 0;
+        }
+
+        /**
+         * @return The author's index, or -1 if too many authors are already tracked
+         */
+        int add(long authorId, long channelId, long messageId) {
+            int author = indexOf(authors, authorCount, authorId);
+            if (author < 0 && authorCount < MAX_TRACKED) {
+                author = authorCount++;
+                authors[author] = authorId;
+                authorCopies[author] = 0;
+                authorChannels[author] = 0;
+            }
+            int channel = indexOf(channels, channelCount, channelId);
+            if (channel < 0 && channelCount < MAX_TRACKED) {
+                channel = channelCount++;
+                channels[channel] = channelId;
+            }
+            if (author >= 0) {
+                authorCopies[author]++;
+                if (channel >= 0) {
+                    authorChannels[author] |= 1 << channel;
+                }
+            }
+            if (messageCount < MAX_TRACKED) {
+                messageIds[messageCount] = messageId;
+                messageChannels[messageCount] = channelId;
+                messageAuthors[messageCount] = author;
+                messageCount++;
+            }
+            return author;
+        }
+
+        private static int indexOf(long[] values, int size, long value) {
+            for (int i = 0; i < size; i++) {
+                if (values[i] == value) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
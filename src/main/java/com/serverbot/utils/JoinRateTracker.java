@@ -0,0 +1,91 @@
+package com.serverbot.utils;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-guild join velocity tracker.
+ * Joins are counted in one-second buckets of a fixed ring, alongside a histogram of the
+ * joining accounts' ages, so recording a join is O(1) and reading a window is bounded by
+ * the ring size regardless of how many members join.
+ */
+public class JoinRateTracker {
+
+    public static final int MAX_WINDOW_SECONDS = 120;
+
+    public static final String[] AGE_LABELS = {"< 1 hour", "< 1 day", "< 1 week", "< 1 month", "< 1 year", "1 year+"};
+    private static final long[] AGE_LIMITS = {
+        TimeUnit.HOURS.toMillis(1),
+        TimeUnit.DAYS.toMillis(1),
+        TimeUnit.DAYS.toMillis(7),
+        TimeUnit.DAYS.toMillis(30),
+        TimeUnit.DAYS.toMillis(365)
+    };
+
+    private final long[] bucketSecond = new long[MAX_WINDOW_SECONDS];
+    private final int[] joins = new int[MAX_WINDOW_SECONDS];
+    private final int[][] ages = new int[MAX_WINDOW_SECONDS][AGE_LABELS.length];
+
+    /**
+     * Record a join
+     * @param nowMillis Join time
+     * @param accountAgeMillis Age of the joining account
+     */
+    public synchronized void record(long nowMillis, long accountAgeMillis) {
+        long second = nowMillis / 1000;
+        int index = (int) (second % MAX_WINDOW_SECONDS);
+        if (bucketSecond[index] != second) {
+            // Bucket belongs to an older lap of the ring, start it fresh
+            bucketSecond[index] = second;
+            joins[index] = 0;
+            Arrays.fill(ages[index], 0);
+        }
+        joins[index]++;
+        ages[index][ageBucket(accountAgeMillis)]++;
+    }
+
+    /**
+     * Count joins in the last windowSeconds
+     */
+    public synchronized int countJoins(long nowMillis, int windowSeconds) {
+        long second = nowMillis / 1000;
+        int window = Math.min(Math.max(1, windowSeconds), MAX_WINDOW_SECONDS);
+        int total = 0;
+        for (int i = 0; i < window; i++) {
+            long s = second - i;
+            int index = (int) (s % MAX_WINDOW_SECONDS);
+            if (bucketSecond[index] == s) {
+                total += joins[index];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Account age histogram (see {@link #AGE_LABELS}) of joins in the last windowSeconds
+     */
+    public synchronized int[] ageHistogram(long nowMillis, int windowSeconds) {
+        long second = nowMillis / 1000;
+        int window = Math.min(Math.max(1, windowSeconds), MAX_WINDOW_SECONDS);
+        int[] histogram = new int[AGE_LABELS.length];
+        for (int i = 0; i < window; i++) {
+            long s = second - i;
+            int index = (int) (s % MAX_WINDOW_SECONDS);
+            if (bucketSecond[index] == s) {
+                for (int b = 0; b < histogram.length; b++) {
+                    histogram[b] += ages[index][b];
+                }
+            }
+        }
+        return histogram;
+    }
+
+    private static int ageBucket(long accountAgeMillis) {
+        for (int i = 0; i < AGE_LIMITS.length; i++) {
+            if (accountAgeMillis < AGE_LIMITS[i]) {
+                return i;
+            }
+        }
+        return AGE_LIMITS.length;
+    }
+}
@@ -0,0 +1,80 @@
+package com.serverbot.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram.
+ * Samples land in power-of-two millisecond buckets, so recording is O(1) from any thread and
+ * percentiles are accurate to within a factor of two, which is enough to spot a backed-up pipeline.
+ */
+public class LatencyRecorder {
+
+    // Bucket i holds samples below 2^i ms; the last bucket takes everything longer
+    private static final int BUCKETS = 20;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMillis = new LongAdder();
+    private final LongAccumulator maxMillis = new LongAccumulator(Math::max, 0);
+
+    public void record(long millis) {
+        millis = Math.max(0, millis);
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(millis));
+        buckets.incrementAndGet(bucket);
+        count.increment();
+        totalMillis.add(millis);
+        maxMillis.accumulate(millis);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getAverageMillis() {
+        long n = count.sum();
+        return n == 0 ? 0 : totalMillis.sum() / n;
+    }
+
+    public long getMaxMillis() {
+        return maxMillis.get();
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile
+     * @param percentile 0-100
+     */
+    public long getPercentileMillis(double percentile) {
+        long n = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = buckets.get(i);
+            n += snapshot[i];
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(n * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return i == BUCKETS - 1 ? getMaxMillis() : Math.min(1L << i, getMaxMillis());
+            }
+        }
+        return getMaxMillis();
+    }
+
+    /**
+     * e.g. "p50 ≤256 ms, p95 ≤512 ms, max 730 ms (1,204)"
+     */
+    public String describe() {
+        long n = getCount();
+        if (n == 0) {
+            return "No samples";
+        }
+        return String.format("p50 ≤%d ms, p95 ≤%d ms, max %d ms (%,d)",
+            getPercentileMillis(50), getPercentileMillis(95), getMaxMillis(), n);
+    }
+}
@@ -0,0 +1,90 @@
+package com.serverbot.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sliding-window message rate tracker used by anti-spam.
+ * Each key (guildId:userId) owns a fixed-size ring buffer of primitive timestamps
+ * sized to the guild's message limit, so recording a message is O(1) with no boxing.
+ */
+public class MessageRateTracker {
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    /**
+     * Record a message and check whether the key exceeded its limit
+     * @param key The tracking key (usually guildId:userId)
+     * @param timestamp The message time in milliseconds
+     * @param maxMessages Messages allowed inside the window
+     * @param windowMillis Length of the sliding window in milliseconds
+     * @return true if more than maxMessages were sent within the window
+     */
+    public boolean recordAndCheck(String key, long timestamp, int maxMessages, long windowMillis) {
+        Window window = windows.computeIfAbsent(key, k -> new Window(maxMessages + 1));
+        return window.record(timestamp, maxMessages, windowMillis);
+    }
+
+    /**
+     * Remove keys that have not sent a message within idleMillis
+     * @return Number of entries evicted
+     */
+    public int evictIdle(long now, long idleMillis) {
+        int before = windows.size();
+        windows.values().removeIf(window -> window.isIdle(now, idleMillis));
+        return before - windows.size();
+    }
+
+    /**
+     * Ring buffer holding the most recent limit+1 message timestamps for one key
+     */
+    private static final class Window {
+        private long[] times;
+        private int head; // next slot to write
+        private int count;
+        private volatile long lastSeen;
+
+        Window(int capacity) {
+            this.times = new long[Math.max(2, capacity)];
+        }
+
+        synchronized boolean record(long timestamp, int maxMessages, long windowMillis) {
+            int capacity = maxMessages + 1;
+            if (times.length != capacity) {
+                resize(Math.max(2, capacity));
+            }
+
+            times[head] = timestamp;
+            head = (head + 1) % times.length;
+            if (count < times.length) {
+                count++;
+            }
+            lastSeen = timestamp;
+
+            // With a full buffer, the slot at head is the oldest of the last limit+1 messages
+            if (count < times.length) {
+                return false;
+            }
+            return timestamp - times[head] <= windowMillis;
+        }
+
+        /**
+         * Keep the newest timestamps when the guild's limit changes
+         */
+        private void resize(int capacity) {
+            long[] resized = new long[capacity];
+            int keep = Math.min(count, capacity);
+            for (int i = 0; i < keep; i++) {
+                int src = Math.floorMod(head - keep + i, times.length);
+                resized[i] = times[src];
+            }
+            times = resized;
+            count = keep;
+            head = keep % capacity;
+        }
+
+        boolean isIdle(long now, long idleMillis) {
+            return now - lastSeen > idleMillis;
+        }
+    }
+}
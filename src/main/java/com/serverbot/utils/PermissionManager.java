@@ -57,6 +57,7 @@ public class PermissionManager {
         DEFAULT_PERMISSIONS.put("mod.warn", false);
         DEFAULT_PERMISSIONS.put("mod.kick", false);
         DEFAULT_PERMISSIONS.put("mod.ban", false);
+        DEFAULT_PERMISSIONS.put("mod.massban", false);
         DEFAULT_PERMISSIONS.put("mod.timeout", false);
         DEFAULT_PERMISSIONS.put("mod.mute", false);
         DEFAULT_PERMISSIONS.put("mod.hist", false);
@@ -0,0 +1,191 @@
+package com.serverbot.utils;
+
+import net.dv8tion.jda.api.entities.Message;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Composable message filter for purges.
+ * Filters are ANDed together; the before/after message IDs bound the range of history that is walked
+ * (snowflakes are time-ordered, so they double as a time range).
+ */
+public class PurgeFilter implements Predicate<Message> {
+
+    // Longest a user-supplied pattern may spend on one message before the purge is aborted
+    private static final long PATTERN_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final List<Predicate<Message>> predicates;
+    private final List<String> descriptions;
+    private final long beforeId;
+    private final long afterId;
+
+    private PurgeFilter(Builder builder) {
+        this.predicates = List.copyOf(builder.predicates);
+        this.descriptions = List.copyOf(builder.descriptions);
+        this.beforeId = builder.beforeId;
+        this.afterId = builder.afterId;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public boolean test(Message message) {
+        if (beforeId != 0 && message.getIdLong() >= beforeId) {
+            return false;
+        }
+        for (Predicate<Message> predicate : predicates) {
+            if (!predicate.test(message)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * History is walked newest to oldest, so once a message is at or below the after ID nothing older can match
+     */
+    public boolean isPastRange(Message message) {
+        return afterId != 0 && message.getIdLong() <= afterId;
+    }
+
+    /**
+     * Message ID to start walking history from, or 0 for the newest message
+     */
+    public long getBeforeId() {
+        return beforeId;
+    }
+
+    /**
+     * Human readable summary of the active filters
+     */
+    public String describe() {
+        List<String> parts = new ArrayList<>(descriptions);
+        if (beforeId != 0) {
+            parts.add("before message `" + Long.toUnsignedString(beforeId) + "`");
+        }
+        if (afterId != 0) {
+            parts.add("after message `" + Long.toUnsignedString(afterId) + "`");
+        }
+        return parts.isEmpty() ? "All messages" : String.join(", ", parts);
+    }
+
+    public static class Builder {
+        private final List<Predicate<Message>> predicates = new ArrayList<>();
+        private final List<String> descriptions = new ArrayList<>();
+        private long beforeId;
+        private long afterId;
+
+        public Builder user(long userId) {
+            predicates.add(message -> message.getAuthor().getIdLong() == userId);
+            descriptions.add("from <@" + userId + ">");
+            return this;
+        }
+
+        public Builder users(Collection<Long> userIds) {
+            Set<Long> ids = new HashSet<>(userIds);
+            predicates.add(message -> ids.contains(message.getAuthor().getIdLong()));
+            descriptions.add("from " + ids.size() + " user(s)");
+            return this;
+        }
+
+        public Builder pattern(Pattern pattern) {
+            // Catastrophic backtracking would otherwise stall the thread running the purge
+            predicates.add(message -> pattern.matcher(
+                new DeadlineCharSequence(message.getContentRaw(), System.nanoTime() + PATTERN_TIMEOUT_NANOS)).find());
+            descriptions.add("matching `" + pattern.pattern() + "`");
+            return this;
+        }
+
+        public Builder hasAttachment() {
+            predicates.add(message -> !message.getAttachments().isEmpty());
+            descriptions.add("with attachments");
+            return this;
+        }
+
+        public Builder botsOnly() {
+            predicates.add(message -> message.getAuthor().isBot() || message.isWebhookMessage());
+            descriptions.add("from bots");
+            return this;
+        }
+
+        public Builder repliesOnly() {
+            predicates.add(message -> message.getMessageReference() != null);
+            descriptions.add("replies");
+            return this;
+        }
+
+        public Builder withReactions() {
+            predicates.add(message -> !message.getReactions().isEmpty());
+            descriptions.add("with reactions");
+            return this;
+        }
+
+        public Builder before(long messageId) {
+            this.beforeId = messageId;
+            return this;
+        }
+
+        public Builder after(long messageId) {
+            this.afterId = messageId;
+            return this;
+        }
+
+        public PurgeFilter build() {
+            return new PurgeFilter(this);
+        }
+    }
+
+    /**
+     * Thrown when a pattern runs past its time limit on a single message
+     */
+    public static class PatternTimeoutException extends RuntimeException {
+        private PatternTimeoutException() {
+            super("Pattern took too long to evaluate");
+        }
+    }
+
+    /**
+     * Text that throws once its deadline has passed, so the regex engine gives up on the next character it reads
+     */
+    private static final class DeadlineCharSequence implements CharSequence {
+        private final CharSequence text;
+        private final long deadline;
+
+        private DeadlineCharSequence(CharSequence text, long deadline) {
+            this.text = text;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (System.nanoTime() - deadline > 0) {
+                throw new PatternTimeoutException();
+            }
+            return text.charAt(index);
+        }
+
+        @Override
+        public int length() {
+            return text.length();
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new DeadlineCharSequence(text.subSequence(start, end), deadline);
+        }
+
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+}